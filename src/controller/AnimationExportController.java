@@ -225,7 +225,7 @@ public class AnimationExportController extends Stage
     {
         if(generationCount < numberOfFrames - 1)
         {
-            simulator.simulateNextGenerationOn(currentBoard);
+            simulator.simulateGenerations(currentBoard, 1);
             generationCount++;
 
             if(centerPatternCheckBox.isSelected())
@@ -316,7 +316,7 @@ public class AnimationExportController extends Stage
         {
             board = board.trimmedCopy(1);
             hashCodes.add(board.hashCode());
-            simulator.simulateNextGenerationOn(board);
+            simulator.simulateGenerations(board, 1);
         }
         return hashCodes;
     }
@@ -20,14 +20,13 @@ import model.patternIO.Pattern;
 import model.patternIO.PatternFormatException;
 import model.patternIO.RuleStringFormatter;
 import model.Point;
-import model.simulation.CustomRule;
 import model.simulation.DefaultRule;
+import model.simulation.SimulationRule;
 import view.BoardRenderer;
 import view.ColorProfile;
 
 import java.util.Optional;
-
-import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The main controller of the application.
@@ -40,6 +39,12 @@ import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
  * and editing is carried out through private {@link BoardRenderer} and {@link BoardEditor} objects.
  * An {@link UpdateTimer} is used for timed logic updates on the board data.
  *
+ * While the simulation is running, the board is drawn from immutable snapshots published by the timer thread.
+ * A new snapshot is only published when the previous one has been drawn, so a slow frame makes the timer skip
+ * frames instead of waiting for the JavaFx application thread or filling its queue.
+ * The snapshot only covers the area that was visible when the board was last drawn, plus a margin
+ * of a quarter of the view on each side, so copying it costs as much as the view and not the board.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  */
@@ -53,6 +58,8 @@ public class MainController
     private Point lastMousePos;
     private boolean controlPressed;
     private long drawTimer;
+    private final AtomicBoolean drawPending = new AtomicBoolean();
+    private volatile Point[] visibleCells;
 
     @FXML private AnchorPane anchorPane;
     @FXML private Canvas canvas;
@@ -64,6 +71,9 @@ public class MainController
     @FXML private MenuItem reloadPatternMenuItem;
     @FXML private CheckMenuItem autoZoomMenuItem;
     @FXML private CheckMenuItem fullscreenMenuItem;
+    @FXML private CheckMenuItem hashLifeMenuItem;
+    @FXML private Menu hashLifeStepMenu;
+    @FXML private Slider hashLifeStepSlider;
     @FXML private ColorPicker livingCellColor;
     @FXML private ColorPicker deadCellColor;
     @FXML private ToggleButton startStopButton;
@@ -87,6 +97,7 @@ public class MainController
         boardRenderer.setColorProfile(new ColorProfile(Color.gray(0.949), Color.gray(0.0902), Color.GRAY));
         boardRenderer.scaleViewToFitBoard(gameModel.getGameBoard());
         updateTimer.setDelayBetweenUpdates((int)(speedSlider.getMax() - speedSlider.getValue()));
+        hashLifeStepSlider.setMax(GameBoardHashLife.MAX_STEP_EXPONENT);
         deadCellColor.setValue((Color) boardRenderer.getColorProfile().getDeadColor());
         livingCellColor.setValue((Color) boardRenderer.getColorProfile().getAliveColor());
 
@@ -112,15 +123,17 @@ public class MainController
         });
 
         // Sets the action to be performed when the updateTimer fires.
-        // Limits the draw rate to 60 frames per second
+        // Limits the draw rate to 60 frames per second, and skips the frame if the last one is not drawn yet.
+        // A single step is always drawn.
         updateTimer.setOnUpdateAction(() ->
         {
             int FPS = 60;
             gameModel.simulateNextGeneration();
-            if(System.currentTimeMillis() > drawTimer + (1000 / FPS))
+            boolean drawDue = !updateTimer.isRunning() || System.currentTimeMillis() > drawTimer + (1000 / FPS);
+            if(drawDue && drawPending.compareAndSet(false, true))
             {
-                Platform.runLater(this::drawBoard);
-                Platform.runLater(this::setGenerationsPerSecondLabel);
+                publishSnapshot();
+                Platform.runLater(this::drawSnapshot);
                 drawTimer = System.currentTimeMillis();
             }
         });
@@ -152,6 +165,15 @@ public class MainController
         speedSlider.valueProperty().addListener((ov, old_val, new_val) ->
                 updateTimer.setDelayBetweenUpdates((int)speedSlider.getMax() - new_val.intValue()));
 
+        // Sets the amount of generations per HashLife step, as a power of two.
+        hashLifeStepSlider.valueProperty().addListener((ov, old_val, new_val) ->
+        {
+            int stepExponent = new_val.intValue();
+            gameModel.setHashLifeStepExponent(stepExponent);
+            long generations = 1L << stepExponent;
+            hashLifeStepMenu.setText("HashLife step: " + generations + (generations == 1 ? " generation" : " generations"));
+        });
+
         // Sets the Stage to fullscreen when the fullscreen MenuItem is selected.
         fullscreenMenuItem.setOnAction((ActionEvent event) ->
                 setFullscreen(fullscreenMenuItem.selectedProperty().getValue()));
@@ -187,13 +209,12 @@ public class MainController
             drawBoard();
         });
 
-        // Increases the board size if a cell has been set alive near the edge and the board is of type dynamic.
+        // Increases the board size if a cell has been set alive near the edge.
         canvas.setOnMouseReleased(event ->
         {
-            GameBoard board = gameModel.getGameBoard();
-            if(board instanceof GameBoardDynamic && !updateTimer.isRunning())
+            if(!updateTimer.isRunning())
             {
-                ((GameBoardDynamic)board).increaseBoardSizeIfNecessary();
+                gameModel.getGameBoard().increaseBoardSizeIfNecessary();
                 drawBoard();
             }
         });
@@ -226,6 +247,8 @@ public class MainController
                 reloadGameBoard();
             else if(code == KeyCode.F)
                 setFullscreen(!fullscreenMenuItem.isSelected());
+            else if(code == KeyCode.H)
+                setHashLifeEnabled(!hashLifeMenuItem.isSelected());
             else if(code == KeyCode.O && controlPressed)
                 loadNewGameBoard();
             else if(code == KeyCode.S && controlPressed)
@@ -256,6 +279,12 @@ public class MainController
     @FXML private void startStopSimulation()
     {
         updateTimer.setRunning(!updateTimer.isRunning());
+        if(!updateTimer.isRunning())
+        {
+            // The board may only be drawn and edited directly once the last update is done.
+            updateTimer.awaitIdle();
+            drawBoard();
+        }
         startStopMenuItem.setText(updateTimer.isRunning() ? "Stop" : "Start");
         startStopButton.setSelected(updateTimer.isRunning());
         nextMenuItem.setDisable(updateTimer.isRunning());
@@ -309,9 +338,50 @@ public class MainController
 
     /* -------------------- SCALE, VIEW AND RENDER -------------------- */
 
+    /**
+     * Draws the latest snapshot while the simulation is running, as the board itself is being changed
+     * by the timer thread. Otherwise the board is drawn directly, to show edits immediately, after waiting
+     * for a single step that may still be in progress.
+     */
     private void drawBoard()
     {
-        boardRenderer.render(gameModel.getGameBoard());
+        GameBoard board = gameModel.getSnapshot();
+        if(!updateTimer.isRunning() || board == null)
+        {
+            updateTimer.awaitIdle();
+            board = gameModel.getGameBoard();
+        }
+        boardRenderer.render(board);
+        visibleCells = boardRenderer.getVisibleCells(board);
+    }
+
+    /**
+     * Publishes a snapshot of the area last drawn, with a margin for camera moves and board growth
+     * until the next frame. The whole board is copied until it has been drawn once.
+     */
+    private void publishSnapshot()
+    {
+        Point[] area = visibleCells;
+        if(area == null)
+        {
+            gameModel.publishSnapshot();
+            return;
+        }
+
+        int marginX = (area[1].x - area[0].x) / 4 + 2;
+        int marginY = (area[1].y - area[0].y) / 4 + 2;
+        gameModel.publishSnapshot(
+                area[0].x - marginX,
+                area[0].y - marginY,
+                area[1].x - area[0].x + 2 * marginX,
+                area[1].y - area[0].y + 2 * marginY);
+    }
+
+    private void drawSnapshot()
+    {
+        drawPending.set(false);
+        drawBoard();
+        setGenerationsPerSecondLabel();
     }
 
     @FXML private void enableGridRendering(ActionEvent event)
@@ -342,6 +412,21 @@ public class MainController
         drawBoard();
     }
 
+    @FXML private void hashLifeState(ActionEvent event)
+    {
+        CheckMenuItem item = (CheckMenuItem) event.getSource();
+        setHashLifeEnabled(item.isSelected());
+    }
+
+    private void setHashLifeEnabled(boolean state)
+    {
+        stopSimulation();
+        hashLifeMenuItem.setSelected(state);
+        hashLifeStepMenu.setDisable(!state);
+        gameModel.setHashLifeEnabled(state);
+        drawBoard();
+    }
+
     private void setFullscreen(boolean state)
     {
         fullscreenMenuItem.selectedProperty().setValue(state);
@@ -417,6 +502,9 @@ public class MainController
         MouseButton button = event.getButton();
         if(button == MouseButton.PRIMARY || button == MouseButton.SECONDARY)
         {
+            if(!updateTimer.isRunning())
+                updateTimer.awaitIdle();
+
             double deltaX = event.getX() - lastMousePos.x;
             double deltaY = event.getY() - lastMousePos.y;
             lastMousePos.x = (int)event.getX();
@@ -501,8 +589,14 @@ public class MainController
 
     private void setNewRule(String rule)
     {
-        gameModel.getSimulator().setRule(
-                rule.equals(DEFAULT_RULE_STRING) ? new DefaultRule() : new CustomRule(rule));
+        try
+        {
+            gameModel.getSimulator().setRule(SimulationRule.fromRuleString(rule));
+        }
+        catch (PatternFormatException | IllegalArgumentException e)
+        {
+            gameModel.getSimulator().setRule(new DefaultRule());
+        }
     }
 
 
@@ -554,6 +648,7 @@ public class MainController
                         "Reload: R\n" +
                         "Clear board: C\n" +
                         "Full screen: F\n" +
+                        "HashLife engine: H\n" +
                         "Save: CTRL+S\n" +
                         "Open pattern: CTRL+O\n" +
                         "Zoom: CTRL+SCROLL\n");
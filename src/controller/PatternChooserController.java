@@ -3,6 +3,7 @@ package controller;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Bounds;
 import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -31,6 +32,11 @@ import java.util.concurrent.Executors;
  * {@link Pattern Patterns} successfully loaded through either the FileChooser or the URL field
  * will be added as a selectable tile in the window. Tiles will be stored
  * between new instances of this dialog to enable quick and easy access.
+ * Directories and zip archives are listed through a {@link PatternCatalogue}, which only reads the headers of
+ * the patterns. Their tiles are shown at once with the metadata from the headers, and the preview of a tile is
+ * drawn in the background when the tile is scrolled into view. A pattern is loaded in the background when its
+ * tile is clicked. All file and network access is done by a few loader threads of this dialog, separate from
+ * the threads simulating the board.
  *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
@@ -38,6 +44,8 @@ import java.util.concurrent.Executors;
 
 public class PatternChooserController extends Stage
 {
+    private static final int LOADER_THREADS = 2;
+    private static ExecutorService loaderExecutor;
     private static List<Tile> loadedTiles;
     private static Queue<String> fileLoadingQueue;
     private static File lastDirectoryOpened;
@@ -49,6 +57,7 @@ public class PatternChooserController extends Stage
     private static int width;
 
     private ExecutorService executorService;
+    private Tile selectedTile;
     private DropShadow dropShadowEffect;
     private DropShadow selectedEffect;
     private Image hourGlassImage;
@@ -61,11 +70,11 @@ public class PatternChooserController extends Stage
 
     /**
      * Loads the FXML document and sets up the new scene and stage.
-     * Instantiates an ExecutorService for threaded pattern loading.
+     * The patterns are loaded by the loader threads, which are shared by every instance of the dialog.
      */
     public PatternChooserController()
     {
-        this.executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.executorService = getLoaderExecutor();
         isOpened = true;
 
         try
@@ -93,6 +102,24 @@ public class PatternChooserController extends Stage
         }
     }
 
+    /**
+     * Creates the executor loading patterns the first time it is used. Its threads are daemon threads,
+     * which are left running for the rest of the application.
+     */
+    private static synchronized ExecutorService getLoaderExecutor()
+    {
+        if(loaderExecutor == null)
+        {
+            loaderExecutor = Executors.newFixedThreadPool(LOADER_THREADS, runnable ->
+            {
+                Thread thread = new Thread(runnable, "Pattern loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return loaderExecutor;
+    }
+
     /**
      * Creates the tile effects, adds event listener and loads the queued patterns.
      */
@@ -134,8 +161,15 @@ public class PatternChooserController extends Stage
         // Get and store whether the window is maximized or not.
         super.maximizedProperty().addListener((observable, oldValue, newValue) -> maximized = newValue);
 
-        // Get the position of the vertical scroll bar.
-        scrollPane.vvalueProperty().addListener((a, b, newVal) -> scrollBarPos = newVal.doubleValue());
+        // Get the position of the vertical scroll bar, and draw the previews scrolled into view.
+        scrollPane.vvalueProperty().addListener((a, b, newVal) ->
+        {
+            scrollBarPos = newVal.doubleValue();
+            loadVisiblePreviews();
+        });
+
+        // Draw the previews shown when the window is resized.
+        scrollPane.viewportBoundsProperty().addListener((a, b, newVal) -> loadVisiblePreviews());
 
         // Sets the position of the scrollbar.
         Platform.runLater(() ->
@@ -154,14 +188,13 @@ public class PatternChooserController extends Stage
     }
 
     /**
-     * This method frees the loaded patterns from memory, shuts down the ExecutorService
-     * and closes the window.
+     * This method frees the loaded patterns from memory and closes the window.
+     * The loader threads are left running for the rest of the application.
      */
     private void closeWindow()
     {
         loadedTiles.forEach(Tile::releasePattern);
         isOpened = false;
-        executorService.shutdown();
         System.gc();
         super.close();
     }
@@ -188,6 +221,7 @@ public class PatternChooserController extends Stage
 
         // Adds the tiles to the tilpane
         tilePane.getChildren().addAll(loadedTiles);
+        Platform.runLater(this::loadVisiblePreviews);
 
         // Adds metadata from the selected pattern to the text area.
         if(selectedPattern != null)
@@ -196,6 +230,7 @@ public class PatternChooserController extends Stage
 
     /**
      * This method holds a list of default patterns and adds them to the form.
+     * Only the headers are read, and the previews are drawn like the previews of a catalogue.
      */
     private void addDefaultPatterns()
     {
@@ -209,8 +244,22 @@ public class PatternChooserController extends Stage
             "vgun.rle"
         };
 
-        for(String s : defaultPatterns)
-            loadAndAddPatternToForm("STREAM:/patterns/" + s);
+        executorService.execute(() ->
+        {
+            List<PatternCatalogue.Entry> entries = new ArrayList<>();
+            for(String s : defaultPatterns)
+            {
+                try
+                {
+                    entries.add(PatternCatalogue.readResourceEntry("/patterns/" + s));
+                }
+                catch (IOException | PatternFormatException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+            Platform.runLater(() -> addEntryTiles(entries));
+        });
     }
 
     /**
@@ -254,6 +303,79 @@ public class PatternChooserController extends Stage
         });
     }
 
+    /**
+     * Lists the patterns of a directory or a zip archive and adds a tile for every pattern not already loaded.
+     * The patterns are listed from the headers only, and their previews are created in the background.
+     * @param source A directory or a zip archive.
+     */
+    private void addCatalogueToForm(File source)
+    {
+        Tile hourGlass = new Tile(hourGlassImage);
+        hourGlass.setEffect(dropShadowEffect);
+        tilePane.getChildren().add(0, hourGlass);
+
+        executorService.execute(() ->
+        {
+            try
+            {
+                List<PatternCatalogue.Entry> entries = new PatternCatalogue(source).scan();
+                Platform.runLater(() -> addEntryTiles(entries));
+            }
+            catch (IOException e)
+            {
+                showAlertDialog(Alert.AlertType.ERROR,
+                        "Error message",
+                        "Error",
+                        "Failed to list the patterns in " + source);
+            }
+
+            Platform.runLater(() -> tilePane.getChildren().remove(hourGlass));
+        });
+    }
+
+    /**
+     * Adds a tile for every entry not already loaded. This is called on the JavaFX thread.
+     * @param entries The catalogue entries.
+     */
+    private void addEntryTiles(List<PatternCatalogue.Entry> entries)
+    {
+        for(PatternCatalogue.Entry entry : entries)
+        {
+            if(loadedTiles.stream().anyMatch(t -> entry.getOrigin().equals(t.getOrigin())))
+                continue;
+
+            Tile tile = new Tile(entry);
+            addTileEventListener(tile);
+            tilePane.getChildren().add(tile);
+            loadedTiles.add(tile);
+        }
+
+        // The new tiles are laid out before their visibility is checked.
+        Platform.runLater(this::loadVisiblePreviews);
+    }
+
+    /**
+     * Starts drawing the preview of every tile within the visible part of the scroll pane.
+     * Every preview is only drawn once, and kept by the tile until the application is closed.
+     */
+    private void loadVisiblePreviews()
+    {
+        Bounds viewport = scrollPane.localToScene(scrollPane.getBoundsInLocal());
+        for(Tile tile : loadedTiles)
+        {
+            if(tile.needsPreview() && viewport.intersects(tile.localToScene(tile.getBoundsInLocal())))
+            {
+                tile.previewRequested = true;
+                executorService.execute(tile::loadPreview);
+            }
+        }
+    }
+
+    private static boolean isCatalogue(File file)
+    {
+        return file.isDirectory() || file.getName().toLowerCase().endsWith(".zip");
+    }
+
     private void addSelectedEffect(Tile tile)
     {
         loadedTiles.forEach(t -> t.setEffect(dropShadowEffect));
@@ -334,40 +456,79 @@ public class PatternChooserController extends Stage
      * This method adds the onMouseClicked event to a Tile.
      * When a Tile is clicked the event will check if the Tile has a loaded pattern
      * and set this as the selected one. If the Tile was loaded in a previous PatternChooseForm instance,
-     * its pattern will no longer exist in memory and has to be reloaded. The "dropshadow" effect is applied
-     * to all Tiles and the clicked Tile gets the "selectedEffect" effect. The textArea is also updated with the
-     * patterns metadata.
+     * or is a catalogue entry, its pattern is not in memory and is loaded in the background. The "dropshadow"
+     * effect is applied to all Tiles and the clicked Tile gets the "selectedEffect" effect. The textArea is
+     * updated at once with the metadata stored in the tile.
      * @param tile A Tile object.
      */
     private void addTileEventListener(Tile tile)
     {
         tile.setOnMouseClicked(event ->
         {
-            Tile loadedTile = (Tile) event.getSource();
-
-            if(loadedTile.pattern == null)
-                loadedTile.pattern = loadPattern(tile.getOrigin());
-
-            selectedPattern = loadedTile.pattern;
-            textArea.setText(loadedTile.pattern.getAllMetadata());
-
-            addSelectedEffect(loadedTile);
+            Tile clickedTile = (Tile) event.getSource();
+            selectedTile = clickedTile;
+            textArea.setText(clickedTile.getMetadata());
+            addSelectedEffect(clickedTile);
+
+            // Double clicking a pattern opens it, when it is loaded.
+            boolean open = event.getClickCount() == 2;
+            if(clickedTile.pattern != null)
+            {
+                selectedPattern = clickedTile.pattern;
+                if(open)
+                    closeWindow();
+                return;
+            }
 
-            // Double clicking a pattern opens it
-            if(event.getClickCount() == 2)
-                closeWindow();
+            selectedPattern = null;
+            clickedTile.openWhenLoaded |= open;
+            if(!clickedTile.loading)
+            {
+                clickedTile.loading = true;
+                executorService.execute(() ->
+                {
+                    Pattern pattern = loadPattern(clickedTile.getOrigin());
+                    Platform.runLater(() -> patternLoaded(clickedTile, pattern));
+                });
+            }
         });
     }
 
+    /**
+     * Stores a pattern loaded in the background in its tile, and selects it if the tile is still selected.
+     * This is called on the JavaFX thread.
+     * @param tile The tile that was clicked.
+     * @param pattern The loaded pattern, or null if it failed to load.
+     */
+    private void patternLoaded(Tile tile, Pattern pattern)
+    {
+        boolean open = tile.openWhenLoaded;
+        tile.loading = false;
+        tile.openWhenLoaded = false;
+        if(pattern == null || !isOpened)
+            return;
+
+        tile.pattern = pattern;
+        if(tile != selectedTile)
+            return;
+
+        selectedPattern = pattern;
+        textArea.setText(pattern.getAllMetadata());
+        if(open)
+            closeWindow();
+    }
+
     /**
      * This method is called when the "Select pattern" button i pressed.
-     * The window is only closed if a pattern is selectedEffect.
+     * The window is only closed if a pattern is selectedEffect, or when the selected pattern is done loading.
      */
     @FXML
     private void selectPattern()
     {
         if(selectedPattern != null)
             closeWindow();
+        else if(selectedTile != null && selectedTile.loading)
+            selectedTile.openWhenLoaded = true;
     }
 
     /**
@@ -395,6 +556,7 @@ public class PatternChooserController extends Stage
         FileChooser fileChooser = new FileChooser();
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("GOL Patterns",
                 FileFormat.getFileFormats()));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("GOL Pattern archives", "*.zip"));
 
         if(lastDirectoryOpened != null)
             fileChooser.setInitialDirectory(lastDirectoryOpened);
@@ -406,7 +568,12 @@ public class PatternChooserController extends Stage
             lastDirectoryOpened = files.get(0).getParentFile();
 
             for(File file : files)
-                loadAndAddPatternToForm("FILE:" + file);
+            {
+                if(isCatalogue(file))
+                    addCatalogueToForm(file);
+                else
+                    loadAndAddPatternToForm("FILE:" + file);
+            }
         }
     }
 
@@ -425,11 +592,18 @@ public class PatternChooserController extends Stage
     /**
      * The method is called when the user drops one or more files into the application window.
      * It reads in the files and adds them as patterns to the tilePane.
+     * Directories and zip archives are added as catalogues.
      * @param event The DragEvent
      */
     @FXML private void fileIsDroppedOnApplication(DragEvent event)
     {
-        event.getDragboard().getFiles().forEach(file -> loadAndAddPatternToForm("FILE:" + file));
+        for(File file : event.getDragboard().getFiles())
+        {
+            if(isCatalogue(file))
+                addCatalogueToForm(file);
+            else
+                loadAndAddPatternToForm("FILE:" + file);
+        }
     }
 
     /**
@@ -462,7 +636,7 @@ public class PatternChooserController extends Stage
 
     /**
      * This private Tile class adds some functionality to JavaFX ImageView.
-     * It stores the associated pattern and a path to where this pattern where loaded from.
+     * It stores the associated pattern, its metadata and a path to where this pattern where loaded from.
      * This is done so that big pattern objects can be freed from memory when the PatternChooserController
      * is closed. When the form gets reopened this path is used to reload the Pattern back in.
      */
@@ -471,7 +645,12 @@ public class PatternChooserController extends Stage
         public static final int TILE_SIZE = 128;
 
         private String origin;
+        private String metadata = "";
         private Pattern pattern;
+        private PatternCatalogue.Entry entry;
+        private boolean previewRequested;
+        private boolean loading;
+        private boolean openWhenLoaded;
 
         public Tile(Image img)
         {
@@ -482,31 +661,63 @@ public class PatternChooserController extends Stage
         {
             this.pattern = pattern;
             this.origin = pattern.getOrigin();
-            super.setImage(createTileImage());
+            this.metadata = pattern.getAllMetadata();
+            super.setImage(createTileImage(pattern));
             super.setEffect(dropShadowEffect);
             super.setCursor(Cursor.HAND);
         }
 
+        /**
+         * Creates a tile for a pattern in a catalogue. The tile shows the hourglass until loadPreview() is called,
+         * and the pattern is loaded when the tile is clicked.
+         * @param entry The catalogue entry.
+         */
+        public Tile(PatternCatalogue.Entry entry)
+        {
+            super(hourGlassImage);
+            this.entry = entry;
+            this.origin = entry.getOrigin();
+            this.metadata = entry.getAllMetadata();
+            super.setEffect(dropShadowEffect);
+            super.setCursor(Cursor.HAND);
+        }
+
+        /**
+         * Loads the pattern, creates the preview image and releases the pattern again.
+         * This is called outside of the JavaFX thread.
+         */
+        public void loadPreview()
+        {
+            try
+            {
+                Image image = createTileImage(new PatternLoader().loadFromPrefixedPath(origin));
+                Platform.runLater(() -> setImage(image));
+            }
+            catch (IOException | PatternFormatException | OutOfMemoryError e)
+            {
+                // The hourglass is kept, and any error is shown if the pattern is clicked.
+            }
+        }
+
         /**
          * This method samples the patterns cell data and creates a scaled image to be used as preview.
+         * @param pattern The pattern to draw.
          * @return An image.
          */
-        private Image createTileImage()
+        private Image createTileImage(Pattern pattern)
         {
-            boolean[][] cellData = pattern.getCellData();
-
-            double scale = Math.min((double)TILE_SIZE / cellData[0].length, (double)TILE_SIZE / cellData.length);
-            int width = (int) Math.ceil(cellData[0].length * scale);
-            int height = (int) Math.ceil(cellData.length * scale);
+            double scale = Math.min((double)TILE_SIZE / pattern.getWidth(), (double)TILE_SIZE / pattern.getHeight());
+            int width = (int) Math.ceil(pattern.getWidth() * scale);
+            int height = (int) Math.ceil(pattern.getHeight() * scale);
 
             WritableImage writableImage = new WritableImage(width, height);
             PixelWriter pw = writableImage.getPixelWriter();
 
-            for(int y = 0; y < cellData.length; y++)
+            for(int y = 0; y < pattern.getHeight(); y++)
             {
-                for (int x = 0; x < cellData[0].length; x++)
+                for (int x = 0; x < pattern.getWidth(); x++)
                 {
-                    Color color = cellData[y][x] ? Color.BLACK : Color.rgb(244, 244, 244);
+                    Color color = pattern.isCellAlive(x, y) ? Color.BLACK : Color.rgb(244, 244, 244);
 
                     for (int dy = 0; dy < scale; dy++)
                         for (int dx = 0; dx < scale; dx++)
@@ -522,6 +733,16 @@ public class PatternChooserController extends Stage
             return origin;
         }
 
+        public String getMetadata()
+        {
+            return metadata;
+        }
+
+        public boolean needsPreview()
+        {
+            return entry != null && !previewRequested;
+        }
+
         public Pattern getPattern()
         {
             return pattern;
@@ -23,9 +23,9 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.BoardEditor;
 import model.patternIO.Pattern;
+import model.patternIO.BinaryPatternExporter;
 import model.patternIO.PatternExporter;
 import model.patternIO.PatternFormatException;
-import model.patternIO.RuleStringFormatter;
 import model.GameBoard;
 import model.Point;
 import model.simulation.*;
@@ -245,11 +245,11 @@ public class PatternEditorController extends Stage
     {
         try
         {
-            String rule = RuleStringFormatter.format(ruleTextField.getText());
-            ruleTextField.setText(rule);
-            simulator.setRule(new CustomRule(rule));
+            SimulationRule rule = SimulationRule.fromRuleString(ruleTextField.getText());
+            ruleTextField.setText(rule.getStringRule());
+            simulator.setRule(rule);
         }
-        catch (PatternFormatException e)
+        catch (PatternFormatException | IllegalArgumentException e)
         {
             ruleTextField.setText(DEFAULT_RULE_STRING);
             simulator.setRule(new DefaultRule());
@@ -317,7 +317,7 @@ public class PatternEditorController extends Stage
             tilePane.getChildren().add(new GenerationTile(trimmedBoard));
             generationHashCodes.add(trimmedBoard.hashCode());
 
-            simulator.simulateNextGenerationOn(currentBoard);
+            simulator.simulateGenerations(currentBoard, 1);
 
             // Stop adding tiles if the generation has died out.
             if(currentBoard.getPopulation() == 0)
@@ -440,6 +440,8 @@ public class PatternEditorController extends Stage
 
             fileChooser.getExtensionFilters().add(
                     new FileChooser.ExtensionFilter("GOL Pattern", "*.rle"));
+            fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("GOL Binary pattern", "*.golb"));
 
             // Adds the gif export option if the editor is opened.
             if(openStage)
@@ -454,11 +456,16 @@ public class PatternEditorController extends Stage
                 if(file.getName().endsWith(".rle"))
                 {
                     PatternExporter exporter = new PatternExporter();
-                    exporter.export(pattern, file);
+                    exporter.export(selectedGameBoard, pattern, file);
 
                     // Add the file to the PatternChooserController
                     PatternChooserController.addFileToLoadingQueue(file);
                 }
+                else if(file.getName().endsWith(".golb"))
+                {
+                    new BinaryPatternExporter().export(selectedGameBoard, pattern, file);
+                    PatternChooserController.addFileToLoadingQueue(file);
+                }
                 else if(file.getName().endsWith(".gif"))
                     openGIFExporterDialog(file);
             }
@@ -482,7 +489,8 @@ public class PatternEditorController extends Stage
     }
 
     /**
-     * The method creates a Pattern object from the select GenerationTile and the text fields.
+     * The method creates a Pattern object holding the metadata from the text fields.
+     * The cells are not copied, as the exporters write them straight from the selected board.
      * @return A Pattern object.
      * @throws PatternFormatException When there is no living cells on the board.
      */
@@ -491,25 +499,12 @@ public class PatternEditorController extends Stage
         if(selectedGameBoard.getPopulation() == 0)
             throw new PatternFormatException(PatternFormatException.ErrorCode.NO_LIVING_CELLS);
 
-        // Creates a new pattern and adds the data to it.
+        // Creates a new pattern and adds the metadata to it.
         Pattern pattern = new Pattern();
-        addCellData(pattern);
         addMetaData(pattern);
         return pattern;
     }
 
-    private void addCellData(Pattern pattern)
-    {
-        // Creates a new data array and copies the data over.
-        boolean[][] cellData = new boolean[selectedGameBoard.getHeight()][selectedGameBoard.getWidth()];
-        Point cellPos = new Point();
-        for (cellPos.y = 0; cellPos.y < selectedGameBoard.getHeight(); cellPos.y++)
-            for (cellPos.x = 0; cellPos.x < selectedGameBoard.getWidth(); cellPos.x++)
-                cellData[cellPos.y][cellPos.x] = selectedGameBoard.isCellAliveInThisGeneration(cellPos);
-
-        pattern.setCellData(cellData);
-    }
-
     private void addMetaData(Pattern pattern)
     {
         // Skips adding metadata if the pattern is to large for the editor and is being saved directly.
@@ -586,16 +581,15 @@ public class PatternEditorController extends Stage
             WritableImage writableImage = new WritableImage(width, height);
             PixelWriter pw = writableImage.getPixelWriter();
 
-            Point pos = new Point();
-            for(pos.y = 0; pos.y < board.getHeight(); pos.y++)
+            for(int y = 0; y < board.getHeight(); y++)
             {
-                for (pos.x = 0; pos.x < board.getWidth(); pos.x++)
+                for (int x = 0; x < board.getWidth(); x++)
                 {
-                    Color color = board.isCellAliveInThisGeneration(pos) ? Color.BLACK : Color.rgb(244, 244, 244);
+                    Color color = board.isCellAliveInThisGeneration(x, y) ? Color.BLACK : Color.rgb(244, 244, 244);
 
                     for (int dy = 0; dy < scale; dy++)
                         for (int dx = 0; dx < scale; dx++)
-                            pw.setColor((int)(pos.x * scale + dx),(int)(pos.y * scale + dy), color);
+                            pw.setColor((int)(x * scale + dx),(int)(y * scale + dy), color);
                 }
             }
 
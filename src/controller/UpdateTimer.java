@@ -1,68 +1,150 @@
 package controller;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * This class is used for creating timed updates.
  * A separate thread runs independently from the JavaFX thread and calls
  * the Runnable interface at given intervals. The class enables faster updates
  * than JavaFxs AnimationTimer, which is limited to 60 frames per second.
  *
+ * <p>Between updates the thread is parked with {@link LockSupport#parkNanos(Object, long)} until the next update
+ * is due, so a waiting timer uses no CPU. While stopped, the thread is parked until it is started or a single
+ * update is triggered. The delay is given in nanoseconds, and a delay of zero runs the updates as fast as
+ * possible, without parking.
+ *
+ * <p>The updates follow a fixed timeline, so the time spent by the action itself does not slow down the rate.
+ * If the updates fall more than one delay behind, e.g. after a slow update, the missed updates are skipped
+ * instead of being run back to back, and the timeline continues from the current time.
+ *
+ * <p>Stopping the timer does not interrupt an update that has already begun. {@link #awaitIdle()} waits for it,
+ * and for a triggered update that has not begun yet, so the caller may use what the action changes, e.g. the board,
+ * once it returns.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  */
 public class UpdateTimer
 {
-    private Object runLock;
-    private Runnable action;
-    private int delayInMilliseconds = 500;
-    private long lastTime;
-    private boolean running;
+    private final Thread updateThread;
+    private final AtomicBoolean updateTriggered = new AtomicBoolean();
+    private volatile Runnable action = () -> {};
+    private volatile long delayInNanoseconds = 500_000_000L;
+    private volatile boolean running;
+    private boolean updating;
 
     public UpdateTimer()
     {
-        this.runLock = new Object();
-        createUpdateThread();
+        updateThread = createUpdateThread();
+        updateThread.start();
     }
 
     /**
-     * Creates and starts a new thread.
+     * Creates a new thread.
      * This thread will call the actions run() method at given intervals while
-     * the "running" flag is true. While being false, it makes the thread wait
-     * for the runLock object to be notified by either setRunning() or triggerUpdate().
+     * the "running" flag is true. While being false, it parks the thread until
+     * it is unparked by either setRunning() or triggerUpdate().
      */
-    private void createUpdateThread()
+    private Thread createUpdateThread()
     {
-        new Thread(() ->
+        return new Thread(() ->
         {
+            long lastTime = 0;
+            boolean wasRunning = false;
+
             while(true)
             {
                 if(!running)
-                    waitToStart();
+                {
+                    wasRunning = false;
+                    if(beginUpdate(true))
+                        runUpdate();
+                    else
+                        LockSupport.park(this);
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                long delay = delayInNanoseconds;
+                if(!wasRunning)
+                {
+                    lastTime = now - delay;
+                    wasRunning = true;
+                }
 
-                if(System.currentTimeMillis() >= lastTime + delayInMilliseconds)
+                // Wakes up early if the delay is changed or the timer is stopped.
+                long wait = lastTime + delay - now;
+                if(wait > 0)
                 {
-                    action.run();
-                    lastTime = System.currentTimeMillis();
+                    LockSupport.parkNanos(this, wait);
+                    continue;
                 }
+
+                beginUpdate(false);
+                runUpdate();
+
+                // Skips the missed updates if the timer has fallen more than one update behind.
+                lastTime = (-wait < delay) ? lastTime + delay : now;
             }
-        }).start();
+        }, "Update timer");
     }
 
     /**
-     * This method will block until the runLock object gets notified.
+     * Marks an update as begun, clearing the trigger in the same step so awaitIdle() never misses it.
+     * @param triggeredOnly True to begin only if an update has been triggered.
+     * @return True if the update was begun.
      */
-    private void waitToStart()
+    private synchronized boolean beginUpdate(boolean triggeredOnly)
     {
-        synchronized(runLock)
+        if(triggeredOnly && !updateTriggered.get())
+            return false;
+
+        updateTriggered.set(false);
+        updating = true;
+        return true;
+    }
+
+    private void runUpdate()
+    {
+        try
+        {
+            action.run();
+        }
+        finally
+        {
+            synchronized(this)
+            {
+                updating = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until the update in progress is done. If the timer is stopped, a triggered update that has not begun
+     * yet is waited for too. Returns immediately when called from the update thread itself, e.g. by the action.
+     * An interrupt does not end the wait, but is kept set on the calling thread.
+     */
+    public synchronized void awaitIdle()
+    {
+        if(Thread.currentThread() == updateThread)
+            return;
+
+        boolean interrupted = false;
+        while(updating || (!running && updateTriggered.get()))
         {
             try
             {
-                runLock.wait();
+                wait();
             }
-            catch (InterruptedException e)
+            catch(InterruptedException e)
             {
-                e.printStackTrace();
+                interrupted = true;
             }
         }
+        if(interrupted)
+            Thread.currentThread().interrupt();
     }
 
     /**
@@ -87,7 +169,30 @@ public class UpdateTimer
      */
     public void setDelayBetweenUpdates(int delayInMS)
     {
-        delayInMilliseconds = delayInMS;
+        setDelayBetweenUpdatesInNanoseconds(Math.max(0, delayInMS) * 1_000_000L);
+    }
+
+    /**
+     * Sets the delay between updates. A delay of zero runs the updates as fast as possible.
+     * @param delayInNanoseconds Delay in nanoseconds.
+     */
+    public void setDelayBetweenUpdatesInNanoseconds(long delayInNanoseconds)
+    {
+        this.delayInNanoseconds = Math.max(0, delayInNanoseconds);
+        LockSupport.unpark(updateThread);
+    }
+
+    /**
+     * Sets the delay between updates from a target rate.
+     * @param updatesPerSecond The amount of updates per second, or {@link Double#POSITIVE_INFINITY}
+     *                         to run the updates as fast as possible.
+     */
+    public void setUpdatesPerSecond(double updatesPerSecond)
+    {
+        if(!(updatesPerSecond > 0))
+            throw new IllegalArgumentException("Updates per second must be more than 0, was: " + updatesPerSecond);
+
+        setDelayBetweenUpdatesInNanoseconds(Math.round(1e9 / updatesPerSecond));
     }
 
     /**
@@ -97,13 +202,7 @@ public class UpdateTimer
     public void setRunning(boolean state)
     {
         running = state;
-        if(running)
-        {
-            synchronized(runLock)
-            {
-                runLock.notify();
-            }
-        }
+        LockSupport.unpark(updateThread);
     }
 
     /**
@@ -111,9 +210,7 @@ public class UpdateTimer
      */
     public void triggerUpdate()
     {
-        synchronized(runLock)
-        {
-            runLock.notify();
-        }
+        updateTriggered.set(true);
+        LockSupport.unpark(updateThread);
     }
 }
\ No newline at end of file
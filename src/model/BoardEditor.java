@@ -30,15 +30,16 @@ public class BoardEditor
     public void edit(GameBoard board, Point mousePosition, boolean drawLivingCells)
     {
         Point cameraPos = camera.getCenterOffsetRenderingPosition(board);
-        Point positionOnBoard = Point.sub(mousePosition, cameraPos).div(camera.getZoom());
+        int x = (int)((mousePosition.x - cameraPos.x) / camera.getZoom());
+        int y = (int)((mousePosition.y - cameraPos.y) / camera.getZoom());
 
-        if(positionOnBoard.x >= 0 &&
-                positionOnBoard.x < board.getWidth() &&
-                positionOnBoard.y >= 0 &&
-                positionOnBoard.y < board.getHeight() &&
-                board.isCellAliveInThisGeneration(positionOnBoard) != drawLivingCells)
+        if(x >= 0 &&
+                x < board.getWidth() &&
+                y >= 0 &&
+                y < board.getHeight() &&
+                board.isCellAliveInThisGeneration(x, y) != drawLivingCells)
         {
-            board.editThisGeneration(drawLivingCells, positionOnBoard);
+            board.editThisGeneration(drawLivingCells, x, y);
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.Arrays;
+
 /**
  * This abstract class holds the GOL generation data.
  * It enables different board implementations by hiding the underlying
@@ -18,6 +20,7 @@ public abstract class GameBoard
     public static final int DEFAULT_BOARD_HEIGHT = 50;
     protected int width;
     protected int height;
+    protected int modificationCount;
 
     /**
      * @param width The width of the board
@@ -50,31 +53,34 @@ public abstract class GameBoard
     }
 
     /**
-     * Gets the amount of living neighbours at a given point in the current generation.
+     * Gets the amount of living neighbours at a given position in the current generation.
      * NOTE: Bounding checks are not performed before data access and an IndexOutOfBoundsException
      * will be thrown if the coordinates are out of bounds.
-     * @param point The position from where to retrieve the neighbour count.
+     * @param x The x coordinate from where to retrieve the neighbour count.
+     * @param y The y coordinate from where to retrieve the neighbour count.
      * @return The amount of surrounding neighbours that are alive (0-8).
      */
-    public abstract int getAmountOfLivingNeighbours(Point point);
+    public abstract int getAmountOfLivingNeighbours(int x, int y);
 
     /**
-     * Gets the state of cell at a given point in the current generation.
+     * Gets the state of cell at a given position in the current generation.
      * NOTE: Bounding checks are not performed before data access and an IndexOutOfBoundsException
      * will be thrown if the coordinates are out of bounds.
-     * @param point The position to check.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
      * @return A boolean indicating whether the cell is living (true) or dead (false).
      */
-    public abstract boolean isCellAliveInThisGeneration(Point point);
+    public abstract boolean isCellAliveInThisGeneration(int x, int y);
 
     /**
      * Sets the state of a cell in the next generation.
      * NOTE: Bounding checks are not performed before data access and an IndexOutOfBoundsException
      * will be thrown if the coordinates are out of bounds.
      * @param state The state indicating whether the cell should be living (true) or dead (false).
-     * @param point The position of the cell to be set.
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
      */
-    public abstract void setStateInNextGeneration(boolean state, Point point);
+    public abstract void setStateInNextGeneration(boolean state, int x, int y);
 
     /**
      * Edits the state of a cell in the current generation.
@@ -82,13 +88,151 @@ public abstract class GameBoard
      * NOTE: Bounding checks are not performed before data access and an IndexOutOfBoundsException
      * will be thrown if the coordinates are out of bounds.
      * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    public abstract void editThisGeneration(boolean state, int x, int y);
+
+    /**
+     * Gets the encoded state of a cell in the current generation: 10 if the cell is alive,
+     * plus the amount of living neighbours. Boards storing their cells in this form override
+     * this method to return the stored value directly.
+     * NOTE: Bounding checks are not performed before data access and an IndexOutOfBoundsException
+     * will be thrown if the coordinates are out of bounds.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The encoded state (0-18).
+     * @see model.simulation.TransitionTable
+     */
+    public int getEncodedState(int x, int y)
+    {
+        return (isCellAliveInThisGeneration(x, y) ? 10 : 0) + getAmountOfLivingNeighbours(x, y);
+    }
+
+    /**
+     * Gets the amount of living neighbours at a given point in the current generation.
+     * @param point The position from where to retrieve the neighbour count.
+     * @return The amount of surrounding neighbours that are alive (0-8).
+     * @see #getAmountOfLivingNeighbours(int, int)
+     */
+    public int getAmountOfLivingNeighbours(Point point)
+    {
+        return getAmountOfLivingNeighbours(point.x, point.y);
+    }
+
+    /**
+     * Gets the state of cell at a given point in the current generation.
+     * @param point The position to check.
+     * @return A boolean indicating whether the cell is living (true) or dead (false).
+     * @see #isCellAliveInThisGeneration(int, int)
+     */
+    public boolean isCellAliveInThisGeneration(Point point)
+    {
+        return isCellAliveInThisGeneration(point.x, point.y);
+    }
+
+    /**
+     * Sets the state of a cell in the next generation.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param point The position of the cell to be set.
+     * @see #setStateInNextGeneration(boolean, int, int)
+     */
+    public void setStateInNextGeneration(boolean state, Point point)
+    {
+        setStateInNextGeneration(state, point.x, point.y);
+    }
+
+    /**
+     * Edits the state of a cell in the current generation.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
      * @param point The position of the cell to be set.
+     * @see #editThisGeneration(boolean, int, int)
+     */
+    public void editThisGeneration(boolean state, Point point)
+    {
+        editThisGeneration(state, point.x, point.y);
+    }
+
+    /**
+     * Copies a row of the current generation into an array of words.
+     * Bit n of word i holds the state of the cell in column i * 64 + n. Bits beyond the width are zero.
+     * Boards storing their cells as bits override this method to copy whole words.
+     * @param y The row to copy.
+     * @param row The array to copy into. A new array is allocated if it is null or too short.
+     * @return The array holding the row.
+     */
+    public long[] getRowOfThisGeneration(int y, long[] row)
+    {
+        int words = (width + 63) >>> 6;
+        if(row == null || row.length < words)
+            row = new long[words];
+        else
+            Arrays.fill(row, 0, words, 0);
+
+        for(int x = 0; x < width; x++)
+            if(isCellAliveInThisGeneration(x, y))
+                row[x >>> 6] |= 1L << x;
+
+        return row;
+    }
+
+    /**
+     * Sets a row of the next generation from an array of words laid out as in
+     * {@link #getRowOfThisGeneration(int, long[])}. Bits beyond the width are ignored.
+     * @param y The row to set.
+     * @param row The states of the cells in the row.
+     */
+    public void setRowInNextGeneration(int y, long[] row)
+    {
+        for(int x = 0; x < width; x++)
+            setStateInNextGeneration(((row[x >>> 6] >>> x) & 1) == 1, x, y);
+    }
+
+    /**
+     * Increases the board size if living cells have appeared close to the edge.
+     * Boards that grow do this in makeNextGenerationCurrent(), but cells edited in the current generation
+     * are only found when this method is called. Boards of a fixed size do nothing.
+     */
+    public void increaseBoardSizeIfNecessary()
+    {
+    }
+
+    /**
+     * Returns whether setStateInNextGeneration() may be called from several threads at the same time,
+     * also for cells next to each other. Otherwise, threads setting cells at the same time must be at least
+     * two rows apart, as setting a cell may update the neighbour count of the rows above and below it.
+     * @return True if any cells of the next generation may be set concurrently.
+     */
+    public boolean supportsConcurrentWrites()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the amount of memory used per cell by the two generations of the board, which lets a simulator
+     * size its work to fit in the caches of the CPU. The default is one byte per cell in each generation.
+     * @return The approximate amount of bytes per cell.
+     */
+    public double getBytesPerCell()
+    {
+        return 2;
+    }
+
+    /**
+     * Returns the amount of times the current generation has been edited.
+     * Every call to editThisGeneration() increments the count, which lets a simulator
+     * keeping information between generations detect changes made by others.
+     * @return The modification count.
      */
-    public abstract void editThisGeneration(boolean state, Point point);
+    public int getModificationCount()
+    {
+        return modificationCount;
+    }
 
     /**
      * Makes the next generation become the current one.
      * This updates the underlying data structure, which is necessary after every simulation step.
+     * Afterwards every cell in the next generation is dead, so simulators only need to set the living cells.
      */
     public abstract void makeNextGenerationCurrent();
 
@@ -99,11 +243,13 @@ public abstract class GameBoard
     public int getPopulation()
     {
         int count = 0;
-        Point pos = new Point();
-        for(pos.y = 0; pos.y < height; pos.y++)
-            for(pos.x = 0; pos.x < width; pos.x++)
-                if(isCellAliveInThisGeneration(pos))
-                    count++;
+        long[] row = null;
+        for(int y = 0; y < height; y++)
+        {
+            row = getRowOfThisGeneration(y, row);
+            for(int i = 0; i < (width + 63) >>> 6; i++)
+                count += Long.bitCount(row[i]);
+        }
         return count;
     }
 
@@ -119,10 +265,13 @@ public abstract class GameBoard
     public int hashCode()
     {
         int code = 1;
-        Point pos = new Point();
-        for(pos.y = 0; pos.y < height; pos.y++)
-            for(pos.x = 0; pos.x < width; pos.x++)
-                code = 31 * code + (isCellAliveInThisGeneration(pos) ? 1231 : 1237);
+        long[] row = null;
+        for(int y = 0; y < height; y++)
+        {
+            row = getRowOfThisGeneration(y, row);
+            for(int x = 0; x < width; x++)
+                code = 31 * code + (((row[x >>> 6] >>> x) & 1) == 1 ? 1231 : 1237);
+        }
 
         return code;
     }
@@ -164,17 +313,16 @@ public abstract class GameBoard
     public Point[] getBoundingBox()
     {
         Point stop = new Point();
-        Point cellPos = new Point();
         Point start = new Point(width, height);
 
-        for (cellPos.y = 0; cellPos.y < height; cellPos.y++)
-            for (cellPos.x = 0; cellPos.x < width; cellPos.x++)
-                if(isCellAliveInThisGeneration(cellPos))
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if(isCellAliveInThisGeneration(x, y))
                 {
-                    start.x = Math.min(cellPos.x, start.x);
-                    start.y = Math.min(cellPos.y, start.y);
-                    stop.x  = Math.max(cellPos.x + 1, stop.x);
-                    stop.y  = Math.max(cellPos.y + 1, stop.y);
+                    start.x = Math.min(x, start.x);
+                    start.y = Math.min(y, start.y);
+                    stop.x  = Math.max(x + 1, stop.x);
+                    stop.y  = Math.max(y + 1, stop.y);
                 }
 
         // If no living cells where found, return full size.
@@ -198,10 +346,12 @@ public abstract class GameBoard
         Point size = Point.sub(stop, start).add(padding * 2);
         GameBoard subBoard = getNewInstance(size.x, size.y);
 
-        Point pos = new Point();
-        for(pos.y = start.y; pos.y < stop.y; pos.y++)
-            for(pos.x = start.x; pos.x < stop.x; pos.x++)
-                subBoard.editThisGeneration(this.isCellAliveInThisGeneration(pos), Point.sub(pos, start).add(padding));
+        int offsetX = padding - start.x;
+        int offsetY = padding - start.y;
+        for(int y = start.y; y < stop.y; y++)
+            for(int x = start.x; x < stop.x; x++)
+                if(this.isCellAliveInThisGeneration(x, y))
+                    subBoard.editThisGeneration(true, x + offsetX, y + offsetY);
 
         return subBoard;
     }
@@ -0,0 +1,372 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * <p>This class is a bit-packed implementation of {@link GameBoard}.
+ * Every generation is stored as an array of long-rows where each bit represents one cell,
+ * making one generation occupy a single bit per cell instead of the byte used by {@link GameBoardDynamic}.
+ *
+ * <p>Bit n of a row holds the cell at array column n: it is stored in word n / 64 at bit position n % 64.
+ * The layout lets a simulator read and write 64 cells at a time, see
+ * {@link model.simulation.BitwiseSimulatorImpl}. Single cell access and neighbour
+ * counting is still supported, so the board works with every existing simulator.
+ *
+ * <p>The board grows in the same way as {@link GameBoardDynamic}. The visible area is a small part of the
+ * allocated rows and is increased when living cells appear close to the edge. When the visible area
+ * approaches the allocated size, larger arrays are allocated. The horizontal extension is always a
+ * multiple of 64 cells, which keeps the copying of existing data word aligned.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see GameBoardDynamic
+ */
+public class GameBoardBitPacked extends GameBoard
+{
+    private long maxCellCount = 60000L * 60000L;
+    private int sizeExtension = 10;
+    private long[][] thisGeneration;
+    private long[][] nextGeneration;
+    private int wordsPerRow;
+    private int arrayHeight;
+    private Point boardStart;
+
+    /**
+     * The constructor calculates the array sizes and initialises them.
+     * It also calculates a point of where the "inner" board starts.
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     */
+    public GameBoardBitPacked(int width, int height)
+    {
+        super(width, height);
+        wordsPerRow = (width + 2 * sizeExtension + 63) / 64;
+        arrayHeight = height + 2 * sizeExtension;
+
+        thisGeneration = new long[arrayHeight][wordsPerRow];
+        nextGeneration = new long[arrayHeight][wordsPerRow];
+        boardStart = new Point((wordsPerRow * 64 - width) / 2, (arrayHeight - height) / 2);
+    }
+
+    @Override
+    public int getAmountOfLivingNeighbours(int x, int y)
+    {
+        x += boardStart.x;
+        y += boardStart.y;
+        long[] above = thisGeneration[y - 1];
+        long[] row = thisGeneration[y];
+        long[] below = thisGeneration[y + 1];
+
+        return getBit(above, x - 1) + getBit(above, x) + getBit(above, x + 1) +
+               getBit(row,   x - 1)                   + getBit(row,   x + 1) +
+               getBit(below, x - 1) + getBit(below, x) + getBit(below, x + 1);
+    }
+
+    @Override
+    public boolean isCellAliveInThisGeneration(int x, int y)
+    {
+        return getBit(thisGeneration[boardStart.y + y], boardStart.x + x) == 1;
+    }
+
+    /**
+     * Sets the state of a cell in the next generation.
+     * Every word is only written by one thread at a time when used with the ThreadedSimulatorImpl
+     * or the ForkJoinSimulatorImpl, so no synchronization is needed.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public void setStateInNextGeneration(boolean state, int x, int y)
+    {
+        setBit(nextGeneration[boardStart.y + y], boardStart.x + x, state);
+    }
+
+    /**
+     * Sets the state of a cell in the current generation.
+     * This method is synchronized to prevent concurrency problems with the ThreadedSimulatorImpl implementation.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public void editThisGeneration(boolean state, int x, int y)
+    {
+        synchronized(thisGeneration)
+        {
+            setBit(thisGeneration[boardStart.y + y], boardStart.x + x, state);
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Gives direct access to the rows of the current generation, including the dead border around the board.
+     * The rows are replaced when the board grows, so the reference should not be kept between generations.
+     * @return The rows of the current generation.
+     */
+    public long[][] getThisGenerationRows()
+    {
+        return thisGeneration;
+    }
+
+    /**
+     * Gives direct access to the rows of the next generation, including the dead border around the board.
+     * Bits outside the board area must be left unset.
+     * @return The rows of the next generation.
+     */
+    public long[][] getNextGenerationRows()
+    {
+        return nextGeneration;
+    }
+
+    /**
+     * @return The array column where the board starts.
+     */
+    public int getColumnOffset()
+    {
+        return boardStart.x;
+    }
+
+    /**
+     * @return The array row where the board starts.
+     */
+    public int getRowOffset()
+    {
+        return boardStart.y;
+    }
+
+    private static int getBit(long[] row, int x)
+    {
+        return (int)(row[x >>> 6] >>> x) & 1;
+    }
+
+    private static void setBit(long[] row, int x, boolean state)
+    {
+        if(state)
+            row[x >>> 6] |= 1L << x;
+        else
+            row[x >>> 6] &= ~(1L << x);
+    }
+
+    @Override
+    public double getBytesPerCell()
+    {
+        // One bit per cell in each of the two generations.
+        return 0.25;
+    }
+
+    /**
+     * Copies a row of the current generation, shifting whole words into place.
+     * @param y The row to copy.
+     * @param row The array to copy into. A new array is allocated if it is null or too short.
+     * @return The array holding the row.
+     */
+    @Override
+    public long[] getRowOfThisGeneration(int y, long[] row)
+    {
+        int words = (width + 63) >>> 6;
+        if(row == null || row.length < words)
+            row = new long[words];
+
+        long[] source = thisGeneration[boardStart.y + y];
+        int offset = boardStart.x >>> 6;
+        int shift = boardStart.x & 63;
+
+        for(int i = 0; i < words; i++)
+        {
+            long word = source[offset + i] >>> shift;
+            if(shift != 0 && offset + i + 1 < source.length)
+                word |= source[offset + i + 1] << (64 - shift);
+            row[i] = word;
+        }
+
+        if((width & 63) != 0)
+            row[words - 1] &= (1L << width) - 1;
+
+        return row;
+    }
+
+    /**
+     * Sets a row of the next generation, shifting whole words into place.
+     * @param y The row to set.
+     * @param row The states of the cells in the row.
+     */
+    @Override
+    public void setRowInNextGeneration(int y, long[] row)
+    {
+        int words = (width + 63) >>> 6;
+        long[] target = nextGeneration[boardStart.y + y];
+        int offset = boardStart.x >>> 6;
+        int shift = boardStart.x & 63;
+
+        for(int i = 0; i < words; i++)
+        {
+            long mask = (i == words - 1 && (width & 63) != 0) ? (1L << width) - 1 : -1L;
+            long word = row[i] & mask;
+
+            target[offset + i] = (target[offset + i] & ~(mask << shift)) | (word << shift);
+            if(shift != 0 && offset + i + 1 < target.length)
+                target[offset + i + 1] = (target[offset + i + 1] & ~(mask >>> (64 - shift))) | (word >>> (64 - shift));
+        }
+    }
+
+    /**
+     * Makes the next generation become the current one.
+     * It also clears the old generation data and increases the board size if necessary.
+     */
+    @Override
+    public void makeNextGenerationCurrent()
+    {
+        long[][] temp = thisGeneration;
+        thisGeneration = nextGeneration;
+        nextGeneration = temp;
+
+        for(int y = boardStart.y; y < boardStart.y + height; y++)
+            Arrays.fill(nextGeneration[y], 0);
+
+        increaseBoardSizeIfNecessary();
+    }
+
+    /**
+     * Searches along the edges for living cells and increases the board size if necessary.
+     * The board is extended under the same conditions as in {@link GameBoardDynamic}.
+     * If the new size is close to the actual array size, new larger arrays will be allocated.
+     */
+    @Override
+    public void increaseBoardSizeIfNecessary()
+    {
+        if((long) wordsPerRow * 64 * arrayHeight >= maxCellCount)
+            return;
+
+        int left = boardStart.x;
+        int right = boardStart.x + width - 1;
+        boolean extendX = false;
+        boolean extendY = false;
+
+        // Search along the left and right edge.
+        for(int y = boardStart.y; y < boardStart.y + height && !extendX; y++)
+        {
+            long[] row = thisGeneration[y];
+            extendX = (getBit(row, left) | getBit(row, left + 1) | getBit(row, right)) == 1;
+        }
+
+        // Search along the top and bottom edge.
+        extendY = containsLivingCells(thisGeneration[boardStart.y]) ||
+                  containsLivingCells(thisGeneration[boardStart.y + 1]) ||
+                  containsLivingCells(thisGeneration[boardStart.y + height - 1]);
+
+        if(extendX)
+            width += 2;
+
+        if(extendY)
+            height += 2;
+
+        // Calculates a new start position if the size was increased.
+        if(extendX || extendY)
+            boardStart = new Point((wordsPerRow * 64 - width) / 2, (arrayHeight - height) / 2);
+
+        // Increases the underlying array size if the start position is close to the edge.
+        if(boardStart.x <= 4 || boardStart.y <= 4)
+            increaseArraySize(boardStart.x <= 4, boardStart.y <= 4);
+    }
+
+    private boolean containsLivingCells(long[] row)
+    {
+        for(long word : row)
+            if(word != 0)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Allocates new larger arrays and copies the existing data into them.
+     * The horizontal extension is rounded up to whole words so the rows can be copied directly.
+     */
+    private void increaseArraySize(boolean xDir, boolean yDir)
+    {
+        try
+        {
+            int wordExtension = (xDir) ? (sizeExtension + 63) / 64 : 0;
+            int rowExtension = (yDir) ? sizeExtension : 0;
+            int newWordsPerRow = wordsPerRow + 2 * wordExtension;
+            int newArrayHeight = arrayHeight + 2 * rowExtension;
+
+            long[][] newThisGeneration = new long[newArrayHeight][newWordsPerRow];
+            long[][] newNextGeneration = new long[newArrayHeight][newWordsPerRow];
+
+            for(int y = 0; y < arrayHeight; y++)
+                System.arraycopy(thisGeneration[y], 0, newThisGeneration[y + rowExtension], wordExtension, wordsPerRow);
+
+            thisGeneration = newThisGeneration;
+            nextGeneration = newNextGeneration;
+            wordsPerRow = newWordsPerRow;
+            arrayHeight = newArrayHeight;
+            boardStart = new Point((wordsPerRow * 64 - width) / 2, (arrayHeight - height) / 2);
+            sizeExtension += sizeExtension;
+        }
+        catch (OutOfMemoryError e)
+        {
+            // Sets the new limit
+            maxCellCount = (long) wordsPerRow * 64 * arrayHeight;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts the living cells in this generation, 64 cells at a time.
+     * @return The total amount of living cells.
+     */
+    @Override
+    public int getPopulation()
+    {
+        int count = 0;
+        for(int y = boardStart.y; y < boardStart.y + height; y++)
+            for(long word : thisGeneration[y])
+                count += Long.bitCount(word);
+
+        return count;
+    }
+
+    /**
+     * Finds the top-left and bottom-right corners of the living cells by scanning whole words.
+     * @return A Point array. First element = start, last element = stop.
+     */
+    @Override
+    public Point[] getBoundingBox()
+    {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+        for(int y = boardStart.y; y < boardStart.y + height; y++)
+        {
+            long[] row = thisGeneration[y];
+            for(int i = 0; i < wordsPerRow; i++)
+            {
+                if(row[i] != 0)
+                {
+                    minX = Math.min(minX, i * 64 + Long.numberOfTrailingZeros(row[i]));
+                    maxX = Math.max(maxX, i * 64 + 63 - Long.numberOfLeadingZeros(row[i]));
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                }
+            }
+        }
+
+        // If no living cells where found, return full size.
+        if(minY == Integer.MAX_VALUE)
+            return new Point[] {new Point(), new Point(width, height)};
+
+        return new Point[]
+        {
+            new Point(minX - boardStart.x, minY - boardStart.y),
+            new Point(maxX - boardStart.x + 1, maxY - boardStart.y + 1)
+        };
+    }
+
+    @Override
+    protected GameBoard getNewInstance(int width, int height)
+    {
+        return new GameBoardBitPacked(width, height);
+    }
+}
@@ -1,5 +1,8 @@
 package model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * <p>This class is a dynamic implementation of {@link GameBoard}.
  * Its size will increase when living cells appears close to the edge. This is done
@@ -41,11 +44,20 @@ package model;
  * class for a board implementation where Lists are used. We also wrote tests to support our claims, see the
  * GameBoardPerformanceTest class in the unitTests source folder.
  *
+ * <p>A board created with concurrent writes enabled updates the cells of the next generation with atomic
+ * additions through a {@link VarHandle}. Any cells may then be set from several threads at the same time,
+ * which lets the {@link model.simulation.ThreadedSimulatorImpl} write every row directly instead of handing
+ * the rows shared between threads back to the calling thread. The atomic additions are slower than the plain
+ * ones, so the mode only pays off when many threads are working on the board.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  */
 public class GameBoardDynamic extends GameBoard
 {
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final boolean concurrentWrites;
     private int maxCellCount = 15000 * 15000;
     private int sizeExtension = 10;
     private byte[][] thisGeneration;
@@ -53,6 +65,8 @@ public class GameBoardDynamic extends GameBoard
     private int arrayWidth;
     private int arrayHeight;
     private Point boardStart;
+    private int columnsAdded;
+    private int rowsAdded;
 
     /**
      * The constructor calculates the array sizes and initialises them.
@@ -61,8 +75,19 @@ public class GameBoardDynamic extends GameBoard
      * @param height The initial height of the board.
      */
     public GameBoardDynamic(int width, int height)
+    {
+        this(width, height, false);
+    }
+
+    /**
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     * @param concurrentWrites Whether the next generation may be set from several threads at the same time.
+     */
+    public GameBoardDynamic(int width, int height, boolean concurrentWrites)
     {
         super(width, height);
+        this.concurrentWrites = concurrentWrites;
         arrayWidth = width + 2 * sizeExtension;
         arrayHeight = height + 2 * sizeExtension;
 
@@ -72,15 +97,21 @@ public class GameBoardDynamic extends GameBoard
     }
 
     @Override
-    public int getAmountOfLivingNeighbours(Point p)
+    public int getAmountOfLivingNeighbours(int x, int y)
     {
-        return thisGeneration[boardStart.y + p.y][boardStart.x + p.x] % 10;
+        return thisGeneration[boardStart.y + y][boardStart.x + x] % 10;
     }
 
     @Override
-    public boolean isCellAliveInThisGeneration(Point p)
+    public boolean isCellAliveInThisGeneration(int x, int y)
     {
-        return thisGeneration[boardStart.y + p.y][boardStart.x + p.x] >= 10;
+        return thisGeneration[boardStart.y + y][boardStart.x + x] >= 10;
+    }
+
+    @Override
+    public int getEncodedState(int x, int y)
+    {
+        return thisGeneration[boardStart.y + y][boardStart.x + x];
     }
 
     /**
@@ -88,12 +119,61 @@ public class GameBoardDynamic extends GameBoard
      * NOTE: this method has the side effect of updating the neighbour-count of nearby cells.
      * It should therefor only be called once per simulation step.
      * @param state The state indicating whether the cell should be living (true) or dead (false).
-     * @param p The position of the cell to be set.
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
      */
     @Override
-    public void setStateInNextGeneration(boolean state, Point p)
+    public void setStateInNextGeneration(boolean state, int x, int y)
     {
-        setStateAndUpdateNeighbourCount(state, (boardStart.x + p.x), (boardStart.y + p.y), nextGeneration);
+        if(concurrentWrites)
+            setStateAndUpdateNeighbourCountAtomically(state, (boardStart.x + x), (boardStart.y + y), nextGeneration);
+        else
+            setStateAndUpdateNeighbourCount(state, (boardStart.x + x), (boardStart.y + y), nextGeneration);
+    }
+
+    @Override
+    public boolean supportsConcurrentWrites()
+    {
+        return concurrentWrites;
+    }
+
+    /**
+     * Copies a row of the current generation into an array of words, reading the cells straight from the array.
+     */
+    @Override
+    public long[] getRowOfThisGeneration(int y, long[] row)
+    {
+        int words = (width + 63) >>> 6;
+        if(row == null || row.length < words)
+            row = new long[words];
+
+        byte[] cells = thisGeneration[boardStart.y + y];
+        for(int i = 0, x = boardStart.x; i < words; i++)
+        {
+            long word = 0;
+            int end = Math.min(64, width - (i << 6));
+            for(int n = 0; n < end; n++, x++)
+                if(cells[x] >= 10)
+                    word |= 1L << n;
+            row[i] = word;
+        }
+        return row;
+    }
+
+    /**
+     * Sets a row of the next generation. Only the cells that change are set, so the neighbour count is
+     * updated for the living cells of the row and for cells that were alive, and the dead cells cost a read.
+     */
+    @Override
+    public void setRowInNextGeneration(int y, long[] row)
+    {
+        byte[] cells = nextGeneration[boardStart.y + y];
+        for(int x = 0; x < width; x++)
+        {
+            boolean state = ((row[x >>> 6] >>> x) & 1) == 1;
+            if(state || cells[boardStart.x + x] >= 10)
+                setStateInNextGeneration(state, x, y);
+        }
     }
 
     /**
@@ -101,14 +181,16 @@ public class GameBoardDynamic extends GameBoard
      * NOTE: this method has the side effect of updating the neighbour-count of nearby cells.
      * This method is synchronized to prevent concurrency problems with the ThreadedSimulatorImpl implementation.
      * @param state The state indicating whether the cell should be living (true) or dead (false).
-     * @param p The position of the cell to be set.
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
      */
     @Override
-    public void editThisGeneration(boolean state, Point p)
+    public void editThisGeneration(boolean state, int x, int y)
     {
         synchronized(thisGeneration)
         {
-            setStateAndUpdateNeighbourCount(state, (boardStart.x + p.x), (boardStart.y + p.y), thisGeneration);
+            setStateAndUpdateNeighbourCount(state, (boardStart.x + x), (boardStart.y + y), thisGeneration);
+            modificationCount++;
         }
     }
 
@@ -148,6 +230,36 @@ public class GameBoardDynamic extends GameBoard
         }
     }
 
+    /**
+     * Works like setStateAndUpdateNeighbourCount(), but every cell is updated with an atomic addition.
+     * A cell is only set by one thread, but its neighbour count may be updated by the threads setting its
+     * neighbours at the same time.
+     */
+    private void setStateAndUpdateNeighbourCountAtomically(boolean state, int x, int y, byte[][] generation)
+    {
+        byte delta;
+        if(state)
+            delta = 1;
+        else if(generation[y][x] >= 10)
+            delta = -1;
+        else
+            return;
+
+        byte[] above = generation[y-1];
+        byte[] row = generation[y];
+        byte[] below = generation[y+1];
+
+        CELL.getAndAdd(row, x, (byte)(delta * 10));
+        CELL.getAndAdd(above, x-1, delta);
+        CELL.getAndAdd(above, x, delta);
+        CELL.getAndAdd(above, x+1, delta);
+        CELL.getAndAdd(row, x-1, delta);
+        CELL.getAndAdd(row, x+1, delta);
+        CELL.getAndAdd(below, x-1, delta);
+        CELL.getAndAdd(below, x, delta);
+        CELL.getAndAdd(below, x+1, delta);
+    }
+
     /**
      * Makes the next generation become the current one.
      * It also clears the old neighbour count and increases the
@@ -181,6 +293,7 @@ public class GameBoardDynamic extends GameBoard
      * Searches along the edges for living cells and increases the board size if necessary.
      * If the new size is close to the actual array size, new larger arrays will be allocated.
      */
+    @Override
     public void increaseBoardSizeIfNecessary()
     {
         if(arrayWidth * arrayHeight >= maxCellCount)
@@ -209,6 +322,11 @@ public class GameBoardDynamic extends GameBoard
                 break;
             }
 
+        if(extendX)
+            columnsAdded++;
+        if(extendY)
+            rowsAdded++;
+
         // Calculates a new start position if the size was increased.
         if(extendX || extendY)
             boardStart = new Point((arrayWidth - width) / 2,(arrayHeight - height) / 2);
@@ -218,6 +336,26 @@ public class GameBoardDynamic extends GameBoard
             increaseArraySize(boardStart.x <= 4, boardStart.y <= 4);
     }
 
+    /**
+     * Returns the amount of columns added to the left of the cells since the board was created. The board grows
+     * by one column on each side at a time, so the cells move one column to the right every time the width grows.
+     * This lets a simulator keeping cell positions between generations move them along with the board.
+     * @return The amount of columns added to the left.
+     */
+    public int getColumnsAdded()
+    {
+        return columnsAdded;
+    }
+
+    /**
+     * Returns the amount of rows added above the cells since the board was created, see {@link #getColumnsAdded()}.
+     * @return The amount of rows added above.
+     */
+    public int getRowsAdded()
+    {
+        return rowsAdded;
+    }
+
     /**
      * Allocates new larger arrays and copies the existing data into them.
      */
@@ -253,6 +391,6 @@ public class GameBoardDynamic extends GameBoard
     @Override
     protected GameBoard getNewInstance(int width, int height)
     {
-        return new GameBoardDynamic(width, height);
+        return new GameBoardDynamic(width, height, concurrentWrites);
     }
 }
\ No newline at end of file
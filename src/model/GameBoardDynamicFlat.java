@@ -0,0 +1,254 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * <p>This class is an implementation of {@link GameBoard} working in the same way as {@link GameBoardDynamic},
+ * but where each generation is stored in one contiguous byte array instead of an array of rows.
+ * The cell at (x, y) is found at index y * arrayWidth + x, where arrayWidth is the row stride.
+ *
+ * <p>Reading a cell only requires one array access and one bounds check, instead of first looking up the row.
+ * The rows are also placed after each other in memory, so the neighbours above and below a cell
+ * are found at a fixed distance from it, and a simulation moving through the board reads memory in order.
+ *
+ * <p>The board grows in the same way, and under the same conditions, as {@link GameBoardDynamic}.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see GameBoardDynamic
+ */
+public class GameBoardDynamicFlat extends GameBoard
+{
+    private int maxCellCount = 15000 * 15000;
+    private int sizeExtension = 10;
+    private byte[] thisGeneration;
+    private byte[] nextGeneration;
+    private int arrayWidth;
+    private int arrayHeight;
+    private Point boardStart;
+    private int boardStartIndex;
+
+    /**
+     * The constructor calculates the array sizes and initialises them.
+     * It also calculates a point of where the "inner" board starts.
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     */
+    public GameBoardDynamicFlat(int width, int height)
+    {
+        super(width, height);
+        arrayWidth = width + 2 * sizeExtension;
+        arrayHeight = height + 2 * sizeExtension;
+
+        thisGeneration = new byte[arrayHeight * arrayWidth];
+        nextGeneration = new byte[arrayHeight * arrayWidth];
+        setBoardStart(new Point((arrayWidth - width) / 2,(arrayHeight - height) / 2));
+    }
+
+    private void setBoardStart(Point boardStart)
+    {
+        this.boardStart = boardStart;
+        this.boardStartIndex = boardStart.y * arrayWidth + boardStart.x;
+    }
+
+    @Override
+    public int getAmountOfLivingNeighbours(int x, int y)
+    {
+        return thisGeneration[boardStartIndex + y * arrayWidth + x] % 10;
+    }
+
+    @Override
+    public boolean isCellAliveInThisGeneration(int x, int y)
+    {
+        return thisGeneration[boardStartIndex + y * arrayWidth + x] >= 10;
+    }
+
+    @Override
+    public int getEncodedState(int x, int y)
+    {
+        return thisGeneration[boardStartIndex + y * arrayWidth + x];
+    }
+
+    /**
+     * Sets the state of a cell in the next generation.
+     * NOTE: this method has the side effect of updating the neighbour-count of nearby cells.
+     * It should therefor only be called once per simulation step.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public void setStateInNextGeneration(boolean state, int x, int y)
+    {
+        setStateAndUpdateNeighbourCount(state, boardStartIndex + y * arrayWidth + x, nextGeneration);
+    }
+
+    /**
+     * Sets the state of a cell in the current generation.
+     * NOTE: this method has the side effect of updating the neighbour-count of nearby cells.
+     * This method is synchronized to prevent concurrency problems with the ThreadedSimulatorImpl implementation.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public synchronized void editThisGeneration(boolean state, int x, int y)
+    {
+        setStateAndUpdateNeighbourCount(state, boardStartIndex + y * arrayWidth + x, thisGeneration);
+        modificationCount++;
+    }
+
+    /**
+     * Sets the state of a specified cell and increments/decrements the
+     * neighbour-count on the eight adjacent cells.
+     * @param state True = alive / false = dead
+     * @param i The index of the cell.
+     * @param generation The specified generation.
+     */
+    private void setStateAndUpdateNeighbourCount(boolean state, int i, byte[] generation)
+    {
+        int above = i - arrayWidth;
+        int below = i + arrayWidth;
+
+        if(state)
+        {
+            generation[i] += 10;
+            generation[above - 1]++;
+            generation[above]++;
+            generation[above + 1]++;
+            generation[i - 1]++;
+            generation[i + 1]++;
+            generation[below - 1]++;
+            generation[below]++;
+            generation[below + 1]++;
+        }
+        else if(generation[i] >= 10)
+        {
+            generation[i] %= 10;
+            generation[above - 1]--;
+            generation[above]--;
+            generation[above + 1]--;
+            generation[i - 1]--;
+            generation[i + 1]--;
+            generation[below - 1]--;
+            generation[below]--;
+            generation[below + 1]--;
+        }
+    }
+
+    /**
+     * Makes the next generation become the current one.
+     * It also clears the old neighbour count and increases the
+     * board size if necessary.
+     */
+    @Override
+    public void makeNextGenerationCurrent()
+    {
+        byte[] temp = thisGeneration;
+        thisGeneration = nextGeneration;
+        nextGeneration = temp;
+
+        clearNeighbourCount();
+        increaseBoardSizeIfNecessary();
+    }
+
+    /**
+     * Resets the living-neighbour-count on all cells in the nextGeneration.
+     */
+    private void clearNeighbourCount()
+    {
+        int rowStart = boardStartIndex;
+        for(int y = 0; y < height; y++)
+        {
+            Arrays.fill(nextGeneration, rowStart, rowStart + width, (byte) 0);
+            rowStart += arrayWidth;
+        }
+    }
+
+    /**
+     * Searches along the edges for living cells and increases the board size if necessary.
+     * If the new size is close to the actual array size, new larger arrays will be allocated.
+     */
+    @Override
+    public void increaseBoardSizeIfNecessary()
+    {
+        if(arrayWidth * arrayHeight >= maxCellCount)
+            return;
+
+        boolean extendX = false;
+        boolean extendY = false;
+        int rowLength = width;
+        int topRow = boardStartIndex;
+        int bottomRow = boardStartIndex + height * arrayWidth;
+
+        // Search along left and right edge.
+        for(int i = topRow; i < bottomRow; i += arrayWidth)
+            if(thisGeneration[i] > 0 || thisGeneration[i + rowLength] > 0)
+            {
+                width += 2;
+                extendX = true;
+                break;
+            }
+
+        //Search along top and bottom edge.
+        for(int x = 0; x < rowLength; x++)
+            if(thisGeneration[topRow + x] > 0 || thisGeneration[bottomRow + x] > 0)
+            {
+                height += 2;
+                extendY = true;
+                break;
+            }
+
+        // Calculates a new start position if the size was increased.
+        if(extendX || extendY)
+            setBoardStart(new Point((arrayWidth - width) / 2,(arrayHeight - height) / 2));
+
+        // Increases the underlying array size if the start position is close to the edge.
+        if(boardStart.x <= 4 || boardStart.y <= 4)
+            increaseArraySize(boardStart.x <= 4, boardStart.y <= 4);
+    }
+
+    /**
+     * Allocates new larger arrays and copies the existing data into them.
+     */
+    private void increaseArraySize(boolean xDir, boolean yDir)
+    {
+        try
+        {
+            int newArrayWidth = arrayWidth + ((xDir) ? sizeExtension * 2 : 0);
+            int newArrayHeight = arrayHeight + ((yDir) ? sizeExtension * 2 : 0);
+
+            Point newBoardStart = new Point((newArrayWidth - width) / 2,(newArrayHeight - height) / 2);
+            byte[] newThisGeneration = new byte[newArrayHeight * newArrayWidth];
+            byte[] newNextGeneration = new byte[newArrayHeight * newArrayWidth];
+
+            int newRowStart = newBoardStart.y * newArrayWidth + newBoardStart.x;
+            int rowStart = boardStartIndex;
+            for(int y = 0; y < height; y++)
+            {
+                System.arraycopy(thisGeneration, rowStart, newThisGeneration, newRowStart, width);
+                rowStart += arrayWidth;
+                newRowStart += newArrayWidth;
+            }
+
+            thisGeneration = newThisGeneration;
+            nextGeneration = newNextGeneration;
+            arrayWidth = newArrayWidth;
+            arrayHeight = newArrayHeight;
+            setBoardStart(newBoardStart);
+            sizeExtension += sizeExtension;
+        }
+        catch (OutOfMemoryError e)
+        {
+            // Sets the new limit
+            maxCellCount = arrayWidth * arrayHeight;
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    protected GameBoard getNewInstance(int width, int height)
+    {
+        return new GameBoardDynamicFlat(width, height);
+    }
+}
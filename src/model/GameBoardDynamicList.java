@@ -51,49 +51,48 @@ public class GameBoardDynamicList extends GameBoard
     }
 
     @Override
-    public int getAmountOfLivingNeighbours(Point p)
+    public int getAmountOfLivingNeighbours(int x, int y)
     {
-        return data.get(p.y + boardStart.y).get(p.x + boardStart.x).getNeighbourCount();
+        return data.get(y + boardStart.y).get(x + boardStart.x).getNeighbourCount();
     }
 
     @Override
-    public boolean isCellAliveInThisGeneration(Point p)
+    public boolean isCellAliveInThisGeneration(int x, int y)
     {
-        return data.get(p.y + boardStart.y).get(p.x + boardStart.x).isAliveInThisGen();
+        return data.get(y + boardStart.y).get(x + boardStart.x).isAliveInThisGen();
     }
 
     @Override
-    public void setStateInNextGeneration(boolean state, Point p)
+    public void setStateInNextGeneration(boolean state, int x, int y)
     {
-        p.add(boardStart);
+        x += boardStart.x;
+        y += boardStart.y;
 
-        data.get(p.y).get(p.x).setNextGen(state);
+        data.get(y).get(x).setNextGen(state);
 
         for(int i = 0; i < 8 && state; i++)
-            data.get(p.y + neighbourIndex[i][1]).get(p.x + neighbourIndex[i][0]).incrementNextGen();
-
-        p.sub(boardStart);
+            data.get(y + neighbourIndex[i][1]).get(x + neighbourIndex[i][0]).incrementNextGen();
     }
 
     @Override
-    public void editThisGeneration(boolean state, Point p)
+    public void editThisGeneration(boolean state, int x, int y)
     {
-        p.add(boardStart);
+        x += boardStart.x;
+        y += boardStart.y;
 
         if(state)
         {
             for(int i = 0; i < 8; i++)
-                data.get(p.y + neighbourIndex[i][1]).get(p.x + neighbourIndex[i][0]).incrementThisGen();
+                data.get(y + neighbourIndex[i][1]).get(x + neighbourIndex[i][0]).incrementThisGen();
         }
-        else if(data.get(p.y).get(p.x).isAliveInThisGen())
+        else if(data.get(y).get(x).isAliveInThisGen())
         {
             for(int i = 0; i < 8; i++)
-                data.get(p.y + neighbourIndex[i][1]).get(p.x + neighbourIndex[i][0]).decrementThisGen();
+                data.get(y + neighbourIndex[i][1]).get(x + neighbourIndex[i][0]).decrementThisGen();
         }
 
-        data.get(p.y).get(p.x).setThisGen(state);
-
-        p.sub(boardStart);
+        data.get(y).get(x).setThisGen(state);
+        modificationCount++;
     }
 
     @Override
@@ -106,7 +105,8 @@ public class GameBoardDynamicList extends GameBoard
         increaseBoardSizeIfNecessary();
     }
 
-    private void increaseBoardSizeIfNecessary()
+    @Override
+    public void increaseBoardSizeIfNecessary()
     {
         if(livingCellsInTopOrBottomRow())
         {
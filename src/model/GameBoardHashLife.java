@@ -0,0 +1,791 @@
+package model;
+
+import model.simulation.SimulationRule;
+
+import java.util.Arrays;
+
+/**
+ * <p>This class is a quadtree implementation of {@link GameBoard} made for the HashLife algorithm.
+ * The generation is stored as a tree of square nodes, where every node is made of four nodes of half the size.
+ * All nodes are canonical: two regions with the same content share the same node object. Large and
+ * highly regular patterns therefore use very little memory, as repeated regions are only stored once.
+ *
+ * <p>The {@link #advance(SimulationRule, int)} method moves the whole pattern 2^k generations forward
+ * in one call. The result of advancing a node is remembered in the node itself, so a region that has
+ * been calculated before is never calculated again. The smallest nodes (4x4 cells) are advanced with
+ * a lookup table calculated from the rule.
+ *
+ * <p>The tree itself has no edges. The board size is only a view into it, used by the per cell methods of
+ * {@link GameBoard}. The view is extended to cover all living cells with a border of one dead cell.
+ * After every call to advance() the view is set to exactly that area, so it follows patterns moving far
+ * away and shrinks when they do, while simulating and editing cell by cell never decrease it. Cells set with
+ * setStateInNextGeneration() are collected in a bit buffer of the view size, which is turned into a new tree
+ * when makeNextGenerationCurrent() is called. This keeps the board usable with every simulator, although
+ * only the {@link model.simulation.HashLifeSimulatorImpl} makes use of the algorithm.
+ *
+ * <p>The tree is addressed with long coordinates, and the view with int coordinates of at most 2^30 cells.
+ * The step exponent is limited to {@link #MAX_STEP_EXPONENT}, as a cell never moves more than one cell per
+ * generation, and a single step then keeps the pattern within reach of both.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see model.simulation.HashLifeSimulatorImpl
+ */
+public class GameBoardHashLife extends GameBoard
+{
+    public static final int MAX_STEP_EXPONENT = 30;
+    private static final int MAX_VIEW_SIZE = 1 << 30;
+    private static final int MAX_LEVEL = 62;
+    private static final int MAX_NODE_COUNT = 1 << 21;
+
+    private Node[] nodeTable = new Node[64];
+    private int nodeCount;
+    private Node[] emptyNodes = new Node[8];
+    private Node[] level1Nodes;
+    private Node deadCell;
+    private Node aliveCell;
+    private Node root;
+
+    private long viewX;
+    private long viewY;
+    private volatile long[][] nextGeneration;
+
+    private byte[] baseResults;
+    private int ruleSignature = -1;
+    private int epoch = 1;
+
+    /**
+     * Every node is a square region of 2^level cells in each direction.
+     * Nodes are immutable apart from the remembered results.
+     */
+    private static final class Node
+    {
+        final int level;
+        final Node nw, ne, sw, se;
+        final long population;
+        final int hash;
+        final int cells;
+        Node next;
+
+        Node result;
+        int resultEpoch;
+        Node slowResult;
+        int slowStep;
+        int slowEpoch;
+        long[] boundingBox;
+
+        Node(boolean alive)
+        {
+            level = 0;
+            nw = ne = sw = se = null;
+            population = alive ? 1 : 0;
+            hash = alive ? 1 : 0;
+            cells = alive ? 1 : 0;
+        }
+
+        Node(Node nw, Node ne, Node sw, Node se, int hash)
+        {
+            this.level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            this.hash = hash;
+
+            // The cells of the smallest nodes are kept as bits, y * size + x, for the lookup table.
+            if(level == 1)
+                cells = nw.cells | ne.cells << 1 | sw.cells << 2 | se.cells << 3;
+            else if(level == 2)
+                cells = spread(nw.cells) | spread(ne.cells) << 2 | spread(sw.cells) << 8 | spread(se.cells) << 10;
+            else
+                cells = 0;
+        }
+
+        private static int spread(int c)
+        {
+            return (c & 3) | (c & 12) << 2;
+        }
+    }
+
+    /**
+     * The constructor creates an empty tree covering the board.
+     * The board is placed around the centre of the tree.
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     */
+    public GameBoardHashLife(int width, int height)
+    {
+        super(width, height);
+        deadCell = new Node(false);
+        aliveCell = new Node(true);
+        emptyNodes[0] = deadCell;
+
+        level1Nodes = new Node[16];
+        for(int i = 0; i < 16; i++)
+            level1Nodes[i] = getNode(getLeaf(i & 1), getLeaf(i >> 1 & 1), getLeaf(i >> 2 & 1), getLeaf(i >> 3 & 1));
+
+        viewX = -(width / 2);
+        viewY = -(height / 2);
+        root = getEmptyNode(3);
+        expandRootToCover(viewX, viewY, viewX + width, viewY + height);
+    }
+
+    @Override
+    public int getAmountOfLivingNeighbours(int x, int y)
+    {
+        long cellX = viewX + x;
+        long cellY = viewY + y;
+        return getCell(cellX - 1, cellY - 1) + getCell(cellX, cellY - 1) + getCell(cellX + 1, cellY - 1) +
+               getCell(cellX - 1, cellY)                             + getCell(cellX + 1, cellY) +
+               getCell(cellX - 1, cellY + 1) + getCell(cellX, cellY + 1) + getCell(cellX + 1, cellY + 1);
+    }
+
+    @Override
+    public boolean isCellAliveInThisGeneration(int x, int y)
+    {
+        return getCell(viewX + x, viewY + y) == 1;
+    }
+
+    /**
+     * Reads a row by walking the tree, visiting only the nodes that cross the row and hold living cells.
+     * @param y The row to read.
+     * @param row An array to reuse, or null.
+     * @return The cells of the row, one bit per cell.
+     */
+    @Override
+    public long[] getRowOfThisGeneration(int y, long[] row)
+    {
+        int words = (width + 63) >>> 6;
+        if(row == null || row.length < words)
+            row = new long[words];
+        else
+            Arrays.fill(row, 0, words, 0);
+
+        long half = 1L << (root.level - 1);
+        addLivingCellsOfRow(root, -half, -half, viewY + y, row);
+        return row;
+    }
+
+    /**
+     * Sets the state of a cell in the next generation.
+     * The state is stored in a bit buffer, where every word is only written by one thread at a time
+     * when used with the ThreadedSimulatorImpl or the ForkJoinSimulatorImpl.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public void setStateInNextGeneration(boolean state, int x, int y)
+    {
+        long[][] buffer = getNextGenerationBuffer();
+        if(state)
+            buffer[y][x >>> 6] |= 1L << x;
+        else
+            buffer[y][x >>> 6] &= ~(1L << x);
+    }
+
+    private long[][] getNextGenerationBuffer()
+    {
+        long[][] buffer = nextGeneration;
+        if(buffer == null)
+        {
+            synchronized(this)
+            {
+                if(nextGeneration == null)
+                    nextGeneration = new long[height][(width + 63) / 64];
+                buffer = nextGeneration;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Sets the state of a cell in the current generation.
+     * The nodes along the path to the cell are replaced, as nodes never change.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public synchronized void editThisGeneration(boolean state, int x, int y)
+    {
+        long cellX = viewX + x;
+        long cellY = viewY + y;
+        expandRootToCover(cellX, cellY, cellX + 1, cellY + 1);
+
+        long half = 1L << (root.level - 1);
+        root = setCell(root, cellX + half, cellY + half, state);
+        modificationCount++;
+    }
+
+    /**
+     * Makes the cells set with setStateInNextGeneration() the current generation.
+     * Builds a new tree from the bit buffer and extends the view if necessary.
+     */
+    @Override
+    public void makeNextGenerationCurrent()
+    {
+        root = getEmptyNode(3);
+        expandRootToCover(viewX, viewY, viewX + width, viewY + height);
+
+        if(nextGeneration != null)
+        {
+            long half = 1L << (root.level - 1);
+            root = buildFromBuffer(root.level, -half, -half);
+            nextGeneration = null;
+        }
+
+        increaseViewIfNecessary();
+    }
+
+    /**
+     * Advances the board 2^stepExponent generations with the HashLife algorithm.
+     * The tree is first extended with empty space, so the pattern can grow without leaving it.
+     * Rules giving birth to cells without neighbours are not supported, since they would fill the infinite
+     * tree with living cells. These must be simulated one generation at a time.
+     * @param rule The rule to be used.
+     * @param stepExponent The amount of generations to advance, as a power of two.
+     * @throws IllegalArgumentException If the exponent is out of range or the rule gives birth on zero neighbours.
+     * @throws IllegalStateException If the pattern has spread too far for the tree coordinates.
+     */
+    public void advance(SimulationRule rule, int stepExponent)
+    {
+        if(stepExponent < 0 || stepExponent > MAX_STEP_EXPONENT)
+            throw new IllegalArgumentException("The step exponent must be between 0 and " + MAX_STEP_EXPONENT +
+                    ", was: " + stepExponent);
+
+        if(rule.execute(0) == SimulationRule.Result.BIRTH)
+            throw new IllegalArgumentException("Rules with birth on zero neighbours are not supported: " + rule.getStringRule());
+
+        setRule(rule);
+
+        if(nodeCount > MAX_NODE_COUNT)
+            collectGarbage();
+
+        while(root.level < stepExponent + 3 || getCentre(getCentre(root)).population != root.population)
+        {
+            if(root.level >= MAX_LEVEL)
+                throw new IllegalStateException("The pattern has spread too far to be advanced");
+            root = expand(root);
+        }
+
+        root = step(root, stepExponent);
+        nextGeneration = null;
+
+        setViewToLivingCells();
+    }
+
+    /**
+     * @return The amount of living cells as a long, since it might exceed the int range.
+     */
+    public long getLongPopulation()
+    {
+        return root.population;
+    }
+
+    @Override
+    public int getPopulation()
+    {
+        return (int) Math.min(Integer.MAX_VALUE, root.population);
+    }
+
+    /**
+     * Finds the top-left and bottom-right corners of the living cells by searching the tree.
+     * @return A Point array. First element = start, last element = stop.
+     */
+    @Override
+    public Point[] getBoundingBox()
+    {
+        long[] box = getUniverseBoundingBox();
+        if(box == null)
+            return new Point[] {new Point(), new Point(width, height)};
+
+        // Cells beyond a view of the maximum size are left out.
+        return new Point[]
+        {
+            new Point((int) clamp(box[0] - viewX, width), (int) clamp(box[1] - viewY, height)),
+            new Point((int) clamp(box[2] - viewX + 1, width), (int) clamp(box[3] - viewY + 1, height))
+        };
+    }
+
+    private static long clamp(long value, int max)
+    {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    @Override
+    protected GameBoard getNewInstance(int width, int height)
+    {
+        return new GameBoardHashLife(width, height);
+    }
+
+    ///////////////// VIEW /////////////////
+
+    /**
+     * Extends the view to cover edited cells.
+     */
+    @Override
+    public void increaseBoardSizeIfNecessary()
+    {
+        increaseViewIfNecessary();
+    }
+
+    /**
+     * Extends the view to cover all living cells with a border of one dead cell.
+     */
+    private void increaseViewIfNecessary()
+    {
+        long[] box = getUniverseBoundingBox();
+        if(box == null)
+            return;
+
+        long startX = Math.min(viewX, box[0] - 1);
+        long startY = Math.min(viewY, box[1] - 1);
+        long stopX = Math.max(viewX + width, box[2] + 2);
+        long stopY = Math.max(viewY + height, box[3] + 2);
+
+        viewX = startX;
+        viewY = startY;
+        width = (int) Math.min(MAX_VIEW_SIZE, stopX - startX);
+        height = (int) Math.min(MAX_VIEW_SIZE, stopY - startY);
+    }
+
+    /**
+     * Sets the view to cover the living cells with a border of one dead cell, moving and shrinking it if
+     * necessary. An empty board keeps its view.
+     */
+    private void setViewToLivingCells()
+    {
+        long[] box = getUniverseBoundingBox();
+        if(box == null)
+            return;
+
+        viewX = box[0] - 1;
+        viewY = box[1] - 1;
+        width = (int) Math.min(MAX_VIEW_SIZE, box[2] - box[0] + 3);
+        height = (int) Math.min(MAX_VIEW_SIZE, box[3] - box[1] + 3);
+    }
+
+    /**
+     * @return The corners of the living cells in tree coordinates {minX, minY, maxX, maxY}, or null if empty.
+     */
+    private long[] getUniverseBoundingBox()
+    {
+        if(root.population == 0)
+            return null;
+
+        long half = 1L << (root.level - 1);
+        long[] box = getBoundingBox(root);
+        return new long[] {box[0] - half, box[1] - half, box[2] - half, box[3] - half};
+    }
+
+    /**
+     * Finds the corners of the living cells relative to the nodes top-left corner.
+     * The result is kept in the node, since most nodes are shared between generations.
+     */
+    private long[] getBoundingBox(Node node)
+    {
+        if(node.population == 0)
+            return null;
+
+        if(node.level == 0)
+            return new long[4];
+
+        if(node.boundingBox != null)
+            return node.boundingBox;
+
+        long[] box = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        long size = 1L << (node.level - 1);
+        Node[] children = {node.nw, node.ne, node.sw, node.se};
+        for(int i = 0; i < 4; i++)
+        {
+            long[] childBox = getBoundingBox(children[i]);
+            if(childBox == null)
+                continue;
+
+            long offsetX = (i & 1) * size;
+            long offsetY = (i >> 1) * size;
+            box[0] = Math.min(box[0], childBox[0] + offsetX);
+            box[1] = Math.min(box[1], childBox[1] + offsetY);
+            box[2] = Math.max(box[2], childBox[2] + offsetX);
+            box[3] = Math.max(box[3], childBox[3] + offsetY);
+        }
+
+        node.boundingBox = box;
+        return box;
+    }
+
+    ///////////////// TREE ACCESS /////////////////
+
+    private int getCell(long x, long y)
+    {
+        long half = 1L << (root.level - 1);
+        x += half;
+        y += half;
+        if(x < 0 || y < 0 || x >= 2 * half || y >= 2 * half)
+            return 0;
+
+        Node node = root;
+        while(node.level > 0)
+        {
+            if(node.population == 0)
+                return 0;
+
+            long size = 1L << (node.level - 1);
+            boolean east = x >= size;
+            boolean south = y >= size;
+            node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+            if(east)
+                x -= size;
+            if(south)
+                y -= size;
+        }
+        return node.cells;
+    }
+
+    /**
+     * Sets the bits of the living cells of a node that lie in the given tree row and inside the view.
+     * @param x The tree x coordinate of the nodes top-left corner.
+     * @param y The tree y coordinate of the nodes top-left corner.
+     * @param cellY The tree y coordinate of the row.
+     * @param row The row of the view to set the bits in.
+     */
+    private void addLivingCellsOfRow(Node node, long x, long y, long cellY, long[] row)
+    {
+        long size = 1L << node.level;
+        if(node.population == 0 || cellY < y || cellY >= y + size || x >= viewX + width || x + size <= viewX)
+            return;
+
+        if(node.level == 0)
+        {
+            int column = (int)(x - viewX);
+            row[column >>> 6] |= 1L << column;
+            return;
+        }
+
+        long half = size / 2;
+        if(cellY < y + half)
+        {
+            addLivingCellsOfRow(node.nw, x, y, cellY, row);
+            addLivingCellsOfRow(node.ne, x + half, y, cellY, row);
+        }
+        else
+        {
+            addLivingCellsOfRow(node.sw, x, y + half, cellY, row);
+            addLivingCellsOfRow(node.se, x + half, y + half, cellY, row);
+        }
+    }
+
+    private Node setCell(Node node, long x, long y, boolean state)
+    {
+        if(node.level == 0)
+            return state ? aliveCell : deadCell;
+
+        long size = 1L << (node.level - 1);
+        if(y < size)
+        {
+            if(x < size)
+                return getNode(setCell(node.nw, x, y, state), node.ne, node.sw, node.se);
+            else
+                return getNode(node.nw, setCell(node.ne, x - size, y, state), node.sw, node.se);
+        }
+        else
+        {
+            if(x < size)
+                return getNode(node.nw, node.ne, setCell(node.sw, x, y - size, state), node.se);
+            else
+                return getNode(node.nw, node.ne, node.sw, setCell(node.se, x - size, y - size, state));
+        }
+    }
+
+    /**
+     * Builds a node from the next generation buffer.
+     * @param level The level of the node.
+     * @param x The tree x coordinate of the nodes top-left corner.
+     * @param y The tree y coordinate of the nodes top-left corner.
+     */
+    private Node buildFromBuffer(int level, long x, long y)
+    {
+        long size = 1L << level;
+        if(x >= viewX + width || y >= viewY + height || x + size <= viewX || y + size <= viewY)
+            return getEmptyNode(level);
+
+        if(level == 0)
+        {
+            int bx = (int)(x - viewX);
+            long[] row = nextGeneration[(int)(y - viewY)];
+            return getLeaf((int)(row[bx >>> 6] >>> bx) & 1);
+        }
+
+        long half = size / 2;
+        return getNode(
+                buildFromBuffer(level - 1, x, y),
+                buildFromBuffer(level - 1, x + half, y),
+                buildFromBuffer(level - 1, x, y + half),
+                buildFromBuffer(level - 1, x + half, y + half));
+    }
+
+    /**
+     * Adds empty space around the root until it covers the given area.
+     */
+    private void expandRootToCover(long startX, long startY, long stopX, long stopY)
+    {
+        while(true)
+        {
+            long half = 1L << (root.level - 1);
+            if(startX >= -half && startY >= -half && stopX <= half && stopY <= half)
+                return;
+
+            root = expand(root);
+        }
+    }
+
+    /**
+     * @return A node of one level higher, with the given node in its centre.
+     */
+    private Node expand(Node node)
+    {
+        Node empty = getEmptyNode(node.level - 1);
+        return getNode(
+                getNode(empty, empty, empty, node.nw),
+                getNode(empty, empty, node.ne, empty),
+                getNode(empty, node.sw, empty, empty),
+                getNode(node.se, empty, empty, empty));
+    }
+
+    private Node getCentre(Node node)
+    {
+        return getNode(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    ///////////////// HASHLIFE /////////////////
+
+    /**
+     * Calculates the centre of a node, half its size, advanced in time.
+     * Nodes of level k are advanced 2^(k-2) generations when the step exponent is k-2 or more. This is done
+     * by advancing nine overlapping sub nodes twice. For lower step exponents the first advance is replaced
+     * by taking the centre of the sub nodes.
+     * @param node The node to advance, of level 2 or more.
+     * @param j The step exponent.
+     * @return The advanced centre of the node.
+     */
+    private Node step(Node node, int j)
+    {
+        int k = node.level;
+        if(node.population == 0)
+            return getEmptyNode(k - 1);
+
+        boolean fullSpeed = j >= k - 2;
+        if(fullSpeed && node.resultEpoch == epoch)
+            return node.result;
+        if(!fullSpeed && node.slowEpoch == epoch && node.slowStep == j)
+            return node.slowResult;
+
+        Node result;
+        if(k == 2)
+        {
+            result = level1Nodes[baseResults[node.cells]];
+        }
+        else
+        {
+            Node n00 = node.nw;
+            Node n01 = getNode(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+            Node n02 = node.ne;
+            Node n10 = getNode(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+            Node n11 = getNode(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+            Node n12 = getNode(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+            Node n20 = node.sw;
+            Node n21 = getNode(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+            Node n22 = node.se;
+
+            Node r00, r01, r02, r10, r11, r12, r20, r21, r22;
+            if(fullSpeed)
+            {
+                r00 = step(n00, j); r01 = step(n01, j); r02 = step(n02, j);
+                r10 = step(n10, j); r11 = step(n11, j); r12 = step(n12, j);
+                r20 = step(n20, j); r21 = step(n21, j); r22 = step(n22, j);
+            }
+            else
+            {
+                r00 = getCentre(n00); r01 = getCentre(n01); r02 = getCentre(n02);
+                r10 = getCentre(n10); r11 = getCentre(n11); r12 = getCentre(n12);
+                r20 = getCentre(n20); r21 = getCentre(n21); r22 = getCentre(n22);
+            }
+
+            result = getNode(
+                    step(getNode(r00, r01, r10, r11), j),
+                    step(getNode(r01, r02, r11, r12), j),
+                    step(getNode(r10, r11, r20, r21), j),
+                    step(getNode(r11, r12, r21, r22), j));
+        }
+
+        if(fullSpeed)
+        {
+            node.result = result;
+            node.resultEpoch = epoch;
+        }
+        else
+        {
+            node.slowResult = result;
+            node.slowStep = j;
+            node.slowEpoch = epoch;
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the lookup table for 4x4 cell nodes if the rule has changed.
+     * A changed rule makes every remembered result invalid.
+     */
+    private void setRule(SimulationRule rule)
+    {
+        boolean[] birth = new boolean[9];
+        boolean[] survive = new boolean[9];
+        int signature = 0;
+        for(int n = 0; n <= 8; n++)
+        {
+            SimulationRule.Result result = rule.execute(n);
+            birth[n] = result == SimulationRule.Result.BIRTH;
+            survive[n] = result != SimulationRule.Result.DEATH;
+            signature |= (birth[n] ? 1 : 0) << n | (survive[n] ? 1 : 0) << (n + 9);
+        }
+
+        if(signature == ruleSignature)
+            return;
+
+        baseResults = new byte[1 << 16];
+        for(int cells = 0; cells < baseResults.length; cells++)
+        {
+            int result = 0;
+            for(int i = 0; i < 4; i++)
+            {
+                int x = 1 + (i & 1);
+                int y = 1 + (i >> 1);
+                int neighbours = 0;
+                for(int dy = -1; dy <= 1; dy++)
+                    for(int dx = -1; dx <= 1; dx++)
+                        if(dx != 0 || dy != 0)
+                            neighbours += cells >> ((y + dy) * 4 + x + dx) & 1;
+
+                boolean alive = (cells >> (y * 4 + x) & 1) == 1;
+                if(alive ? survive[neighbours] : birth[neighbours])
+                    result |= 1 << i;
+            }
+            baseResults[cells] = (byte) result;
+        }
+
+        ruleSignature = signature;
+        epoch++;
+    }
+
+    ///////////////// NODE TABLE /////////////////
+
+    private Node getLeaf(int state)
+    {
+        return state == 1 ? aliveCell : deadCell;
+    }
+
+    private Node getEmptyNode(int level)
+    {
+        if(level >= emptyNodes.length)
+        {
+            Node[] newEmptyNodes = new Node[Math.max(level + 1, emptyNodes.length * 2)];
+            System.arraycopy(emptyNodes, 0, newEmptyNodes, 0, emptyNodes.length);
+            emptyNodes = newEmptyNodes;
+        }
+
+        if(emptyNodes[level] == null)
+        {
+            Node child = getEmptyNode(level - 1);
+            emptyNodes[level] = getNode(child, child, child, child);
+        }
+        return emptyNodes[level];
+    }
+
+    /**
+     * Returns the canonical node with the given children, creating it if it does not exist.
+     */
+    private Node getNode(Node nw, Node ne, Node sw, Node se)
+    {
+        int hash = ((nw.hash * 31 + ne.hash) * 31 + sw.hash) * 31 + se.hash;
+        hash *= 0x9E3779B9;
+        hash ^= hash >>> 15;
+
+        int index = hash & (nodeTable.length - 1);
+        for(Node node = nodeTable[index]; node != null; node = node.next)
+            if(node.nw == nw && node.ne == ne && node.sw == sw && node.se == se)
+                return node;
+
+        Node node = new Node(nw, ne, sw, se, hash);
+        insert(node);
+        return node;
+    }
+
+    private void insert(Node node)
+    {
+        if(nodeCount >= nodeTable.length * 3 / 4)
+            resizeNodeTable(nodeTable.length * 2);
+
+        int index = node.hash & (nodeTable.length - 1);
+        node.next = nodeTable[index];
+        nodeTable[index] = node;
+        nodeCount++;
+    }
+
+    private void resizeNodeTable(int size)
+    {
+        Node[] oldTable = nodeTable;
+        nodeTable = new Node[size];
+        for(Node bucket : oldTable)
+        {
+            Node node = bucket;
+            while(node != null)
+            {
+                Node next = node.next;
+                int index = node.hash & (size - 1);
+                node.next = nodeTable[index];
+                nodeTable[index] = node;
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Removes every node not used by the current generation from the table.
+     * The remembered results are cleared, as they would otherwise keep the removed nodes alive.
+     */
+    private void collectGarbage()
+    {
+        nodeTable = new Node[64];
+        nodeCount = 0;
+        epoch++;
+
+        for(Node node : emptyNodes)
+            if(node != null)
+                keep(node);
+        for(Node node : level1Nodes)
+            keep(node);
+        keep(root);
+    }
+
+    private void keep(Node node)
+    {
+        if(node.level == 0)
+            return;
+
+        int index = node.hash & (nodeTable.length - 1);
+        for(Node n = nodeTable[index]; n != null; n = n.next)
+            if(n == node)
+                return;
+
+        keep(node.nw);
+        keep(node.ne);
+        keep(node.sw);
+        keep(node.se);
+
+        node.result = null;
+        node.slowResult = null;
+        insert(node);
+    }
+}
@@ -0,0 +1,639 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>This class is an implementation of {@link GameBoard} storing the generations outside of the Java heap.
+ * The cells are encoded in the same way as in {@link GameBoardDynamic}: one byte per cell holding the state
+ * and the amount of living neighbours. Instead of byte arrays, the generations are kept in direct
+ * {@link ByteBuffer}s or in a memory-mapped file, without adding work for the garbage collector.
+ * Direct buffers are limited by the maximum direct memory of the JVM (-XX:MaxDirectMemorySize, by default the
+ * maximum heap size), so only a board backed by a file can grow beyond the heap size.
+ *
+ * <p>A single buffer can not hold more than 2 GB, so every generation is split into segments of whole rows.
+ *
+ * <p>A board created with a file stores a small header in front of the generations, holding the size and
+ * position of the board and where in the file the generations start. The header is rewritten whenever the
+ * board changes size, and the file is always up to date after makeNextGenerationCurrent(). The board can be
+ * reopened with {@link #open(Path)}, also after a restart of the application.
+ *
+ * <p>The board grows in the same way as {@link GameBoardDynamic}. When the buffers are too small, new
+ * buffers are allocated. A board backed by a file maps the larger generations after the old ones in the same
+ * file, and points the header to them once the current generation is copied. The current generation is then
+ * copied back to the start of the file, the header is pointed there, and the file is truncated after the
+ * generations. The current generation is kept in the last part of the new generations, so it never overlaps
+ * its copy at the start of the file, and a crash at any point while growing leaves a valid board in the file.
+ * The file is never replaced, which would fail on systems that do not allow replacing a file that is still
+ * mapped. If growing fails, the board stops growing and the cause is available from {@link #getGrowthFailure()}.
+ *
+ * <p>The buffers are released by {@link #close()}, which also closes the file. The board can not be used after
+ * it is closed.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see GameBoardDynamic
+ */
+public class GameBoardOffHeap extends GameBoard implements Closeable
+{
+    private static final int MAGIC = 0x474F4C4D;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+    private static final Object UNSAFE;
+    private static final Method UNMAPPER;
+
+    static
+    {
+        Object unsafe = null;
+        Method unmapper = null;
+        try
+        {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            unmapper = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        }
+        catch(ReflectiveOperationException | RuntimeException e)
+        {
+            // The buffers are left to the garbage collector.
+        }
+        UNSAFE = unsafe;
+        UNMAPPER = unmapper;
+    }
+
+    private long maxCellCount = Long.MAX_VALUE;
+    private int sizeExtension = 10;
+    private Storage storage;
+    private ByteBuffer[] thisGeneration;
+    private ByteBuffer[] nextGeneration;
+    private int currentRegion;
+    private int arrayWidth;
+    private int arrayHeight;
+    private int rowsPerSegment;
+    private Point boardStart;
+    private Path file;
+    private FileChannel channel;
+    private long dataOffset = HEADER_SIZE;
+    private Throwable growthFailure;
+    private byte[] zeroRow;
+
+    /**
+     * The buffers of both generations and the file header, if any.
+     */
+    private static final class Storage
+    {
+        ByteBuffer header;
+        ByteBuffer[][] regions = new ByteBuffer[2][];
+    }
+
+    /**
+     * Creates a board stored in direct buffers.
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     */
+    public GameBoardOffHeap(int width, int height)
+    {
+        super(width, height);
+        arrayWidth = width + 2 * sizeExtension;
+        arrayHeight = height + 2 * sizeExtension;
+        boardStart = new Point((arrayWidth - width) / 2, (arrayHeight - height) / 2);
+
+        setStorage(allocate(arrayWidth, arrayHeight));
+    }
+
+    /**
+     * Creates a board stored in a memory-mapped file. An existing file is overwritten.
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     * @param file The file to store the board in.
+     * @throws IOException If the file could not be created or mapped.
+     */
+    public GameBoardOffHeap(int width, int height, Path file) throws IOException
+    {
+        super(width, height);
+        this.file = file;
+        arrayWidth = width + 2 * sizeExtension;
+        arrayHeight = height + 2 * sizeExtension;
+        boardStart = new Point((arrayWidth - width) / 2, (arrayHeight - height) / 2);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try
+        {
+            setStorage(map(arrayWidth, arrayHeight, channel, dataOffset));
+        }
+        catch(IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+        writeHeader();
+    }
+
+    /**
+     * Reopens a board stored in a file.
+     * @param file A file created by this class.
+     * @return The board, still backed by the file.
+     * @throws IOException If the file could not be read, or is not a board file.
+     */
+    public static GameBoardOffHeap open(Path file) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            while(header.hasRemaining() && channel.read(header) >= 0);
+        }
+        header.flip();
+
+        if(header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC)
+            throw new IOException("Not a board file: " + file);
+        if(header.getInt(4) != VERSION)
+            throw new IOException("Unsupported board file version: " + header.getInt(4));
+
+        GameBoardOffHeap board = new GameBoardOffHeap(header.getInt(16), header.getInt(20), file, header);
+        return board;
+    }
+
+    /**
+     * Maps an existing file with the layout given in its header.
+     */
+    private GameBoardOffHeap(int width, int height, Path file, ByteBuffer header) throws IOException
+    {
+        super(width, height);
+        this.file = file;
+        arrayWidth = header.getInt(8);
+        arrayHeight = header.getInt(12);
+        boardStart = new Point(header.getInt(24), header.getInt(28));
+        sizeExtension = header.getInt(32);
+        dataOffset = header.getLong(40);
+
+        if(Files.size(file) < dataOffset + 2L * arrayWidth * arrayHeight)
+            throw new IOException("The board file is truncated: " + file);
+
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try
+        {
+            setStorage(map(arrayWidth, arrayHeight, channel, dataOffset));
+        }
+        catch(IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+        currentRegion = header.getInt(36);
+        thisGeneration = storage.regions[currentRegion];
+        nextGeneration = storage.regions[1 - currentRegion];
+    }
+
+    @Override
+    public int getAmountOfLivingNeighbours(int x, int y)
+    {
+        return get(thisGeneration, boardStart.x + x, boardStart.y + y) % 10;
+    }
+
+    @Override
+    public boolean isCellAliveInThisGeneration(int x, int y)
+    {
+        return get(thisGeneration, boardStart.x + x, boardStart.y + y) >= 10;
+    }
+
+    @Override
+    public int getEncodedState(int x, int y)
+    {
+        return get(thisGeneration, boardStart.x + x, boardStart.y + y);
+    }
+
+    /**
+     * Sets the state of a cell in the next generation.
+     * NOTE: this method has the side effect of updating the neighbour-count of nearby cells.
+     * It should therefor only be called once per simulation step.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public void setStateInNextGeneration(boolean state, int x, int y)
+    {
+        setStateAndUpdateNeighbourCount(state, boardStart.x + x, boardStart.y + y, nextGeneration);
+    }
+
+    /**
+     * Sets the state of a cell in the current generation.
+     * NOTE: this method has the side effect of updating the neighbour-count of nearby cells.
+     * This method is synchronized to prevent concurrency problems with the ThreadedSimulatorImpl implementation.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public synchronized void editThisGeneration(boolean state, int x, int y)
+    {
+        setStateAndUpdateNeighbourCount(state, boardStart.x + x, boardStart.y + y, thisGeneration);
+        modificationCount++;
+    }
+
+    private void setStateAndUpdateNeighbourCount(boolean state, int x, int y, ByteBuffer[] generation)
+    {
+        int delta;
+        if(state)
+            delta = 1;
+        else if(get(generation, x, y) >= 10)
+            delta = -1;
+        else
+            return;
+
+        add(generation, x, y, 10 * delta);
+        add(generation, x - 1, y - 1, delta);
+        add(generation, x,     y - 1, delta);
+        add(generation, x + 1, y - 1, delta);
+        add(generation, x - 1, y,     delta);
+        add(generation, x + 1, y,     delta);
+        add(generation, x - 1, y + 1, delta);
+        add(generation, x,     y + 1, delta);
+        add(generation, x + 1, y + 1, delta);
+    }
+
+    private int get(ByteBuffer[] generation, int x, int y)
+    {
+        return generation[y / rowsPerSegment].get((y % rowsPerSegment) * arrayWidth + x);
+    }
+
+    private void add(ByteBuffer[] generation, int x, int y, int delta)
+    {
+        ByteBuffer segment = generation[y / rowsPerSegment];
+        int index = (y % rowsPerSegment) * arrayWidth + x;
+        segment.put(index, (byte)(segment.get(index) + delta));
+    }
+
+    /**
+     * Makes the next generation become the current one.
+     * It also clears the old neighbour count, increases the board size if necessary
+     * and updates the file header.
+     */
+    @Override
+    public void makeNextGenerationCurrent()
+    {
+        ByteBuffer[] temp = thisGeneration;
+        thisGeneration = nextGeneration;
+        nextGeneration = temp;
+        currentRegion = 1 - currentRegion;
+
+        clearNeighbourCount();
+        increaseBoardSizeIfNecessary();
+        writeHeader();
+    }
+
+    /**
+     * Resets the next generation, including the border cells whose neighbour count was updated.
+     */
+    private void clearNeighbourCount()
+    {
+        int length = width + 2;
+        if(zeroRow == null || zeroRow.length < length)
+            zeroRow = new byte[length];
+
+        for(int y = boardStart.y - 1; y <= boardStart.y + height; y++)
+            nextGeneration[y / rowsPerSegment].put((y % rowsPerSegment) * arrayWidth + boardStart.x - 1, zeroRow, 0, length);
+    }
+
+    /**
+     * Searches along the edges for living cells and increases the board size if necessary.
+     * The board is extended under the same conditions as in {@link GameBoardDynamic}.
+     * If the new size is close to the buffer size, new larger buffers will be allocated.
+     * The file header, if any, is updated with the new size.
+     */
+    @Override
+    public void increaseBoardSizeIfNecessary()
+    {
+        if((long) arrayWidth * arrayHeight >= maxCellCount)
+            return;
+
+        boolean extendX = false;
+        boolean extendY = false;
+        int rightEdge = boardStart.x + width;
+        int bottomEdge = boardStart.y + height;
+
+        // Search along left and right edge.
+        for(int y = boardStart.y; y < bottomEdge; y++)
+            if(get(thisGeneration, boardStart.x, y) > 0 || get(thisGeneration, rightEdge, y) > 0)
+            {
+                width += 2;
+                extendX = true;
+                break;
+            }
+
+        //Search along top and bottom edge.
+        for(int x = boardStart.x; x < rightEdge; x++)
+            if(get(thisGeneration, x, boardStart.y) > 0 || get(thisGeneration, x, bottomEdge) > 0)
+            {
+                height += 2;
+                extendY = true;
+                break;
+            }
+
+        // Calculates a new start position if the size was increased.
+        if(extendX || extendY)
+            boardStart = new Point((arrayWidth - width) / 2, (arrayHeight - height) / 2);
+
+        // Increases the underlying buffer size if the start position is close to the edge.
+        if(boardStart.x <= 4 || boardStart.y <= 4)
+            increaseBufferSize(boardStart.x <= 4, boardStart.y <= 4);
+
+        if(extendX || extendY)
+            writeHeader();
+    }
+
+    /**
+     * Allocates new larger buffers and copies the current generation into them.
+     * A file-backed board maps the new buffers after the current ones in the same file, and then moves them
+     * back to the start of the file, as described in the class documentation. If the allocation fails, the
+     * board stops growing and the cause is kept.
+     */
+    private void increaseBufferSize(boolean xDir, boolean yDir)
+    {
+        int newArrayWidth = arrayWidth + ((xDir) ? sizeExtension * 2 : 0);
+        int newArrayHeight = arrayHeight + ((yDir) ? sizeExtension * 2 : 0);
+        Point newBoardStart = new Point((newArrayWidth - width) / 2, (newArrayHeight - height) / 2);
+        Storage oldStorage = storage;
+
+        try
+        {
+            if(file == null)
+            {
+                Storage newStorage = allocate(newArrayWidth, newArrayHeight);
+                copyBoard(newStorage.regions[0], newArrayWidth, newBoardStart);
+                setLayout(newStorage, newArrayWidth, newArrayHeight, newBoardStart, dataOffset, 0);
+            }
+            else
+            {
+                // The space after the old generations may hold old data if the file could not be truncated.
+                long tailOffset = dataOffset + 2L * arrayWidth * arrayHeight;
+                Storage tail = map(newArrayWidth, newArrayHeight, channel, tailOffset);
+                clear(tail.regions[0]);
+                clear(tail.regions[1]);
+                copyBoard(tail.regions[1], newArrayWidth, newBoardStart);
+                setLayout(tail, newArrayWidth, newArrayHeight, newBoardStart, tailOffset, 1);
+                release(oldStorage);
+                oldStorage = tail;
+
+                // The current generation at the start of the file can only overlap the unused generation at the tail.
+                // The next generation at the start may overlap the current one at the tail, so it is cleared last.
+                Storage front = map(newArrayWidth, newArrayHeight, channel, HEADER_SIZE);
+                clear(front.regions[0]);
+                copyBoard(front.regions[0], newArrayWidth, newBoardStart);
+                setLayout(front, newArrayWidth, newArrayHeight, newBoardStart, HEADER_SIZE, 0);
+                clear(nextGeneration);
+                release(oldStorage);
+                truncateFile();
+            }
+            sizeExtension += sizeExtension;
+            writeHeader();
+        }
+        catch (OutOfMemoryError | IOException | IllegalArgumentException e)
+        {
+            // Sets the new limit and keeps the cause.
+            maxCellCount = (long) arrayWidth * arrayHeight;
+            growthFailure = e;
+        }
+    }
+
+    /**
+     * Removes the old generations after the current ones. Some systems do not allow truncating a file that is
+     * still mapped, so if the old buffers could not be unmapped, the file may keep its size until it grows again.
+     */
+    private void truncateFile()
+    {
+        try
+        {
+            channel.truncate(HEADER_SIZE + 2L * arrayWidth * arrayHeight);
+        }
+        catch(IOException e)
+        {
+            // The board is valid without truncating the file.
+        }
+    }
+
+    /**
+     * Copies the current generation into a generation of another size, including the neighbour count of the
+     * border cells.
+     */
+    private void copyBoard(ByteBuffer[] target, int targetArrayWidth, Point targetBoardStart)
+    {
+        int targetRowsPerSegment = getRowsPerSegment(targetArrayWidth);
+        byte[] row = new byte[width + 2];
+        for(int y = -1; y <= height; y++)
+        {
+            int sourceY = boardStart.y + y;
+            int targetY = targetBoardStart.y + y;
+            thisGeneration[sourceY / rowsPerSegment].get((sourceY % rowsPerSegment) * arrayWidth + boardStart.x - 1, row);
+            target[targetY / targetRowsPerSegment].put((targetY % targetRowsPerSegment) * targetArrayWidth + targetBoardStart.x - 1, row);
+        }
+    }
+
+    /**
+     * Switches to new buffers, and points the file header to them.
+     */
+    private void setLayout(Storage storage, int arrayWidth, int arrayHeight, Point boardStart, long dataOffset,
+                           int currentRegion)
+    {
+        this.arrayWidth = arrayWidth;
+        this.arrayHeight = arrayHeight;
+        this.boardStart = boardStart;
+        this.dataOffset = dataOffset;
+        this.currentRegion = currentRegion;
+        setStorage(storage);
+        writeHeader();
+    }
+
+    private static void clear(ByteBuffer[] generation)
+    {
+        byte[] zeros = new byte[Math.min(1 << 16, generation[0].capacity())];
+        for(ByteBuffer segment : generation)
+            for(int i = 0; i < segment.capacity(); i += zeros.length)
+                segment.put(i, zeros, 0, Math.min(zeros.length, segment.capacity() - i));
+    }
+
+    /**
+     * Creates direct buffers for both generations.
+     */
+    private static Storage allocate(int arrayWidth, int arrayHeight)
+    {
+        Storage storage = new Storage();
+        int rowsPerSegment = getRowsPerSegment(arrayWidth);
+        for(int region = 0; region < 2; region++)
+        {
+            int segmentCount = (arrayHeight + rowsPerSegment - 1) / rowsPerSegment;
+            storage.regions[region] = new ByteBuffer[segmentCount];
+            for(int i = 0; i < segmentCount; i++)
+            {
+                int rows = Math.min(rowsPerSegment, arrayHeight - i * rowsPerSegment);
+                storage.regions[region][i] = ByteBuffer.allocateDirect(rows * arrayWidth);
+            }
+        }
+        return storage;
+    }
+
+    /**
+     * Maps the header and both generations of a file. Mapping beyond the end of the file extends it with zeros.
+     * @param dataOffset The position of the first generation in the file.
+     */
+    private static Storage map(int arrayWidth, int arrayHeight, FileChannel channel, long dataOffset)
+            throws IOException
+    {
+        Storage storage = new Storage();
+        int rowsPerSegment = getRowsPerSegment(arrayWidth);
+        long regionSize = (long) arrayWidth * arrayHeight;
+
+        storage.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        for(int region = 0; region < 2; region++)
+        {
+            int segmentCount = (arrayHeight + rowsPerSegment - 1) / rowsPerSegment;
+            storage.regions[region] = new ByteBuffer[segmentCount];
+            for(int i = 0; i < segmentCount; i++)
+            {
+                int rows = Math.min(rowsPerSegment, arrayHeight - i * rowsPerSegment);
+                long position = dataOffset + region * regionSize + (long) i * rowsPerSegment * arrayWidth;
+                storage.regions[region][i] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) rows * arrayWidth);
+            }
+        }
+        return storage;
+    }
+
+    /**
+     * Unmaps or frees the buffers right away, instead of when they are garbage collected. The JDK has no public
+     * way to do this, so if the internal method is not available the buffers are left to the garbage collector.
+     * The buffers must not be used afterwards.
+     */
+    private static void release(Storage storage)
+    {
+        if(UNMAPPER == null)
+            return;
+
+        try
+        {
+            if(storage.header != null)
+                UNMAPPER.invoke(UNSAFE, storage.header);
+            for(ByteBuffer[] region : storage.regions)
+                for(ByteBuffer segment : region)
+                    UNMAPPER.invoke(UNSAFE, segment);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            // The buffers are released by the garbage collector instead.
+        }
+    }
+
+    private static int getRowsPerSegment(int arrayWidth)
+    {
+        if(arrayWidth > MAX_SEGMENT_SIZE)
+            throw new IllegalArgumentException("The board is too wide: " + arrayWidth);
+
+        return MAX_SEGMENT_SIZE / arrayWidth;
+    }
+
+    private void setStorage(Storage storage)
+    {
+        this.storage = storage;
+        this.rowsPerSegment = getRowsPerSegment(arrayWidth);
+        thisGeneration = storage.regions[currentRegion];
+        nextGeneration = storage.regions[1 - currentRegion];
+    }
+
+    /**
+     * Stores the board layout in the file header, if the board is backed by a file.
+     */
+    private void writeHeader()
+    {
+        ByteBuffer header = storage.header;
+        if(header == null)
+            return;
+
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, arrayWidth);
+        header.putInt(12, arrayHeight);
+        header.putInt(16, width);
+        header.putInt(20, height);
+        header.putInt(24, boardStart.x);
+        header.putInt(28, boardStart.y);
+        header.putInt(32, sizeExtension);
+        header.putInt(36, currentRegion);
+        header.putLong(40, dataOffset);
+    }
+
+    /**
+     * Writes all changes of a file-backed board to the storage device.
+     */
+    public void flush()
+    {
+        if(storage.header == null)
+            return;
+
+        ((MappedByteBuffer) storage.header).force();
+        for(ByteBuffer[] region : storage.regions)
+            for(ByteBuffer segment : region)
+                ((MappedByteBuffer) segment).force();
+    }
+
+    /**
+     * Writes all changes to the file, if any, and releases the buffers and the file.
+     * The board can not be used afterwards. Closing a closed board has no effect.
+     * @throws IOException If the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(storage == null)
+            return;
+
+        flush();
+        Storage closedStorage = storage;
+        storage = null;
+        thisGeneration = null;
+        nextGeneration = null;
+        release(closedStorage);
+
+        if(channel != null)
+            channel.close();
+    }
+
+    /**
+     * @return The file backing this board, or null if it is stored in direct buffers.
+     */
+    public Path getFile()
+    {
+        return file;
+    }
+
+    /**
+     * @return The size of both generations in bytes, without the file header.
+     */
+    long getStorageSize()
+    {
+        return 2L * arrayWidth * arrayHeight;
+    }
+
+    /**
+     * @return The reason the board last failed to grow, or null if it never has.
+     */
+    public Throwable getGrowthFailure()
+    {
+        return growthFailure;
+    }
+
+    @Override
+    protected GameBoard getNewInstance(int width, int height)
+    {
+        return new GameBoardOffHeap(width, height);
+    }
+}
@@ -0,0 +1,167 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * <p>This class is an immutable copy of the current generation of another {@link GameBoard}.
+ * The cells are stored as one bit per cell, in rows laid out as in {@link #getRowOfThisGeneration(int, long[])},
+ * and the snapshot is taken with one row copy per row of the board.
+ *
+ * <p>The snapshot may be limited to an area of the board, e.g. the part that is visible on screen. It keeps the
+ * width and height of the whole board, so positions on the board stay the same, but only the rows and words
+ * covering the area are copied and stored, and every cell outside it reads as dead. A snapshot of a small area of
+ * a large board is then as cheap to take as the area is, not the board. Where the area covers less than half of
+ * the board's width, its cells are read one by one instead of reading whole rows.
+ *
+ * <p>A snapshot lets one thread read a generation while another thread simulates the next one on the original
+ * board. All fields are final and never written after construction, so a snapshot handed to another thread
+ * through a volatile field or an atomic reference can be read without any locking.
+ * It is used by the {@link GameModel} to hand the latest generation over to the renderer.
+ *
+ * <p>The snapshot can not be simulated or edited. Copies made with deepCopy() and trimmedCopy() are
+ * {@link GameBoardDynamic} boards, which can.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see GameModel#getSnapshot()
+ */
+public class GameBoardSnapshot extends GameBoard
+{
+    private final long[][] rows;
+    private final int startX;
+    private final int startY;
+    private final int stopX;
+    private final int stopY;
+
+    /**
+     * Copies the current generation of the given board.
+     * @param board The board to copy.
+     */
+    public GameBoardSnapshot(GameBoard board)
+    {
+        this(board, 0, 0, board.getWidth(), board.getHeight());
+    }
+
+    /**
+     * Copies the current generation of the given area of the board. The area is clipped to the board,
+     * and the cells outside of it read as dead.
+     * @param board The board to copy.
+     * @param x The first column of the area.
+     * @param y The first row of the area.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     */
+    public GameBoardSnapshot(GameBoard board, int x, int y, int width, int height)
+    {
+        super(board.getWidth(), board.getHeight());
+        this.startX = Math.max(0, Math.min(x, this.width));
+        this.startY = Math.max(0, Math.min(y, this.height));
+        this.stopX = (int) Math.max(startX, Math.min((long) x + width, this.width));
+        this.stopY = (int) Math.max(startY, Math.min((long) y + height, this.height));
+        this.rows = new long[stopY - startY][];
+
+        int firstWord = startX >>> 6;
+        int words = (stopX > startX) ? ((stopX - 1) >>> 6) - firstWord + 1 : 0;
+        boolean readRows = (stopX - startX) * 2 >= this.width;
+        long[] boardRow = null;
+        for(int row = 0; row < rows.length; row++)
+        {
+            long[] area = new long[words];
+            if(readRows)
+            {
+                boardRow = board.getRowOfThisGeneration(startY + row, boardRow);
+                System.arraycopy(boardRow, firstWord, area, 0, words);
+                if(words > 0)
+                {
+                    area[0] &= -1L << startX;
+                    area[words - 1] &= -1L >>> -stopX;
+                }
+            }
+            else
+            {
+                for(int column = startX; column < stopX; column++)
+                    if(board.isCellAliveInThisGeneration(column, startY + row))
+                        area[(column >>> 6) - firstWord] |= 1L << column;
+            }
+            rows[row] = area;
+        }
+    }
+
+    @Override
+    public boolean isCellAliveInThisGeneration(int x, int y)
+    {
+        if(x < startX || x >= stopX || y < startY || y >= stopY)
+            return false;
+
+        return ((rows[y - startY][(x >>> 6) - (startX >>> 6)] >>> x) & 1) == 1;
+    }
+
+    @Override
+    public int getAmountOfLivingNeighbours(int x, int y)
+    {
+        int count = 0;
+        for(int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++)
+            for(int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++)
+                if((nx != x || ny != y) && isCellAliveInThisGeneration(nx, ny))
+                    count++;
+
+        return count;
+    }
+
+    @Override
+    public double getBytesPerCell()
+    {
+        // One bit per cell, and a single generation.
+        return 0.125;
+    }
+
+    @Override
+    public long[] getRowOfThisGeneration(int y, long[] row)
+    {
+        int words = (width + 63) >>> 6;
+        if(row == null || row.length < words)
+            row = new long[words];
+        else
+            Arrays.fill(row, 0, words, 0);
+
+        if(y >= startY && y < stopY)
+        {
+            long[] area = rows[y - startY];
+            System.arraycopy(area, 0, row, startX >>> 6, area.length);
+        }
+        return row;
+    }
+
+    /**
+     * @throws UnsupportedOperationException The snapshot can not be simulated.
+     */
+    @Override
+    public void setStateInNextGeneration(boolean state, int x, int y)
+    {
+        throw new UnsupportedOperationException("A snapshot can not be simulated");
+    }
+
+    /**
+     * @throws UnsupportedOperationException The snapshot can not be edited.
+     */
+    @Override
+    public void editThisGeneration(boolean state, int x, int y)
+    {
+        throw new UnsupportedOperationException("A snapshot can not be edited");
+    }
+
+    /**
+     * @throws UnsupportedOperationException The snapshot can not be simulated.
+     */
+    @Override
+    public void makeNextGenerationCurrent()
+    {
+        throw new UnsupportedOperationException("A snapshot can not be simulated");
+    }
+
+    @Override
+    protected GameBoard getNewInstance(int width, int height)
+    {
+        return new GameBoardDynamic(width, height);
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.Arrays;
+
 /**
  * This class is a static implementation of GameBoard.
  * It uses a simpler way of counting neighbours and is slower than our newer {@link GameBoardDynamic dynamic version}.
@@ -23,10 +25,10 @@ public class GameBoardStatic extends GameBoard
     }
 
     @Override
-    public int getAmountOfLivingNeighbours(Point p)
+    public int getAmountOfLivingNeighbours(int x, int y)
     {
-        Point startPoint = new Point(Math.max(p.x-1, 0), Math.max(p.y-1, 0));
-        Point stopPoint = new Point(Math.min(p.x+2, super.getWidth()), Math.min(p.y+2, super.getHeight()));
+        Point startPoint = new Point(Math.max(x-1, 0), Math.max(y-1, 0));
+        Point stopPoint = new Point(Math.min(x+2, super.getWidth()), Math.min(y+2, super.getHeight()));
         Point cellPos = new Point();
         int countNeighbors = 0;
 
@@ -35,28 +37,29 @@ public class GameBoardStatic extends GameBoard
                 if (isCellAliveInThisGeneration(cellPos))
                     countNeighbors++;
 
-        if (isCellAliveInThisGeneration(p))
+        if (isCellAliveInThisGeneration(x, y))
             countNeighbors--;
 
         return countNeighbors;
     }
 
     @Override
-    public boolean isCellAliveInThisGeneration(Point p)
+    public boolean isCellAliveInThisGeneration(int x, int y)
     {
-        return thisGeneration[p.y][p.x];
+        return thisGeneration[y][x];
     }
 
     @Override
-    public void setStateInNextGeneration(boolean state, Point p)
+    public void setStateInNextGeneration(boolean state, int x, int y)
     {
-        nextGeneration[p.y][p.x] = state;
+        nextGeneration[y][x] = state;
     }
 
     @Override
-    public void editThisGeneration(boolean state, Point p)
+    public void editThisGeneration(boolean state, int x, int y)
     {
-        thisGeneration[p.y][p.x] = state;
+        thisGeneration[y][x] = state;
+        modificationCount++;
     }
 
     @Override
@@ -66,6 +69,10 @@ public class GameBoardStatic extends GameBoard
         boolean[][] temp = thisGeneration;
         thisGeneration = nextGeneration;
         nextGeneration = temp;
+
+        // Clears the old generation, so cells not set by the simulator are dead in the next generation.
+        for(boolean[] row : nextGeneration)
+            Arrays.fill(row, false);
     }
 
     @Override
@@ -0,0 +1,415 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>This class is a sparse implementation of {@link GameBoard} made of tiles of 64x64 cells.
+ * The tiles are stored in a hash map keyed by their tile coordinate, and only tiles containing living
+ * cells are kept. Every tile row is a single long where bit n holds the cell in column n.
+ * The board therefore grows without bound in every direction, and never needs to allocate or copy
+ * more than a single tile at a time.
+ *
+ * <p>The board keeps track of which tiles changed in the last generation. A tile that did not change,
+ * and is not next to a changed tile, will not change in the next generation either. The
+ * {@link model.simulation.BitwiseSimulatorImpl} uses this to only simulate the active tiles, see
+ * {@link #getActiveTileKeys()}. Other simulators set the cell states one at a time within the board size.
+ *
+ * <p>Like in {@link GameBoardHashLife}, the board size is a view of the universe which covers all living
+ * cells with a border of one dead cell. The view is never decreased.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see GameBoardDynamic
+ * @see model.simulation.BitwiseSimulatorImpl
+ */
+public class GameBoardTiled extends GameBoard
+{
+    public static final int TILE_SIZE = 64;
+
+    private Map<Long, Tile> tiles = new ConcurrentHashMap<>();
+    private Set<Long> changedTiles = new HashSet<>();
+    private Set<Long> simulatedTiles;
+    private int viewX;
+    private int viewY;
+
+    private static final class Tile
+    {
+        long[] rows = new long[TILE_SIZE];
+        long[] nextRows = new long[TILE_SIZE];
+    }
+
+    /**
+     * @param width The initial width of the board.
+     * @param height The initial height of the board.
+     */
+    public GameBoardTiled(int width, int height)
+    {
+        super(width, height);
+    }
+
+    /**
+     * Creates the key of a tile in the tile map from its tile coordinate.
+     * @param tileX The x coordinate of the tile.
+     * @param tileY The y coordinate of the tile.
+     * @return The key of the tile.
+     */
+    public static long getTileKey(int tileX, int tileY)
+    {
+        return ((long) tileX << 32) | (tileY & 0xffffffffL);
+    }
+
+    public static int getTileX(long key)
+    {
+        return (int)(key >> 32);
+    }
+
+    public static int getTileY(long key)
+    {
+        return (int) key;
+    }
+
+    @Override
+    public int getAmountOfLivingNeighbours(int x, int y)
+    {
+        x += viewX;
+        y += viewY;
+        return getCell(x - 1, y - 1) + getCell(x, y - 1) + getCell(x + 1, y - 1) +
+               getCell(x - 1, y)                         + getCell(x + 1, y) +
+               getCell(x - 1, y + 1) + getCell(x, y + 1) + getCell(x + 1, y + 1);
+    }
+
+    @Override
+    public boolean isCellAliveInThisGeneration(int x, int y)
+    {
+        return getCell(viewX + x, viewY + y) == 1;
+    }
+
+    private int getCell(int x, int y)
+    {
+        Tile tile = tiles.get(getTileKey(x >> 6, y >> 6));
+        return tile == null ? 0 : (int)(tile.rows[y & 63] >>> x) & 1;
+    }
+
+    /**
+     * Sets the state of a cell in the next generation.
+     * Tiles are only created for living cells. Every word is only written by one thread at a time when used with
+     * the ThreadedSimulatorImpl or the ForkJoinSimulatorImpl, and the tile map supports concurrent insertion.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public void setStateInNextGeneration(boolean state, int x, int y)
+    {
+        x += viewX;
+        y += viewY;
+        long key = getTileKey(x >> 6, y >> 6);
+
+        if(state)
+            tiles.computeIfAbsent(key, k -> new Tile()).nextRows[y & 63] |= 1L << x;
+        else
+        {
+            Tile tile = tiles.get(key);
+            if(tile != null)
+                tile.nextRows[y & 63] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Sets the state of a cell in the current generation and marks its tile as changed.
+     * This method is synchronized to prevent concurrency problems with the ThreadedSimulatorImpl implementation.
+     * @param state The state indicating whether the cell should be living (true) or dead (false).
+     * @param x The x coordinate of the cell to be set.
+     * @param y The y coordinate of the cell to be set.
+     */
+    @Override
+    public synchronized void editThisGeneration(boolean state, int x, int y)
+    {
+        x += viewX;
+        y += viewY;
+        long key = getTileKey(x >> 6, y >> 6);
+
+        if(state)
+            tiles.computeIfAbsent(key, k -> new Tile()).rows[y & 63] |= 1L << x;
+        else
+        {
+            Tile tile = tiles.get(key);
+            if(tile == null)
+                return;
+            tile.rows[y & 63] &= ~(1L << x);
+        }
+        changedTiles.add(key);
+        modificationCount++;
+    }
+
+    /**
+     * Starts a simulation of the active tiles. These are the tiles that changed in the last generation
+     * and all tiles next to them, including tiles that do not exist yet. When a simulation is started,
+     * makeNextGenerationCurrent() only updates the tiles given to {@link #setNextTileRows(long, long[])}.
+     * All other tiles keep their state.
+     * @return The keys of the tiles to be simulated.
+     */
+    public long[] getActiveTileKeys()
+    {
+        Set<Long> activeTiles = new HashSet<>();
+        for(long key : changedTiles)
+        {
+            int tileX = getTileX(key);
+            int tileY = getTileY(key);
+            for(int dy = -1; dy <= 1; dy++)
+                for(int dx = -1; dx <= 1; dx++)
+                    activeTiles.add(getTileKey(tileX + dx, tileY + dy));
+        }
+
+        simulatedTiles = new HashSet<>();
+        long[] keys = new long[activeTiles.size()];
+        int i = 0;
+        for(long key : activeTiles)
+            keys[i++] = key;
+
+        return keys;
+    }
+
+    /**
+     * Gives direct access to the rows of a tile in the current generation.
+     * @param key The key of the tile.
+     * @return The 64 rows of the tile, or null if the tile has no living cells.
+     */
+    public long[] getTileRows(long key)
+    {
+        Tile tile = tiles.get(key);
+        return tile == null ? null : tile.rows;
+    }
+
+    /**
+     * Sets the rows of a tile in the next generation, after a call to {@link #getActiveTileKeys()}.
+     * The rows are copied into the next rows of the tile, so the caller may reuse the array. A tile is only
+     * created if the rows have living cells, and its rows in the current generation are empty until
+     * makeNextGenerationCurrent() is called, as if it did not exist.
+     * @param key The key of the tile.
+     * @param rows The 64 rows of the tile in the next generation.
+     */
+    public void setNextTileRows(long key, long[] rows)
+    {
+        Tile tile = tiles.get(key);
+        if(tile == null)
+        {
+            if(isEmpty(rows))
+                return;
+            tile = new Tile();
+            tiles.put(key, tile);
+        }
+        System.arraycopy(rows, 0, tile.nextRows, 0, TILE_SIZE);
+        simulatedTiles.add(key);
+    }
+
+    /**
+     * Makes the next generation become the current one.
+     * Records which tiles changed, removes tiles without living cells and extends the view if necessary.
+     */
+    @Override
+    public void makeNextGenerationCurrent()
+    {
+        Set<Long> newChangedTiles = new HashSet<>();
+        List<Long> emptyTiles = new ArrayList<>();
+
+        if(simulatedTiles != null)
+        {
+            for(long key : simulatedTiles)
+            {
+                Tile tile = tiles.get(key);
+                if(!Arrays.equals(tile.rows, tile.nextRows))
+                {
+                    newChangedTiles.add(key);
+                    long[] temp = tile.rows;
+                    tile.rows = tile.nextRows;
+                    tile.nextRows = temp;
+                }
+                Arrays.fill(tile.nextRows, 0);
+
+                if(isEmpty(tile.rows))
+                    emptyTiles.add(key);
+            }
+            simulatedTiles = null;
+        }
+        else
+        {
+            for(Map.Entry<Long, Tile> entry : tiles.entrySet())
+            {
+                Tile tile = entry.getValue();
+                long[] temp = tile.rows;
+                tile.rows = tile.nextRows;
+                tile.nextRows = temp;
+                if(!Arrays.equals(tile.rows, tile.nextRows))
+                    newChangedTiles.add(entry.getKey());
+
+                Arrays.fill(tile.nextRows, 0);
+                if(isEmpty(tile.rows))
+                    emptyTiles.add(entry.getKey());
+            }
+        }
+
+        for(long key : emptyTiles)
+            tiles.remove(key);
+
+        changedTiles = newChangedTiles;
+        increaseViewIfNecessary();
+    }
+
+    @Override
+    public double getBytesPerCell()
+    {
+        // One bit per cell in the rows and next rows of every tile.
+        return 0.25;
+    }
+
+    /**
+     * Extends the view to cover edited cells.
+     */
+    @Override
+    public void increaseBoardSizeIfNecessary()
+    {
+        increaseViewIfNecessary();
+    }
+
+    private static boolean isEmpty(long[] rows)
+    {
+        for(long row : rows)
+            if(row != 0)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Extends the view to cover the living cells in the changed tiles with a border of one dead cell.
+     * Only changed tiles need to be searched, as the view already covers all other living cells.
+     */
+    private void increaseViewIfNecessary()
+    {
+        int startX = viewX, startY = viewY;
+        long stopX = (long) viewX + width, stopY = (long) viewY + height;
+
+        for(long key : changedTiles)
+        {
+            int[] box = getTileBoundingBox(key);
+            if(box == null)
+                continue;
+
+            startX = Math.min(startX, box[0] - 1);
+            startY = Math.min(startY, box[1] - 1);
+            stopX = Math.max(stopX, box[2] + 2L);
+            stopY = Math.max(stopY, box[3] + 2L);
+        }
+
+        viewX = startX;
+        viewY = startY;
+        width = (int) Math.min(Integer.MAX_VALUE, stopX - startX);
+        height = (int) Math.min(Integer.MAX_VALUE, stopY - startY);
+    }
+
+    /**
+     * @return The corners of the living cells of a tile in universe coordinates {minX, minY, maxX, maxY},
+     * or null if the tile is empty.
+     */
+    private int[] getTileBoundingBox(long key)
+    {
+        Tile tile = tiles.get(key);
+        if(tile == null)
+            return null;
+
+        long columns = 0;
+        int minY = -1, maxY = -1;
+        for(int y = 0; y < TILE_SIZE; y++)
+        {
+            if(tile.rows[y] != 0)
+            {
+                columns |= tile.rows[y];
+                if(minY == -1)
+                    minY = y;
+                maxY = y;
+            }
+        }
+
+        if(minY == -1)
+            return null;
+
+        int tileX = getTileX(key) * TILE_SIZE;
+        int tileY = getTileY(key) * TILE_SIZE;
+        return new int[]
+        {
+            tileX + Long.numberOfTrailingZeros(columns),
+            tileY + minY,
+            tileX + 63 - Long.numberOfLeadingZeros(columns),
+            tileY + maxY
+        };
+    }
+
+    /**
+     * Counts the living cells in all tiles.
+     * @return The total amount of living cells.
+     */
+    @Override
+    public int getPopulation()
+    {
+        int count = 0;
+        for(Tile tile : tiles.values())
+            for(long row : tile.rows)
+                count += Long.bitCount(row);
+
+        return count;
+    }
+
+    /**
+     * Finds the top-left and bottom-right corners of the living cells by searching every tile.
+     * @return A Point array. First element = start, last element = stop.
+     */
+    @Override
+    public Point[] getBoundingBox()
+    {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+        for(long key : tiles.keySet())
+        {
+            int[] box = getTileBoundingBox(key);
+            if(box == null)
+                continue;
+
+            minX = Math.min(minX, box[0]);
+            minY = Math.min(minY, box[1]);
+            maxX = Math.max(maxX, box[2]);
+            maxY = Math.max(maxY, box[3]);
+        }
+
+        // If no living cells where found, return full size.
+        if(minX == Integer.MAX_VALUE)
+            return new Point[] {new Point(), new Point(width, height)};
+
+        return new Point[]
+        {
+            new Point(minX - viewX, minY - viewY),
+            new Point(maxX - viewX + 1, maxY - viewY + 1)
+        };
+    }
+
+    /**
+     * @return The amount of tiles containing living cells.
+     */
+    public int getTileCount()
+    {
+        return tiles.size();
+    }
+
+    @Override
+    protected GameBoard getNewInstance(int width, int height)
+    {
+        return new GameBoardTiled(width, height);
+    }
+}
@@ -2,11 +2,17 @@ package model;
 
 import model.simulation.*;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * This class contains the applications main game logic and data.
  * It supplies getters and setter for the {@link GameBoard} and {@link Simulator} objects, as well
  * as a simulateNextGeneration() method to carry out the logic on the data.
  *
+ * <p>While one thread simulates the board, another thread may read the latest published generation as an
+ * immutable {@link GameBoardSnapshot}. The snapshot is handed over through an {@link AtomicReference}, so neither
+ * thread ever waits for the other.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  */
@@ -15,6 +21,8 @@ public class GameModel
 {
     private GameBoard gameBoard;
     private Simulator simulator;
+    private int hashLifeStepExponent;
+    private final AtomicReference<GameBoardSnapshot> snapshot = new AtomicReference<>();
 
     /**
      * The constructor sets up a default GameBoard and Simulator with the DefaultRule.
@@ -33,6 +41,55 @@ public class GameModel
         simulator.simulateNextGenerationOn(getGameBoard());
     }
 
+    /**
+     * Moves the set board the given amount of generations forward in one call.
+     * @param generations The amount of generations to simulate.
+     * @see Simulator#simulateGenerations(GameBoard, int)
+     */
+    public void simulateGenerations(int generations)
+    {
+        simulator.simulateGenerations(getGameBoard(), generations);
+    }
+
+    /**
+     * Takes a snapshot of the current generation and makes it available through getSnapshot().
+     * Should be called by the thread simulating the board, between two generations.
+     * @return The published snapshot.
+     */
+    public GameBoardSnapshot publishSnapshot()
+    {
+        GameBoardSnapshot newSnapshot = new GameBoardSnapshot(getGameBoard());
+        snapshot.set(newSnapshot);
+        return newSnapshot;
+    }
+
+    /**
+     * Takes a snapshot of the given area of the current generation and makes it available through getSnapshot().
+     * Only the area is copied, so the cost follows the size of the area and not of the board.
+     * Should be called by the thread simulating the board, between two generations.
+     * @param x The first column of the area.
+     * @param y The first row of the area.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     * @return The published snapshot.
+     * @see GameBoardSnapshot#GameBoardSnapshot(GameBoard, int, int, int, int)
+     */
+    public GameBoardSnapshot publishSnapshot(int x, int y, int width, int height)
+    {
+        GameBoardSnapshot newSnapshot = new GameBoardSnapshot(getGameBoard(), x, y, width, height);
+        snapshot.set(newSnapshot);
+        return newSnapshot;
+    }
+
+    /**
+     * Returns the latest published snapshot. The snapshot may be read from any thread.
+     * @return The latest snapshot, or null if none has been published since the board was set.
+     */
+    public GameBoardSnapshot getSnapshot()
+    {
+        return snapshot.get();
+    }
+
     public GameBoard getGameBoard()
     {
         return gameBoard;
@@ -43,8 +100,97 @@ public class GameModel
         return simulator;
     }
 
+    /**
+     * Sets the board to be simulated. When the HashLife engine is enabled,
+     * the board is converted to a {@link GameBoardHashLife}.
+     * @param board The new board.
+     */
     public void setGameBoard(GameBoard board)
     {
+        if(isHashLifeEnabled() && !(board instanceof GameBoardHashLife))
+            board = copyCells(board, new GameBoardHashLife(board.getWidth(), board.getHeight()));
+
         this.gameBoard = board;
+        snapshot.set(null);
+    }
+
+    /**
+     * Replaces the simulator. The rule of the current simulator is kept, and the current simulator is shut down.
+     * @param simulator The new simulator.
+     */
+    public void setSimulator(Simulator simulator)
+    {
+        Simulator oldSimulator = this.simulator;
+        simulator.setRule(oldSimulator.getSimulationRule());
+        this.simulator = simulator;
+
+        if(oldSimulator != simulator)
+            oldSimulator.shutdown();
+    }
+
+    /**
+     * Switches between the {@link HashLifeSimulatorImpl} and the default {@link ThreadedSimulatorImpl}.
+     * The current board is converted to the board type the selected engine works best with.
+     * @param enabled True to use the HashLife engine.
+     */
+    public void setHashLifeEnabled(boolean enabled)
+    {
+        if(enabled == isHashLifeEnabled())
+            return;
+
+        if(enabled)
+        {
+            setSimulator(new HashLifeSimulatorImpl(simulator.getSimulationRule(), hashLifeStepExponent));
+            setGameBoard(gameBoard);
+        }
+        else
+        {
+            setSimulator(new ThreadedSimulatorImpl(simulator.getSimulationRule()));
+            setGameBoard(copyCells(gameBoard, new GameBoardDynamic(gameBoard.getWidth(), gameBoard.getHeight())));
+        }
+    }
+
+    /**
+     * Sets the amount of generations the HashLife engine advances per step, as a power of two.
+     * The exponent is kept while the engine is disabled, and used when it is enabled again.
+     * @param stepExponent The step exponent, giving 2^stepExponent generations per step.
+     * @throws IllegalArgumentException If the exponent is out of range.
+     * @see HashLifeSimulatorImpl#setStepExponent(int)
+     */
+    public void setHashLifeStepExponent(int stepExponent)
+    {
+        if(stepExponent < 0 || stepExponent > HashLifeSimulatorImpl.MAX_STEP_EXPONENT)
+            throw new IllegalArgumentException("The step exponent must be between 0 and " +
+                    HashLifeSimulatorImpl.MAX_STEP_EXPONENT + ", was: " + stepExponent);
+
+        hashLifeStepExponent = stepExponent;
+        if(isHashLifeEnabled())
+            ((HashLifeSimulatorImpl) simulator).setStepExponent(stepExponent);
+    }
+
+    /**
+     * @return The step exponent used by the HashLife engine.
+     */
+    public int getHashLifeStepExponent()
+    {
+        return hashLifeStepExponent;
+    }
+
+    /**
+     * @return True if the HashLife engine is used.
+     */
+    public boolean isHashLifeEnabled()
+    {
+        return simulator instanceof HashLifeSimulatorImpl;
+    }
+
+    private static GameBoard copyCells(GameBoard source, GameBoard target)
+    {
+        for(int y = 0; y < source.getHeight(); y++)
+            for(int x = 0; x < source.getWidth(); x++)
+                if(source.isCellAliveInThisGeneration(x, y))
+                    target.editThisGeneration(true, x, y);
+
+        return target;
     }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package model.patternIO;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * This class is a parser implementation for the binary .golb format, written by the {@link BinaryPatternExporter}.
+ * The format is meant for saving and restoring large boards, and is read directly from the buffer given by the
+ * {@link PatternLoader}, so the rows are copied as whole words instead of being decoded from text.
+ *
+ * <p>The file holds, in big-endian order:
+ * <pre>
+ *     "GOLB", version (int)
+ *     name, author, comments, rule (int length in bytes and UTF-8, or -1 if missing)
+ *     generation (long), width (int), height (int)
+ *     every row: {@value #ROW_EMPTY} for a row without living cells, or {@value #ROW_BITS} and the row
+ *                as (width + 63) / 64 longs, laid out as in {@link Pattern#getCellRows()}
+ *     CRC32C of all of the above (int)
+ * </pre>
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see BinaryPatternExporter
+ * @see PatternLoader
+ */
+public class BinaryParser implements Parser
+{
+    static final int MAGIC = 0x474F4C42;
+    static final int VERSION = 1;
+    static final byte ROW_EMPTY = 0;
+    static final byte ROW_BITS = 1;
+    static final int NO_STRING = -1;
+
+    /**
+     * Verifies the checksum of the file and reads the pattern from the buffer.
+     * @param buffer A buffer holding the file content from its position to its limit.
+     * @return A Pattern object.
+     * @throws PatternFormatException If the file is not in the binary format, or if it is damaged.
+     */
+    @Override
+    public Pattern parse(ByteBuffer buffer) throws PatternFormatException
+    {
+        ByteBuffer data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        if(data.remaining() < Integer.BYTES)
+            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+
+        int end = data.limit() - Integer.BYTES;
+        CRC32C checksum = new CRC32C();
+        checksum.update(data.duplicate().limit(end));
+        if((int) checksum.getValue() != data.getInt(end))
+            throw new PatternFormatException(PatternFormatException.ErrorCode.CHECKSUM_MISMATCH);
+
+        data.limit(end);
+        try
+        {
+            if(data.getInt() != MAGIC || data.getInt() != VERSION)
+                throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+
+            Pattern pattern = new Pattern();
+            pattern.setName(readString(data));
+            pattern.setAuthor(readString(data));
+            String comments = readString(data);
+            pattern.setComments(comments != null ? comments : "");
+            pattern.setRuleString(readString(data));
+            pattern.setGeneration(data.getLong());
+
+            int width = data.getInt();
+            int height = data.getInt();
+            if(width < 0 || height < 0)
+                throw new PatternFormatException(PatternFormatException.ErrorCode.PATTERN_SIZE_NOT_DEFINED);
+
+            int words = (width + 63) >>> 6;
+            long lastWordMask = -1L >>> -width;
+            long[][] rows = new long[height][words];
+            for(long[] row : rows)
+            {
+                byte kind = data.get();
+                if(kind == ROW_BITS)
+                {
+                    data.asLongBuffer().get(row);
+                    data.position(data.position() + words * Long.BYTES);
+                    if(words > 0)
+                        row[words - 1] &= lastWordMask;
+                }
+                else if(kind != ROW_EMPTY)
+                    throw new PatternFormatException(PatternFormatException.ErrorCode.ERROR_IN_CELL_DATA);
+            }
+
+            pattern.setCellRows(rows, width);
+            return pattern;
+        }
+        catch(BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e)
+        {
+            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+        }
+    }
+
+    /**
+     * Reads the metadata, rule, generation and size, leaving the rows unread and the checksum unchecked.
+     * This is used by the {@link PatternCatalogue} to index patterns without loading them.
+     * @param in The stream to read from.
+     * @return A Pattern object holding everything but the cells.
+     * @throws IOException If reading from the stream fails.
+     * @throws PatternFormatException If the file is not in the binary format.
+     */
+    @Override
+    public Pattern parseHeader(InputStream in) throws IOException, PatternFormatException
+    {
+        DataInputStream dataIn = new DataInputStream(in);
+        if(dataIn.readInt() != MAGIC || dataIn.readInt() != VERSION)
+            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+
+        Pattern pattern = new Pattern();
+        pattern.setName(readString(dataIn));
+        pattern.setAuthor(readString(dataIn));
+        String comments = readString(dataIn);
+        pattern.setComments(comments != null ? comments : "");
+        pattern.setRuleString(readString(dataIn));
+        pattern.setGeneration(dataIn.readLong());
+        pattern.setSize(dataIn.readInt(), dataIn.readInt());
+        return pattern;
+    }
+
+    /**
+     * Reads the next row from a stream positioned after the header, see {@link #parseHeader(InputStream)},
+     * or after the previous row. This lets a large board be read one row at a time, without loading the file.
+     * The checksum is not checked.
+     * @param in The stream to read from.
+     * @param width The width of the pattern.
+     * @param row An array to reuse, or null.
+     * @return The row, laid out as in {@link Pattern#getCellRows()}.
+     * @throws IOException If reading from the stream fails.
+     * @throws PatternFormatException If the row is damaged.
+     */
+    public static long[] readRow(DataInputStream in, int width, long[] row) throws IOException, PatternFormatException
+    {
+        int words = (width + 63) >>> 6;
+        if(row == null || row.length < words)
+            row = new long[words];
+
+        byte kind = in.readByte();
+        if(kind == ROW_EMPTY)
+        {
+            Arrays.fill(row, 0, words, 0);
+            return row;
+        }
+        if(kind != ROW_BITS)
+            throw new PatternFormatException(PatternFormatException.ErrorCode.ERROR_IN_CELL_DATA);
+
+        for(int i = 0; i < words; i++)
+            row[i] = in.readLong();
+        if(words > 0)
+            row[words - 1] &= -1L >>> -width;
+        return row;
+    }
+
+    private static String readString(ByteBuffer data)
+    {
+        int length = data.getInt();
+        if(length == NO_STRING)
+            return null;
+
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException, PatternFormatException
+    {
+        int length = in.readInt();
+        if(length == NO_STRING)
+            return null;
+        if(length < 0)
+            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
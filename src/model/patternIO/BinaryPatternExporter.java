@@ -0,0 +1,186 @@
+package model.patternIO;
+
+import model.GameBoard;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Handles exporting of a {@link Pattern} or a whole {@link GameBoard} to the binary .golb format,
+ * described in {@link BinaryParser}.
+ *
+ * <p>The rows are written one at a time through a direct buffer of {@value #BUFFER_BYTES} bytes, which is
+ * written to a {@link FileChannel} whenever it is full, so the file is never held in memory as a whole.
+ * A board is exported straight from its rows, without creating a Pattern, which makes it possible to
+ * checkpoint boards too large to hold twice in memory. The checksum is updated from the buffer before
+ * every write.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see BinaryParser
+ * @see PatternExporter
+ */
+public class BinaryPatternExporter
+{
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32C checksum = new CRC32C();
+    private FileChannel channel;
+
+    /**
+     * Writes the metadata, rule, generation and cells of a pattern to a file.
+     * @param pattern The pattern to be exported.
+     * @param destinationFile The output file.
+     * @throws IOException If any problems occur while writing to the given file.
+     */
+    public void export(Pattern pattern, File destinationFile) throws IOException
+    {
+        if(!pattern.hasCellData())
+            throw new IllegalArgumentException("The cells of the pattern are not loaded");
+
+        long[][] rows = pattern.getCellRows();
+        export(pattern, pattern.getWidth(), pattern.getHeight(), (y, row) -> rows[y], destinationFile);
+    }
+
+    /**
+     * Writes the current generation of a board to a file, with the metadata, rule and generation
+     * of the given pattern. The cells of the pattern are not used.
+     * @param board The board to be exported.
+     * @param metadata A pattern holding the name, author, comments, rule and generation, e.g. the pattern
+     *                 the board was created from.
+     * @param destinationFile The output file.
+     * @throws IOException If any problems occur while writing to the given file.
+     */
+    public void export(GameBoard board, Pattern metadata, File destinationFile) throws IOException
+    {
+        export(metadata, board.getWidth(), board.getHeight(), board::getRowOfThisGeneration, destinationFile);
+    }
+
+    /**
+     * Supplies the rows to export, laid out as in {@link GameBoard#getRowOfThisGeneration(int, long[])}.
+     */
+    private interface RowSource
+    {
+        long[] getRow(int y, long[] row);
+    }
+
+    private void export(Pattern metadata, int width, int height, RowSource rows, File destinationFile)
+            throws IOException
+    {
+        buffer.clear();
+        checksum.reset();
+
+        try(FileChannel fileChannel = FileChannel.open(destinationFile.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            channel = fileChannel;
+
+            buffer.putInt(BinaryParser.MAGIC);
+            buffer.putInt(BinaryParser.VERSION);
+            putString(metadata.getName());
+            putString(metadata.getAuthor());
+            putString(metadata.getComments());
+            putString(metadata.getRuleString());
+            ensureRemaining(Long.BYTES + 2 * Integer.BYTES);
+            buffer.putLong(metadata.getGeneration());
+            buffer.putInt(width);
+            buffer.putInt(height);
+
+            int words = (width + 63) >>> 6;
+            long[] row = null;
+            for(int y = 0; y < height; y++)
+            {
+                row = rows.getRow(y, row);
+                ensureRemaining(1);
+                if(isEmpty(row, words))
+                {
+                    buffer.put(BinaryParser.ROW_EMPTY);
+                    continue;
+                }
+
+                buffer.put(BinaryParser.ROW_BITS);
+                putLongs(row, words);
+            }
+
+            ensureRemaining(Integer.BYTES);
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            buffer.limit(buffer.limit() + Integer.BYTES);
+            buffer.putInt(buffer.limit() - Integer.BYTES, (int) checksum.getValue());
+            writeBuffer();
+        }
+        finally
+        {
+            channel = null;
+        }
+    }
+
+    private static boolean isEmpty(long[] row, int words)
+    {
+        for(int i = 0; i < words; i++)
+            if(row[i] != 0)
+                return false;
+
+        return true;
+    }
+
+    private void putString(String string) throws IOException
+    {
+        ensureRemaining(Integer.BYTES);
+        if(string == null)
+        {
+            buffer.putInt(BinaryParser.NO_STRING);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        for(int offset = 0; offset < bytes.length; )
+        {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Copies the words into the buffer in bulk, flushing the buffer as it fills up.
+     */
+    private void putLongs(long[] row, int words) throws IOException
+    {
+        for(int offset = 0; offset < words; )
+        {
+            ensureRemaining(Long.BYTES);
+            int length = Math.min(buffer.remaining() / Long.BYTES, words - offset);
+            LongBuffer longs = buffer.asLongBuffer();
+            longs.put(row, offset, length);
+            buffer.position(buffer.position() + length * Long.BYTES);
+            offset += length;
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException
+    {
+        if(buffer.remaining() < bytes)
+        {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            writeBuffer();
+            buffer.clear();
+        }
+    }
+
+    private void writeBuffer() throws IOException
+    {
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
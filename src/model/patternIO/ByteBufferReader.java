@@ -0,0 +1,133 @@
+package model.patternIO;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is a Reader decoding the bytes of a {@link ByteBuffer} directly, used by the {@link PatternLoader}
+ * to give the parsers the content of a whole file without a stream or a decoder between every character.
+ *
+ * <p>Pattern files are mostly ASCII, so a byte below 128 is returned as it is. Other bytes are decoded as UTF-8,
+ * and bytes not forming a valid UTF-8 sequence are read as ISO-8859-1, which keeps older files with e.g.
+ * Latin-1 comments readable. A byte order mark at the start of the buffer is skipped.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see PatternLoader
+ */
+final class ByteBufferReader extends Reader
+{
+    private static final int END_OF_BUFFER = -1;
+    private static final int NO_SURROGATE = -1;
+
+    private final ByteBuffer buffer;
+    private int pendingLowSurrogate = NO_SURROGATE;
+
+    /**
+     * @param buffer The buffer to read from. The reader reads from the position to the limit of the buffer.
+     */
+    ByteBufferReader(ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+
+        if(buffer.remaining() >= 3 && (buffer.get(buffer.position()) & 0xFF) == 0xEF &&
+                (buffer.get(buffer.position() + 1) & 0xFF) == 0xBB && (buffer.get(buffer.position() + 2) & 0xFF) == 0xBF)
+            buffer.position(buffer.position() + 3);
+    }
+
+    @Override
+    public int read()
+    {
+        if(pendingLowSurrogate != NO_SURROGATE)
+        {
+            int character = pendingLowSurrogate;
+            pendingLowSurrogate = NO_SURROGATE;
+            return character;
+        }
+
+        if(!buffer.hasRemaining())
+            return END_OF_BUFFER;
+
+        byte b = buffer.get();
+        return (b >= 0) ? b : decode(b & 0xFF);
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length)
+    {
+        if(length == 0)
+            return 0;
+
+        int count = 0;
+        while(count < length)
+        {
+            int character = read();
+            if(character == END_OF_BUFFER)
+                break;
+
+            chars[offset + count++] = (char) character;
+        }
+        return (count == 0) ? END_OF_BUFFER : count;
+    }
+
+    /**
+     * Decodes a UTF-8 sequence starting with the given byte. If the sequence is not valid,
+     * the first byte is returned as an ISO-8859-1 character and the following bytes are left unread.
+     * @param first The first byte of the sequence, which is 128 or more.
+     * @return The decoded character, or the high surrogate of a character outside the basic plane.
+     */
+    private int decode(int first)
+    {
+        int continuationBytes;
+        int codePoint;
+        if(first >= 0xC2 && first <= 0xDF)
+        {
+            continuationBytes = 1;
+            codePoint = first & 0x1F;
+        }
+        else if(first >= 0xE0 && first <= 0xEF)
+        {
+            continuationBytes = 2;
+            codePoint = first & 0x0F;
+        }
+        else if(first >= 0xF0 && first <= 0xF4)
+        {
+            continuationBytes = 3;
+            codePoint = first & 0x07;
+        }
+        else
+            return first;
+
+        int position = buffer.position();
+        if(buffer.remaining() < continuationBytes)
+            return first;
+
+        for(int i = 0; i < continuationBytes; i++)
+        {
+            int b = buffer.get(position + i) & 0xFF;
+            if((b & 0xC0) != 0x80)
+                return first;
+
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+
+        // Rejects overlong sequences, surrogates and code points past the Unicode range.
+        int minimum = (continuationBytes == 1) ? 0x80 : (continuationBytes == 2) ? 0x800 : 0x10000;
+        if(codePoint < minimum || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) ||
+                codePoint > Character.MAX_CODE_POINT)
+            return first;
+
+        buffer.position(position + continuationBytes);
+
+        if(Character.isBmpCodePoint(codePoint))
+            return codePoint;
+
+        pendingLowSurrogate = Character.lowSurrogate(codePoint);
+        return Character.highSurrogate(codePoint);
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -8,13 +8,15 @@ package model.patternIO;
  * @author Julie Katrine Høvik
  * @see RLEParser
  * @see LIFEParser
+ * @see BinaryParser
  */
 
 public enum FileFormat
 {
     rle  { Parser getParser() { return new RLEParser();}},
     lif  { Parser getParser() { return new LIFEParser();}},
-    life { Parser getParser() { return new LIFEParser();}};
+    life { Parser getParser() { return new LIFEParser();}},
+    golb { Parser getParser() { return new BinaryParser();}};
 
     /**
      * @return The associated parser for the specified file type.
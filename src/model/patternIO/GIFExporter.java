@@ -2,7 +2,6 @@ package model.patternIO;
 
 import lieng.GIFWriter;
 import model.GameBoard;
-import model.Point;
 import model.simulation.Simulator;
 import java.awt.Color;
 import java.io.File;
@@ -67,7 +66,7 @@ public class GIFExporter
         drawFrame(board);
 
         // Simulate the next generation
-        simulator.simulateNextGenerationOn(board);
+        simulator.simulateGenerations(board, 1);
 
         // Call this method recursively to generate the next frame.
         export(trimmedAndCentered ? board.trimmedCopy(1) : board, numberOfFrames - 1);
@@ -83,16 +82,19 @@ public class GIFExporter
         int startX = cellSize * ((width / 2) - (board.getWidth() / 2));
         int startY = cellSize * ((height / 2) - (board.getHeight() / 2));
 
-        Point pos = new Point();
-        for(pos.y = 0; pos.y < board.getHeight(); pos.y++)
-            for(pos.x = 0; pos.x < board.getWidth(); pos.x++)
-                if(board.isCellAliveInThisGeneration(pos))
+        long[] row = null;
+        for(int y = 0; y < board.getHeight(); y++)
+        {
+            row = board.getRowOfThisGeneration(y, row);
+            for(int x = 0; x < board.getWidth(); x++)
+                if(((row[x >>> 6] >>> x) & 1) == 1)
                     writer.fillRect(
-                            startX + cellSize * pos.x,
-                            startX + cellSize * (pos.x + 1),
-                            startY + cellSize * pos.y,
-                            startY + cellSize * (pos.y + 1),
+                            startX + cellSize * x,
+                            startX + cellSize * (x + 1),
+                            startY + cellSize * y,
+                            startY + cellSize * (y + 1),
                             Color.BLACK);
+        }
 
         writer.insertAndProceed();
     }
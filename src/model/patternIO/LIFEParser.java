@@ -17,11 +17,11 @@ import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
  *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
- * @see Parser
+ * @see TextParser
  * @see FileFormat
  * @see PatternLoader
  */
-public class LIFEParser implements Parser
+public class LIFEParser implements TextParser
 {
     private List<String> metadata;
     private String format;
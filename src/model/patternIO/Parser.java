@@ -1,24 +1,38 @@
 package model.patternIO;
 
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
  /**
   * This interface enables different parsers implementations for different file formats.
+  * A parser reads either a whole file from a buffer, or only the header of a file from a stream.
+  * Text formats implement {@link TextParser}, which reads both through a Reader.
   *
   * @author Niklas Johansen
   * @author Julie Katrine Høvik
   * @see RLEParser
   * @see LIFEParser
+  * @see BinaryParser
   */
 public interface Parser
 {
     /**
-     * Parses the content of a Reader and returns a {@link Pattern}.
-     * @param reader A Reader.
+     * Parses the content of a buffer holding a whole file and returns a {@link Pattern}.
+     * @param buffer A buffer holding the file content from its position to its limit.
      * @return A new Pattern object containing the board data.
      * @throws IOException If reading the file content fails.
      * @throws PatternFormatException If parsing the data fails.
      */
-    Pattern parse(Reader reader) throws IOException, PatternFormatException;
+    Pattern parse(ByteBuffer buffer) throws IOException, PatternFormatException;
+
+    /**
+     * Reads the metadata, rule and size of a pattern, reading as little of the stream as the format allows.
+     * This is used by the {@link PatternCatalogue} to index patterns without loading them.
+     * @param in The stream to read from. It is not closed.
+     * @return A Pattern object holding everything but the cells.
+     * @throws IOException If reading from the stream fails.
+     * @throws PatternFormatException If parsing the header fails.
+     */
+    Pattern parseHeader(InputStream in) throws IOException, PatternFormatException;
 }
@@ -1,11 +1,11 @@
 package model.patternIO;
 
 import model.*;
-import model.simulation.CustomRule;
 import model.simulation.DefaultRule;
 import model.simulation.SimulationRule;
 
 import java.util.List;
+import java.util.function.BiFunction;
 
 import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
 
@@ -14,6 +14,11 @@ import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
  * It supplies getters and setters for this information, as well as a method for generating a {@link GameBoard}
  * from the cell data.
  *
+ * <p>The cells are stored as rows of bits, laid out as in {@link GameBoard#getRowOfThisGeneration(int, long[])},
+ * which makes a loaded pattern take one bit per cell. Large patterns should be read through
+ * {@link #isCellAlive(int, int)} or {@link #getCellRows()}, as {@link #getCellData()} creates a boolean array
+ * of the whole pattern.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  * @see Parser
@@ -26,7 +31,10 @@ public class Pattern
     private String author;
     private String origin;
     private String comments;
-    private boolean[][] cellData;
+    private long[][] cellRows;
+    private int width;
+    private int height;
+    private long generation;
 
     /**
      * Adds the loaded metadata to the pattern.
@@ -60,9 +68,34 @@ public class Pattern
         comments = commentBuilder.toString();
     }
 
+    /**
+     * Sets the cells from a boolean array, indexed by row and column.
+     * @param cellData The states of the cells.
+     */
     public void setCellData(boolean[][] cellData)
     {
-        this.cellData = cellData;
+        int width = (cellData.length > 0) ? cellData[0].length : 0;
+        long[][] rows = new long[cellData.length][(width + 63) >>> 6];
+
+        for(int y = 0; y < cellData.length; y++)
+            for(int x = 0; x < width; x++)
+                if(cellData[y][x])
+                    rows[y][x >>> 6] |= 1L << x;
+
+        setCellRows(rows, width);
+    }
+
+    /**
+     * Sets the cells from rows of bits, where bit n of word i holds the cell in column i * 64 + n.
+     * The rows are used directly, without being copied.
+     * @param cellRows The rows of the pattern.
+     * @param width The width of the pattern.
+     */
+    public void setCellRows(long[][] cellRows, int width)
+    {
+        this.cellRows = cellRows;
+        this.width = width;
+        this.height = cellRows.length;
     }
 
     public void setRuleString(String ruleString)
@@ -75,6 +108,34 @@ public class Pattern
         this.origin = origin;
     }
 
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public void setAuthor(String author)
+    {
+        this.author = author;
+    }
+
+    public void setComments(String comments)
+    {
+        this.comments = comments;
+    }
+
+    /**
+     * @param generation The generation the cells were saved in, as stored by the binary format.
+     */
+    public void setGeneration(long generation)
+    {
+        this.generation = generation;
+    }
+
+    public long getGeneration()
+    {
+        return generation;
+    }
+
     public String getName()
     {
         return name;
@@ -95,11 +156,69 @@ public class Pattern
         return author;
     }
 
+    /**
+     * Sets the size of a pattern whose cells are not loaded, as listed by the {@link PatternCatalogue}.
+     * Any cells already set are released.
+     * @param width The width of the pattern.
+     * @param height The height of the pattern.
+     */
+    void setSize(int width, int height)
+    {
+        this.cellRows = null;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return True if the cells of the pattern are loaded, false if it only holds the metadata.
+     */
+    public boolean hasCellData()
+    {
+        return cellRows != null;
+    }
+
+    /**
+     * Creates a boolean array holding the cells of the pattern, indexed by row and column.
+     * @return A new array of the size of the pattern.
+     */
     public boolean[][] getCellData()
     {
+        boolean[][] cellData = new boolean[height][width];
+        for(int y = 0; y < height; y++)
+            for(int x = 0; x < width; x++)
+                cellData[y][x] = isCellAlive(x, y);
+
         return cellData;
     }
 
+    /**
+     * @return The rows of the pattern, laid out as described in {@link #setCellRows(long[][], int)}.
+     */
+    public long[][] getCellRows()
+    {
+        return cellRows;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * @param x The column of the cell.
+     * @param y The row of the cell.
+     * @return True if the cell is alive.
+     */
+    public boolean isCellAlive(int x, int y)
+    {
+        return ((cellRows[y][x >>> 6] >>> x) & 1) == 1;
+    }
+
     public String getRuleString()
     {
         return ruleString;
@@ -107,16 +226,24 @@ public class Pattern
 
     /**
      * Returns a SimulationRule object from the patterns rule string.
+     * Unknown rules are replaced with the default rule.
      * @return A new SimulationRule
-     * @see CustomRule
+     * @see SimulationRule#fromRuleString(String)
      * @see DefaultRule
      */
     public SimulationRule getRule()
     {
-        if(ruleString != null && !ruleString.equals(DEFAULT_RULE_STRING))
-            return new CustomRule(ruleString);
-        else
+        if(ruleString == null || ruleString.equals(DEFAULT_RULE_STRING))
             return new DefaultRule();
+
+        try
+        {
+            return SimulationRule.fromRuleString(ruleString);
+        }
+        catch (PatternFormatException | IllegalArgumentException e)
+        {
+            return new DefaultRule();
+        }
     }
 
     /**
@@ -127,7 +254,7 @@ public class Pattern
         return (name != null ? ("Name: " + name + '\n') : "")  +
                 (author != null ? ("Author: " + author + '\n') : "") +
                 (ruleString != null ? ("Rule: " + ruleString + '\n') : "Default ruleset: " + DEFAULT_RULE_STRING + "\n") +
-                "Size: " + cellData[0].length + " x " + cellData.length + "\n" +
+                "Size: " + width + " x " + height + "\n" +
                 (!comments.isEmpty() ? ("\nComments: \n" + comments) : "");
     }
 
@@ -138,15 +265,33 @@ public class Pattern
      */
     public GameBoard getGameBoard()
     {
-        int width = cellData[0].length + 2;
-        int height = cellData.length + 2;
+        return getGameBoard(GameBoardDynamic::new);
+    }
 
-        Point cellPos = new Point();
-        GameBoard gameBoard = new GameBoardDynamic(width, height);
+    /**
+     * Generates a {@link GameBoard} object from the patterns cell data using the given board implementation.
+     * The method adds a border of dead cells around the pattern. As the new board is empty, only the living
+     * cells are set, found directly from the set bits of the rows.
+     * @param boardFactory A function creating an empty board from a width and a height, e.g. GameBoardBitPacked::new.
+     * @return A GameBoard created by the given factory.
+     */
+    public GameBoard getGameBoard(BiFunction<Integer, Integer, GameBoard> boardFactory)
+    {
+        GameBoard gameBoard = boardFactory.apply(width + 2, height + 2);
 
-        for (cellPos.y = 1; cellPos.y < height-1; cellPos.y++)
-            for (cellPos.x = 1; cellPos.x < width-1; cellPos.x++)
-                gameBoard.editThisGeneration(cellData[cellPos.y-1][cellPos.x-1], cellPos);
+        for (int y = 0; y < height; y++)
+        {
+            long[] row = cellRows[y];
+            for (int i = 0; i < row.length; i++)
+            {
+                long word = row[i];
+                while (word != 0)
+                {
+                    gameBoard.editThisGeneration(true, (i << 6) + Long.numberOfTrailingZeros(word) + 1, y + 1);
+                    word &= word - 1;
+                }
+            }
+        }
 
         return gameBoard;
     }
@@ -0,0 +1,402 @@
+package model.patternIO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * <p>This class lists the patterns in a directory or a zip archive without loading their cells.
+ * Only the header lines of an .rle file are read (#N, #O, #C and x = .., y = .., rule = ..), and the cell data
+ * is left unread until a pattern is {@link Entry#load() loaded}. The Life formats have no size in their header,
+ * so .lif and .life files are parsed in full once, and only their metadata is kept. The header of a binary
+ * .golb file is read without its rows.
+ *
+ * <p>The headers are stored in an index file, together with the size and the modification time of every file.
+ * A later scan only reads the files that are new or have changed since the index was written, so a library of
+ * thousands of patterns is listed from the index alone. Files that could not be read or parsed are stored in the
+ * index too, without a header, so they are not read again until they change.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see PatternLoader
+ */
+public class PatternCatalogue
+{
+    private static final int INDEX_VERSION = 2;
+    private static final int NO_STRING = -1;
+
+    private final File source;
+    private final File indexFile;
+    private List<Entry> entries = new ArrayList<>();
+
+    /**
+     * @param source A directory, which is searched with its subdirectories, or a zip archive.
+     * @param indexFile The file to store the index in.
+     */
+    public PatternCatalogue(File source, File indexFile)
+    {
+        this.source = source;
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Creates a catalogue storing its index in the temporary directory, named after the path of the source.
+     * @param source A directory, which is searched with its subdirectories, or a zip archive.
+     */
+    public PatternCatalogue(File source)
+    {
+        this(source, new File(System.getProperty("java.io.tmpdir"),
+                "patterns-" + Integer.toHexString(source.getAbsolutePath().hashCode()) + ".idx"));
+    }
+
+    /**
+     * This class holds the metadata and size of a pattern in the catalogue, and loads its cells on demand.
+     */
+    public static class Entry
+    {
+        private final Pattern header;
+        private final long fileSize;
+        private final long lastModified;
+        private final boolean parsed;
+
+        private Entry(Pattern header, long fileSize, long lastModified, boolean parsed)
+        {
+            this.header = header;
+            this.fileSize = fileSize;
+            this.lastModified = lastModified;
+            this.parsed = parsed;
+        }
+
+        /**
+         * Creates the entry of a file that could not be read or parsed, which only holds its origin.
+         */
+        private static Entry failed(String origin, long fileSize, long lastModified)
+        {
+            Pattern header = new Pattern();
+            header.setOrigin(origin);
+            return new Entry(header, fileSize, lastModified, false);
+        }
+
+        private boolean isUnchanged(long fileSize, long lastModified)
+        {
+            return this.fileSize == fileSize && this.lastModified == lastModified;
+        }
+
+        /**
+         * @return The prefixed path of the pattern, as used by {@link PatternLoader#loadFromPrefixedPath(String)}.
+         */
+        public String getOrigin()
+        {
+            return header.getOrigin();
+        }
+
+        public String getName()
+        {
+            return header.getName();
+        }
+
+        public String getAuthor()
+        {
+            return header.getAuthor();
+        }
+
+        public String getRuleString()
+        {
+            return header.getRuleString();
+        }
+
+        public int getWidth()
+        {
+            return header.getWidth();
+        }
+
+        public int getHeight()
+        {
+            return header.getHeight();
+        }
+
+        /**
+         * @return A String containing the pattern name, author and additional information.
+         * @see Pattern#getAllMetadata()
+         */
+        public String getAllMetadata()
+        {
+            return header.getAllMetadata();
+        }
+
+        /**
+         * Loads the whole pattern, including its cells.
+         * @return A new Pattern object.
+         * @throws IOException If a problem occurs while reading the file content.
+         * @throws PatternFormatException If a problem occurs while parsing the file.
+         */
+        public Pattern load() throws IOException, PatternFormatException
+        {
+            return new PatternLoader().loadFromPrefixedPath(getOrigin());
+        }
+    }
+
+    /**
+     * Lists the patterns of the source, reading the headers of new and changed files and reusing the index for
+     * the rest. The index file is rewritten if any file was read. Files that fail to be read or parsed are left
+     * out, and are not read again by later scans until their size or modification time changes.
+     * @return The entries of the catalogue, sorted by their path.
+     * @throws IOException If the source could not be listed, or the index could not be written.
+     */
+    public List<Entry> scan() throws IOException
+    {
+        Map<String, Entry> indexed = new HashMap<>();
+        for(Entry entry : readIndex())
+            indexed.put(entry.getOrigin(), entry);
+
+        List<Entry> scanned = new ArrayList<>();
+        boolean changed;
+        if(source.isDirectory())
+            changed = scanDirectory(indexed, scanned);
+        else
+            changed = scanArchive(indexed, scanned);
+
+        if(changed || scanned.size() != indexed.size())
+            writeIndex(scanned);
+
+        entries = scanned.stream().filter(entry -> entry.parsed).collect(Collectors.toList());
+        return getEntries();
+    }
+
+    /**
+     * Reads the header of a single pattern stored as an application resource, e.g. a pattern bundled in the
+     * JAR file. The entry is not stored in any index.
+     * @param path The path of the resource.
+     * @return The entry of the pattern, with the origin "STREAM:" + path.
+     * @throws IOException If the resource could not be read.
+     * @throws PatternFormatException If the header of the pattern could not be parsed.
+     */
+    public static Entry readResourceEntry(String path) throws IOException, PatternFormatException
+    {
+        try(InputStream in = PatternCatalogue.class.getResourceAsStream(path))
+        {
+            if(in == null)
+                throw new FileNotFoundException(path);
+
+            Entry entry = readEntry(in, "STREAM:" + path, 0, 0);
+            if(!entry.parsed)
+                throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+            return entry;
+        }
+    }
+
+    /**
+     * @return The entries found by the last scan.
+     */
+    public List<Entry> getEntries()
+    {
+        return Collections.unmodifiableList(entries);
+    }
+
+    private boolean scanDirectory(Map<String, Entry> indexed, List<Entry> scanned) throws IOException
+    {
+        List<Path> files;
+        try(Stream<Path> paths = Files.walk(source.toPath()))
+        {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> isSupported(path.toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        boolean changed = false;
+        for(Path path : files)
+        {
+            File file = path.toFile();
+            String origin = "FILE:" + file.getPath();
+
+            long fileSize = file.length();
+            long lastModified = file.lastModified();
+            Entry entry = indexed.get(origin);
+            if(entry == null || !entry.isUnchanged(fileSize, lastModified))
+            {
+                changed = true;
+                try(InputStream in = new FileInputStream(file))
+                {
+                    entry = readEntry(in, origin, fileSize, lastModified);
+                }
+                catch(IOException e)
+                {
+                    entry = Entry.failed(origin, fileSize, lastModified);
+                }
+            }
+            scanned.add(entry);
+        }
+        return changed;
+    }
+
+    private boolean scanArchive(Map<String, Entry> indexed, List<Entry> scanned) throws IOException
+    {
+        boolean changed = false;
+        try(ZipFile zipFile = new ZipFile(source))
+        {
+            List<ZipEntry> files = zipFile.stream()
+                    .filter(zipEntry -> !zipEntry.isDirectory() && isSupported(zipEntry.getName()))
+                    .sorted(Comparator.comparing(ZipEntry::getName))
+                    .collect(Collectors.toList());
+
+            for(ZipEntry zipEntry : files)
+            {
+                String origin = "ZIP:" + source.getPath() + PatternLoader.ARCHIVE_SEPARATOR + zipEntry.getName();
+
+                Entry entry = indexed.get(origin);
+                if(entry == null || !entry.isUnchanged(zipEntry.getSize(), zipEntry.getTime()))
+                {
+                    changed = true;
+                    try(InputStream in = zipFile.getInputStream(zipEntry))
+                    {
+                        entry = readEntry(in, origin, zipEntry.getSize(), zipEntry.getTime());
+                    }
+                    catch(IOException e)
+                    {
+                        entry = Entry.failed(origin, zipEntry.getSize(), zipEntry.getTime());
+                    }
+                }
+                scanned.add(entry);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isSupported(String path)
+    {
+        try
+        {
+            PatternLoader.getParser(path);
+            return true;
+        }
+        catch(PatternFormatException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the header of a pattern with the parser of its format, see {@link Parser#parseHeader(InputStream)}.
+     * @return The new entry, which is marked as failed if the pattern could not be parsed.
+     */
+    private static Entry readEntry(InputStream in, String origin, long fileSize, long lastModified)
+            throws IOException
+    {
+        try
+        {
+            Pattern header = PatternLoader.getParser(origin).parseHeader(in);
+            header.setOrigin(origin);
+            return new Entry(header, fileSize, lastModified, true);
+        }
+        catch(PatternFormatException e)
+        {
+            return Entry.failed(origin, fileSize, lastModified);
+        }
+    }
+
+    /**
+     * Reads the entries of the index file. A missing file, or a file written by another version, gives no entries.
+     */
+    private List<Entry> readIndex()
+    {
+        List<Entry> indexed = new ArrayList<>();
+        if(!indexFile.isFile())
+            return indexed;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile))))
+        {
+            if(in.readInt() != INDEX_VERSION)
+                return indexed;
+
+            int count = in.readInt();
+            for(int i = 0; i < count; i++)
+            {
+                String origin = readString(in);
+                if(!in.readBoolean())
+                {
+                    indexed.add(Entry.failed(origin, in.readLong(), in.readLong()));
+                    continue;
+                }
+
+                Pattern header = new Pattern();
+                header.setOrigin(origin);
+                header.setName(readString(in));
+                header.setAuthor(readString(in));
+                header.setComments(readString(in));
+                header.setRuleString(readString(in));
+                header.setSize(in.readInt(), in.readInt());
+                indexed.add(new Entry(header, in.readLong(), in.readLong(), true));
+            }
+        }
+        catch(IOException e)
+        {
+            // A damaged index is rebuilt from the files.
+            indexed.clear();
+        }
+        return indexed;
+    }
+
+    private void writeIndex(List<Entry> entries) throws IOException
+    {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile))))
+        {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(entries.size());
+            for(Entry entry : entries)
+            {
+                Pattern header = entry.header;
+                writeString(out, header.getOrigin());
+                out.writeBoolean(entry.parsed);
+                if(!entry.parsed)
+                {
+                    out.writeLong(entry.fileSize);
+                    out.writeLong(entry.lastModified);
+                    continue;
+                }
+
+                writeString(out, header.getName());
+                writeString(out, header.getAuthor());
+                writeString(out, header.getComments());
+                writeString(out, header.getRuleString());
+                out.writeInt(header.getWidth());
+                out.writeInt(header.getHeight());
+                out.writeLong(entry.fileSize);
+                out.writeLong(entry.lastModified);
+            }
+        }
+    }
+
+    // The strings are written with their length in bytes, as writeUTF() is limited to 64 KiB, e.g. for comments.
+    private static void writeString(DataOutputStream out, String string) throws IOException
+    {
+        if(string == null)
+        {
+            out.writeInt(NO_STRING);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        int length = in.readInt();
+        if(length == NO_STRING)
+            return null;
+        if(length < 0)
+            throw new IOException("Damaged index");
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,17 +1,32 @@
 package model.patternIO;
 
+import model.GameBoard;
+
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
 
 /**
- * Handles exporting of a {@link Pattern} object to a .rle file.
+ * Handles exporting of a {@link Pattern} object, or the current generation of a {@link GameBoard}, to a .rle file.
+ *
+ * <p>The cell data is written one row at a time to a buffered Writer, so the file is never built in memory.
+ * The runs are found from the words of each row, laid out as in {@link GameBoard#getRowOfThisGeneration(int, long[])},
+ * and empty rows are only counted until the next row with living cells. Dead cells at the end of a row and
+ * empty rows at the end of the pattern are left out, as the size is given by the header. The lines of cell
+ * data are kept within {@value #MAX_LINE_LENGTH} characters, as recommended by the format.
  *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  */
 public class PatternExporter
 {
+    private static final int MAX_LINE_LENGTH = 70;
+
+    private Writer writer;
+    private int lineLength;
+
     /**
      * Formats and writes the data in a given pattern to a file.
      * @param pattern The pattern to be exported.
@@ -20,91 +35,163 @@ public class PatternExporter
      */
     public void export(Pattern pattern, File destinationFile) throws IOException
     {
-        StringBuilder sBuilder = new StringBuilder();
+        try(Writer writer = Files.newBufferedWriter(destinationFile.toPath(), StandardCharsets.UTF_8))
+        {
+            export(pattern, writer);
+        }
+    }
 
-        addMetadataLine(sBuilder, "#N ", pattern.getName());
-        addMetadataLine(sBuilder, "#O ", pattern.getAuthor());
+    /**
+     * Formats and writes the data in a given pattern to a Writer. The writer is not closed.
+     * @param pattern The pattern to be exported.
+     * @param writer The writer to write to, preferably buffered.
+     * @throws IOException If any problems occur while writing.
+     */
+    public void export(Pattern pattern, Writer writer) throws IOException
+    {
+        if(!pattern.hasCellData())
+            throw new IllegalArgumentException("The cells of the pattern are not loaded");
+
+        long[][] rows = pattern.getCellRows();
+        export(pattern, pattern.getWidth(), pattern.getHeight(), (y, row) -> rows[y], writer);
+    }
 
-        addComments(sBuilder, pattern.getComments());
-        addBoardSizeAndRule(sBuilder, pattern.getCellData(), pattern.getRuleString());
+    /**
+     * Writes the current generation of a board to a file, with the metadata and rule of the given pattern.
+     * The cells of the pattern are not used.
+     * @param board The board to be exported.
+     * @param metadata A pattern holding the name, author, comments and rule.
+     * @param destinationFile The output file.
+     * @throws IOException If any problems occur while writing to the given file.
+     */
+    public void export(GameBoard board, Pattern metadata, File destinationFile) throws IOException
+    {
+        try(Writer writer = Files.newBufferedWriter(destinationFile.toPath(), StandardCharsets.UTF_8))
+        {
+            export(metadata, board.getWidth(), board.getHeight(), board::getRowOfThisGeneration, writer);
+        }
+    }
 
-        sBuilder.append(getCellDataAsString(pattern.getCellData()));
+    /**
+     * Supplies the rows to export, laid out as in {@link GameBoard#getRowOfThisGeneration(int, long[])}.
+     */
+    private interface RowSource
+    {
+        long[] getRow(int y, long[] row);
+    }
 
-        FileWriter writer = new FileWriter(destinationFile);
-        writer.write(sBuilder.toString());
-        writer.close();
+    private void export(Pattern metadata, int width, int height, RowSource rows, Writer writer) throws IOException
+    {
+        this.writer = writer;
+        try
+        {
+            addMetadataLine("#N ", metadata.getName());
+            addMetadataLine("#O ", metadata.getAuthor());
+            addComments(metadata.getComments());
+            addBoardSizeAndRule(width, height, metadata.getRuleString());
+            addCellData(width, height, rows);
+        }
+        finally
+        {
+            this.writer = null;
+        }
     }
 
-    private void addComments(StringBuilder sb, String data)
+    private void addComments(String data) throws IOException
     {
         if(data != null && !data.isEmpty())
             for(String comment : data.split("\n"))
-                addMetadataLine(sb, "#C ", comment);
+                addMetadataLine("#C ", comment);
     }
 
-    private void addMetadataLine(StringBuilder sb, String prefix, String data)
+    private void addMetadataLine(String prefix, String data) throws IOException
     {
         if(data != null && data.length() > 0)
-            sb.append(prefix + data + "\n");
+            writer.write(prefix + data + "\n");
     }
 
-    private void addBoardSizeAndRule(StringBuilder sb, boolean[][] data, String rule)
+    private void addBoardSizeAndRule(int width, int height, String rule) throws IOException
     {
         if(rule == null || rule.isEmpty())
             rule = DEFAULT_RULE_STRING;
 
-        sb.append("x = " + data[0].length + ", y = " + data.length + ", rule = " + rule + "\n");
+        writer.write("x = " + width + ", y = " + height + ", rule = " + rule + "\n");
     }
 
-    private String getCellDataAsString(boolean[][] data)
+    /**
+     * Writes the runs of every row. The end of row marks are held back until the next row with living cells,
+     * so a series of empty rows becomes one "n$".
+     */
+    private void addCellData(int width, int height, RowSource rows) throws IOException
     {
-        if(data == null)
-            return "";
-
-        StringBuilder sb = new StringBuilder();
-        int rowLength = data[0].length;
-        for(int y = 0; y < data.length; y++)
+        lineLength = 0;
+        int lastRowWritten = 0;
+        long[] row = null;
+        for(int y = 0; y < height; y++)
         {
-            int count = 0;
-            boolean cellState = data[y][0];
-            for(int x = 0; x < rowLength; x++)
-            {
-                if(cellState == data[y][x])
-                    count++;
-                else
-                {
-                    sb.append(count == 1 ? "" : count);
-                    sb.append(cellState ? 'o' : 'b');
-                    cellState = data[y][x];
-                    count = 1;
-                }
-            }
+            row = rows.getRow(y, row);
+
+            int start = nextCell(row, 0, width, true);
+            if(start == width)
+                continue;
 
-            // If the whole row was empty, only add the $
-            if(!(count == rowLength && !cellState))
+            if(y > lastRowWritten)
+                addRun(y - lastRowWritten, '$');
+            lastRowWritten = y;
+
+            int x = 0;
+            while(start < width)
             {
-                sb.append(count == 1 ? "" : count);
-                sb.append(cellState ? 'o' : 'b');
+                int end = nextCell(row, start, width, false);
+                if(start > x)
+                    addRun(start - x, 'b');
+                addRun(end - start, 'o');
+
+                x = end;
+                start = nextCell(row, end, width, true);
             }
-            sb.append('$');
         }
+        if(lineLength + 1 >= MAX_LINE_LENGTH)
+            writer.write('\n');
+        writer.write("!\n");
+    }
 
-        // Replace the last $ with !
-        sb.replace(sb.length()-1, sb.length(), "!");
-
-        // Replace multiple occurrences of $ with n$
-        for(int i = 0, count = 0; i < sb.length(); i++)
+    /**
+     * Writes a run, starting a new line first if the run would make the line too long.
+     */
+    private void addRun(int count, char tag) throws IOException
+    {
+        String run = (count == 1) ? String.valueOf(tag) : count + String.valueOf(tag);
+        if(lineLength + run.length() >= MAX_LINE_LENGTH)
         {
-            if(sb.charAt(i) == '$')
-                count++;
-            else if(count > 1)
-            {
-                sb.replace(i - count, i, count + "$");
-                count = i = 0;
-            }
-            else count = 0;
+            writer.write('\n');
+            lineLength = 0;
         }
+        writer.write(run);
+        lineLength += run.length();
+    }
 
-        return sb.toString();
+    /**
+     * Finds the next living or dead cell in a row.
+     * @param row The words of the row.
+     * @param from The first cell to check.
+     * @param width The width of the row.
+     * @param alive True to find the next living cell, false to find the next dead cell.
+     * @return The column of the cell found, or the width if there is none.
+     */
+    private static int nextCell(long[] row, int from, int width, boolean alive)
+    {
+        if(from >= width)
+            return width;
+
+        int i = from >>> 6;
+        long word = (alive ? row[i] : ~row[i]) & (-1L << from);
+        while(word == 0)
+        {
+            if(++i << 6 >= width)
+                return width;
+            word = alive ? row[i] : ~row[i];
+        }
+        return Math.min(width, (i << 6) + Long.numberOfTrailingZeros(word));
     }
 }
@@ -23,6 +23,7 @@ public class PatternFormatException extends Exception
         GENERAL_LOADING_ERROR,
         UNKNOWN_RULE_FORMAT,
         ERROR_IN_CELL_DATA,
+        CHECKSUM_MISMATCH,
         WRONG_PATH_PREFIX,
         NO_LIVING_CELLS,
         NOT_SPECIFIED
@@ -49,6 +50,9 @@ public class PatternFormatException extends Exception
             case ERROR_IN_CELL_DATA:
                 return "Failed to load the pattern.\nAn error was discovered in the file content.";
 
+            case CHECKSUM_MISMATCH:
+                return "Failed to load the pattern.\nThe file is damaged, as its checksum does not match the content.";
+
             case PATTERN_SIZE_NOT_DEFINED:
                 return "Failed to load the pattern.\nInformation about the pattern size is missing or corrupted.";
 
@@ -3,21 +3,36 @@ package model.patternIO;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * This class consists of methods for loading {@link Pattern patterns} from files.
  * A file can be obtained through a web address or machine local path.
  * Supported formats are listed in the {@link FileFormat} class.
  *
+ * <p>The whole file is read into a {@link ByteBuffer} before it is parsed. The text parsers read it through a
+ * {@link ByteBufferReader}, which decodes ASCII directly from the bytes, while the {@link BinaryParser} reads
+ * the buffer itself. Local files are read through a
+ * {@link FileChannel}, and files larger than {@value #MAP_THRESHOLD_BYTES} bytes are memory mapped instead
+ * of being copied. Streams, web addresses and archive entries are read in one go into a byte array.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  * @see Parser
  */
 public class PatternLoader
 {
+    static final String ARCHIVE_SEPARATOR = "!/";
+    private static final int MAP_THRESHOLD_BYTES = 1 << 20;
+
     /**
      * Loads a file from a prefixed path and returns a Pattern object.
-     * The supported prefixes are FILE:, STREAM: and URL:.
+     * The supported prefixes are FILE:, STREAM:, URL: and ZIP:, where a ZIP: path is on the
+     * form "ZIP:archive!/entry".
      *
      * @param path The prefixed path.
      * @return A Pattern object parsed from the specified file.
@@ -32,6 +47,12 @@ public class PatternLoader
             return loadURL(path.substring(4));
         else if(path.startsWith("STREAM:"))
             return loadAsStream(path.substring(7));
+        else if(path.startsWith("ZIP:") && path.contains(ARCHIVE_SEPARATOR))
+        {
+            int separator = path.indexOf(ARCHIVE_SEPARATOR);
+            return loadFromArchive(new File(path.substring(4, separator)),
+                    path.substring(separator + ARCHIVE_SEPARATOR.length()));
+        }
         else
             throw new PatternFormatException(PatternFormatException.ErrorCode.WRONG_PATH_PREFIX);
     }
@@ -46,7 +67,21 @@ public class PatternLoader
      */
     public Pattern loadFile(File file) throws IOException, PatternFormatException
     {
-        return loadPattern(new FileReader(file), "FILE:" + file.getPath());
+        String path = "FILE:" + file.getPath();
+        Parser parser = getParser(path);
+
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if(size > MAP_THRESHOLD_BYTES)
+                return parsePattern(parser, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), path);
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while(buffer.hasRemaining() && channel.read(buffer) != -1)
+                ;
+            buffer.flip();
+            return parsePattern(parser, buffer, path);
+        }
     }
 
     /**
@@ -61,7 +96,12 @@ public class PatternLoader
      */
     public Pattern loadAsStream(String path) throws IOException, PatternFormatException
     {
-        return loadPattern(new InputStreamReader(getClass().getResourceAsStream(path)), "STREAM:" + path);
+        Parser parser = getParser(path);
+        InputStream stream = getClass().getResourceAsStream(path);
+        if(stream == null)
+            throw new FileNotFoundException(path);
+
+        return parsePattern(parser, readAllBytes(stream), "STREAM:" + path);
     }
 
     /**
@@ -74,38 +114,67 @@ public class PatternLoader
      */
     public Pattern loadURL(String url) throws IOException, PatternFormatException
     {
+        Parser parser = getParser(url);
         URL destination = new URL(url);
         URLConnection urlConnection = destination.openConnection();
-        return loadPattern(new InputStreamReader(urlConnection.getInputStream()), "URL:" + url);
+        return parsePattern(parser, readAllBytes(urlConnection.getInputStream()), "URL:" + url);
     }
 
-    private Pattern loadPattern(Reader reader, String path) throws IOException, PatternFormatException
+    /**
+     * Loads a file stored in a zip archive and returns a Pattern object.
+     *
+     * @param archive The zip archive.
+     * @param entryName The name of the file within the archive.
+     * @return A Pattern object parsed from the specified file.
+     * @throws IOException If the archive or the file could not be read.
+     * @throws PatternFormatException If a problem occurs while parsing the file.
+     */
+    public Pattern loadFromArchive(File archive, String entryName) throws IOException, PatternFormatException
+    {
+        Parser parser = getParser(entryName);
+        try(ZipFile zipFile = new ZipFile(archive))
+        {
+            ZipEntry entry = zipFile.getEntry(entryName);
+            if(entry == null)
+                throw new FileNotFoundException(archive + ARCHIVE_SEPARATOR + entryName);
+
+            return parsePattern(parser, readAllBytes(zipFile.getInputStream(entry)),
+                    "ZIP:" + archive.getPath() + ARCHIVE_SEPARATOR + entryName);
+        }
+    }
+
+    private static ByteBuffer readAllBytes(InputStream stream) throws IOException
+    {
+        try(InputStream in = stream)
+        {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+
+    private static Pattern parsePattern(Parser parser, ByteBuffer buffer, String path)
+            throws IOException, PatternFormatException
+    {
+        Pattern pattern = parser.parse(buffer);
+        pattern.setOrigin(path);
+        return pattern;
+    }
+
+    /**
+     * Finds the parser for the file format given by the extension of the path.
+     * @throws PatternFormatException If the file format is not supported.
+     */
+    static Parser getParser(String path) throws PatternFormatException
     {
         String fileFormat = extractFileFormat(path);
         for(FileFormat f : FileFormat.values())
-        {
             if(fileFormat.equals(f.name()))
-            {
-                try
-                {
-                    Pattern pattern = f.getParser().parse(reader);
-                    pattern.setOrigin(path);
-                    return pattern;
-                }
-                catch(PatternFormatException e)
-                {
-                    // Close the reader before passing on the exception.
-                    reader.close();
-                    throw e;
-                }
-            }
-        }
+                return f.getParser();
 
         // If the format was not found among the supported formats, throw exception.
         throw new PatternFormatException(PatternFormatException.ErrorCode.FILE_FORMAT_NOT_SUPPORTED);
     }
 
-    private static String extractFileFormat(String fileName)
+    static String extractFileFormat(String fileName)
     {
         int dotPosition = fileName.lastIndexOf('.') + 1;
         if (dotPosition > 0 && dotPosition < fileName.length())
@@ -5,16 +5,20 @@ import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
+import static model.simulation.SimulationRule.DEFAULT_RULE_STRING;
+
 /**
  * This class is a parser implementation for .rle files.
  * Its parse() method reads data from a Reader and returns a {@link Pattern} object.
+ * The runs of living cells are written straight into rows of bits, with whole words set at a time,
+ * so the parser keeps one bit per cell and long runs are not set cell by cell.
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
- * @see Parser
+ * @see TextParser
  * @see FileFormat
  * @see PatternLoader
  */
-public class RLEParser implements Parser
+public class RLEParser implements TextParser
 {
     private final int INVALID = -1;
     private final char DEAD_CELL = 'b';
@@ -25,7 +29,7 @@ public class RLEParser implements Parser
     private List<String> metadata;
     private int width = INVALID;
     private int height = INVALID;
-    private boolean[][] boardData;
+    private long[][] boardData;
     private String rule = "";
 
     public RLEParser()
@@ -35,12 +39,47 @@ public class RLEParser implements Parser
 
     /**
      * Reads a Reader object character-by-character and returns the parsed data in a Pattern object.
+     * Anything after the end of the cell data is ignored.
      * @param reader A Reader object of type FileReader, InputStreamReader, etc.
      * @return A Pattern object.
      * @throws IOException If a problem occurs while reading the file content.
      * @throws PatternFormatException If the format of the file don't match the RLE standard.
      */
     public Pattern parse(Reader reader) throws IOException, PatternFormatException
+    {
+        if (!readHeader(reader))
+            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+
+        boardData = new long[height][(width + 63) >>> 6];
+        readCellData(reader);
+        return createPattern();
+    }
+
+    /**
+     * Reads the metadata and the board definition only, leaving the cell data unread.
+     * This is used by the {@link PatternCatalogue} to index patterns without loading them.
+     * @param reader The reader to read the data from.
+     * @return A Pattern object holding the metadata, rule and size of the pattern, but no cells.
+     * @throws IOException If a problem occurs while reading the file content.
+     * @throws PatternFormatException If the board definition is missing or has an unknown format.
+     */
+    @Override
+    public Pattern parseHeader(Reader reader) throws IOException, PatternFormatException
+    {
+        if (!readHeader(reader))
+            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+
+        Pattern p = createPattern();
+        p.setSize(width, height);
+        return p;
+    }
+
+    /**
+     * Reads metadata lines until the board definition line has been read.
+     * @param reader The reader to read the data from.
+     * @return True if the board definition was found.
+     */
+    private boolean readHeader(Reader reader) throws IOException, PatternFormatException
     {
         int character;
         while ((character = reader.read()) != INVALID)
@@ -48,16 +87,12 @@ public class RLEParser implements Parser
             if (character == '#')
                 readMetadata(reader);
             else if (character == 'x')
-                readBoardDefinitionAndInstantiateBoardDataArray(reader);
-
-            if (boardData != null)
-                readCellData(reader);
+            {
+                readBoardDefinition(reader);
+                return true;
+            }
         }
-
-        if (boardData != null)
-            return createPattern();
-        else
-            throw new PatternFormatException(PatternFormatException.ErrorCode.GENERAL_LOADING_ERROR);
+        return false;
     }
 
     /**
@@ -78,19 +113,21 @@ public class RLEParser implements Parser
     }
 
     /**
-     * Reads the board definition line (x = n, y = m ...) and instantiates
-     * the boardData array if the dimensions are loaded correctly.
+     * Reads the board definition line (x = n, y = m ...).
      * @param reader The reader to read the data from.
      * @throws IOException If the reading fails.
      * @throws PatternFormatException If it fails to load the pattern dimensions.
      */
-    private void readBoardDefinitionAndInstantiateBoardDataArray(Reader reader)
+    private void readBoardDefinition(Reader reader)
             throws IOException, PatternFormatException
     {
         int character;
         int number = 0;
+        StringBuilder line = new StringBuilder();
         while ((character = reader.read()) != INVALID && character != '\n')
         {
+            line.append((char) character);
+
             if (height == INVALID)
             {
                 if (Character.isDigit((char) character))
@@ -114,10 +151,18 @@ public class RLEParser implements Parser
                 rule += (char)character;
         }
 
+        // The height may be the last value on the line.
+        if (height == INVALID && width != INVALID && number != 0)
+            height = number;
+
+        // Rules not starting with B, S or a digit, e.g. Larger than Life rules, are read from the rule key.
+        int indexOfRule = line.indexOf("rule");
+        int indexOfValue = line.indexOf("=", indexOfRule);
+        if (indexOfRule != INVALID && indexOfValue != INVALID)
+            rule = line.substring(indexOfValue + 1).trim();
+
         if(width == INVALID || height == INVALID)
             throw new PatternFormatException(PatternFormatException.ErrorCode.PATTERN_SIZE_NOT_DEFINED);
-
-        boardData = new boolean[height][width];
     }
 
     /**
@@ -143,11 +188,10 @@ public class RLEParser implements Parser
             {
                 number = Math.max(1, number);
 
-                if(index + number > boardData[0].length)
+                if(index + number > width || row >= height)
                     throw new PatternFormatException(PatternFormatException.ErrorCode.ERROR_IN_CELL_DATA);
 
-                for (int x = index; x < (index + number); x++)
-                    boardData[row][x] = true;
+                setRun(boardData[row], index, index + number);
 
                 index += number;
                 number = 0;
@@ -165,6 +209,33 @@ public class RLEParser implements Parser
         }
     }
 
+    /**
+     * Sets the bits from index start (inclusive) to index end (exclusive) in the given row.
+     * @param row The row of bits.
+     * @param start The first cell of the run.
+     * @param end The cell after the last cell of the run.
+     */
+    static void setRun(long[] row, int start, int end)
+    {
+        int first = start >>> 6;
+        int last = (end - 1) >>> 6;
+
+        // Java shifts by the lower six bits only, so these are the masks within the first and last word.
+        long firstMask = -1L << start;
+        long lastMask = -1L >>> -end;
+
+        if (first == last)
+        {
+            row[first] |= firstMask & lastMask;
+            return;
+        }
+
+        row[first] |= firstMask;
+        for (int i = first + 1; i < last; i++)
+            row[i] = -1L;
+        row[last] |= lastMask;
+    }
+
     /**
      * Creates a new Pattern object from the parsed data.
      * @return A Pattern object.
@@ -174,8 +245,9 @@ public class RLEParser implements Parser
     {
         Pattern p = new Pattern();
         p.setMetadata(metadata);
-        p.setCellData(boardData);
-        p.setRuleString(RuleStringFormatter.format(rule));
+        if (boardData != null)
+            p.setCellRows(boardData, width);
+        p.setRuleString(rule.isEmpty() ? DEFAULT_RULE_STRING : RuleStringFormatter.format(rule));
         return p;
     }
 }
@@ -1,11 +1,20 @@
 package model.patternIO;
 
+import model.simulation.LargerThanLifeRule;
+import model.simulation.NonTotalisticRule;
 import model.simulation.SimulationRule;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
- * Utility class for creating a standard formatted rule string.
+ * <p>Utility class for creating a standard formatted rule string.
  * Used to ensure proper loading and creation of simulation {@link SimulationRule rules}.
  *
+ * <p>Besides the ordinary B/S rules, the formatter recognises Generations rules (B3/S23/C3 or 23/3/3),
+ * Larger than Life rules (R5,C0,M1,S34..58,B34..45,NM) and non-totalistic rules in Hensel notation (B2-a/S12).
+ * Generations rules with two states are formatted as ordinary B/S rules.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  */
@@ -13,9 +22,30 @@ public class RuleStringFormatter
 {
     private static final int ABSENT = -1;
 
+    private static final Pattern LARGER_THAN_LIFE = Pattern.compile(
+            "R(\\d+),C(\\d+),M([01]),S(\\d+)\\.\\.(\\d+),B(\\d+)\\.\\.(\\d+),N([MN])",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final String HENSEL_CONDITIONS = "((?:0|1(?:-?[ce]+)?|2(?:-?[ceaikn]+)?|3(?:-?[ceaiknjqry]+)?|" +
+            "4(?:-?[ceaiknjqrytwz]+)?|5(?:-?[ceaiknjqry]+)?|6(?:-?[ceaikn]+)?|7(?:-?[ce]+)?|8)*)";
+    private static final Pattern HENSEL_BIRTH_FIRST =
+            Pattern.compile("[Bb]" + HENSEL_CONDITIONS + "(?:/?[Ss]" + HENSEL_CONDITIONS + ")?");
+    private static final Pattern HENSEL_SURVIVAL_FIRST =
+            Pattern.compile("[Ss]" + HENSEL_CONDITIONS + "(?:/?[Bb]" + HENSEL_CONDITIONS + ")?");
+
     public static String format(String rule) throws PatternFormatException
     {
-        rule = rule.trim().replaceAll(" ", "").toUpperCase();
+        rule = rule.trim().replaceAll(" ", "");
+
+        String formattedRule = formatLargerThanLife(rule);
+        if(formattedRule == null)
+            formattedRule = formatGenerations(rule);
+        if(formattedRule == null)
+            formattedRule = formatNonTotalistic(rule);
+        if(formattedRule != null)
+            return formattedRule;
+
+        rule = rule.toUpperCase();
 
         int indexOfB = rule.indexOf("B");
         int indexOfS = rule.indexOf("S");
@@ -47,4 +77,151 @@ public class RuleStringFormatter
 
         return "B" + birthNumbers + "/S" + survivalNumbers;
     }
+
+    /**
+     * @return The rule on the form R5,C0,M1,S34..58,B34..45,NM, or null if it is not a Larger than Life rule.
+     * @throws PatternFormatException If the range or the amount of states is out of range.
+     */
+    private static String formatLargerThanLife(String rule) throws PatternFormatException
+    {
+        Matcher matcher = LARGER_THAN_LIFE.matcher(rule);
+        if(!matcher.matches())
+            return null;
+
+        String range = matcher.group(1);
+        String states = matcher.group(2);
+        if(range.length() > 9 || states.length() > 9 || Integer.parseInt(range) < 1 ||
+                Integer.parseInt(range) > LargerThanLifeRule.MAX_RANGE ||
+                Integer.parseInt(states) > LargerThanLifeRule.MAX_STATES)
+            throw new PatternFormatException(PatternFormatException.ErrorCode.UNKNOWN_RULE_FORMAT);
+
+        return rule.toUpperCase();
+    }
+
+    /**
+     * Formats a rule with three parts separated by a slash. The parts are recognised by the letters B, S and C
+     * (or G), and parts without a letter are taken in the order survival, birth and states.
+     * @return The rule on the form B3/S23/C3, B3/S23 if it has two states, or null if it is not a Generations rule.
+     * @throws PatternFormatException If the amount of states is missing, or not between 2 and 256.
+     */
+    private static String formatGenerations(String rule) throws PatternFormatException
+    {
+        String[] parts = rule.toUpperCase().split("/", -1);
+        if(parts.length != 3)
+            return null;
+
+        // Index 0: survival, 1: birth, 2: states.
+        String[] values = new String[3];
+        for(String part : parts)
+        {
+            int slot = "SBCG".indexOf(part.isEmpty() ? ' ' : part.charAt(0));
+            if(slot == ABSENT)
+            {
+                slot = 0;
+                while(slot < values.length && values[slot] != null)
+                    slot++;
+                if(slot == values.length)
+                    return null;
+                values[slot] = part;
+            }
+            else
+                values[Math.min(slot, 2)] = part.substring(1);
+        }
+
+        if(values[2] == null || !values[0].matches("[0-8]*") || !values[1].matches("[0-8]*"))
+            return null;
+
+        // A states part without a number, or with a number too large, is not read as an ordinary rule.
+        if(!values[2].matches("\\d{1,3}"))
+            throw new PatternFormatException(PatternFormatException.ErrorCode.UNKNOWN_RULE_FORMAT);
+
+        int states = Integer.parseInt(values[2]);
+        if(states < 2 || states > 256)
+            throw new PatternFormatException(PatternFormatException.ErrorCode.UNKNOWN_RULE_FORMAT);
+
+        return "B" + values[1] + "/S" + values[0] + ((states > 2) ? "/C" + states : "");
+    }
+
+    /**
+     * Formats a rule in Hensel notation. The amounts are sorted, and the letters of each amount are written in
+     * the standard order, as the chosen or the excluded arrangements, whichever is shorter.
+     * @return The rule on the form B2-a/S12, or null if it is not a non-totalistic rule.
+     */
+    private static String formatNonTotalistic(String rule)
+    {
+        if(!rule.matches(".*[ceaiknjqrytwz].*"))
+            return null;
+
+        String birth;
+        String survival;
+
+        Matcher matcher = HENSEL_BIRTH_FIRST.matcher(rule);
+        if(matcher.matches())
+        {
+            birth = matcher.group(1);
+            survival = matcher.group(2);
+        }
+        else if((matcher = HENSEL_SURVIVAL_FIRST.matcher(rule)).matches())
+        {
+            survival = matcher.group(1);
+            birth = matcher.group(2);
+        }
+        else
+            return null;
+
+        return "B" + formatHenselConditions(birth) + "/S" + formatHenselConditions(survival);
+    }
+
+    private static String formatHenselConditions(String conditions)
+    {
+        if(conditions == null)
+            return "";
+
+        boolean[][] included = new boolean[9][];
+
+        for(int i = 0; i < conditions.length();)
+        {
+            int count = conditions.charAt(i++) - '0';
+            boolean negated = i < conditions.length() && conditions.charAt(i) == '-';
+            if(negated)
+                i++;
+
+            int start = i;
+            while(i < conditions.length() && Character.isLowerCase(conditions.charAt(i)))
+                i++;
+
+            boolean[] arrangements = NonTotalisticRule.getArrangements(count, conditions.substring(start, i), negated);
+            if(included[count] == null)
+                included[count] = arrangements;
+            else
+                for(int j = 0; j < arrangements.length; j++)
+                    included[count][j] |= arrangements[j];
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for(int count = 0; count <= 8; count++)
+        {
+            if(included[count] == null)
+                continue;
+
+            String letters = NonTotalisticRule.getLetters(count);
+            StringBuilder chosen = new StringBuilder();
+            StringBuilder excluded = new StringBuilder();
+            for(int j = 0; j < letters.length(); j++)
+                (included[count][j] ? chosen : excluded).append(letters.charAt(j));
+
+            if(letters.isEmpty() ? !included[count][0] : chosen.length() == 0)
+                continue;
+
+            builder.append(count);
+            if(excluded.length() == 0)
+                continue;
+
+            if(chosen.length() <= excluded.length() + 1)
+                builder.append(chosen);
+            else
+                builder.append('-').append(excluded);
+        }
+        return builder.toString();
+    }
 }
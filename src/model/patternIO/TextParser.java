@@ -0,0 +1,61 @@
+package model.patternIO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This interface is implemented by the parsers of text formats, which read the file through a Reader.
+ * A buffer is read through a {@link ByteBufferReader}, and a stream through a small buffered reader.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see RLEParser
+ * @see LIFEParser
+ */
+public interface TextParser extends Parser
+{
+    /**
+     * Parses the content of a Reader and returns a {@link Pattern}.
+     * @param reader A Reader.
+     * @return A new Pattern object containing the board data.
+     * @throws IOException If reading the file content fails.
+     * @throws PatternFormatException If parsing the data fails.
+     */
+    Pattern parse(Reader reader) throws IOException, PatternFormatException;
+
+    @Override
+    default Pattern parse(ByteBuffer buffer) throws IOException, PatternFormatException
+    {
+        return parse(new ByteBufferReader(buffer));
+    }
+
+    /**
+     * Reads the stream through a small buffer, so a format with its size in the header is not read beyond
+     * the first buffer.
+     */
+    @Override
+    default Pattern parseHeader(InputStream in) throws IOException, PatternFormatException
+    {
+        return parseHeader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1024));
+    }
+
+    /**
+     * Reads the metadata, rule and size of a pattern. Formats without the size in their header parse the
+     * whole pattern, and only keep its metadata and size.
+     * @param reader The reader to read the data from.
+     * @return A Pattern object holding everything but the cells.
+     * @throws IOException If reading the file content fails.
+     * @throws PatternFormatException If parsing the data fails.
+     */
+    default Pattern parseHeader(Reader reader) throws IOException, PatternFormatException
+    {
+        Pattern header = parse(reader);
+        header.setSize(header.getWidth(), header.getHeight());
+        return header;
+    }
+}
@@ -0,0 +1,172 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardBitPacked;
+import model.patternIO.Pattern;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * <p>This class simulates many independent boards at the same time, e.g. for a census of random soups.
+ * Every board is simulated by its own single threaded {@link Simulator} in a task of its own, and the tasks
+ * share one executor. Unlike creating a {@link ThreadedSimulatorImpl} per board, the amount of threads does not
+ * grow with the amount of boards.
+ *
+ * <p>On a Java runtime with virtual threads, every task runs on a virtual thread, and the virtual threads
+ * share the carrier threads of the runtime. The executor is then looked up by reflection, so the class still
+ * works on older runtimes, where the tasks are run by a work stealing pool with one thread per core.
+ * The tasks yield every {@value #YIELD_INTERVAL} generations, which lets large boards share the carrier
+ * threads fairly with small ones.
+ *
+ * <p>A task that is interrupted, e.g. when the runner is closed, stops between two yields and fails instead of
+ * returning a board that is only partly simulated. The whole batch then fails with a {@link CancellationException}.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see Simulator#simulateGenerations(GameBoard, int)
+ */
+public class BatchRunner implements AutoCloseable
+{
+    private static final int YIELD_INTERVAL = 16;
+
+    private final ExecutorService executor;
+    private final Function<SimulationRule, Simulator> simulatorFactory;
+
+    /**
+     * Sets up a runner simulating every board with a {@link BitwiseSimulatorImpl}.
+     */
+    public BatchRunner()
+    {
+        this(createExecutor(), BitwiseSimulatorImpl::new);
+    }
+
+    /**
+     * @param executor The executor running the tasks. It is shut down when the runner is closed.
+     * @param simulatorFactory Creates the simulator of a board from the rule of the board.
+     */
+    public BatchRunner(ExecutorService executor, Function<SimulationRule, Simulator> simulatorFactory)
+    {
+        this.executor = executor;
+        this.simulatorFactory = simulatorFactory;
+    }
+
+    /**
+     * Creates a board of every pattern and simulates it with the rule of the pattern.
+     * @param patterns The patterns to simulate.
+     * @param generations The amount of generations to simulate.
+     * @return The simulated boards, in the same order as the patterns.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     * @throws CancellationException If the simulation of a board was interrupted, e.g. by closing the runner.
+     */
+    public List<GameBoard> simulate(List<Pattern> patterns, int generations) throws InterruptedException
+    {
+        return simulate(patterns.size(), i -> patterns.get(i).getGameBoard(GameBoardBitPacked::new),
+                i -> patterns.get(i).getRule(), generations);
+    }
+
+    /**
+     * Simulates every board with the same rule. The boards are simulated in place.
+     * @param boards The boards to simulate.
+     * @param rule The rule to be used under simulation.
+     * @param generations The amount of generations to simulate.
+     * @return The simulated boards, in the same order as given.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     * @throws CancellationException If the simulation of a board was interrupted, e.g. by closing the runner.
+     */
+    public List<GameBoard> simulate(List<GameBoard> boards, SimulationRule rule, int generations)
+            throws InterruptedException
+    {
+        return simulate(boards.size(), boards::get, i -> rule, generations);
+    }
+
+    /**
+     * Submits one task per board and waits for all of them to finish.
+     * @throws IllegalStateException If the simulation of a board failed.
+     * @throws CancellationException If the simulation of a board was interrupted or cancelled.
+     */
+    private List<GameBoard> simulate(int count, IntFunction<GameBoard> boards, IntFunction<SimulationRule> rules,
+                                     int generations) throws InterruptedException
+    {
+        if(generations < 0)
+            throw new IllegalArgumentException("Generations must be 0 or more, was: " + generations);
+
+        List<Future<GameBoard>> futures = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+        {
+            int index = i;
+            futures.add(executor.submit(() -> simulateBoard(boards.apply(index), rules.apply(index), generations)));
+        }
+
+        List<GameBoard> results = new ArrayList<>(count);
+        try
+        {
+            for(Future<GameBoard> future : futures)
+                results.add(future.get());
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof CancellationException)
+                throw (CancellationException) e.getCause();
+            throw new IllegalStateException("Simulation of a board failed", e.getCause());
+        }
+        finally
+        {
+            for(Future<GameBoard> future : futures)
+                future.cancel(true);
+        }
+        return results;
+    }
+
+    /**
+     * Simulates a board, checking for interrupts between the yields.
+     * @throws CancellationException If the thread is interrupted before the board is done.
+     */
+    private GameBoard simulateBoard(GameBoard board, SimulationRule rule, int generations)
+    {
+        Simulator simulator = simulatorFactory.apply(rule);
+        for(int done = 0; done < generations; done += YIELD_INTERVAL)
+        {
+            if(Thread.currentThread().isInterrupted())
+                throw new CancellationException("Interrupted after " + done + " of " + generations + " generations");
+
+            simulator.simulateGenerations(board, Math.min(YIELD_INTERVAL, generations - done));
+            Thread.yield();
+        }
+        return board;
+    }
+
+    /**
+     * Shuts down the executor, without waiting for running tasks.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return An executor starting a virtual thread per task if the runtime supports it,
+     * otherwise a work stealing pool.
+     */
+    private static ExecutorService createExecutor()
+    {
+        try
+        {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return Executors.newWorkStealingPool();
+        }
+    }
+}
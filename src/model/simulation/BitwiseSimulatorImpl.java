@@ -0,0 +1,392 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardBitPacked;
+import model.GameBoardTiled;
+import model.Point;
+
+import java.util.Arrays;
+
+/**
+ * <p>This simulator implementation evaluates 64 cells at a time on a {@link GameBoardBitPacked}.
+ * Instead of counting the neighbours of every cell separately, the eight neighbour words of a row word
+ * are added together with bit-sliced full adders. This leaves the neighbour count of all 64 cells in four
+ * words, where word k holds bit k of every count.
+ *
+ * <p>The {@link SimulationRule} is compiled into boolean word logic when it is set. Every neighbour count
+ * giving a birth becomes a term of the birth mask, and every count keeping a living cell alive becomes
+ * a term of the survive mask. Two counts only differing in the lowest bit are merged into one term.
+ * This makes every B/S rule, and not only the default rule, run on the fast path.
+ *
+ * <p>When several generations are simulated at a time, they are computed in one pass over a
+ * {@link GameBoardBitPacked}, as long as the living cells are far enough from the edge for the board not to grow.
+ * Every row is then brought through all the generations while it is in the cache.
+ *
+ * <p>On a {@link GameBoardTiled} only the active tiles are simulated, using the same word logic.
+ * Rules giving birth to cells without neighbours would bring every empty tile to life, so these are
+ * simulated one cell at a time within the board size, like boards of other types.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see Simulator
+ * @see GameBoardBitPacked
+ * @see GameBoardTiled
+ */
+public class BitwiseSimulatorImpl extends Simulator
+{
+    private static final int MAX_BLOCK_DEPTH = 8;
+
+    private boolean[] birth;
+    private boolean[] survive;
+    private long[][] birthTerms;
+    private long[][] surviveTerms;
+    private long[][][] blockRows;
+    private final long[][] tileRows = new long[9][];
+    private final long[] emptyTile = new long[GameBoardTiled.TILE_SIZE];
+    private final long[] nextTile = new long[GameBoardTiled.TILE_SIZE];
+
+    public BitwiseSimulatorImpl(SimulationRule rule)
+    {
+        super(rule);
+        compileRule();
+    }
+
+    @Override
+    public void setRule(SimulationRule simulationRule)
+    {
+        super.setRule(simulationRule);
+        compileRule();
+    }
+
+    /**
+     * Translates the rule into lookup tables for the per cell path and word terms for the bitwise path.
+     * A dead cell is born if the rule returns BIRTH. A living cell stays alive unless the rule returns DEATH.
+     */
+    private void compileRule()
+    {
+        birth = new boolean[9];
+        survive = new boolean[9];
+
+        for(int n = 0; n <= 8; n++)
+        {
+            SimulationRule.Result result = simulationRule.execute(n);
+            birth[n] = result == SimulationRule.Result.BIRTH;
+            survive[n] = result != SimulationRule.Result.DEATH;
+        }
+
+        birthTerms = compileTerms(birth);
+        surviveTerms = compileTerms(survive);
+    }
+
+    /**
+     * Creates a list of terms matching the given neighbour counts.
+     * Each term holds a polarity and a care word for each of the four count bits. A term matches a cell
+     * when every cared for bit of its count equals the polarity. The count 8 only needs the highest bit,
+     * and the counts 1-7 never need it, since no count above 8 exists.
+     * @param counts The neighbour counts (0-8) to match.
+     * @return An array of terms, each with the layout {p0, p1, p2, p3, c0, c1, c2, c3}.
+     */
+    private static long[][] compileTerms(boolean[] counts)
+    {
+        long[][] terms = new long[9][];
+        int termCount = 0;
+
+        for(int n = 0; n <= 8; n++)
+        {
+            if(!counts[n])
+                continue;
+
+            long[] term = new long[8];
+            for(int bit = 0; bit < 4; bit++)
+            {
+                term[bit] = ((n >> bit) & 1) == 1 ? -1L : 0L;
+                term[bit + 4] = -1L;
+            }
+
+            if(n == 8)
+            {
+                term[4] = term[5] = term[6] = 0L;
+            }
+            else
+            {
+                // Merges n and n + 1 into a single term ignoring the lowest bit.
+                if(n % 2 == 0 && n < 7 && counts[n + 1])
+                {
+                    term[4] = 0L;
+                    n++;
+                }
+
+                // Only the counts 0 and 8 are separated by the highest bit alone.
+                if(n > 1)
+                    term[7] = 0L;
+            }
+
+            terms[termCount++] = term;
+        }
+
+        return Arrays.copyOf(terms, termCount);
+    }
+
+    /**
+     * Executes the simulation on the given board and makes the simulated generation the current one.
+     * @param board The current board.
+     */
+    @Override
+    protected void executeOn(GameBoard board)
+    {
+        if(board instanceof GameBoardBitPacked)
+            executeOnBitPacked((GameBoardBitPacked) board);
+        else if(board instanceof GameBoardTiled && !birth[0])
+            executeOnTiles((GameBoardTiled) board);
+        else
+            executeOnCells(board);
+
+        board.makeNextGenerationCurrent();
+    }
+
+    private void executeOnCells(GameBoard board)
+    {
+        for(int y = 0; y < board.getHeight(); y++)
+        {
+            for(int x = 0; x < board.getWidth(); x++)
+            {
+                int neighbours = board.getAmountOfLivingNeighbours(x, y);
+                boolean alive = board.isCellAliveInThisGeneration(x, y);
+                board.setStateInNextGeneration(alive ? survive[neighbours] : birth[neighbours], x, y);
+            }
+        }
+    }
+
+    /**
+     * Simulates the given amount of generations. On a {@link GameBoardBitPacked}, several generations are
+     * computed in one pass over the board when the living cells are far enough from the edge.
+     * @param board The current board.
+     * @param generations The amount of generations to simulate.
+     */
+    @Override
+    protected void executeGenerations(GameBoard board, int generations)
+    {
+        if(!(board instanceof GameBoardBitPacked))
+        {
+            super.executeGenerations(board, generations);
+            return;
+        }
+
+        GameBoardBitPacked bitPackedBoard = (GameBoardBitPacked) board;
+        while(generations > 0)
+        {
+            int depth = Math.min(Math.min(generations, MAX_BLOCK_DEPTH), getFreeDistance(bitPackedBoard) - 1);
+            if(depth > 1)
+            {
+                executeBlockOnBitPacked(bitPackedBoard, depth);
+                generations -= depth;
+            }
+            else
+            {
+                executeOn(board);
+                generations--;
+            }
+        }
+    }
+
+    /**
+     * Returns the shortest distance from the living cells to the edge of the board. The board does not grow,
+     * and no cells are lost at the edge, while the living cells stay more than one cell away from the edge.
+     */
+    private static int getFreeDistance(GameBoardBitPacked board)
+    {
+        Point[] boundingBox = board.getBoundingBox();
+
+        // The bounding box of an empty board covers the whole board.
+        if(boundingBox[0].x == 0 && boundingBox[1].x == board.getWidth() && board.getPopulation() == 0)
+            return Integer.MAX_VALUE;
+
+        return Math.min(Math.min(boundingBox[0].x, boundingBox[0].y),
+                        Math.min(board.getWidth() - boundingBox[1].x, board.getHeight() - boundingBox[1].y));
+    }
+
+    private void executeOnBitPacked(GameBoardBitPacked board)
+    {
+        long[][] thisGeneration = board.getThisGenerationRows();
+        long[][] nextGeneration = board.getNextGenerationRows();
+
+        for(int y = board.getRowOffset(); y < board.getRowOffset() + board.getHeight(); y++)
+            nextRow(board, thisGeneration[y - 1], thisGeneration[y], thisGeneration[y + 1], nextGeneration[y]);
+    }
+
+    /**
+     * Simulates several generations in one pass from the top to the bottom of the board.
+     * Generation g of a row is computed as soon as generation g - 1 of the row below it is ready, so every
+     * generation trails one row behind the one before it. Only the last three rows of each generation are
+     * kept, which lets all the rows in use stay in the cache while they are needed.
+     * The final generation is written to the next generation of the board.
+     * @param board The current board.
+     * @param depth The amount of generations to simulate (2 or more).
+     */
+    private void executeBlockOnBitPacked(GameBoardBitPacked board, int depth)
+    {
+        long[][] thisGeneration = board.getThisGenerationRows();
+        long[][] nextGeneration = board.getNextGenerationRows();
+        int wordsPerRow = thisGeneration[0].length;
+        int top = board.getRowOffset();
+        int bottom = top + board.getHeight();
+
+        if(blockRows == null || blockRows.length < depth || blockRows[0][0].length != wordsPerRow)
+            blockRows = new long[depth][3][wordsPerRow];
+        else
+            for(long[][] level : blockRows)
+                for(long[] row : level)
+                    Arrays.fill(row, 0);
+
+        long[] emptyRow = new long[wordsPerRow];
+
+        for(int step = top; step < bottom + depth - 1; step++)
+        {
+            for(int generation = 1; generation <= depth; generation++)
+            {
+                int y = step - generation + 1;
+                if(y < top)
+                    break;
+                if(y >= bottom)
+                    continue;
+
+                long[] next = (generation == depth) ? nextGeneration[y] : blockRows[generation][y % 3];
+                if(generation == 1)
+                {
+                    nextRow(board, thisGeneration[y - 1], thisGeneration[y], thisGeneration[y + 1], next);
+                }
+                else
+                {
+                    long[][] previous = blockRows[generation - 1];
+                    nextRow(board,
+                            (y - 1 >= top) ? previous[(y - 1) % 3] : emptyRow,
+                            previous[y % 3],
+                            (y + 1 < bottom) ? previous[(y + 1) % 3] : emptyRow,
+                            next);
+                }
+            }
+        }
+
+        board.makeNextGenerationCurrent();
+    }
+
+    /**
+     * Calculates the next generation of a row from the row and the rows above and below it.
+     */
+    private void nextRow(GameBoardBitPacked board, long[] above, long[] row, long[] below, long[] next)
+    {
+        int startX = board.getColumnOffset();
+        int stopX = startX + board.getWidth() - 1;
+        int firstWord = startX >>> 6;
+        int lastWord = stopX >>> 6;
+        int wordsPerRow = row.length;
+
+        for(int i = firstWord; i <= lastWord; i++)
+        {
+            long mask = -1L;
+            if(i == firstWord)
+                mask &= -1L << (startX & 63);
+            if(i == lastWord)
+                mask &= -1L >>> (63 - (stopX & 63));
+
+            int w = i - 1;
+            int e = i + 1;
+            next[i] = mask & nextWord(
+                    w >= 0 ? above[w] : 0, above[i], e < wordsPerRow ? above[e] : 0,
+                    w >= 0 ? row[w]   : 0, row[i],   e < wordsPerRow ? row[e]   : 0,
+                    w >= 0 ? below[w] : 0, below[i], e < wordsPerRow ? below[e] : 0);
+        }
+    }
+
+    /**
+     * Simulates the active tiles of a tiled board. The rows of the surrounding tiles and the next rows are held
+     * in buffers kept between generations, as the board copies the rows it is given.
+     */
+    private void executeOnTiles(GameBoardTiled board)
+    {
+        long[][] around = tileRows;
+        long[] next = nextTile;
+        int last = GameBoardTiled.TILE_SIZE - 1;
+
+        for(long key : board.getActiveTileKeys())
+        {
+            int tileX = GameBoardTiled.getTileX(key);
+            int tileY = GameBoardTiled.getTileY(key);
+            for(int i = 0; i < 9; i++)
+            {
+                long[] rows = board.getTileRows(GameBoardTiled.getTileKey(tileX + i % 3 - 1, tileY + i / 3 - 1));
+                around[i] = rows != null ? rows : emptyTile;
+            }
+
+            long[] nw = around[0], n = around[1], ne = around[2];
+            long[] w  = around[3], c = around[4], e  = around[5];
+            long[] sw = around[6], s = around[7], se = around[8];
+
+            for(int y = 0; y <= last; y++)
+            {
+                next[y] = y > 0 ?
+                        (y < last ?
+                            nextWord(w[y - 1], c[y - 1], e[y - 1], w[y], c[y], e[y], w[y + 1], c[y + 1], e[y + 1]) :
+                            nextWord(w[y - 1], c[y - 1], e[y - 1], w[y], c[y], e[y], sw[0], s[0], se[0])) :
+                        nextWord(nw[last], n[last], ne[last], w[y], c[y], e[y], w[y + 1], c[y + 1], e[y + 1]);
+            }
+            board.setNextTileRows(key, next);
+        }
+    }
+
+    /**
+     * Calculates the next state of the 64 cells in the centre word.
+     * The neighbour count is added up with full adders, leaving the four count bits in s0-s3.
+     */
+    private long nextWord(long aw, long ac, long ae,
+                          long rw, long rc, long re,
+                          long bw, long bc, long be)
+    {
+        // The neighbour to the west is at the bit below and the neighbour to the east at the bit above.
+        long n0 = (ac << 1) | (aw >>> 63);
+        long n1 = ac;
+        long n2 = (ac >>> 1) | (ae << 63);
+        long n3 = (rc << 1) | (rw >>> 63);
+        long n4 = (rc >>> 1) | (re << 63);
+        long n5 = (bc << 1) | (bw >>> 63);
+        long n6 = bc;
+        long n7 = (bc >>> 1) | (be << 63);
+
+        // Adds the neighbours in groups of three, three and two.
+        long x0 = n0 ^ n1;
+        long sumA = x0 ^ n2;
+        long carryA = (n0 & n1) | (x0 & n2);
+
+        long x1 = n3 ^ n4;
+        long sumB = x1 ^ n5;
+        long carryB = (n3 & n4) | (x1 & n5);
+
+        long sumC = n6 ^ n7;
+        long carryC = n6 & n7;
+
+        // Adds the ones and then the twos.
+        long x2 = sumA ^ sumB;
+        long s0 = x2 ^ sumC;
+        long carryD = (sumA & sumB) | (x2 & sumC);
+
+        long x3 = carryA ^ carryB;
+        long t0 = x3 ^ carryC;
+        long t1 = (carryA & carryB) | (x3 & carryC);
+
+        long s1 = t0 ^ carryD;
+        long t2 = t0 & carryD;
+        long s2 = t1 ^ t2;
+        long s3 = t1 & t2;
+
+        return match(birthTerms, s0, s1, s2, s3) | (rc & match(surviveTerms, s0, s1, s2, s3));
+    }
+
+    private static long match(long[][] terms, long s0, long s1, long s2, long s3)
+    {
+        long result = 0;
+        for(long[] t : terms)
+            result |= ~(((s0 ^ t[0]) & t[4]) | ((s1 ^ t[1]) & t[5]) | ((s2 ^ t[2]) & t[6]) | ((s3 ^ t[3]) & t[7]));
+
+        return result;
+    }
+}
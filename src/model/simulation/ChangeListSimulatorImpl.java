@@ -0,0 +1,203 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardDynamic;
+
+import java.util.Arrays;
+
+/**
+ * <p>This simulator implementation only evaluates the cells that can change in the next generation.
+ * A cell can only change if it, or one of its neighbours, changed in the previous generation. The simulator
+ * keeps a list of the cells that changed, and only visits these cells and their neighbours. The cost of a
+ * generation therefore depends on the activity on the board rather than its size, which makes simulation
+ * of mostly stable boards, like oscillators and ash after a collision, very fast.
+ *
+ * <p>The cells that change are found before any cell is updated, and are then flipped directly in the current
+ * generation with editThisGeneration(). The next generation buffer of the board is never used. The lists of
+ * changed cells are kept between generations and only grow, and the duplicate candidates are found with a bitset
+ * of one bit per cell, whose bits are cleared again after use.
+ *
+ * <p>The list is only valid as long as nobody else changes the board. Every cell is evaluated when the board,
+ * its size or the rule has changed, or when the board has been edited since the last simulation. A
+ * {@link GameBoardDynamic} that has only grown is an exception. It grows by one column or row on each side at
+ * a time, when a living cell reaches its edge, so the changed cells are moved along with the board instead.
+ * The cells brought into view are next to the cells that reached the edge, and are among the candidates.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see Simulator
+ * @see GameBoard#getModificationCount()
+ */
+public class ChangeListSimulatorImpl extends Simulator
+{
+    private GameBoard lastBoard;
+    private int lastWidth;
+    private int lastHeight;
+    private int lastColumnsAdded;
+    private int lastRowsAdded;
+    private int expectedModificationCount;
+    private boolean fullPassRequired = true;
+
+    private int[] changedCells = new int[64];
+    private int changedCount;
+    private int[] flips = new int[64];
+    private int[] candidates = new int[64];
+    private int candidateCount;
+    private long[] candidateBits = new long[0];
+    private int fullPassCount;
+
+    public ChangeListSimulatorImpl(SimulationRule rule)
+    {
+        super(rule);
+    }
+
+    @Override
+    public void setRule(SimulationRule simulationRule)
+    {
+        super.setRule(simulationRule);
+        fullPassRequired = true;
+    }
+
+    /**
+     * Executes the simulation on the given board.
+     * Finds the cells to change among the candidates, flips them, and increases the board size if necessary.
+     * @param board The current board.
+     */
+    @Override
+    protected void executeOn(GameBoard board)
+    {
+        int width = board.getWidth();
+        int height = board.getHeight();
+
+        if(board != lastBoard || board.getModificationCount() != expectedModificationCount)
+            fullPassRequired = true;
+        else if((width != lastWidth || height != lastHeight) && !moveChangedCells(board, width))
+            fullPassRequired = true;
+
+        // The growth is recorded with the size the cell positions of this generation are based on.
+        if(board instanceof GameBoardDynamic)
+        {
+            lastColumnsAdded = ((GameBoardDynamic) board).getColumnsAdded();
+            lastRowsAdded = ((GameBoardDynamic) board).getRowsAdded();
+        }
+
+        if(fullPassRequired)
+        {
+            candidateCount = width * height;
+            fullPassCount++;
+        }
+        else
+            findCandidates(width, height);
+
+        int[] flips = this.flips;
+        int flipCount = 0;
+
+        for(int i = 0; i < candidateCount; i++)
+        {
+            int index = fullPassRequired ? i : candidates[i];
+            int x = index % width;
+            int y = index / width;
+
+            int state = board.getEncodedState(x, y);
+            if(transitionTable.getNextState(state) != (state >= 10))
+            {
+                if(flipCount == flips.length)
+                    flips = Arrays.copyOf(flips, flipCount * 2);
+                flips[flipCount++] = index;
+            }
+        }
+
+        for(int i = 0; i < flipCount; i++)
+        {
+            int x = flips[i] % width;
+            int y = flips[i] / width;
+            board.editThisGeneration(!board.isCellAliveInThisGeneration(x, y), x, y);
+        }
+
+        // The buffers are swapped, as the cells changed in this generation are the candidates of the next.
+        this.flips = changedCells;
+        changedCells = flips;
+        changedCount = flipCount;
+        fullPassRequired = false;
+
+        // The cell positions change if the board grows, which is detected by the size check in the next step.
+        board.increaseBoardSizeIfNecessary();
+
+        lastBoard = board;
+        lastWidth = width;
+        lastHeight = height;
+        expectedModificationCount = board.getModificationCount();
+    }
+
+    /**
+     * Moves the changed cells along with a {@link GameBoardDynamic} that has grown since the last generation.
+     * @return False if the board is of another kind, or has changed size in any other way.
+     */
+    private boolean moveChangedCells(GameBoard board, int width)
+    {
+        if(!(board instanceof GameBoardDynamic))
+            return false;
+
+        int dx = ((GameBoardDynamic) board).getColumnsAdded() - lastColumnsAdded;
+        int dy = ((GameBoardDynamic) board).getRowsAdded() - lastRowsAdded;
+        if(width != lastWidth + 2 * dx || board.getHeight() != lastHeight + 2 * dy)
+            return false;
+
+        for(int i = 0; i < changedCount; i++)
+        {
+            int x = changedCells[i] % lastWidth + dx;
+            int y = changedCells[i] / lastWidth + dy;
+            changedCells[i] = y * width + x;
+        }
+        return true;
+    }
+
+    /**
+     * @return The amount of generations where every cell was evaluated.
+     */
+    int getFullPassCount()
+    {
+        return fullPassCount;
+    }
+
+    /**
+     * Collects the cells that changed in the last generation and their neighbours, without duplicates.
+     * The cell indexes (y * width + x) are stored in the candidates array.
+     */
+    private void findCandidates(int width, int height)
+    {
+        int words = (width * height + 63) >>> 6;
+        if(candidateBits.length != words)
+            candidateBits = new long[words];
+
+        int maxCount = Math.min(width * height, changedCount * 9);
+        if(candidates.length < maxCount)
+            candidates = new int[maxCount];
+
+        int count = 0;
+        for(int i = 0; i < changedCount; i++)
+        {
+            int x = changedCells[i] % width;
+            int y = changedCells[i] / width;
+            for(int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++)
+            {
+                for(int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++)
+                {
+                    int index = ny * width + nx;
+                    long bit = 1L << index;
+                    if((candidateBits[index >>> 6] & bit) == 0)
+                    {
+                        candidateBits[index >>> 6] |= bit;
+                        candidates[count++] = index;
+                    }
+                }
+            }
+        }
+
+        // Leaves the bitset empty for the next generation, at the cost of the candidates rather than the board.
+        for(int i = 0; i < count; i++)
+            candidateBits[candidates[i] >>> 6] = 0;
+
+        candidateCount = count;
+    }
+}
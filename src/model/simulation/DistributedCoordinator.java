@@ -0,0 +1,360 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardDynamic;
+import model.patternIO.BinaryParser;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>This class splits one board into horizontal stripes, and simulates every stripe on its own
+ * {@link DistributedNode}, running in the same or in other processes. The coordinator sends every node its
+ * stripe and the addresses of the node below it, and then drives the generations. The nodes exchange their
+ * edge rows directly with each other, so the coordinator only sends a command and receives the population of
+ * every stripe for every batch of generations.
+ *
+ * <p>The commands are sent to all nodes before any reply is read, so the nodes work on their stripes at the
+ * same time. The board is only collected into one {@link GameBoard} when asked for, as the point of the
+ * distributed mode is that the whole board does not need to fit in the memory of one process.
+ *
+ * <p>For the same reason the board does not need to exist in this process at all. The rows can be read from a
+ * {@link RowSource}, e.g. a .golb file read one row at a time, and collected into a {@link RowSink}, e.g. a
+ * file being written. The rows are passed on in order from the top, one stripe after the other, and the
+ * coordinator never holds more than one row.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see DistributedNode
+ */
+public class DistributedCoordinator implements Closeable
+{
+    private final List<InetSocketAddress> nodeAddresses;
+    private final List<Socket> sockets = new ArrayList<>();
+    private final List<DataInputStream> inputs = new ArrayList<>();
+    private final List<DataOutputStream> outputs = new ArrayList<>();
+
+    private int width;
+    private int height;
+    private int[] stripeStart = new int[0];
+    private long population;
+
+    /**
+     * Supplies the rows of a board to distribute, laid out as in {@link GameBoard#getRowOfThisGeneration(int, long[])}.
+     * The rows are asked for once each, in order from the top.
+     */
+    public interface RowSource
+    {
+        long[] getRow(int y, long[] row) throws IOException;
+    }
+
+    /**
+     * Receives the collected rows, laid out as in {@link GameBoard#getRowOfThisGeneration(int, long[])}.
+     * The rows are given once each, in order from the top, and the array is reused for the next row.
+     */
+    public interface RowSink
+    {
+        void setRow(int y, long[] row) throws IOException;
+    }
+
+    /**
+     * @param nodeAddresses The addresses of the nodes, in the order of the stripes from the top.
+     */
+    public DistributedCoordinator(List<InetSocketAddress> nodeAddresses)
+    {
+        if(nodeAddresses.isEmpty())
+            throw new IllegalArgumentException("At least one node is needed");
+
+        this.nodeAddresses = new ArrayList<>(nodeAddresses);
+    }
+
+    /**
+     * Connects to the nodes and sends every node its stripe of the board. The board is split into one stripe
+     * per node, or one stripe per row if there are more nodes than rows.
+     * @param board The board to distribute.
+     * @param rule The rule to be used under simulation.
+     * @throws IllegalArgumentException If the rule needs more than the Moore neighbourhood of a cell.
+     * @throws IOException If a node could not be reached or failed.
+     */
+    public void distribute(GameBoard board, SimulationRule rule) throws IOException
+    {
+        distribute(board.getWidth(), board.getHeight(), board::getRowOfThisGeneration, rule);
+    }
+
+    /**
+     * Connects to the nodes and sends every node its stripe of a board in the binary .golb format, read one row
+     * at a time from the stream. The rule of the file is not used. The stream is not closed.
+     * @param golbStream A stream holding a file written by the {@link model.patternIO.BinaryPatternExporter}.
+     * @param rule The rule to be used under simulation.
+     * @throws IllegalArgumentException If the rule needs more than the Moore neighbourhood of a cell.
+     * @throws IOException If the stream could not be read, or a node could not be reached or failed.
+     * @throws PatternFormatException If the file is not in the binary format, or a row is damaged.
+     */
+    public void distribute(InputStream golbStream, SimulationRule rule) throws IOException, PatternFormatException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(golbStream));
+        Pattern header = new BinaryParser().parseHeader(in);
+        PatternFormatException[] formatError = new PatternFormatException[1];
+        try
+        {
+            distribute(header.getWidth(), header.getHeight(), (y, row) ->
+            {
+                try
+                {
+                    return BinaryParser.readRow(in, header.getWidth(), row);
+                }
+                catch(PatternFormatException e)
+                {
+                    formatError[0] = e;
+                    throw new IOException("Damaged row: " + y, e);
+                }
+            }, rule);
+        }
+        catch(IOException e)
+        {
+            if(formatError[0] != null)
+                throw formatError[0];
+            throw e;
+        }
+    }
+
+    /**
+     * Connects to the nodes and sends every node its stripe of a board read from a row source. The board is
+     * split into one stripe per node, or one stripe per row if there are more nodes than rows.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param rows The rows of the board.
+     * @param rule The rule to be used under simulation.
+     * @throws IllegalArgumentException If the rule needs more than the Moore neighbourhood of a cell.
+     * @throws IOException If a row could not be read, or a node could not be reached or failed.
+     */
+    public void distribute(int width, int height, RowSource rows, SimulationRule rule) throws IOException
+    {
+        if(rule.createKernel() != null)
+            throw new IllegalArgumentException("Rule not supported by distributed simulation: " + rule.getStringRule());
+
+        disconnect();
+        this.width = width;
+        this.height = height;
+        int stripes = Math.min(nodeAddresses.size(), height);
+
+        stripeStart = new int[stripes + 1];
+        for(int i = 0; i <= stripes; i++)
+            stripeStart[i] = (int)((long) height * i / stripes);
+
+        for(int i = 0; i < stripes; i++)
+        {
+            Socket socket = new Socket(nodeAddresses.get(i).getHostString(), nodeAddresses.get(i).getPort());
+            socket.setTcpNoDelay(true);
+            sockets.add(socket);
+            inputs.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+            outputs.add(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            outputs.get(i).writeInt(DistributedNode.ROLE_COORDINATOR);
+        }
+
+        int words = (width + 63) >>> 6;
+        long[] row = null;
+        long total = 0;
+        for(int i = 0; i < stripes; i++)
+        {
+            DataOutputStream out = outputs.get(i);
+            out.writeInt(DistributedNode.COMMAND_INIT);
+            out.writeInt(width);
+            out.writeInt(stripeStart[i + 1] - stripeStart[i]);
+            out.writeUTF(rule.getStringRule());
+            out.writeBoolean(i > 0);
+            out.writeBoolean(i < stripes - 1);
+            if(i < stripes - 1)
+            {
+                out.writeUTF(nodeAddresses.get(i + 1).getHostString());
+                out.writeInt(nodeAddresses.get(i + 1).getPort());
+            }
+
+            for(int y = stripeStart[i]; y < stripeStart[i + 1]; y++)
+            {
+                try
+                {
+                    row = rows.getRow(y, row);
+                }
+                catch(IOException | RuntimeException e)
+                {
+                    // The nodes are waiting for the rest of their rows, so the sessions are ended at once.
+                    closeSockets();
+                    throw e;
+                }
+                if(words > 0)
+                    row[words - 1] &= -1L >>> -width;
+                for(int w = 0; w < words; w++)
+                {
+                    out.writeLong(row[w]);
+                    total += Long.bitCount(row[w]);
+                }
+            }
+            out.flush();
+        }
+
+        for(DataInputStream in : inputs)
+            readStatus(in);
+
+        population = total;
+    }
+
+    /**
+     * Simulates the given amount of generations on all nodes.
+     * @param generations The amount of generations to simulate.
+     * @return The population of the whole board after the last generation.
+     * @throws IOException If a node failed.
+     */
+    public long simulateGenerations(int generations) throws IOException
+    {
+        if(generations < 0)
+            throw new IllegalArgumentException("Generations must be 0 or more, was: " + generations);
+        if(sockets.isEmpty())
+            throw new IllegalStateException("No board has been distributed");
+
+        for(DataOutputStream out : outputs)
+        {
+            out.writeInt(DistributedNode.COMMAND_STEP);
+            out.writeInt(generations);
+            out.flush();
+        }
+
+        long total = 0;
+        for(DataInputStream in : inputs)
+        {
+            readStatus(in);
+            total += in.readLong();
+        }
+        population = total;
+        return population;
+    }
+
+    /**
+     * @return The population of the whole board after the last generation.
+     */
+    public long getPopulation()
+    {
+        return population;
+    }
+
+    /**
+     * Collects the stripes of all nodes into one board. The whole board must fit in the memory of this process.
+     * @return A new board holding the current generation.
+     * @throws IOException If a node failed.
+     */
+    public GameBoard collect() throws IOException
+    {
+        GameBoard board = new GameBoardDynamic(width, height);
+        collect((y, row) ->
+        {
+            for(int x = 0; x < width; x++)
+                if(((row[x >>> 6] >>> x) & 1) == 1)
+                    board.editThisGeneration(true, x, y);
+        });
+        return board;
+    }
+
+    /**
+     * Collects the stripes of all nodes one row at a time, without holding the board in this process.
+     * @param rows The sink receiving the rows of the current generation.
+     * @throws IOException If a node failed, or a row could not be written.
+     */
+    public void collect(RowSink rows) throws IOException
+    {
+        if(sockets.isEmpty())
+            throw new IllegalStateException("No board has been distributed");
+
+        for(DataOutputStream out : outputs)
+        {
+            out.writeInt(DistributedNode.COMMAND_GET_ROWS);
+            out.flush();
+        }
+
+        long[] row = new long[(width + 63) >>> 6];
+        for(int i = 0; i < inputs.size(); i++)
+        {
+            DataInputStream in = inputs.get(i);
+            readStatus(in);
+            for(int y = stripeStart[i]; y < stripeStart[i + 1]; y++)
+            {
+                for(int w = 0; w < row.length; w++)
+                    row[w] = in.readLong();
+
+                try
+                {
+                    rows.setRow(y, row);
+                }
+                catch(IOException | RuntimeException e)
+                {
+                    // The rest of the rows are still on their way, so the sessions are ended at once.
+                    closeSockets();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void readStatus(DataInputStream in) throws IOException
+    {
+        if(in.readInt() != DistributedNode.STATUS_OK)
+            throw new IOException("Node failed: " + in.readUTF());
+    }
+
+    /**
+     * Ends the sessions with the nodes, and waits for the nodes to close them.
+     * The nodes keep running and may be used again.
+     */
+    private void disconnect() throws IOException
+    {
+        try
+        {
+            for(DataOutputStream out : outputs)
+            {
+                out.writeInt(DistributedNode.COMMAND_CLOSE);
+                out.flush();
+            }
+            for(DataInputStream in : inputs)
+                while(in.read() != -1)
+                    ;
+        }
+        finally
+        {
+            closeSockets();
+        }
+    }
+
+    /**
+     * Closes the connections to the nodes without ending the sessions first.
+     */
+    private void closeSockets() throws IOException
+    {
+        try
+        {
+            for(Socket socket : sockets)
+                socket.close();
+        }
+        finally
+        {
+            sockets.clear();
+            inputs.clear();
+            outputs.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        disconnect();
+    }
+}
@@ -0,0 +1,407 @@
+package model.simulation;
+
+import model.patternIO.PatternFormatException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>This class simulates one stripe of a board that is split across several processes, and is driven by a
+ * {@link DistributedCoordinator}. A stripe is a band of whole rows, in the same way as the regions of the
+ * {@link ThreadedSimulatorImpl}, but every stripe is kept in the memory of its own node. The node listens on a
+ * TCP port, and is started in a process of its own with:
+ * <pre>    java model.simulation.DistributedNode &lt;port&gt;</pre>
+ *
+ * <p>The stripe is stored with one bit per cell, and one extra halo row above and below it. Before every
+ * generation, the node sends its first row to the node above and its last row to the node below, and receives
+ * their rows into its halo rows. The nodes are connected directly to their neighbours, so the coordinator only
+ * sends commands and receives the population. The rows are sent by a separate thread while the node receives,
+ * which prevents two nodes from blocking each other while both are sending.
+ *
+ * <p>The distributed board has a fixed size, and cells outside of it are dead. Only rules simulated from the
+ * amount of living neighbours in the Moore neighbourhood are supported, as these only need one halo row.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see DistributedCoordinator
+ */
+public class DistributedNode implements Closeable
+{
+    static final int ROLE_COORDINATOR = 1;
+    static final int ROLE_NEIGHBOUR = 2;
+
+    static final int COMMAND_INIT = 1;
+    static final int COMMAND_STEP = 2;
+    static final int COMMAND_GET_ROWS = 3;
+    static final int COMMAND_CLOSE = 4;
+
+    static final int STATUS_OK = 0;
+    static final int STATUS_FAILED = 1;
+
+    private static final int NEIGHBOUR_TIMEOUT_SECONDS = 30;
+
+    private final ServerSocket serverSocket;
+    private final BlockingQueue<Socket> neighbourConnections = new LinkedBlockingQueue<>();
+    private final ExecutorService haloSender;
+
+    private TransitionTable table;
+    private int width;
+    private int words;
+    private int rows;
+    private long[][] thisGeneration;
+    private long[][] nextGeneration;
+
+    private Socket aboveSocket;
+    private Socket belowSocket;
+    private DataInputStream aboveIn;
+    private DataInputStream belowIn;
+    private DataOutputStream aboveOut;
+    private DataOutputStream belowOut;
+
+    /**
+     * Opens the server socket of the node. The node does not accept connections until start() is called.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port could not be opened.
+     */
+    public DistributedNode(int port) throws IOException
+    {
+        this.serverSocket = new ServerSocket(port);
+        this.haloSender = Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "Halo sender " + getPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a node process listening on the port given as the first argument.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        DistributedNode node = new DistributedNode(Integer.parseInt(args[0]));
+        System.out.println("Node listening on port " + node.getPort());
+        node.run();
+    }
+
+    /**
+     * @return The port the node listens on.
+     */
+    public int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return The address the coordinator and the neighbours connect to.
+     */
+    public InetSocketAddress getAddress()
+    {
+        return new InetSocketAddress(serverSocket.getInetAddress().isAnyLocalAddress() ?
+                "localhost" : serverSocket.getInetAddress().getHostAddress(), getPort());
+    }
+
+    /**
+     * Accepts connections on a daemon thread.
+     */
+    public void start()
+    {
+        Thread thread = new Thread(this::run, "Distributed node " + getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Accepts connections until the node is closed. A coordinator connection is served on a thread of its own,
+     * while a neighbour connection is handed to the coordinator session waiting for it.
+     */
+    private void run()
+    {
+        while(!serverSocket.isClosed())
+        {
+            try
+            {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                int role = new DataInputStream(socket.getInputStream()).readInt();
+
+                if(role == ROLE_NEIGHBOUR)
+                    neighbourConnections.add(socket);
+                else if(role == ROLE_COORDINATOR)
+                {
+                    Thread session = new Thread(() -> serveCoordinator(socket), "Node session " + getPort());
+                    session.setDaemon(true);
+                    session.start();
+                }
+                else
+                    socket.close();
+            }
+            catch(IOException e)
+            {
+                if(!serverSocket.isClosed())
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Reads and carries out commands from the coordinator until it closes the session.
+     * Every reply starts with a status. If a command fails, the reason is sent and the session is ended.
+     */
+    private void serveCoordinator(Socket socket)
+    {
+        try(Socket coordinator = socket)
+        {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(coordinator.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(coordinator.getOutputStream()));
+
+            try
+            {
+                serveCommands(in, out);
+            }
+            catch(PatternFormatException | IllegalArgumentException | InterruptedException | ExecutionException e)
+            {
+                out.writeInt(STATUS_FAILED);
+                out.writeUTF(String.valueOf(e.getMessage()));
+                out.flush();
+            }
+            finally
+            {
+                // Closed before the coordinator connection, which tells the coordinator the session has ended.
+                closeNeighbours();
+            }
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    private void serveCommands(DataInputStream in, DataOutputStream out)
+            throws IOException, PatternFormatException, InterruptedException, ExecutionException
+    {
+        while(true)
+        {
+            int command = in.readInt();
+            if(command == COMMAND_CLOSE)
+                return;
+            else if(command == COMMAND_INIT)
+            {
+                init(in);
+                out.writeInt(STATUS_OK);
+            }
+            else if(command == COMMAND_STEP)
+            {
+                long population = simulateGenerations(in.readInt());
+                out.writeInt(STATUS_OK);
+                out.writeLong(population);
+            }
+            else if(command == COMMAND_GET_ROWS)
+            {
+                out.writeInt(STATUS_OK);
+                writeRows(out);
+            }
+            else
+                throw new IOException("Unknown command: " + command);
+
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the stripe and the rule, and connects to the neighbours.
+     * The node connects to the node below, and waits for the node above to connect.
+     */
+    private void init(DataInputStream in) throws IOException, PatternFormatException, InterruptedException
+    {
+        closeNeighbours();
+
+        width = in.readInt();
+        rows = in.readInt();
+        SimulationRule rule = SimulationRule.fromRuleString(in.readUTF());
+        boolean hasAbove = in.readBoolean();
+        String belowHost = in.readBoolean() ? in.readUTF() : null;
+        int belowPort = (belowHost != null) ? in.readInt() : 0;
+
+        if(rule.createKernel() != null)
+            throw new IllegalArgumentException("Rule not supported by distributed simulation: " + rule.getStringRule());
+
+        table = new TransitionTable(rule);
+        words = (width + 63) >>> 6;
+        thisGeneration = new long[rows + 2][words];
+        nextGeneration = new long[rows + 2][words];
+        for(int y = 1; y <= rows; y++)
+            for(int i = 0; i < words; i++)
+                thisGeneration[y][i] = in.readLong();
+
+        if(belowHost != null)
+        {
+            belowSocket = new Socket(belowHost, belowPort);
+            belowSocket.setTcpNoDelay(true);
+            belowOut = new DataOutputStream(new BufferedOutputStream(belowSocket.getOutputStream()));
+            belowIn = new DataInputStream(new BufferedInputStream(belowSocket.getInputStream()));
+            belowOut.writeInt(ROLE_NEIGHBOUR);
+            belowOut.flush();
+        }
+
+        if(hasAbove)
+        {
+            aboveSocket = neighbourConnections.poll(NEIGHBOUR_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if(aboveSocket == null)
+                throw new IOException("The node above did not connect");
+            aboveOut = new DataOutputStream(new BufferedOutputStream(aboveSocket.getOutputStream()));
+            aboveIn = new DataInputStream(new BufferedInputStream(aboveSocket.getInputStream()));
+        }
+    }
+
+    /**
+     * Simulates the given amount of generations, exchanging the halo rows before each of them.
+     * @return The population of the stripe after the last generation.
+     */
+    private long simulateGenerations(int generations) throws IOException, InterruptedException, ExecutionException
+    {
+        for(int i = 0; i < generations; i++)
+        {
+            exchangeHaloRows();
+            simulateStripe();
+        }
+        return getPopulation();
+    }
+
+    private void exchangeHaloRows() throws IOException, InterruptedException, ExecutionException
+    {
+        long[] first = thisGeneration[1];
+        long[] last = thisGeneration[rows];
+
+        Future<?> sent = haloSender.submit(() ->
+        {
+            if(aboveOut != null)
+                writeRow(aboveOut, first);
+            if(belowOut != null)
+                writeRow(belowOut, last);
+            return null;
+        });
+
+        if(aboveIn != null)
+            readRow(aboveIn, thisGeneration[0]);
+        if(belowIn != null)
+            readRow(belowIn, thisGeneration[rows + 1]);
+
+        sent.get();
+    }
+
+    /**
+     * Computes the next generation of every row in the stripe from the rows above and below it.
+     * The neighbour count is found from a sliding sum of the column counts.
+     */
+    private void simulateStripe()
+    {
+        for(int y = 1; y <= rows; y++)
+        {
+            long[] above = thisGeneration[y - 1];
+            long[] row = thisGeneration[y];
+            long[] below = thisGeneration[y + 1];
+            long[] next = nextGeneration[y];
+            Arrays.fill(next, 0);
+
+            int left = 0;
+            int middle = getColumn(above, row, below, 0);
+            for(int x = 0; x < width; x++)
+            {
+                int right = (x + 1 < width) ? getColumn(above, row, below, x + 1) : 0;
+                boolean alive = ((row[x >>> 6] >>> x) & 1) == 1;
+                int neighbours = left + middle + right - (alive ? 1 : 0);
+
+                if(table.getNextState(alive, neighbours))
+                    next[x >>> 6] |= 1L << x;
+
+                left = middle;
+                middle = right;
+            }
+        }
+
+        long[][] temp = thisGeneration;
+        thisGeneration = nextGeneration;
+        nextGeneration = temp;
+    }
+
+    private static int getColumn(long[] above, long[] row, long[] below, int x)
+    {
+        int word = x >>> 6;
+        return (int)((above[word] >>> x) & 1) + (int)((row[word] >>> x) & 1) + (int)((below[word] >>> x) & 1);
+    }
+
+    private long getPopulation()
+    {
+        long population = 0;
+        for(int y = 1; y <= rows; y++)
+            for(int i = 0; i < words; i++)
+                population += Long.bitCount(thisGeneration[y][i]);
+
+        return population;
+    }
+
+    private void writeRows(DataOutputStream out) throws IOException
+    {
+        for(int y = 1; y <= rows; y++)
+            for(int i = 0; i < words; i++)
+                out.writeLong(thisGeneration[y][i]);
+    }
+
+    private void writeRow(DataOutputStream out, long[] row) throws IOException
+    {
+        for(int i = 0; i < words; i++)
+            out.writeLong(row[i]);
+        out.flush();
+    }
+
+    private void readRow(DataInputStream in, long[] row) throws IOException
+    {
+        for(int i = 0; i < words; i++)
+            row[i] = in.readLong();
+    }
+
+    private void closeNeighbours()
+    {
+        for(Socket socket : new Socket[] {aboveSocket, belowSocket})
+        {
+            try
+            {
+                if(socket != null)
+                    socket.close();
+            }
+            catch(IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        aboveSocket = belowSocket = null;
+        aboveIn = belowIn = null;
+        aboveOut = belowOut = null;
+    }
+
+    /**
+     * Stops accepting connections and stops the halo sender.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        serverSocket.close();
+        haloSender.shutdownNow();
+    }
+}
@@ -0,0 +1,258 @@
+package model.simulation;
+
+import model.GameBoard;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>This implementation uses a {@link ForkJoinPool} to simulate a board with all available cores.
+ * By default the pool is the {@link SimulationExecutor} shared by the application.
+ * The board is divided into square tiles, and the tiles to simulate in a generation are listed before it starts.
+ * A task splits the list recursively in two until a part holds no more than a quarter of the tiles per worker,
+ * which is then simulated by the worker. Idle workers steal the unfinished halves from the busy ones, so the load
+ * is balanced even when all activity is found in a small part of the board. This is unlike the
+ * {@link ThreadedSimulatorImpl}, which gives every thread an equal band of rows.
+ *
+ * <p>A tile without living cells in the previous generation, surrounded by tiles without living cells,
+ * can not get any living cells in the next generation, and is left out of the list. Every tile is simulated
+ * when the board, its size or the rule has changed, when the board has been edited, or when the rule gives birth
+ * to cells without neighbours.
+ *
+ * <p>The tiles are simulated in four passes, one for each colour of a 2x2 checkerboard pattern of tiles, within
+ * a single task given to the pool. Tiles of the same colour are a whole tile apart, so the neighbour counts updated
+ * by setStateInNextGeneration() are never shared between the tiles simulated at the same time, and no further
+ * synchronization is needed. Only the living cells are written, as the next generation of every board is empty
+ * after makeNextGenerationCurrent() has been called.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see Simulator
+ * @see ThreadedSimulatorImpl
+ */
+public class ForkJoinSimulatorImpl extends Simulator
+{
+    private static final int TILE_SIZE = 64;
+
+    private final ForkJoinPool pool;
+
+    private GameBoard lastBoard;
+    private int lastWidth;
+    private int lastHeight;
+    private int expectedModificationCount;
+    private boolean fullPassRequired = true;
+
+    private int tilesX;
+    private int tilesY;
+    private boolean[] activeTiles = new boolean[0];
+    private int[][] activeTilesByColour = new int[4][0];
+    private int[] activeCounts = new int[4];
+    private boolean[] occupiedTiles = new boolean[0];
+    private boolean[] nextOccupiedTiles = new boolean[0];
+
+    /**
+     * Creates a simulator using the shared {@link SimulationExecutor}.
+     * @param rule The rule to be used under simulation.
+     */
+    public ForkJoinSimulatorImpl(SimulationRule rule)
+    {
+        this(rule, SimulationExecutor.getShared());
+    }
+
+    /**
+     * @param rule The rule to be used under simulation.
+     * @param pool The pool to run the simulation in.
+     */
+    public ForkJoinSimulatorImpl(SimulationRule rule, ForkJoinPool pool)
+    {
+        super(rule);
+        this.pool = pool;
+    }
+
+    @Override
+    public void setRule(SimulationRule simulationRule)
+    {
+        super.setRule(simulationRule);
+        fullPassRequired = true;
+    }
+
+    /**
+     * Simulates the active tiles of the board, one colour at a time.
+     * @param board The board to be used for simulation.
+     */
+    @Override
+    protected void executeOn(GameBoard board)
+    {
+        int width = board.getWidth();
+        int height = board.getHeight();
+
+        if(board != lastBoard || width != lastWidth || height != lastHeight ||
+                board.getModificationCount() != expectedModificationCount || transitionTable.getNextState(0))
+            fullPassRequired = true;
+
+        tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        findActiveTiles();
+        pool.invoke(new GenerationTask(board));
+
+        board.makeNextGenerationCurrent();
+
+        boolean[] temp = occupiedTiles;
+        occupiedTiles = nextOccupiedTiles;
+        nextOccupiedTiles = temp;
+        fullPassRequired = false;
+
+        // The tiles are moved if the board grows, which is detected by the size check in the next step.
+        lastBoard = board;
+        lastWidth = width;
+        lastHeight = height;
+        expectedModificationCount = board.getModificationCount();
+    }
+
+    /**
+     * Marks the tiles that were occupied in the previous generation, and their neighbours, as active,
+     * and lists the active tiles of every colour.
+     */
+    private void findActiveTiles()
+    {
+        int tileCount = tilesX * tilesY;
+        if(activeTiles.length != tileCount)
+        {
+            activeTiles = new boolean[tileCount];
+            occupiedTiles = new boolean[tileCount];
+            nextOccupiedTiles = new boolean[tileCount];
+        }
+
+        // Only the active tiles are simulated, so the rest are marked as empty in advance.
+        Arrays.fill(nextOccupiedTiles, false);
+        Arrays.fill(activeTiles, fullPassRequired);
+        if(!fullPassRequired)
+        {
+            for(int ty = 0; ty < tilesY; ty++)
+                for(int tx = 0; tx < tilesX; tx++)
+                {
+                    if(!occupiedTiles[ty * tilesX + tx])
+                        continue;
+
+                    for(int y = Math.max(0, ty - 1); y <= Math.min(tilesY - 1, ty + 1); y++)
+                        for(int x = Math.max(0, tx - 1); x <= Math.min(tilesX - 1, tx + 1); x++)
+                            activeTiles[y * tilesX + x] = true;
+                }
+        }
+
+        Arrays.fill(activeCounts, 0);
+        for(int ty = 0; ty < tilesY; ty++)
+            for(int tx = 0; tx < tilesX; tx++)
+            {
+                int tile = ty * tilesX + tx;
+                if(!activeTiles[tile])
+                    continue;
+
+                int colour = (tx & 1) | ((ty & 1) << 1);
+                int[] tiles = activeTilesByColour[colour];
+                if(activeCounts[colour] == tiles.length)
+                    activeTilesByColour[colour] = tiles = Arrays.copyOf(tiles, Math.max(16, tiles.length * 2));
+                tiles[activeCounts[colour]++] = tile;
+            }
+    }
+
+    /**
+     * This private class is used for simulating one generation. The colours are simulated one after another,
+     * each by a {@link TileTask} run in the same worker, so the pool is only entered once per generation.
+     */
+    private class GenerationTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final GameBoard board;
+
+        GenerationTask(GameBoard board)
+        {
+            this.board = board;
+        }
+
+        @Override
+        protected void compute()
+        {
+            for(int colour = 0; colour < 4; colour++)
+            {
+                int count = activeCounts[colour];
+                if(count == 0)
+                    continue;
+
+                int threshold = Math.max(1, count / (4 * getPool().getParallelism()));
+                new TileTask(board, activeTilesByColour[colour], 0, count, threshold).invoke();
+            }
+        }
+    }
+
+    /**
+     * This private class is used for simulating a part of the list of active tiles of one colour. It splits
+     * the part in two and forks the halves until it holds no more tiles than the threshold, which are then
+     * simulated by the worker.
+     */
+    private class TileTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final GameBoard board;
+        private final int[] tiles;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        /**
+         * @param board The board to be used for simulation.
+         * @param tiles The active tiles of one colour.
+         * @param start The index of the first tile in the list.
+         * @param end The index after the last tile.
+         * @param threshold The largest amount of tiles to simulate without splitting.
+         */
+        TileTask(GameBoard board, int[] tiles, int start, int end, int threshold)
+        {
+            this.board = board;
+            this.tiles = tiles;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(end - start > threshold)
+            {
+                int middle = (start + end) >>> 1;
+                invokeAll(new TileTask(board, tiles, start, middle, threshold),
+                          new TileTask(board, tiles, middle, end, threshold));
+                return;
+            }
+
+            for(int i = start; i < end; i++)
+                simulateTile(tiles[i] % tilesX, tiles[i] / tilesX);
+        }
+
+        /**
+         * Sets the living cells of the tile in the next generation, and records whether there were any.
+         */
+        private void simulateTile(int tx, int ty)
+        {
+            TransitionTable table = transitionTable;
+            int width = board.getWidth();
+            int endX = Math.min(width, (tx + 1) * TILE_SIZE);
+            int endY = Math.min(board.getHeight(), (ty + 1) * TILE_SIZE);
+            boolean occupied = false;
+
+            for(int y = ty * TILE_SIZE; y < endY; y++)
+                for(int x = tx * TILE_SIZE; x < endX; x++)
+                    if(table.getNextState(board.getEncodedState(x, y)))
+                    {
+                        board.setStateInNextGeneration(true, x, y);
+                        occupied = true;
+                    }
+
+            nextOccupiedTiles[ty * tilesX + tx] = occupied;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package model.simulation;
+
+import model.patternIO.RuleStringFormatter;
+
+/**
+ * <p>This SimulationRule implementation is used for Generations rules, written as B3/S23/C3.
+ * The birth and survival conditions work in the same way as in {@link CustomRule}, but a living cell that
+ * does not survive goes through a number of dying states before it is dead. The C value is the total amount
+ * of states, including the living and the dead state, so a rule with C2 is an ordinary two-state rule.
+ *
+ * <p>Dying cells are not counted as neighbours and can not be born, which makes the rules very different from
+ * their two-state versions. As the boards only store living cells, the dying states are kept by the
+ * {@link RuleKernel} created by this rule.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see TotalisticKernel
+ * @see SimulationRule
+ */
+public class GenerationsRule implements SimulationRule
+{
+    private final boolean[] birth = new boolean[9];
+    private final boolean[] survive = new boolean[9];
+    private final int states;
+    private final String rule;
+
+    /**
+     * Takes in a {@link RuleStringFormatter standard formatted} Generations rule string.
+     * @param rule A string on the standard Generations format: B123/S123/C3
+     * @throws IllegalArgumentException If the string is not on the standard Generations format.
+     */
+    public GenerationsRule(String rule)
+    {
+        this.rule = rule;
+
+        String[] parts = rule.split("/");
+        if(parts.length != 3 || !parts[0].matches("B[0-8]*") || !parts[1].matches("S[0-8]*") ||
+                !parts[2].matches("C\\d{1,3}"))
+            throw new IllegalArgumentException("Not a Generations rule: " + rule);
+
+        for(int i = 1; i < parts[0].length(); i++)
+            birth[parts[0].charAt(i) - '0'] = true;
+
+        for(int i = 1; i < parts[1].length(); i++)
+            survive[parts[1].charAt(i) - '0'] = true;
+
+        states = Integer.parseInt(parts[2].substring(1));
+        if(states < 2 || states > 256)
+            throw new IllegalArgumentException("The amount of states must be between 2 and 256: " + rule);
+    }
+
+    /**
+     * Returns the result for a cell without dying states, as if the rule only had two states.
+     */
+    @Override
+    public Result execute(int numberOfLivingNeighbors)
+    {
+        if(birth[numberOfLivingNeighbors])
+            return Result.BIRTH;
+        else if(survive[numberOfLivingNeighbors])
+            return Result.SURVIVE;
+        else
+            return Result.DEATH;
+    }
+
+    @Override
+    public RuleKernel createKernel()
+    {
+        return new TotalisticKernel(birth, survive, states, 1, false, false);
+    }
+
+    /**
+     * @return The amount of cell states, including the living and the dead state.
+     */
+    public int getStates()
+    {
+        return states;
+    }
+
+    @Override
+    public String getStringRule()
+    {
+        return rule;
+    }
+}
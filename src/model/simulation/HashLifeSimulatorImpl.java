@@ -0,0 +1,124 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardHashLife;
+
+/**
+ * <p>This simulator implementation uses the HashLife algorithm of a {@link GameBoardHashLife} to carry out
+ * the simulation. Every step moves the board 2^k generations forward, where k is the step exponent.
+ * Large and regular patterns can be simulated far ahead in time, since every region that has been
+ * calculated before is looked up instead of calculated again.
+ *
+ * <p>Boards of other types, and rules giving birth to cells without neighbours, are simulated one cell
+ * and one generation at a time.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see Simulator
+ * @see GameBoardHashLife
+ */
+public class HashLifeSimulatorImpl extends Simulator
+{
+    public static final int MAX_STEP_EXPONENT = GameBoardHashLife.MAX_STEP_EXPONENT;
+
+    // Written by the UI while another thread may be simulating.
+    private volatile int stepExponent;
+    private long generationsPerStep = 1;
+
+    public HashLifeSimulatorImpl(SimulationRule rule)
+    {
+        this(rule, 0);
+    }
+
+    /**
+     * @param rule The rule to be used for simulation.
+     * @param stepExponent The amount of generations to advance per step, as a power of two.
+     */
+    public HashLifeSimulatorImpl(SimulationRule rule, int stepExponent)
+    {
+        super(rule);
+        setStepExponent(stepExponent);
+    }
+
+    /**
+     * Sets the amount of generations to advance per step. An exponent of k gives 2^k generations.
+     * @param stepExponent The step exponent (0-30).
+     * @throws IllegalArgumentException If the exponent is out of range.
+     */
+    public void setStepExponent(int stepExponent)
+    {
+        if(stepExponent < 0 || stepExponent > MAX_STEP_EXPONENT)
+            throw new IllegalArgumentException("The step exponent must be between 0 and " + MAX_STEP_EXPONENT +
+                    ", was: " + stepExponent);
+
+        this.stepExponent = stepExponent;
+    }
+
+    /**
+     * @return The current step exponent.
+     */
+    public int getStepExponent()
+    {
+        return stepExponent;
+    }
+
+    /**
+     * Advances a HashLife board 2^k generations, or simulates one generation on other boards.
+     * @param board The current board.
+     */
+    @Override
+    protected void executeOn(GameBoard board)
+    {
+        if(board instanceof GameBoardHashLife && simulationRule.execute(0) != SimulationRule.Result.BIRTH)
+        {
+            int stepExponent = this.stepExponent;
+            ((GameBoardHashLife) board).advance(simulationRule, stepExponent);
+            generationsPerStep = 1L << stepExponent;
+        }
+        else
+        {
+            executeOnCells(board);
+            generationsPerStep = 1;
+        }
+    }
+
+    /**
+     * Advances a HashLife board by the given amount of generations, split into steps of powers of two.
+     * A million generations are simulated in 20 steps, or fewer.
+     * @param board The current board.
+     * @param generations The amount of generations to simulate.
+     */
+    @Override
+    protected void executeGenerations(GameBoard board, int generations)
+    {
+        if(board instanceof GameBoardHashLife && simulationRule.execute(0) != SimulationRule.Result.BIRTH)
+        {
+            for(int exponent = 0; generations >>> exponent != 0; exponent++)
+                if(((generations >>> exponent) & 1) == 1)
+                    ((GameBoardHashLife) board).advance(simulationRule, exponent);
+        }
+        else
+        {
+            for(int i = 0; i < generations; i++)
+                executeOnCells(board);
+        }
+    }
+
+    private void executeOnCells(GameBoard board)
+    {
+        for(int y = 0; y < board.getHeight(); y++)
+        {
+            for(int x = 0; x < board.getWidth(); x++)
+            {
+                board.setStateInNextGeneration(transitionTable.getNextState(board.getEncodedState(x, y)), x, y);
+            }
+        }
+        board.makeNextGenerationCurrent();
+    }
+
+    @Override
+    protected long getGenerationsPerStep()
+    {
+        return generationsPerStep;
+    }
+}
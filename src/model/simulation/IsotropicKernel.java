@@ -0,0 +1,61 @@
+package model.simulation;
+
+/**
+ * <p>Kernel for non-totalistic rules, where the next state of a cell depends on the exact arrangement of the living
+ * cells in its Moore neighbourhood. The key of a cell is the 3x3 neighbourhood as a 9-bit number, where bit
+ * (dy * 3 + dx) holds the cell at (x + dx - 1, y + dy - 1), and the tables have one entry for every arrangement.
+ *
+ * <p>The key is moved along the row by shifting out the column leaving the neighbourhood and adding the column
+ * entering it, so every cell costs a few bit operations and one table lookup.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see NonTotalisticRule
+ * @see NeighbourhoodKernel
+ */
+class IsotropicKernel extends NeighbourhoodKernel
+{
+    private static final int LEFT_COLUMNS = 0b011011011;
+
+    private long[] emptyRow = new long[0];
+
+    /**
+     * @param birth The 512 neighbourhoods giving birth to a dead cell.
+     * @param survive The 512 neighbourhoods keeping a living cell alive.
+     */
+    IsotropicKernel(boolean[] birth, boolean[] survive)
+    {
+        super(birth, survive, 2);
+    }
+
+    @Override
+    protected void computeKeys(long[][] rows, int y, int width, int height, int[] keys)
+    {
+        int words = (width + 63) >>> 6;
+        if(emptyRow.length < words)
+            emptyRow = new long[words];
+
+        long[] above = (y > 0) ? rows[y - 1] : emptyRow;
+        long[] row = rows[y];
+        long[] below = (y < height - 1) ? rows[y + 1] : emptyRow;
+
+        int key = getColumn(above, row, below, 0) << 2;
+        for(int x = 0; x < width; x++)
+        {
+            int right = (x + 1 < width) ? getColumn(above, row, below, x + 1) : 0;
+            key = ((key >>> 1) & LEFT_COLUMNS) | (right << 2);
+            keys[x] = key;
+        }
+    }
+
+    /**
+     * @return The three cells of a column placed at bit 0, 3 and 6.
+     */
+    private static int getColumn(long[] above, long[] row, long[] below, int x)
+    {
+        int word = x >>> 6;
+        return  ((int)(above[word] >>> x) & 1) |
+               (((int)(row[word]   >>> x) & 1) << 3) |
+               (((int)(below[word] >>> x) & 1) << 6);
+    }
+}
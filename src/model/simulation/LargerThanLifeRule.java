@@ -0,0 +1,137 @@
+package model.simulation;
+
+import model.patternIO.RuleStringFormatter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>This SimulationRule implementation is used for Larger than Life rules, where the neighbourhood reaches
+ * more than one cell in each direction. The rule is written in the same format as Golly uses:
+ * R5,C0,M1,S34..58,B34..45,NM
+ * <ul>
+ *     <li>R - The range of the neighbourhood (1-500).</li>
+ *     <li>C - The amount of cell states, where 0 and 1 both mean two states.</li>
+ *     <li>M - Whether the cell itself is counted (1) or not (0).</li>
+ *     <li>S - The range of living cells keeping a living cell alive.</li>
+ *     <li>B - The range of living cells giving birth to a dead cell.</li>
+ *     <li>N - The neighbourhood, M for Moore (square) and N for von Neumann (diamond).</li>
+ * </ul>
+ *
+ * <p>The amount of neighbours can be far larger than eight, so the rule is simulated by the {@link RuleKernel}
+ * it creates, which counts the neighbourhood at the same cost regardless of the range.
+ *
+ * <p>The neighbourhood is clipped at the edge of the board. Cells outside the board are counted as dead, and no
+ * cells are born outside it. The boards only grow when living cells reach their edge, while the cells within the
+ * range of a living cell may already be outside, so a pattern close to the edge can evolve differently than on
+ * an unbounded grid, e.g. in Golly. Patterns are best given a border of at least the range of dead cells.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see TotalisticKernel
+ * @see SimulationRule
+ */
+public class LargerThanLifeRule implements SimulationRule
+{
+    public static final int MAX_RANGE = 500;
+    public static final int MAX_STATES = 256;
+
+    private static final Pattern FORMAT =
+            Pattern.compile("R(\\d+),C(\\d+),M([01]),S(\\d+)\\.\\.(\\d+),B(\\d+)\\.\\.(\\d+),N([MN])");
+
+    private final int range;
+    private final int states;
+    private final boolean includeMiddle;
+    private final boolean vonNeumann;
+    private final boolean[] birth;
+    private final boolean[] survive;
+    private final String rule;
+
+    /**
+     * Takes in a {@link RuleStringFormatter standard formatted} Larger than Life rule string.
+     * @param rule A string on the standard Larger than Life format: R5,C0,M1,S34..58,B34..45,NM
+     * @throws IllegalArgumentException If the string is not on the standard Larger than Life format.
+     */
+    public LargerThanLifeRule(String rule)
+    {
+        this.rule = rule;
+
+        Matcher matcher = FORMAT.matcher(rule);
+        if(!matcher.matches())
+            throw new IllegalArgumentException("Not a Larger than Life rule: " + rule);
+
+        range = parseCount(matcher.group(1));
+        states = Math.max(2, parseCount(matcher.group(2)));
+        includeMiddle = matcher.group(3).equals("1");
+        vonNeumann = matcher.group(8).equals("N");
+
+        if(range < 1 || range > MAX_RANGE || states > MAX_STATES)
+            throw new IllegalArgumentException("The range must be 1-500 and the states at most 256: " + rule);
+
+        int maxCount = (vonNeumann) ? 2 * range * (range + 1) + 1 : (2 * range + 1) * (2 * range + 1);
+        birth = createTable(maxCount, matcher.group(6), matcher.group(7));
+        survive = createTable(maxCount, matcher.group(4), matcher.group(5));
+    }
+
+    private static boolean[] createTable(int maxCount, String min, String max)
+    {
+        boolean[] table = new boolean[maxCount + 1];
+        int to = Math.min(maxCount, parseCount(max));
+        for(int i = Math.min(maxCount + 1, parseCount(min)); i <= to; i++)
+            table[i] = true;
+        return table;
+    }
+
+    /**
+     * Parses a number of digits, giving Integer.MAX_VALUE for numbers too large for an int.
+     * Every number in the rule is limited afterwards, so a too large number is never used as it is.
+     */
+    private static int parseCount(String digits)
+    {
+        return (digits.length() > 9) ? Integer.MAX_VALUE : Integer.parseInt(digits);
+    }
+
+    /**
+     * Returns the result for the given amount of living cells in the neighbourhood, as if it was a two-state rule.
+     */
+    @Override
+    public Result execute(int numberOfLivingNeighbors)
+    {
+        if(numberOfLivingNeighbors >= birth.length)
+            return Result.DEATH;
+        else if(birth[numberOfLivingNeighbors])
+            return Result.BIRTH;
+        else if(survive[numberOfLivingNeighbors])
+            return Result.SURVIVE;
+        else
+            return Result.DEATH;
+    }
+
+    @Override
+    public RuleKernel createKernel()
+    {
+        return new TotalisticKernel(birth, survive, states, range, vonNeumann, includeMiddle);
+    }
+
+    /**
+     * @return The range of the neighbourhood.
+     */
+    public int getRange()
+    {
+        return range;
+    }
+
+    /**
+     * @return The amount of cell states, including the living and the dead state.
+     */
+    public int getStates()
+    {
+        return states;
+    }
+
+    @Override
+    public String getStringRule()
+    {
+        return rule;
+    }
+}
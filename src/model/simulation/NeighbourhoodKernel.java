@@ -0,0 +1,195 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.Point;
+
+import java.util.Arrays;
+
+/**
+ * <p>Base class of the kernels deciding the next state of a cell from a key computed from its neighbourhood.
+ * Subclasses compute the keys of a whole row at a time, e.g. the amount of living cells within a range,
+ * and the next state is looked up in a birth table for dead cells and a survive table for living cells.
+ *
+ * <p>The board is read and written a row at a time through the row accessors of {@link GameBoard}. Boards storing
+ * their cells as bits copy whole words, while a {@link model.GameBoardDynamic} converts a row between its bytes
+ * and bits, and sets the living cells of the next generation one at a time. Other boards fall back to one call
+ * per cell in the default accessors of GameBoard.
+ *
+ * <p>Rules with more than two states are supported in the same way as in Generations rules. A living cell
+ * that does not survive enters the first dying state, and moves one state further every generation until
+ * it is dead. Dying cells are shown as dead on the board, are not counted as neighbours and can not be born.
+ * As the board only stores living cells, the dying states are kept by the kernel. They are moved along with the
+ * cells when the board grows, and cleared when another board is simulated.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see RuleKernel
+ */
+abstract class NeighbourhoodKernel implements RuleKernel
+{
+    private final boolean[] birth;
+    private final boolean[] survive;
+    private final int states;
+
+    private long[][] rows = new long[0][];
+    private long[] nextRow = new long[0];
+    private int[] keys = new int[0];
+
+    private byte[] dyingStates;
+    private GameBoard lastBoard;
+    private int lastWidth;
+    private int lastHeight;
+
+    /**
+     * @param birth The keys giving birth to a dead cell.
+     * @param survive The keys keeping a living cell alive.
+     * @param states The amount of cell states, including the dead and the living state (2-256).
+     */
+    NeighbourhoodKernel(boolean[] birth, boolean[] survive, int states)
+    {
+        this.birth = birth;
+        this.survive = survive;
+        this.states = states;
+    }
+
+    /**
+     * Computes the keys of all cells in a row. Called once for every row, from the top to the bottom.
+     * @param rows The rows of the current generation, one bit per cell.
+     * @param y The row to compute the keys of.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param keys The array to store the keys in.
+     */
+    protected abstract void computeKeys(long[][] rows, int y, int width, int height, int[] keys);
+
+    @Override
+    public void simulate(GameBoard board)
+    {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int words = (width + 63) >>> 6;
+
+        if(rows.length < height)
+            rows = Arrays.copyOf(rows, height);
+        for(int y = 0; y < height; y++)
+            rows[y] = board.getRowOfThisGeneration(y, rows[y]);
+
+        if(nextRow.length < words)
+            nextRow = new long[words];
+        if(keys.length < width)
+            keys = new int[width];
+
+        boolean multiState = states > 2;
+        if(multiState && (board != lastBoard || width != lastWidth || height != lastHeight || dyingStates == null))
+            dyingStates = new byte[width * height];
+
+        int minX = width;
+        int minY = height;
+
+        for(int y = 0; y < height; y++)
+        {
+            computeKeys(rows, y, width, height, keys);
+            long[] row = rows[y];
+            Arrays.fill(nextRow, 0, words, 0);
+
+            for(int x = 0, i = y * width; x < width; x++, i++)
+            {
+                boolean alive = ((row[x >>> 6] >>> x) & 1) == 1;
+                boolean next;
+
+                if(alive)
+                {
+                    next = survive[keys[x]];
+                    if(multiState)
+                        dyingStates[i] = next ? 0 : (byte) 2;
+                }
+                else if(multiState && dyingStates[i] != 0)
+                {
+                    int state = (dyingStates[i] & 0xFF) + 1;
+                    next = false;
+                    dyingStates[i] = (state < states) ? (byte) state : 0;
+                }
+                else
+                    next = birth[keys[x]];
+
+                if(next)
+                {
+                    nextRow[x >>> 6] |= 1L << x;
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                }
+            }
+
+            board.setRowInNextGeneration(y, nextRow);
+        }
+
+        board.makeNextGenerationCurrent();
+
+        if(multiState && (board.getWidth() != width || board.getHeight() != height))
+            moveDyingStates(board, width, height, minX, minY);
+
+        lastBoard = board;
+        lastWidth = board.getWidth();
+        lastHeight = board.getHeight();
+    }
+
+    /**
+     * Moves the dying states to the new coordinates after the board has grown.
+     * The distance is found from the top-left corner of the living cells, before and after.
+     */
+    private void moveDyingStates(GameBoard board, int width, int height, int minX, int minY)
+    {
+        int newWidth = board.getWidth();
+        int newHeight = board.getHeight();
+        int dx = (newWidth - width) / 2;
+        int dy = (newHeight - height) / 2;
+
+        if(minY < height)
+        {
+            Point start = board.getBoundingBox()[0];
+            dx = start.x - minX;
+            dy = start.y - minY;
+        }
+
+        byte[] newDyingStates = new byte[newWidth * newHeight];
+        for(int y = 0; y < height; y++)
+        {
+            int newY = y + dy;
+            if(newY < 0 || newY >= newHeight)
+                continue;
+
+            for(int x = 0; x < width; x++)
+            {
+                int newX = x + dx;
+                if(newX >= 0 && newX < newWidth)
+                    newDyingStates[newY * newWidth + newX] = dyingStates[y * width + x];
+            }
+        }
+        dyingStates = newDyingStates;
+    }
+
+    /**
+     * Adds the living cells of a row to an array of counts, one per column.
+     * Only the set bits are visited, which makes sparse rows cheap.
+     * @param row The row to add.
+     * @param counts The counts to add to.
+     * @param width The width of the board.
+     * @param delta The amount to add for every living cell, 1 or -1.
+     */
+    static void addRow(long[] row, int[] counts, int width, int delta)
+    {
+        int words = (width + 63) >>> 6;
+        for(int i = 0; i < words; i++)
+        {
+            long word = row[i];
+            while(word != 0)
+            {
+                int x = (i << 6) + Long.numberOfTrailingZeros(word);
+                if(x >= width)
+                    break;
+                counts[x] += delta;
+                word &= word - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package model.simulation;
+
+import model.patternIO.RuleStringFormatter;
+
+import java.util.Arrays;
+
+/**
+ * <p>This SimulationRule implementation is used for isotropic non-totalistic rules, written in Hensel notation,
+ * e.g. B2-a/S12. Each amount of neighbours may be followed by letters choosing which arrangements of the
+ * neighbours the condition applies to, or by a minus and the letters of the arrangements it does not apply to.
+ * An amount without letters applies to every arrangement, in the same way as in {@link CustomRule}.
+ *
+ * <p>The arrangements are equal under rotation and reflection, so the rule is isotropic. The rule string is
+ * expanded into tables with one entry for each of the 512 possible 3x3 neighbourhoods, which are used by the
+ * {@link IsotropicKernel} created by this rule.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see IsotropicKernel
+ * @see SimulationRule
+ */
+public class NonTotalisticRule implements SimulationRule
+{
+    /**
+     * The letters of the arrangements for each amount of neighbours, in the order they are written.
+     */
+    private static final String[] LETTERS =
+    {
+        "", "ce", "ceaikn", "ceaiknjqry", "ceaiknjqrytwz", "ceaiknjqry", "ceaikn", "ce", ""
+    };
+
+    /**
+     * One neighbourhood of each arrangement, where bit (dy * 3 + dx) holds the cell at (dx - 1, dy - 1).
+     * The arrangements of five to seven neighbours are the inverse of those with three to one neighbours.
+     */
+    private static final int[][] ARRANGEMENTS =
+    {
+        {0},
+        {1, 2},
+        {5, 10, 3, 40, 33, 68},
+        {69, 42, 11, 7, 98, 13, 14, 70, 41, 97},
+        {325, 170, 15, 45, 99, 71, 106, 102, 43, 101, 105, 78, 108},
+        null, null, null,
+        {0x1EF}
+    };
+
+    private static final int CENTRE = 1 << 4;
+    private static final int ALL_NEIGHBOURS = 0x1EF;
+
+    static
+    {
+        for(int count = 5; count <= 7; count++)
+        {
+            int[] inverse = ARRANGEMENTS[8 - count];
+            ARRANGEMENTS[count] = new int[inverse.length];
+            for(int i = 0; i < inverse.length; i++)
+                ARRANGEMENTS[count][i] = ALL_NEIGHBOURS & ~inverse[i];
+        }
+    }
+
+    private final boolean[] birth = new boolean[512];
+    private final boolean[] survive = new boolean[512];
+    private final Result[] totalisticResults = new Result[9];
+    private final String rule;
+
+    /**
+     * Takes in a {@link RuleStringFormatter standard formatted} non-totalistic rule string.
+     * @param rule A string on the standard Hensel format: B2-a3/S12ce
+     * @throws IllegalArgumentException If the string is not on the standard Hensel format.
+     */
+    public NonTotalisticRule(String rule)
+    {
+        this.rule = rule;
+
+        int indexOfSlash = rule.indexOf('/');
+        if(!rule.startsWith("B") || indexOfSlash == -1 || rule.charAt(indexOfSlash + 1) != 'S')
+            throw new IllegalArgumentException("Not a non-totalistic rule: " + rule);
+
+        parseConditions(rule.substring(1, indexOfSlash), birth, 0);
+        parseConditions(rule.substring(indexOfSlash + 2), survive, CENTRE);
+        calculateTotalisticResults();
+    }
+
+    /**
+     * Marks the neighbourhoods given by the conditions, e.g. "2-a3", in the given table.
+     * @param centre The state of the centre cell, added to all neighbourhoods.
+     */
+    private static void parseConditions(String conditions, boolean[] table, int centre)
+    {
+        int i = 0;
+        while(i < conditions.length())
+        {
+            char digit = conditions.charAt(i++);
+            if(digit < '0' || digit > '8')
+                throw new IllegalArgumentException("Unexpected character in rule: " + digit);
+
+            int count = digit - '0';
+            boolean negated = i < conditions.length() && conditions.charAt(i) == '-';
+            if(negated)
+                i++;
+
+            int start = i;
+            while(i < conditions.length() && Character.isLowerCase(conditions.charAt(i)))
+                i++;
+
+            boolean[] included = getArrangements(count, conditions.substring(start, i), negated);
+            for(int letter = 0; letter < included.length; letter++)
+            {
+                if(!included[letter])
+                    continue;
+
+                for(int neighbourhood : getSymmetries(ARRANGEMENTS[count][letter]))
+                    table[neighbourhood | centre] = true;
+            }
+        }
+    }
+
+    /**
+     * Returns which arrangements of the given amount of neighbours are chosen by the letters.
+     * @param count The amount of neighbours.
+     * @param letters The letters following the amount, or an empty string for all arrangements.
+     * @param negated True if the letters are the arrangements not chosen.
+     * @return An array with one entry for each letter in {@link #getLetters(int)}.
+     * @throws IllegalArgumentException If a letter is not valid for the amount of neighbours.
+     */
+    public static boolean[] getArrangements(int count, String letters, boolean negated)
+    {
+        String validLetters = LETTERS[count];
+        boolean[] included = new boolean[Math.max(1, validLetters.length())];
+
+        if(letters.isEmpty())
+        {
+            Arrays.fill(included, !negated);
+            return included;
+        }
+
+        if(negated)
+            Arrays.fill(included, true);
+
+        for(int i = 0; i < letters.length(); i++)
+        {
+            int letter = validLetters.indexOf(letters.charAt(i));
+            if(letter == -1)
+                throw new IllegalArgumentException("Invalid letter for " + count + " neighbours: " + letters.charAt(i));
+            included[letter] = !negated;
+        }
+        return included;
+    }
+
+    /**
+     * @param count The amount of neighbours (0-8).
+     * @return The letters of the arrangements of the given amount of neighbours, in the order they are written.
+     */
+    public static String getLetters(int count)
+    {
+        return LETTERS[count];
+    }
+
+    /**
+     * @return The neighbourhood rotated and reflected in all eight ways.
+     */
+    private static int[] getSymmetries(int neighbourhood)
+    {
+        int[] symmetries = new int[8];
+        for(int symmetry = 0; symmetry < 8; symmetry++)
+        {
+            for(int bit = 0; bit < 9; bit++)
+            {
+                if((neighbourhood & (1 << bit)) == 0)
+                    continue;
+
+                int x = bit % 3 - 1;
+                int y = bit / 3 - 1;
+                if((symmetry & 4) != 0)
+                    x = -x;
+                for(int rotation = 0; rotation < (symmetry & 3); rotation++)
+                {
+                    int temp = x;
+                    x = -y;
+                    y = temp;
+                }
+                symmetries[symmetry] |= 1 << ((y + 1) * 3 + x + 1);
+            }
+        }
+        return symmetries;
+    }
+
+    /**
+     * Calculates the results used by {@link #execute(int)}. An amount of neighbours counts as a birth or
+     * survival condition only if every arrangement of it is chosen.
+     */
+    private void calculateTotalisticResults()
+    {
+        boolean[] allBirth = new boolean[9];
+        boolean[] allSurvive = new boolean[9];
+        Arrays.fill(allBirth, true);
+        Arrays.fill(allSurvive, true);
+
+        for(int neighbourhood = 0; neighbourhood < 512; neighbourhood++)
+        {
+            if((neighbourhood & CENTRE) != 0)
+                continue;
+
+            int count = Integer.bitCount(neighbourhood);
+            allBirth[count] &= birth[neighbourhood];
+            allSurvive[count] &= survive[neighbourhood | CENTRE];
+        }
+
+        for(int count = 0; count <= 8; count++)
+        {
+            if(allBirth[count])
+                totalisticResults[count] = Result.BIRTH;
+            else if(allSurvive[count])
+                totalisticResults[count] = Result.SURVIVE;
+            else
+                totalisticResults[count] = Result.DEATH;
+        }
+    }
+
+    /**
+     * Returns the result for a cell as if the rule was totalistic.
+     */
+    @Override
+    public Result execute(int numberOfLivingNeighbors)
+    {
+        return totalisticResults[numberOfLivingNeighbors];
+    }
+
+    @Override
+    public RuleKernel createKernel()
+    {
+        return new IsotropicKernel(birth, survive);
+    }
+
+    @Override
+    public String getStringRule()
+    {
+        return rule;
+    }
+}
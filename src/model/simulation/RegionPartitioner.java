@@ -0,0 +1,144 @@
+package model.simulation;
+
+/**
+ * <p>This class decides how the {@link ThreadedSimulatorImpl} splits a board into regions.
+ * The board is first divided into bands of whole rows, where the two generations of a band fill about
+ * {@value #CACHE_BYTES} bytes, the size of a typical per-core L2 cache. The size of a band is found from the
+ * memory used per cell by the board, see {@link model.GameBoard#getBytesPerCell()}, so the bands of a bit-packed
+ * board hold eight times as many rows as the bands of a board using a byte per cell. The bands only set the
+ * granularity of the regions, not their amount. A board of at least one band per region is split between whole
+ * bands, so a region never holds less data than one cache. A smaller board is split into equal parts of at
+ * least the minimum amount of rows instead, so it is still simulated by as many threads as the throughput allows.
+ *
+ * <p>Region n is always simulated by the same reusable task of the {@link ThreadedSimulatorImpl}. The executor
+ * decides which thread runs the task, so a region is not bound to a core, but the regions keep their rows for as
+ * long as the board keeps its size and the amount of regions is unchanged.
+ *
+ * <p>The amount of regions is found from the measured throughput, instead of from the amount of cores alone.
+ * The partitioner starts with as many regions as allowed, and after every {@value #SAMPLE_GENERATIONS}
+ * generations it compares the amount of cells simulated per nanosecond with the previous sample. It keeps
+ * moving the amount of regions in the same direction while the throughput increases, and turns when it
+ * decreases. The amount therefore settles around the count giving the highest throughput, e.g. a lower
+ * count when other work competes for the cores or when the threads mostly wait for memory.
+ * The measurements are restarted from the highest allowed amount when the area of the board has doubled or
+ * halved, which keeps a slowly growing board from restarting them every generation.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see ThreadedSimulatorImpl
+ */
+class RegionPartitioner
+{
+    static final int CACHE_BYTES = 256 * 1024;
+    static final int SAMPLE_GENERATIONS = 16;
+
+    private final int maxRegions;
+    private int regionCount;
+    private int direction = -1;
+
+    private long measuredArea;
+    private int sampleGenerations;
+    private long sampleCells;
+    private long sampleNanos;
+    private double lastThroughput;
+
+    /**
+     * @param maxRegions The maximum amount of regions, usually the amount of threads available.
+     */
+    RegionPartitioner(int maxRegions)
+    {
+        this.maxRegions = Math.max(1, maxRegions);
+        this.regionCount = this.maxRegions;
+    }
+
+    /**
+     * @param width The width of the board.
+     * @param bytesPerCell The memory used per cell by the two generations of the board.
+     * @param minRows The minimum amount of rows in a band.
+     * @return The amount of rows in a band.
+     */
+    static int getBandHeight(int width, double bytesPerCell, int minRows)
+    {
+        double bytesPerRow = Math.max(1, width * bytesPerCell);
+        return (int) Math.max(minRows, Math.min(Integer.MAX_VALUE, CACHE_BYTES / bytesPerRow));
+    }
+
+    /**
+     * Finds the start row of every region for the next generation.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param bytesPerCell The memory used per cell by the two generations of the board.
+     * @param minRows The minimum amount of rows in a region.
+     * @param regionStart The array to store the start rows in, or null. The entry after the last region
+     *                    holds the height of the board.
+     * @return The array holding the start rows. Its length is at least the amount of regions plus one.
+     */
+    int[] partition(int width, int height, double bytesPerCell, int minRows, int[] regionStart)
+    {
+        long area = (long) width * height;
+        if(area > 2 * measuredArea || 2 * area < measuredArea)
+        {
+            measuredArea = area;
+            resetSample();
+            lastThroughput = 0;
+            regionCount = maxRegions;
+        }
+
+        // The regions are made of whole bands if there are enough of them, and of smaller units otherwise.
+        regionCount = Math.max(1, Math.min(regionCount, height / Math.max(1, minRows)));
+        int unit = Math.max(minRows, Math.min(getBandHeight(width, bytesPerCell, minRows), height / regionCount));
+        int units = Math.max(1, height / unit);
+
+        if(regionStart == null || regionStart.length < maxRegions + 1)
+            regionStart = new int[maxRegions + 1];
+
+        // Spreads the units evenly between the regions. The last region also gets the rows after the last unit.
+        for(int region = 0; region < regionCount; region++)
+            regionStart[region] = (int)((long) units * region / regionCount) * unit;
+        regionStart[regionCount] = height;
+
+        return regionStart;
+    }
+
+    /**
+     * @return The amount of regions used for the next generation, as found by the last call to partition().
+     */
+    int getRegionCount()
+    {
+        return regionCount;
+    }
+
+    /**
+     * Records the time used for a generation, and adjusts the amount of regions after every sample.
+     * @param cells The amount of cells simulated.
+     * @param nanos The time used in nanoseconds.
+     */
+    void record(long cells, long nanos)
+    {
+        sampleCells += cells;
+        sampleNanos += Math.max(1, nanos);
+        if(++sampleGenerations < SAMPLE_GENERATIONS)
+            return;
+
+        double throughput = (double) sampleCells / sampleNanos;
+        if(throughput < lastThroughput)
+            direction = -direction;
+        lastThroughput = throughput;
+        resetSample();
+
+        int next = regionCount + direction;
+        if(next < 1 || next > maxRegions)
+        {
+            direction = -direction;
+            next = regionCount + direction;
+        }
+        regionCount = Math.max(1, Math.min(maxRegions, next));
+    }
+
+    private void resetSample()
+    {
+        sampleGenerations = 0;
+        sampleCells = 0;
+        sampleNanos = 0;
+    }
+}
@@ -0,0 +1,23 @@
+package model.simulation;
+
+import model.GameBoard;
+
+/**
+ * Interface for simulation kernels of rules that can not be expressed as a {@link SimulationRule.Result}
+ * of the amount of living neighbours, such as multi-state, larger-than-life and non-totalistic rules.
+ * The {@link Simulator} hands the board to the kernel instead of carrying out the simulation itself.
+ * A kernel may keep information between generations, so every simulator creates its own.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see SimulationRule#createKernel()
+ * @see Simulator
+ */
+public interface RuleKernel
+{
+    /**
+     * Simulates the next generation on the given board and makes it the current one.
+     * @param board The board to be simulated.
+     */
+    void simulate(GameBoard board);
+}
@@ -0,0 +1,86 @@
+package model.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * <p>This class is a {@link ForkJoinPool} meant to be shared by all simulators, and other background work,
+ * in the application. Giving every simulator and dialog its own pool multiplies the amount of threads with the
+ * amount of open windows, while one shared pool keeps the total amount of threads within its parallelism.
+ *
+ * <p>The threads are daemon threads named after the pool, and are given the thread priority of the pool.
+ * Java offers no way to bind a thread to a core, so the priority is the only scheduling hint available.
+ * Idle threads are stopped by the pool after a while, and started again when needed.
+ *
+ * <p>The {@link #getShared() shared executor} uses one thread per available core. Simulators created without
+ * an executor use the shared one, but any executor may be passed to them instead, e.g. to limit the amount of
+ * threads used for exporting while the main simulation runs.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see ThreadedSimulatorImpl
+ * @see ForkJoinSimulatorImpl
+ * @see BatchRunner
+ */
+public class SimulationExecutor extends ForkJoinPool
+{
+    private static SimulationExecutor shared;
+
+    /**
+     * Creates an executor with normal thread priority.
+     * @param name The name of the executor, used to name its threads.
+     * @param parallelism The maximum amount of threads working at the same time.
+     */
+    public SimulationExecutor(String name, int parallelism)
+    {
+        this(name, parallelism, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * @param name The name of the executor, used to name its threads.
+     * @param parallelism The maximum amount of threads working at the same time.
+     * @param threadPriority The priority of the threads, between Thread.MIN_PRIORITY and Thread.MAX_PRIORITY.
+     * @throws IllegalArgumentException If the parallelism is less than one or the priority is out of range.
+     */
+    public SimulationExecutor(String name, int parallelism, int threadPriority)
+    {
+        super(parallelism, createThreadFactory(name, threadPriority), null, false);
+    }
+
+    private static ForkJoinWorkerThreadFactory createThreadFactory(String name, int threadPriority)
+    {
+        if(threadPriority < Thread.MIN_PRIORITY || threadPriority > Thread.MAX_PRIORITY)
+            throw new IllegalArgumentException("Thread priority out of range: " + threadPriority);
+
+        return pool ->
+        {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + " " + thread.getPoolIndex());
+            thread.setPriority(threadPriority);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns the executor shared by the application, which is created on the first call.
+     * @return The shared executor.
+     */
+    public static synchronized SimulationExecutor getShared()
+    {
+        if(shared == null || shared.isShutdown())
+            shared = new SimulationExecutor("Simulation worker", Runtime.getRuntime().availableProcessors());
+
+        return shared;
+    }
+
+    /**
+     * Replaces the shared executor, e.g. to change its parallelism. Simulators already created
+     * keep the executor they were given. The previous shared executor is not shut down.
+     * @param executor The new shared executor.
+     */
+    public static synchronized void setShared(SimulationExecutor executor)
+    {
+        shared = executor;
+    }
+}
@@ -1,5 +1,8 @@
 package model.simulation;
 
+import model.patternIO.PatternFormatException;
+import model.patternIO.RuleStringFormatter;
+
 /**
  * Interface used to enable multiple rule implementations for the {@link Simulator}.
  * The interface contains an enum of Results
@@ -9,6 +12,9 @@ package model.simulation;
  * @author Julie Katrine Høvik
  * @see CustomRule
  * @see DefaultRule
+ * @see GenerationsRule
+ * @see LargerThanLifeRule
+ * @see NonTotalisticRule
  */
 public interface SimulationRule
 {
@@ -36,4 +42,38 @@ public interface SimulationRule
      * @return A rule string.
      */
     String getStringRule();
+
+    /**
+     * Returns a {@link RuleKernel} simulating this rule, for rules that can not be simulated one cell at a time
+     * from the amount of living neighbours, e.g. rules with more than two states or a larger neighbourhood.
+     * The {@link Simulator} uses the kernel instead of its own implementation when one is returned.
+     * @return A new kernel, or null if the rule is simulated from the results of {@link #execute(int)}.
+     */
+    default RuleKernel createKernel()
+    {
+        return null;
+    }
+
+    /**
+     * Creates the rule implementation matching the given rule string.
+     * The string is {@link RuleStringFormatter formatted} before it is parsed.
+     * @param rule A rule string in any format supported by {@link RuleStringFormatter}.
+     * @return A new SimulationRule.
+     * @throws PatternFormatException If the rule is in an unknown format.
+     */
+    static SimulationRule fromRuleString(String rule) throws PatternFormatException
+    {
+        rule = RuleStringFormatter.format(rule);
+
+        if(rule.equals(DEFAULT_RULE_STRING))
+            return new DefaultRule();
+        else if(rule.startsWith("R"))
+            return new LargerThanLifeRule(rule);
+        else if(rule.contains("/C"))
+            return new GenerationsRule(rule);
+        else if(!rule.equals(rule.toUpperCase()))
+            return new NonTotalisticRule(rule);
+        else
+            return new CustomRule(rule);
+    }
 }
@@ -10,13 +10,16 @@ import model.GameBoard;
  * @author Julie Katrine Høvik
  * @see ThreadedSimulatorImpl
  * @see SimulatorImpl
+ * @see HashLifeSimulatorImpl
  */
 public abstract class Simulator
 {
     protected SimulationRule simulationRule;
+    protected TransitionTable transitionTable;
+    private RuleKernel ruleKernel;
     private long simulationTimeInMilliSeconds;
 
-    private int generationCount;
+    private long generationCount;
     private long generationCountTimer;
     private int generationsPerSecond;
 
@@ -26,10 +29,13 @@ public abstract class Simulator
     public Simulator(SimulationRule rule)
     {
         this.simulationRule = rule;
+        this.transitionTable = new TransitionTable(rule);
+        this.ruleKernel = rule.createKernel();
     }
 
     /**
      * Simulates the next generation on the given board according to the set {@link SimulationRule}.
+     * Rules providing their own {@link RuleKernel} are simulated by the kernel instead of the implementation.
      * Measures the time of the simulation and calculates the amount of generations per second
      * by calling the private method calculateGenerationPerSecond().
      *
@@ -39,19 +45,61 @@ public abstract class Simulator
     {
         long startTime = System.currentTimeMillis();
 
-        executeOn(board);
+        RuleKernel kernel = ruleKernel;
+        if(kernel != null)
+            kernel.simulate(board);
+        else
+            executeOn(board);
 
         simulationTimeInMilliSeconds = (System.currentTimeMillis() - startTime);
 
-        calculateGenerationPerSecond();
+        calculateGenerationPerSecond(kernel != null ? 1 : getGenerationsPerStep());
     }
 
     protected abstract void executeOn(GameBoard board);
 
-    private void calculateGenerationPerSecond()
+    /**
+     * Simulates the given amount of generations on the board in one call. Unlike simulateNextGenerationOn(),
+     * this method does not measure the time or update the generation rate, so it has no cost per generation
+     * besides the simulation itself. It is meant for exporting and fast-forwarding boards, where every
+     * generation is not shown on the screen.
+     * @param board The {@link GameBoard} to be used under the simulation.
+     * @param generations The amount of generations to simulate.
+     * @throws IllegalArgumentException If the amount of generations is negative.
+     */
+    public void simulateGenerations(GameBoard board, int generations)
+    {
+        if(generations < 0)
+            throw new IllegalArgumentException("The amount of generations can not be negative: " + generations);
+
+        RuleKernel kernel = ruleKernel;
+        if(kernel != null)
+        {
+            for(int i = 0; i < generations; i++)
+                kernel.simulate(board);
+        }
+        else if(generations > 0)
+            executeGenerations(board, generations);
+    }
+
+    /**
+     * Simulates the given amount of generations on the board, exactly.
+     * The default implementation calls executeOn() once per generation. Simulators able to compute several
+     * generations at a time, or that move more than one generation per step, override this method.
+     * @param board The board to be used under the simulation.
+     * @param generations The amount of generations to simulate (1 or more).
+     */
+    protected void executeGenerations(GameBoard board, int generations)
+    {
+        for(int i = 0; i < generations; i++)
+            executeOn(board);
+    }
+
+    private void calculateGenerationPerSecond(long generations)
     {
         long now = System.currentTimeMillis();
-        generationsPerSecond = (int)(++generationCount / ((now - generationCountTimer) / 1000.0));
+        generationCount += generations;
+        generationsPerSecond = (int) Math.min(Integer.MAX_VALUE, generationCount / ((now - generationCountTimer) / 1000.0));
 
         if(now > generationCountTimer + 1000)
         {
@@ -61,6 +109,17 @@ public abstract class Simulator
         }
     }
 
+    /**
+     * Returns the amount of generations the last call to simulateNextGenerationOn() moved the board forward.
+     * Simulators skipping ahead more than one generation at a time override this method,
+     * so the generation rate reports the effective amount of generations.
+     * @return The amount of generations per simulation step.
+     */
+    protected long getGenerationsPerStep()
+    {
+        return 1;
+    }
+
     /**
      * @return The amount of generations this simulator is simulating per second.
      */
@@ -78,12 +137,14 @@ public abstract class Simulator
     }
 
     /**
-     * Sets the new active simulation rule.
+     * Sets the new active simulation rule and compiles it into a {@link TransitionTable}.
      * @param simulationRule A rule.
      */
     public void setRule(SimulationRule simulationRule)
     {
         this.simulationRule = simulationRule;
+        this.transitionTable = new TransitionTable(simulationRule);
+        this.ruleKernel = simulationRule.createKernel();
     }
 
     /**
@@ -93,4 +154,12 @@ public abstract class Simulator
     {
         return simulationRule;
     }
+
+    /**
+     * Releases the threads and other resources held by the simulator, which can not be used afterwards.
+     * Should be called when a simulator is replaced. The default implementation does nothing.
+     */
+    public void shutdown()
+    {
+    }
 }
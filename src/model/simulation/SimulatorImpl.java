@@ -1,7 +1,6 @@
 package model.simulation;
 
 import model.GameBoard;
-import model.Point;
 
 /**
  * This simulator implementation executes a simulation on every cell in a given {@link GameBoard}.
@@ -22,35 +21,19 @@ public class SimulatorImpl extends Simulator
 
     /**
      * Executes the simulation on the given board.
-     * Iterates through the whole board, gets the amount of living neighbours for each cell
-     * and checks and sets the results for the next generation. It then makes the simulated
+     * Iterates through the whole board, gets the encoded state of each cell
+     * and sets the next state found in the transition table. It then makes the simulated
      * generation the current active one.
      *
      * @param board The current board.
      */
     protected void executeOn(GameBoard board)
     {
-        Point cellPos = new Point();
-        for (cellPos.y = 0; cellPos.y < board.getHeight(); cellPos.y++)
+        for (int y = 0; y < board.getHeight(); y++)
         {
-            for (cellPos.x = 0; cellPos.x < board.getWidth(); cellPos.x++)
+            for (int x = 0; x < board.getWidth(); x++)
             {
-                int numberOfLivingNeighbors = board.getAmountOfLivingNeighbours(cellPos);
-
-                switch(simulationRule.execute(numberOfLivingNeighbors))
-                {
-                    case DEATH:
-                        board.setStateInNextGeneration(false, cellPos);
-                        break;
-
-                    case BIRTH:
-                        board.setStateInNextGeneration(true, cellPos);
-                        break;
-
-                    case SURVIVE:
-                        board.setStateInNextGeneration(board.isCellAliveInThisGeneration(cellPos), cellPos);
-                        break;
-                }
+                board.setStateInNextGeneration(transitionTable.getNextState(board.getEncodedState(x, y)), x, y);
             }
         }
         board.makeNextGenerationCurrent();
@@ -1,200 +1,310 @@
 package model.simulation;
 
 import model.GameBoard;
+import model.GameBoardDynamic;
 import model.GameBoardDynamicList;
-import model.Point;
 
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.lang.ref.Cleaner;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * <p>This implementation uses multithreading to carry out a simulation on a given {@link GameBoard}.
  * It uses the boards methods to access and update each cell according to a specific rule.
- * The implementation creates a fixed pool of threads to be used for simulating different regions of
- * a board simultaneously. The amount of threads to be used is determined by the boards size
- * and the amount of available cores.
+ * The board is split into at most one region per thread of a {@link SimulationExecutor}, which by default is
+ * the executor shared by the whole application. Every generation is run as a task in the executor, which simulates
+ * the last region itself and forks a task for every other region, while the calling thread waits.
  *
- * <p>Every thread is given a horizontal region of the board to process. The amount of rows for each
- * thread is determined by the calculated thread count. Since the underlying data structure is stored
- * horizontally in memory, we heavily reduce the amount of cache misses by making each thread work on a set
- * of rows, instead of a set of columns.
+ * <p>Every thread is given a horizontal region of the board to process. Since the underlying data structure is
+ * stored horizontally in memory, we heavily reduce the amount of cache misses by making each thread work on a set
+ * of rows, instead of a set of columns. The regions are chosen by a {@link RegionPartitioner}, which makes every
+ * region hold at least a cache worth of rows and finds the amount of regions from the measured throughput.
  *
- * <p>The simulateNextGenerationOn() method uses a {@link CountDownLatch} to make sure all threads are done
- * processing before the generation is finalized with GameBoards makeNextGenerationCurrent(). Another latch
- * is used to make sure no threads are accessing the same data at the same time. Synchronization problems will
- * only occur if a slow running thread is accessing data at its to first rows, while a faster thread updates its
- * last rows in the adjacent region. This is solved by blocking all further processing until all threads are past
- * their second row and not allowing any threads to have fewer rows than 4. Boards with a smaller height than 8
- * will only utilize one thread. This way of ensuring thread-safe simulation requires no further synchronization
- * code in the {@link GameBoard} implementations. But to show how this can be done with either atomic data wrappers or
+ * <p>The region tasks only live for one generation, so no thread is held by the simulator between generations.
+ * The tasks are created once and reused, so no objects are created per generation. A task waiting for the regions
+ * joins them, which lets its thread simulate the regions not yet taken by other threads instead of blocking.
+ * The simulators sharing an executor therefore take turns on its threads, and the total amount of threads
+ * stays within the parallelism of the executor, however many simulators use it.
+ *
+ * <p>Setting the state of a cell may update the neighbour count of the rows above and below it. To prevent two
+ * threads from updating the same row, the threads only compute the first two rows of their region without
+ * writing them to the board. The rows in the rest of a region are at least two rows away from every other region,
+ * and are written directly. The first two rows of every region are then written by the calling thread after all
+ * threads are done. This way of ensuring thread-safe simulation requires no further synchronization code in the
+ * {@link GameBoard} implementations. But to show how this can be done with either atomic data wrappers or
  * synchronized method calls, see the {@link GameBoardDynamicList} class.
  *
+ * <p>Boards supporting concurrent writes, like a {@link GameBoardDynamic} created with concurrent writes enabled,
+ * are instead written directly by every thread, and the regions may be as small as a single row.
+ *
  * @author Niklas Johansen
  * @author Julie Katrine Høvik
  * @see Simulator
  * @see GameBoard
  * @see SimulationRule
+ * @see SimulationExecutor
  */
 
 public class ThreadedSimulatorImpl extends Simulator
 {
-    private ExecutorService executorService;
-    private CountDownLatch simulationExecutedLatch;
-    private CountDownLatch syncLatch;
-    private int availableProcessors;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final WorkerGroup workerGroup;
 
     /**
      * The constructor takes in a SimulationRule and sets up the simulator.
-     * It retrieves the amount of available cores (doubled if CPU is hyperthreaded)
-     * and creates a fixed thread pool with this amount. It also adds a shutdown hook
-     * for the ExecutorService to be shut down gracefully on application exit.
+     * The simulator uses the shared {@link SimulationExecutor}, with one region per thread of the executor.
      *
      * @param rule The rule to be used under simulation.
      */
     public ThreadedSimulatorImpl(SimulationRule rule)
+    {
+        this(rule, SimulationExecutor.getShared());
+    }
+
+    /**
+     * Sets up the simulator with the given executor, which may be shared with other simulators.
+     * @param rule The rule to be used under simulation.
+     * @param executor The executor running the regions.
+     */
+    public ThreadedSimulatorImpl(SimulationRule rule, SimulationExecutor executor)
+    {
+        this(rule, executor, false);
+    }
+
+    /**
+     * Sets up the simulator with an executor of its own, using the given amount of threads.
+     * The executor is shut down when the simulator is shut down or garbage collected.
+     * @param rule The rule to be used under simulation.
+     * @param numberOfThreads The maximum amount of threads working on a generation.
+     */
+    public ThreadedSimulatorImpl(SimulationRule rule, int numberOfThreads)
+    {
+        this(rule, new SimulationExecutor("Simulation worker", Math.max(1, numberOfThreads)), true);
+    }
+
+    private ThreadedSimulatorImpl(SimulationRule rule, SimulationExecutor executor, boolean ownsExecutor)
     {
         super(rule);
-        this.availableProcessors = Runtime.getRuntime().availableProcessors();
-        this.executorService = Executors.newFixedThreadPool(availableProcessors);
+        this.workerGroup = new WorkerGroup(executor, ownsExecutor);
 
-        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownExecutor));
+        // The cleaning action only refers to the worker group, so the simulator can be collected.
+        if(ownsExecutor)
+            CLEANER.register(this, workerGroup::shutdown);
     }
 
     /**
      * This method simulates a single generation on the given board.
-     * It creates the appropriate amount of Workers, submits them to the
-     * ExecutorService and waits for all threads to finish processing.
+     * It runs the regions in the executor and waits for all of them to finish processing.
      * @param board The board to be used for simulation.
      */
     @Override
     protected void executeOn(GameBoard board)
     {
-        // Limits the number of threads in relation to the board height
-        int numberOfThreads = Math.max(1, Math.min(availableProcessors, (board.getHeight() / 4)));
-        int rowsPerThread = board.getHeight() / numberOfThreads;
-
-        simulationExecutedLatch = new CountDownLatch(numberOfThreads);
-        syncLatch = new CountDownLatch(numberOfThreads);
-
-        for (int i = 0; i < numberOfThreads; i++)
-        {
-            // Adds additional rows to the last worker
-            // in case the number of rows are not divisible by the number of threads.
-            int additionalRows = 0;
-            if(i == numberOfThreads - 1)
-                additionalRows = board.getHeight() % numberOfThreads;
-
-            Worker worker = new Worker(board,i * rowsPerThread, rowsPerThread + additionalRows);
-            executorService.execute(worker);
-        }
-
-        try
-        {
-            // Wait until all threads are finished before proceeding.
-            simulationExecutedLatch.await();
-        }
-        catch (InterruptedException e)
-        {
-            e.printStackTrace();
-        }
-
+        workerGroup.simulate(board, transitionTable);
         board.makeNextGenerationCurrent();
     }
 
-    private void shutdownExecutor()
+    /**
+     * Shuts down the executor if it was created by this simulator. A shared executor is left running.
+     * The simulator can not be used after this method is called.
+     */
+    @Override
+    public void shutdown()
     {
-        executorService.shutdown();
-        try
-        {
-            if (!executorService.awaitTermination(10, TimeUnit.SECONDS))
-                executorService.shutdownNow();
-        }
-        catch (InterruptedException e)
-        {
-            executorService.shutdownNow();
-        }
+        workerGroup.shutdown();
     }
 
     /**
-     * This private class is used for simulating a region of a GameBoard.
-     * It takes in a GameBoard object and parameters for the region to be processed.
+     * This private class holds the region tasks and the state shared between them.
+     * It does not refer to the simulator, which lets the simulator be garbage collected.
      */
-    private class Worker implements Runnable
+    private static class WorkerGroup
     {
+        private static final int MIN_ROWS_PER_THREAD = 4;
+        private static final int EDGE_ROWS = 2;
+
+        private final SimulationExecutor executor;
+        private final boolean ownsExecutor;
+        private final RegionPartitioner partitioner;
+        private final GenerationTask generationTask = new GenerationTask(this);
+        private RegionTask[] regionTasks = new RegionTask[0];
+
         private GameBoard board;
-        private int numberOfRows;
-        private int rowIndexStart;
+        private TransitionTable table;
+        private int numberOfRegions;
+        private int[] regionStart;
+        private int edgeRows;
+        private boolean[][] edgeStates = new boolean[0][];
+
+        /**
+         * @param executor The executor running the regions.
+         * @param ownsExecutor True if the executor is shut down together with the group.
+         */
+        WorkerGroup(SimulationExecutor executor, boolean ownsExecutor)
+        {
+            this.executor = executor;
+            this.ownsExecutor = ownsExecutor;
+            this.partitioner = new RegionPartitioner(executor.getParallelism());
+        }
 
         /**
-         * @param board The board to be used for simulation.
-         * @param rowIndexStart The starting row index.
-         * @param numberOfRows The amount of rows to be processed from the given index.
+         * Simulates all regions of the board and writes the buffered edge rows of every region.
          */
-        public Worker(GameBoard board, int rowIndexStart, int numberOfRows)
+        void simulate(GameBoard board, TransitionTable table)
         {
+            long startTime = System.nanoTime();
+            int height = board.getHeight();
+            int width = board.getWidth();
+            boolean concurrentWrites = board.supportsConcurrentWrites();
+            int minRows = concurrentWrites ? 1 : MIN_ROWS_PER_THREAD;
+            edgeRows = concurrentWrites ? 0 : EDGE_ROWS;
+            regionStart = partitioner.partition(width, height, board.getBytesPerCell(), minRows, regionStart);
+            numberOfRegions = partitioner.getRegionCount();
             this.board = board;
-            this.numberOfRows = numberOfRows;
-            this.rowIndexStart = rowIndexStart;
+            this.table = table;
+
+            if(edgeStates.length < numberOfRegions || edgeStates[0].length < EDGE_ROWS * width)
+                edgeStates = new boolean[numberOfRegions][EDGE_ROWS * width];
+
+            if(numberOfRegions > 1)
+            {
+                if(regionTasks.length < numberOfRegions - 1)
+                {
+                    regionTasks = new RegionTask[numberOfRegions - 1];
+                    for(int region = 0; region < regionTasks.length; region++)
+                        regionTasks[region] = new RegionTask(this, region);
+                }
+
+                generationTask.reinitialize();
+                try
+                {
+                    executor.invoke(generationTask);
+                }
+                catch(RuntimeException | Error e)
+                {
+                    this.board = null;
+                    throw new IllegalStateException("Simulation failed in a worker thread", e);
+                }
+            }
+            else
+                simulateRegion(0);
+
+            for(int region = 0; region < numberOfRegions; region++)
+                writeEdgeRows(region);
+
+            this.board = null;
+            partitioner.record((long) width * height, System.nanoTime() - startTime);
         }
 
         /**
-         * Runs the simulation and counts the latch down.
+         * Forks every region but the last, simulates the last region and joins the others.
          */
-        @Override
-        public void run()
+        private void simulateRegions()
         {
-            simulate();
-            simulationExecutedLatch.countDown();
+            int forked = numberOfRegions - 1;
+            for(int region = 0; region < forked; region++)
+            {
+                regionTasks[region].reinitialize();
+                regionTasks[region].fork();
+            }
+
+            simulateRegion(numberOfRegions - 1);
+
+            // Joins in the reverse order, so the tasks still in the queue of this thread are run by it.
+            for(int region = forked - 1; region >= 0; region--)
+                regionTasks[region].join();
         }
 
         /**
-         * This method iterates over and updates all the cells in its region.
-         * It waits until all threads are done simulating their first two rows
-         * before proceeding. This is done to prevent synchronization issues and
-         * works as a faster alternative to either using synchronized method calls or
-         * atomic data wrappers.
+         * Computes the first two rows of the region into the edge buffer, unless the board supports concurrent
+         * writes, and sets the living cells of the remaining rows in the next generation.
          */
-        private void simulate()
+        private void simulateRegion(int region)
         {
-            Point cellPos = new Point();
-            for (cellPos.y = rowIndexStart; cellPos.y < rowIndexStart + numberOfRows; cellPos.y++)
+            TransitionTable table = this.table;
+            GameBoard board = this.board;
+            int width = board.getWidth();
+            int start = regionStart[region];
+            int end = regionStart[region + 1];
+            boolean[] edge = edgeStates[region];
+
+            for(int y = start; y < end; y++)
             {
-                for (cellPos.x = 0; cellPos.x < board.getWidth(); cellPos.x++)
+                if(y < start + edgeRows)
                 {
-                    int numberOfLivingNeighbors = board.getAmountOfLivingNeighbours(cellPos);
-
-                    switch(simulationRule.execute(numberOfLivingNeighbors))
-                    {
-                        case DEATH:
-                            board.setStateInNextGeneration(false, cellPos);
-                            break;
-
-                        case BIRTH:
-                            board.setStateInNextGeneration(true, cellPos);
-                            break;
-
-                        case SURVIVE:
-                            board.setStateInNextGeneration(board.isCellAliveInThisGeneration(cellPos), cellPos);
-                            break;
-                    }
+                    for(int x = 0, i = (y - start) * width; x < width; x++, i++)
+                        edge[i] = table.getNextState(board.getEncodedState(x, y));
                 }
-
-                // Before it starts simulating the third row, it waits for the other threads.
-                if(cellPos.y == rowIndexStart + 1)
+                else
                 {
-                    try
-                    {
-                        syncLatch.countDown();
-                        syncLatch.await();
-                    }
-                    catch (InterruptedException e)
-                    {
-                        e.printStackTrace();
-                    }
+                    for(int x = 0; x < width; x++)
+                        if(table.getNextState(board.getEncodedState(x, y)))
+                            board.setStateInNextGeneration(true, x, y);
                 }
             }
         }
+
+        private void writeEdgeRows(int region)
+        {
+            int width = board.getWidth();
+            int start = regionStart[region];
+            int rows = Math.min(edgeRows, regionStart[region + 1] - start);
+            boolean[] edge = edgeStates[region];
+
+            for(int y = 0; y < rows; y++)
+                for(int x = 0, i = y * width; x < width; x++, i++)
+                    if(edge[i])
+                        board.setStateInNextGeneration(true, x, start + y);
+        }
+
+        void shutdown()
+        {
+            if(ownsExecutor)
+                executor.shutdown();
+        }
+    }
+
+    /**
+     * This private class runs a generation inside the executor.
+     */
+    private static class GenerationTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final WorkerGroup group;
+
+        GenerationTask(WorkerGroup group)
+        {
+            this.group = group;
+        }
+
+        @Override
+        protected void compute()
+        {
+            group.simulateRegions();
+        }
+    }
+
+    /**
+     * This private class simulates one region, and is reused every generation.
+     */
+    private static class RegionTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final WorkerGroup group;
+        private final int region;
+
+        RegionTask(WorkerGroup group, int region)
+        {
+            this.group = group;
+            this.region = region;
+        }
+
+        @Override
+        protected void compute()
+        {
+            group.simulateRegion(region);
+        }
     }
-}
+}
\ No newline at end of file
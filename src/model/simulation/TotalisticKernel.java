@@ -0,0 +1,135 @@
+package model.simulation;
+
+import java.util.Arrays;
+
+/**
+ * <p>Kernel for totalistic rules, where the next state of a cell depends on the amount of living cells within a
+ * given range. It is used for both {@link GenerationsRule Generations} and {@link LargerThanLifeRule Larger than
+ * Life} rules.
+ *
+ * <p>With the Moore neighbourhood, the kernel keeps the amount of living cells in every column of the rows within
+ * range, adding the row entering and removing the row leaving the range when moving down. The counts of a row are
+ * then found with a sliding sum over the columns. Every cell therefore costs the same regardless of the range.
+ * The von Neumann neighbourhood is counted from prefix sums of the rows within range.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see NeighbourhoodKernel
+ */
+class TotalisticKernel extends NeighbourhoodKernel
+{
+    private final int range;
+    private final boolean vonNeumann;
+    private final boolean includeMiddle;
+
+    private int[] columnSums = new int[0];
+    private int[][] prefixSums;
+    private int[] prefixRow;
+
+    /**
+     * @param birth The amounts of living cells giving birth to a dead cell.
+     * @param survive The amounts of living cells keeping a living cell alive.
+     * @param states The amount of cell states (2 or more).
+     * @param range The range of the neighbourhood.
+     * @param vonNeumann True for the von Neumann neighbourhood, false for the Moore neighbourhood.
+     * @param includeMiddle Whether the cell itself is counted.
+     */
+    TotalisticKernel(boolean[] birth, boolean[] survive, int states, int range, boolean vonNeumann, boolean includeMiddle)
+    {
+        super(birth, survive, states);
+        this.range = range;
+        this.vonNeumann = vonNeumann;
+        this.includeMiddle = includeMiddle;
+    }
+
+    @Override
+    protected void computeKeys(long[][] rows, int y, int width, int height, int[] keys)
+    {
+        if(vonNeumann)
+            countVonNeumann(rows, y, width, height, keys);
+        else
+            countMoore(rows, y, width, height, keys);
+
+        if(!includeMiddle)
+        {
+            long[] row = rows[y];
+            for(int x = 0; x < width; x++)
+                keys[x] -= (int)(row[x >>> 6] >>> x) & 1;
+        }
+    }
+
+    private void countMoore(long[][] rows, int y, int width, int height, int[] keys)
+    {
+        if(y == 0)
+        {
+            if(columnSums.length < width)
+                columnSums = new int[width];
+            Arrays.fill(columnSums, 0);
+
+            for(int i = 0; i <= range && i < height; i++)
+                addRow(rows[i], columnSums, width, 1);
+        }
+        else
+        {
+            if(y + range < height)
+                addRow(rows[y + range], columnSums, width, 1);
+            if(y - range - 1 >= 0)
+                addRow(rows[y - range - 1], columnSums, width, -1);
+        }
+
+        int sum = 0;
+        for(int x = 0; x <= range && x < width; x++)
+            sum += columnSums[x];
+
+        for(int x = 0; x < width; x++)
+        {
+            keys[x] = sum;
+            if(x + range + 1 < width)
+                sum += columnSums[x + range + 1];
+            if(x - range >= 0)
+                sum -= columnSums[x - range];
+        }
+    }
+
+    private void countVonNeumann(long[][] rows, int y, int width, int height, int[] keys)
+    {
+        int window = 2 * range + 1;
+        if(y == 0)
+        {
+            if(prefixSums == null || prefixSums[0].length < width + 1)
+                prefixSums = new int[window][width + 1];
+            prefixRow = new int[window];
+            Arrays.fill(prefixRow, -1);
+        }
+
+        Arrays.fill(keys, 0, width, 0);
+        for(int dy = -range; dy <= range; dy++)
+        {
+            int row = y + dy;
+            if(row < 0 || row >= height)
+                continue;
+
+            int[] prefix = getPrefixSums(rows, row, width);
+            int reach = range - Math.abs(dy);
+            for(int x = 0; x < width; x++)
+                keys[x] += prefix[Math.min(width, x + reach + 1)] - prefix[Math.max(0, x - reach)];
+        }
+    }
+
+    /**
+     * @return The amount of living cells before every column of a row, computed once per row.
+     */
+    private int[] getPrefixSums(long[][] rows, int row, int width)
+    {
+        int slot = row % prefixRow.length;
+        int[] prefix = prefixSums[slot];
+        if(prefixRow[slot] != row)
+        {
+            long[] cells = rows[row];
+            for(int x = 0; x < width; x++)
+                prefix[x + 1] = prefix[x] + ((int)(cells[x >>> 6] >>> x) & 1);
+            prefixRow[slot] = row;
+        }
+        return prefix;
+    }
+}
@@ -0,0 +1,58 @@
+package model.simulation;
+
+/**
+ * <p>This class holds a {@link SimulationRule} compiled into a lookup table.
+ * The table is indexed by the encoded state of a cell, which is the same value as
+ * {@link model.GameBoardDynamic} stores per cell: 10 for a living cell plus the amount of living neighbours.
+ * Each entry holds the state of the cell in the next generation.
+ *
+ * <p>A simulator using the table finds the next state of a cell with one array access,
+ * instead of calling the rule and branching on the returned {@link SimulationRule.Result}.
+ * As the table is built from the results of the rule, it works for every rule implementation.
+ *
+ * @author Niklas Johansen
+ * @author Julie Katrine Høvik
+ * @see model.GameBoard#getEncodedState(int, int)
+ * @see model.GameBoardDynamic
+ */
+public final class TransitionTable
+{
+    private final boolean[] nextState = new boolean[128];
+
+    /**
+     * Compiles the given rule into a table.
+     * @param rule The rule to compile.
+     */
+    public TransitionTable(SimulationRule rule)
+    {
+        for(int n = 0; n <= 8; n++)
+        {
+            SimulationRule.Result result = rule.execute(n);
+            nextState[n] = result == SimulationRule.Result.BIRTH;
+            nextState[10 + n] = result != SimulationRule.Result.DEATH;
+        }
+
+        // Cells set alive more than once are read as alive, in the same way as the boards do.
+        for(int i = 20; i < nextState.length; i++)
+            nextState[i] = nextState[10 + i % 10];
+    }
+
+    /**
+     * @param encodedState The state of a cell: 10 if alive, plus the amount of living neighbours (0-127).
+     * @return The state of the cell in the next generation.
+     */
+    public boolean getNextState(int encodedState)
+    {
+        return nextState[encodedState];
+    }
+
+    /**
+     * @param alive The state of a cell.
+     * @param neighbours The amount of living neighbours.
+     * @return The state of the cell in the next generation.
+     */
+    public boolean getNextState(boolean alive, int neighbours)
+    {
+        return nextState[(alive ? 10 : 0) + neighbours];
+    }
+}
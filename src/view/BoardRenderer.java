@@ -117,19 +117,18 @@ public class BoardRenderer
         Point startPoint = calculateStartPoint(board);
         Point stopPoint = calculateStopPoint(board, startPoint);
         Point camPos = camera.getCenterOffsetRenderingPosition(board);
-        Point cellPos = new Point();
         double cellSize = camera.getZoom();
 
-        for (cellPos.y = startPoint.y; cellPos.y < stopPoint.y; cellPos.y++)
+        for (int y = startPoint.y; y < stopPoint.y; y++)
         {
-            double yCoordinate = camPos.y + cellPos.y * cellSize;
+            double yCoordinate = camPos.y + y * cellSize;
 
-            for (cellPos.x = startPoint.x; cellPos.x < stopPoint.x; cellPos.x++)
+            for (int x = startPoint.x; x < stopPoint.x; x++)
             {
-                if(board.isCellAliveInThisGeneration(cellPos))
+                if(board.isCellAliveInThisGeneration(x, y))
                 {
                     gc.fillRect(
-                            camPos.x + cellPos.x * cellSize,
+                            camPos.x + x * cellSize,
                             yCoordinate,
                             cellSize,
                             cellSize);
@@ -138,6 +137,17 @@ public class BoardRenderer
         }
     }
 
+    /**
+     * Returns the area of the board that is currently visible on the canvas.
+     * @param board The board to be rendered.
+     * @return The first (top, left) visible cell, and the cell after the last (bottom, right) visible cell.
+     */
+    public Point[] getVisibleCells(GameBoard board)
+    {
+        Point startPoint = calculateStartPoint(board);
+        return new Point[] {startPoint, calculateStopPoint(board, startPoint)};
+    }
+
     //Calculates the point of the first (top, left) visible cell in GameBoard.
     private Point calculateStartPoint(GameBoard board)
     {
@@ -0,0 +1,57 @@
+package model;
+
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import model.simulation.DefaultRule;
+import model.simulation.Simulator;
+import model.simulation.SimulatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GameBoardBitPackedTest extends GameBoardTestBase
+{
+    @Override
+    protected GameBoard getGameBoardInstance(int width, int height)
+    {
+        return new GameBoardBitPacked(width, height);
+    }
+
+    @Test
+    void increaseBoardSizeIfNecessary()
+    {
+        GameBoardBitPacked board = new GameBoardBitPacked(10, 10);
+
+        for(int i = 0; i < 20; i++)
+        {
+            board.editThisGeneration(true, new Point(board.getWidth() - 1,board.getHeight() - 1));
+            board.increaseBoardSizeIfNecessary();
+        }
+
+        assertEquals(50, board.getWidth());
+        assertEquals(50, board.getHeight());
+    }
+
+    @Test
+    void simulationMatchesDynamicBoard() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+        GameBoard dynamicBoard = pattern.getGameBoard();
+        GameBoard bitPackedBoard = pattern.getGameBoard(GameBoardBitPacked::new);
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 100; i++)
+        {
+            simulator.simulateNextGenerationOn(dynamicBoard);
+            simulator.simulateNextGenerationOn(bitPackedBoard);
+        }
+
+        assertEquals(dynamicBoard.getWidth(), bitPackedBoard.getWidth());
+        assertEquals(dynamicBoard.getHeight(), bitPackedBoard.getHeight());
+        assertEquals(dynamicBoard.getPopulation(), bitPackedBoard.getPopulation());
+        assertEquals(TestUtils.gameBoardToString(dynamicBoard), TestUtils.gameBoardToString(bitPackedBoard));
+    }
+}
@@ -0,0 +1,10 @@
+package model;
+
+public class GameBoardDynamicConcurrentTest extends GameBoardTestBase
+{
+    @Override
+    protected GameBoard getGameBoardInstance(int width, int height)
+    {
+        return new GameBoardDynamic(width, height, true);
+    }
+}
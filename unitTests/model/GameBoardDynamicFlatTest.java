@@ -0,0 +1,56 @@
+package model;
+
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import model.simulation.DefaultRule;
+import model.simulation.Simulator;
+import model.simulation.SimulatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GameBoardDynamicFlatTest extends GameBoardTestBase
+{
+    @Override
+    protected GameBoard getGameBoardInstance(int width, int height)
+    {
+        return new GameBoardDynamicFlat(width, height);
+    }
+
+    @Test
+    void increaseBoardSizeIfNecessary()
+    {
+        GameBoardDynamicFlat board = new GameBoardDynamicFlat(10, 10);
+
+        for(int i = 0; i < 20; i++)
+        {
+            board.editThisGeneration(true, new Point(board.getWidth() - 1,board.getHeight() - 1));
+            board.increaseBoardSizeIfNecessary();
+        }
+
+        assertEquals(50, board.getWidth());
+        assertEquals(50, board.getHeight());
+    }
+
+    @Test
+    void simulationMatchesDynamicBoard() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+        GameBoard dynamicBoard = pattern.getGameBoard();
+        GameBoard flatBoard = pattern.getGameBoard(GameBoardDynamicFlat::new);
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 100; i++)
+        {
+            simulator.simulateNextGenerationOn(dynamicBoard);
+            simulator.simulateNextGenerationOn(flatBoard);
+        }
+
+        assertEquals(dynamicBoard.getWidth(), flatBoard.getWidth());
+        assertEquals(dynamicBoard.getHeight(), flatBoard.getHeight());
+        assertEquals(TestUtils.gameBoardToString(dynamicBoard), TestUtils.gameBoardToString(flatBoard));
+    }
+}
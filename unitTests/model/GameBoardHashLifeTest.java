@@ -0,0 +1,116 @@
+package model;
+
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import model.simulation.DefaultRule;
+import model.simulation.Simulator;
+import model.simulation.SimulatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GameBoardHashLifeTest extends GameBoardTestBase
+{
+    @Override
+    protected GameBoard getGameBoardInstance(int width, int height)
+    {
+        return new GameBoardHashLife(width, height);
+    }
+
+    @Test
+    void advanceMatchesCellSimulation() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+        GameBoard expectedBoard = pattern.getGameBoard();
+        GameBoardHashLife actualBoard = (GameBoardHashLife) pattern.getGameBoard(GameBoardHashLife::new);
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+
+        // Advances 1 + 2 + 4 + 8 + 16 + 32 = 63 generations.
+        for(int exponent = 0; exponent <= 5; exponent++)
+        {
+            for(int i = 0; i < (1 << exponent); i++)
+                simulator.simulateNextGenerationOn(expectedBoard);
+
+            actualBoard.advance(new DefaultRule(), exponent);
+
+            assertEquals(expectedBoard.getPopulation(), actualBoard.getPopulation());
+            assertEquals(TestUtils.trimmedGameBoardToString(expectedBoard), TestUtils.trimmedGameBoardToString(actualBoard));
+        }
+    }
+
+    @Test
+    void viewCoversLivingCells()
+    {
+        GameBoardHashLife board = new GameBoardHashLife(5, 5);
+        board.editThisGeneration(true, new Point(1,0));
+        board.editThisGeneration(true, new Point(2,1));
+        board.editThisGeneration(true, new Point(0,2));
+        board.editThisGeneration(true, new Point(1,2));
+        board.editThisGeneration(true, new Point(2,2));
+
+        // A glider moves one cell diagonally every fourth generation.
+        board.advance(new DefaultRule(), 10);
+
+        Point[] boundingBox = board.getBoundingBox();
+        assertEquals(5, board.getPopulation());
+        assertEquals(1, board.getWidth() - boundingBox[1].x);
+        assertEquals(1, board.getHeight() - boundingBox[1].y);
+        assertEquals("010001111", TestUtils.trimmedGameBoardToString(board));
+    }
+
+    @Test
+    void viewFollowsDistantPatterns()
+    {
+        GameBoardHashLife board = new GameBoardHashLife(50, 50);
+        board.editThisGeneration(true, new Point(1,0));
+        board.editThisGeneration(true, new Point(2,1));
+        board.editThisGeneration(true, new Point(0,2));
+        board.editThisGeneration(true, new Point(1,2));
+        board.editThisGeneration(true, new Point(2,2));
+
+        // The glider moves 2^28 cells per step, far beyond the largest view.
+        for(int i = 0; i < 8; i++)
+        {
+            board.advance(new DefaultRule(), GameBoardHashLife.MAX_STEP_EXPONENT);
+
+            Point[] boundingBox = board.getBoundingBox();
+            assertEquals(5, board.getWidth());
+            assertEquals(5, board.getHeight());
+            assertEquals(1, boundingBox[0].x);
+            assertEquals(1, boundingBox[0].y);
+            assertEquals(4, boundingBox[1].x);
+            assertEquals(4, boundingBox[1].y);
+            assertEquals("010001111", TestUtils.trimmedGameBoardToString(board));
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+                board.advance(new DefaultRule(), GameBoardHashLife.MAX_STEP_EXPONENT + 1));
+    }
+
+    @Test
+    void getRowOfThisGenerationMatchesCells() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+        GameBoardHashLife board = (GameBoardHashLife) pattern.getGameBoard(GameBoardHashLife::new);
+        board.advance(new DefaultRule(), 6);
+
+        long[] row = null;
+        for(int y = 0; y < board.getHeight(); y++)
+        {
+            row = board.getRowOfThisGeneration(y, row);
+            for(int x = 0; x < board.getWidth(); x++)
+                assertEquals(board.isCellAliveInThisGeneration(x, y), ((row[x >>> 6] >>> x) & 1) == 1);
+        }
+    }
+
+    @Test
+    void advanceWithBirthOnZeroNeighbours()
+    {
+        GameBoardHashLife board = new GameBoardHashLife(5, 5);
+        assertThrows(IllegalArgumentException.class, () -> board.advance(new model.simulation.CustomRule("B0/S"), 0));
+    }
+}
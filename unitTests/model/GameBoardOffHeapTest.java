@@ -0,0 +1,196 @@
+package model;
+
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import model.simulation.DefaultRule;
+import model.simulation.Simulator;
+import model.simulation.SimulatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameBoardOffHeapTest extends GameBoardTestBase
+{
+    @Override
+    protected GameBoard getGameBoardInstance(int width, int height)
+    {
+        return new GameBoardOffHeap(width, height);
+    }
+
+    @Test
+    void increaseBoardSizeIfNecessary()
+    {
+        GameBoardOffHeap board = new GameBoardOffHeap(10, 10);
+
+        for(int i = 0; i < 20; i++)
+        {
+            board.editThisGeneration(true, new Point(board.getWidth() - 1,board.getHeight() - 1));
+            board.increaseBoardSizeIfNecessary();
+        }
+
+        assertEquals(50, board.getWidth());
+        assertEquals(50, board.getHeight());
+        assertNull(board.getGrowthFailure());
+    }
+
+    @Test
+    void simulationMatchesDynamicBoard() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+        GameBoard dynamicBoard = pattern.getGameBoard();
+        GameBoard offHeapBoard = pattern.getGameBoard(GameBoardOffHeap::new);
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 100; i++)
+        {
+            simulator.simulateNextGenerationOn(dynamicBoard);
+            simulator.simulateNextGenerationOn(offHeapBoard);
+        }
+
+        assertEquals(dynamicBoard.getPopulation(), offHeapBoard.getPopulation());
+        assertEquals(TestUtils.trimmedGameBoardToString(dynamicBoard), TestUtils.trimmedGameBoardToString(offHeapBoard));
+    }
+
+    @Test
+    void reopenMappedBoard() throws IOException, PatternFormatException
+    {
+        Path file = Files.createTempFile("board", ".bin");
+        try
+        {
+            Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+            GameBoard dynamicBoard = pattern.getGameBoard();
+            GameBoardOffHeap mappedBoard = new GameBoardOffHeap(dynamicBoard.getWidth(), dynamicBoard.getHeight(), file);
+            Point cellPos = new Point();
+            for(cellPos.y = 0; cellPos.y < dynamicBoard.getHeight(); cellPos.y++)
+                for(cellPos.x = 0; cellPos.x < dynamicBoard.getWidth(); cellPos.x++)
+                    if(dynamicBoard.isCellAliveInThisGeneration(cellPos))
+                        mappedBoard.editThisGeneration(true, cellPos);
+
+            // The board grows while simulated, which maps new generations in the same file.
+            Simulator simulator = new SimulatorImpl(new DefaultRule());
+            for(int i = 0; i < 50; i++)
+            {
+                simulator.simulateNextGenerationOn(dynamicBoard);
+                simulator.simulateNextGenerationOn(mappedBoard);
+            }
+            mappedBoard.flush();
+
+            GameBoardOffHeap reopenedBoard = GameBoardOffHeap.open(file);
+            assertEquals(mappedBoard.getWidth(), reopenedBoard.getWidth());
+            assertEquals(mappedBoard.getHeight(), reopenedBoard.getHeight());
+            assertEquals(TestUtils.gameBoardToString(mappedBoard), TestUtils.gameBoardToString(reopenedBoard));
+
+            // The reopened board continues the simulation.
+            for(int i = 0; i < 50; i++)
+            {
+                simulator.simulateNextGenerationOn(dynamicBoard);
+                simulator.simulateNextGenerationOn(reopenedBoard);
+            }
+            assertEquals(TestUtils.trimmedGameBoardToString(dynamicBoard), TestUtils.trimmedGameBoardToString(reopenedBoard));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void reopenAfterGrowing() throws IOException
+    {
+        Path file = Files.createTempFile("board", ".bin");
+        try
+        {
+            GameBoardOffHeap board = new GameBoardOffHeap(10, 10, file);
+            board.editThisGeneration(true, new Point(0, 0));
+            board.editThisGeneration(true, new Point(9, 9));
+
+            // Growing within the buffers, and growing the buffers, both update the header.
+            board.increaseBoardSizeIfNecessary();
+            assertEquals(12, GameBoardOffHeap.open(file).getWidth());
+
+            for(int i = 0; i < 10; i++)
+            {
+                board.editThisGeneration(true, new Point(board.getWidth() - 1, board.getHeight() - 1));
+                board.increaseBoardSizeIfNecessary();
+            }
+            assertNull(board.getGrowthFailure());
+
+            // The grown generations are moved back to the start, and the file is truncated after them.
+            assertEquals(64 + board.getStorageSize(), Files.size(file));
+
+            GameBoardOffHeap reopenedBoard = GameBoardOffHeap.open(file);
+            assertEquals(board.getWidth(), reopenedBoard.getWidth());
+            assertEquals(board.getHeight(), reopenedBoard.getHeight());
+            assertEquals(TestUtils.gameBoardToString(board), TestUtils.gameBoardToString(reopenedBoard));
+            reopenedBoard.close();
+            board.close();
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void openInvalidFile() throws IOException
+    {
+        Path file = Files.createTempFile("board", ".bin");
+        try
+        {
+            Files.write(file, new byte[] {1, 2, 3, 4});
+            assertThrows(IOException.class, () -> GameBoardOffHeap.open(file));
+
+            // Only the current version of the header is accepted.
+            GameBoardOffHeap board = new GameBoardOffHeap(10, 10, file);
+            board.close();
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+            {
+                channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 1}), 4);
+            }
+            assertThrows(IOException.class, () -> GameBoardOffHeap.open(file));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void closeWritesAndReleasesTheFile() throws IOException
+    {
+        Path file = Files.createTempFile("board", ".bin");
+        try
+        {
+            GameBoardOffHeap board = new GameBoardOffHeap(10, 10, file);
+            board.editThisGeneration(true, new Point(3, 4));
+            board.close();
+            board.close();
+            assertThrows(NullPointerException.class, () -> board.isCellAliveInThisGeneration(3, 4));
+
+            try(GameBoardOffHeap reopenedBoard = GameBoardOffHeap.open(file))
+            {
+                assertTrue(reopenedBoard.isCellAliveInThisGeneration(3, 4));
+                assertEquals(1, reopenedBoard.getPopulation());
+            }
+
+            GameBoardOffHeap directBoard = new GameBoardOffHeap(10, 10);
+            directBoard.close();
+            assertNull(directBoard.getFile());
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+}
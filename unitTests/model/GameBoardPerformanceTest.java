@@ -3,6 +3,7 @@ package model;
 import model.patternIO.Pattern;
 import model.patternIO.PatternFormatException;
 import model.patternIO.PatternLoader;
+import model.simulation.BitwiseSimulatorImpl;
 import model.simulation.DefaultRule;
 import model.simulation.Simulator;
 import model.simulation.ThreadedSimulatorImpl;
@@ -71,6 +72,43 @@ public class GameBoardPerformanceTest
             simulationTimeDynamic += simulator.getSimulationTime();
         }
 
+        // ----------------------------- DYNAMIC FLAT -----------------------------
+
+        GameBoardDynamicFlat boardDynamicFlat = new GameBoardDynamicFlat(board.getWidth(), board.getHeight());
+        TestUtils.addDataToGameBoard(boardDynamicFlat, board);
+
+        long simulationTimeDynamicFlat = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            simulator.simulateNextGenerationOn(boardDynamicFlat);
+            simulationTimeDynamicFlat += simulator.getSimulationTime();
+        }
+
+        // ----------------------------- BIT PACKED -----------------------------
+
+        GameBoardBitPacked boardBitPacked = new GameBoardBitPacked(board.getWidth(), board.getHeight());
+        TestUtils.addDataToGameBoard(boardBitPacked, board);
+
+        long simulationTimeBitPacked = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            simulator.simulateNextGenerationOn(boardBitPacked);
+            simulationTimeBitPacked += simulator.getSimulationTime();
+        }
+
+        // ----------------------------- TILED -----------------------------
+
+        GameBoardTiled boardTiled = new GameBoardTiled(board.getWidth(), board.getHeight());
+        TestUtils.addDataToGameBoard(boardTiled, board);
+        Simulator tileSimulator = new BitwiseSimulatorImpl(new DefaultRule());
+
+        long simulationTimeTiled = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            tileSimulator.simulateNextGenerationOn(boardTiled);
+            simulationTimeTiled += tileSimulator.getSimulationTime();
+        }
+
         // ----------------------------- STATIC -----------------------------
 
         GameBoardStatic boardStatic = new GameBoardStatic(board.getWidth(), board.getHeight());
@@ -89,6 +127,9 @@ public class GameBoardPerformanceTest
                 " - GameBoardDynamicList (atomic):                        " + simulationTimeDynamicConcurrentList + " ms\n" +
                 " - GameBoardDynamicList (synchronized):                  " + simulationTimeDynamicList + " ms\n" +
                 " - GameBoardStatic (unoptimized and fixed board size):   " + simulationTimeStatic + " ms\n" +
-                " - GameBoardDynamic (used in app):                       " + simulationTimeDynamic + " ms\n");
+                " - GameBoardDynamic (used in app):                       " + simulationTimeDynamic + " ms\n" +
+                " - GameBoardDynamicFlat (one array with row stride):     " + simulationTimeDynamicFlat + " ms\n" +
+                " - GameBoardBitPacked (one bit per cell):                " + simulationTimeBitPacked + " ms\n" +
+                " - GameBoardTiled (active tiles, BitwiseSimulatorImpl):  " + simulationTimeTiled + " ms\n");
     }
 }
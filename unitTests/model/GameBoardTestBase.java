@@ -77,6 +77,41 @@ public abstract class GameBoardTestBase
         }
     }
 
+    @Test
+    void getRowOfThisGeneration()
+    {
+        GameBoard board = getGameBoardInstance(130, 3);
+        int[] columns = {0, 63, 64, 65, 129};
+        for(int x : columns)
+            board.editThisGeneration(true, x, 1);
+
+        long[] row = board.getRowOfThisGeneration(1, new long[] {-1, -1, -1, -1});
+
+        assertEquals((1L << 63) | 1L, row[0]);
+        assertEquals(0b11L, row[1]);
+        assertEquals(0b10L, row[2]);
+        assertEquals(0L, board.getRowOfThisGeneration(0, null)[1]);
+    }
+
+    @Test
+    void setRowInNextGeneration()
+    {
+        GameBoard original = getGameBoardInstance(130, 3);
+        TestUtils.addRandomCellDataTo(original);
+
+        GameBoard copy = getGameBoardInstance(130, 3);
+        long[] row = null;
+        for(int y = 0; y < 3; y++)
+        {
+            row = original.getRowOfThisGeneration(y, row);
+            copy.setRowInNextGeneration(y, row);
+        }
+        copy.makeNextGenerationCurrent();
+
+        assertEquals(original.getPopulation(), copy.getPopulation());
+        assertEquals(TestUtils.trimmedGameBoardToString(original), TestUtils.trimmedGameBoardToString(copy));
+    }
+
     @Test
     void getPopulation()
     {
@@ -0,0 +1,97 @@
+package model;
+
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import model.simulation.BitwiseSimulatorImpl;
+import model.simulation.DefaultRule;
+import model.simulation.Simulator;
+import model.simulation.SimulatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameBoardTiledTest extends GameBoardTestBase
+{
+    @Override
+    protected GameBoard getGameBoardInstance(int width, int height)
+    {
+        return new GameBoardTiled(width, height);
+    }
+
+    @Test
+    void simulationMatchesDynamicBoard() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/spacefiller2.rle");
+        TestUtils.assertSimulatesLikeSimulatorImpl(pattern, new String[] {"B3/S23", "B36/S23", "B0123478/S01234678"},
+                50, p -> p.getGameBoard(GameBoardTiled::new), BitwiseSimulatorImpl::new);
+    }
+
+    /**
+     * A blinker across the corner where four tiles meet, which is followed by the death of a lone cell,
+     * after which the tiles it leaves empty must be removed.
+     */
+    @Test
+    void blinkerAcrossTileCorner()
+    {
+        GameBoardTiled board = new GameBoardTiled(130, 130);
+        for(int x = 63; x <= 65; x++)
+            board.editThisGeneration(true, x, 64);
+        board.editThisGeneration(true, 10, 10);
+
+        Simulator simulator = new BitwiseSimulatorImpl(new DefaultRule());
+        simulator.simulateNextGenerationOn(board);
+        assertEquals("111", TestUtils.trimmedGameBoardToString(board));
+        assertEquals(3, board.getPopulation());
+        assertTrue(board.getTileCount() <= 2);
+
+        simulator.simulateNextGenerationOn(board);
+        assertEquals(3, board.getPopulation());
+        assertTrue(board.getTileCount() <= 2);
+        assertTrue(board.isCellAliveInThisGeneration(63, 64));
+        assertTrue(board.isCellAliveInThisGeneration(65, 64));
+    }
+
+    @Test
+    void growsInEveryDirection()
+    {
+        // A glider moving up and to the left.
+        GameBoardTiled board = new GameBoardTiled(3, 3);
+        String glider = "111100010";
+        for(int y = 0; y < 3; y++)
+            for(int x = 0; x < 3; x++)
+                board.editThisGeneration(glider.charAt(y * 3 + x) == '1', new Point(x, y));
+
+        Simulator simulator = new BitwiseSimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 4 * 500; i++)
+            simulator.simulateNextGenerationOn(board);
+
+        Point[] boundingBox = board.getBoundingBox();
+        assertEquals(glider, TestUtils.trimmedGameBoardToString(board));
+        assertEquals(1, boundingBox[0].x);
+        assertEquals(1, boundingBox[0].y);
+        assertTrue(board.getWidth() > 500);
+        assertTrue(board.getTileCount() <= 4);
+    }
+
+    @Test
+    void simulationWithCellSimulator()
+    {
+        GameBoard board = new GameBoardTiled(5, 5);
+        board.editThisGeneration(true, new Point(1,0));
+        board.editThisGeneration(true, new Point(2,1));
+        board.editThisGeneration(true, new Point(0,2));
+        board.editThisGeneration(true, new Point(1,2));
+        board.editThisGeneration(true, new Point(2,2));
+
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 4 * 100; i++)
+            simulator.simulateNextGenerationOn(board);
+
+        assertEquals("010001111", TestUtils.trimmedGameBoardToString(board));
+        assertEquals(5, board.getPopulation());
+    }
+}
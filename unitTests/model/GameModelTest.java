@@ -1,5 +1,8 @@
 package model;
 
+import model.simulation.DefaultRule;
+import model.simulation.HashLifeSimulatorImpl;
+import model.simulation.SimulatorImpl;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,4 +35,127 @@ class GameModelTest
 
         assertEquals("101011010", TestUtils.trimmedGameBoardToString(gameModel.getGameBoard()));
     }
+
+    @Test
+    void setHashLifeEnabled()
+    {
+        GameModel gameModel = new GameModel();
+        gameModel.getGameBoard().editThisGeneration(true, new Point(1,0));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(2,1));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(0,2));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(1,2));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(2,2));
+
+        gameModel.setHashLifeEnabled(true);
+        assertTrue(gameModel.getGameBoard() instanceof GameBoardHashLife);
+
+        gameModel.simulateNextGeneration();
+        assertEquals("101011010", TestUtils.trimmedGameBoardToString(gameModel.getGameBoard()));
+
+        gameModel.setHashLifeEnabled(false);
+        assertTrue(gameModel.getGameBoard() instanceof GameBoardDynamic);
+        assertEquals("101011010", TestUtils.trimmedGameBoardToString(gameModel.getGameBoard()));
+    }
+
+    @Test
+    void setHashLifeStepExponent()
+    {
+        GameModel gameModel = new GameModel();
+        gameModel.getGameBoard().editThisGeneration(true, new Point(1,0));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(2,1));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(0,2));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(1,2));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(2,2));
+
+        // The exponent is kept until the engine is enabled.
+        gameModel.setHashLifeStepExponent(2);
+        gameModel.setHashLifeEnabled(true);
+        assertEquals(2, ((HashLifeSimulatorImpl) gameModel.getSimulator()).getStepExponent());
+
+        // A glider is back in its original phase after four generations.
+        gameModel.simulateNextGeneration();
+        assertEquals("010001111", TestUtils.trimmedGameBoardToString(gameModel.getGameBoard()));
+
+        gameModel.setHashLifeStepExponent(0);
+        assertEquals(0, ((HashLifeSimulatorImpl) gameModel.getSimulator()).getStepExponent());
+        assertThrows(IllegalArgumentException.class, () -> gameModel.setHashLifeStepExponent(-1));
+    }
+
+    @Test
+    void publishSnapshot()
+    {
+        GameModel gameModel = new GameModel();
+        assertNull(gameModel.getSnapshot());
+
+        gameModel.getGameBoard().editThisGeneration(true, new Point(1,0));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(2,1));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(0,2));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(1,2));
+        gameModel.getGameBoard().editThisGeneration(true, new Point(2,2));
+
+        GameBoardSnapshot snapshot = gameModel.publishSnapshot();
+        assertSame(snapshot, gameModel.getSnapshot());
+        assertEquals(gameModel.getGameBoard().hashCode(), snapshot.hashCode());
+
+        // The snapshot keeps the published generation while the board is simulated
+        gameModel.simulateNextGeneration();
+        assertEquals("010001111", TestUtils.trimmedGameBoardToString(snapshot));
+        assertEquals(1, snapshot.getAmountOfLivingNeighbours(0, 0));
+        assertEquals(5, snapshot.getAmountOfLivingNeighbours(1, 1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.editThisGeneration(true, 0, 0));
+
+        gameModel.setGameBoard(new GameBoardDynamic(10, 10));
+        assertNull(gameModel.getSnapshot());
+    }
+
+    @Test
+    void publishSnapshotOfArea()
+    {
+        GameModel gameModel = new GameModel();
+        GameBoard board = new GameBoardDynamic(300, 200);
+        for(int y = 0; y < board.getHeight(); y++)
+            for(int x = 0; x < board.getWidth(); x++)
+                board.editThisGeneration((x * 7 + y * 3) % 5 == 0, x, y);
+        gameModel.setGameBoard(board);
+
+        // A narrow area is read cell by cell, a wide one row by row
+        for(int[] area : new int[][] {{70, 50, 60, 40}, {-10, 150, 290, 100}})
+        {
+            GameBoardSnapshot snapshot = gameModel.publishSnapshot(area[0], area[1], area[2], area[3]);
+            assertSame(snapshot, gameModel.getSnapshot());
+            assertEquals(board.getWidth(), snapshot.getWidth());
+            assertEquals(board.getHeight(), snapshot.getHeight());
+
+            long[] row = null;
+            for(int y = 0; y < board.getHeight(); y++)
+            {
+                row = snapshot.getRowOfThisGeneration(y, row);
+                for(int x = 0; x < board.getWidth(); x++)
+                {
+                    boolean inArea = x >= area[0] && x < area[0] + area[2] && y >= area[1] && y < area[1] + area[3];
+                    boolean expected = inArea && board.isCellAliveInThisGeneration(x, y);
+                    assertEquals(expected, snapshot.isCellAliveInThisGeneration(x, y));
+                    assertEquals(expected, ((row[x >>> 6] >>> x) & 1) == 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    void replacedSimulatorIsShutDown()
+    {
+        GameModel gameModel = new GameModel();
+        boolean[] shutDown = new boolean[1];
+        gameModel.setSimulator(new SimulatorImpl(new DefaultRule())
+        {
+            @Override
+            public void shutdown()
+            {
+                shutDown[0] = true;
+            }
+        });
+
+        gameModel.setHashLifeEnabled(true);
+        assertTrue(shutDown[0]);
+    }
 }
\ No newline at end of file
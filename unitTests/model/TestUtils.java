@@ -1,6 +1,15 @@
 package model;
 
+import model.patternIO.Pattern;
+import model.simulation.CustomRule;
+import model.simulation.SimulationRule;
+import model.simulation.Simulator;
+import model.simulation.SimulatorImpl;
+
 import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TestUtils
 {
@@ -84,4 +93,57 @@ public class TestUtils
                 board.editThisGeneration(r.nextBoolean(), cellPos);
     }
 
+    /**
+     * Simulates a pattern with every rule, and compares the result with the per cell {@link SimulatorImpl}
+     * on the default board of the pattern. Boards of the same kind are compared cell by cell. Boards of
+     * other kinds may grow differently, and are compared within their bounding boxes.
+     * @param pattern The pattern to simulate.
+     * @param rules The rule strings to simulate with.
+     * @param generations The amount of generations to simulate.
+     * @param boardFactory Creates the board to be tested from the pattern.
+     * @param simulatorFactory Creates the simulator to be tested from a rule.
+     */
+    public static void assertSimulatesLikeSimulatorImpl(Pattern pattern, String[] rules, int generations,
+            Function<Pattern, GameBoard> boardFactory, Function<SimulationRule, Simulator> simulatorFactory)
+    {
+        for(String rule : rules)
+        {
+            GameBoard expectedBoard = pattern.getGameBoard();
+            GameBoard actualBoard = boardFactory.apply(pattern);
+            Simulator expectedSimulator = new SimulatorImpl(new CustomRule(rule));
+            Simulator actualSimulator = simulatorFactory.apply(new CustomRule(rule));
+
+            for(int i = 0; i < generations; i++)
+            {
+                expectedSimulator.simulateNextGenerationOn(expectedBoard);
+                actualSimulator.simulateNextGenerationOn(actualBoard);
+            }
+
+            assertEquals(expectedBoard.getPopulation(), actualBoard.getPopulation(), rule);
+            if(expectedBoard.getClass() == actualBoard.getClass())
+            {
+                assertEquals(expectedBoard.getWidth(), actualBoard.getWidth(), rule);
+                assertEquals(gameBoardToString(expectedBoard), gameBoardToString(actualBoard), rule);
+            }
+            else
+                assertEquals(trimmedGameBoardToString(expectedBoard), trimmedGameBoardToString(actualBoard), rule);
+        }
+    }
+
+    /**
+     * Simulates a periodic pattern for a number of periods, and checks that it is back in its first state.
+     * The check will fail if a single synchronization problem occurs while simulating.
+     * @param board The board holding the pattern.
+     * @param simulator The simulator to be tested.
+     * @param period The period of the pattern.
+     * @param repetitions The amount of periods to simulate.
+     */
+    public static void assertReturnsAfterPeriods(GameBoard board, Simulator simulator, int period, int repetitions)
+    {
+        String expected = trimmedGameBoardToString(board);
+        for(int i = 0; i < period * repetitions; i++)
+            simulator.simulateNextGenerationOn(board);
+
+        assertEquals(expected, trimmedGameBoardToString(board));
+    }
 }
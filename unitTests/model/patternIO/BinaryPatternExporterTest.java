@@ -0,0 +1,93 @@
+package model.patternIO;
+
+import model.GameBoard;
+import model.GameBoardDynamic;
+import model.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryPatternExporterTest
+{
+    @Test
+    void exportPattern() throws IOException, PatternFormatException
+    {
+        Pattern testPattern = new Pattern();
+        testPattern.setCellData(new boolean[][] {{false,true,false},{false,false,false},{true,false,true}});
+        testPattern.setMetadata(Arrays.asList("N TestPattern","O Author", "C Comment"));
+        testPattern.setRuleString("B36/S23");
+        testPattern.setGeneration(1234567890123L);
+
+        File outputFile = File.createTempFile("test", ".golb");
+        outputFile.deleteOnExit();
+        new BinaryPatternExporter().export(testPattern, outputFile);
+
+        Pattern loadedPattern = new PatternLoader().loadFile(outputFile);
+
+        assertEquals("010000101", TestUtils.trimmedGameBoardToString(loadedPattern.getGameBoard()));
+        assertEquals("TestPattern", loadedPattern.getName());
+        assertEquals("Author", loadedPattern.getAuthor());
+        assertEquals("Comment\n", loadedPattern.getComments());
+        assertEquals("B36/S23", loadedPattern.getRuleString());
+        assertEquals(1234567890123L, loadedPattern.getGeneration());
+    }
+
+    @Test
+    void exportBoard() throws IOException, PatternFormatException
+    {
+        GameBoard board = new GameBoardDynamic(130, 3000);
+        Random random = new Random(3);
+        for(int y = 0; y < board.getHeight(); y += 3)
+            for(int x = 0; x < board.getWidth(); x++)
+                board.editThisGeneration(random.nextBoolean(), x, y);
+
+        // A comment longer than the buffer of the exporter.
+        char[] comment = new char[1_500_000];
+        Arrays.fill(comment, 'ø');
+        Pattern metadata = new Pattern();
+        metadata.setComments(new String(comment));
+
+        File outputFile = File.createTempFile("board", ".golb");
+        outputFile.deleteOnExit();
+        new BinaryPatternExporter().export(board, metadata, outputFile);
+
+        Pattern loadedPattern = new PatternLoader().loadFile(outputFile);
+
+        assertEquals(new String(comment), loadedPattern.getComments());
+        assertNull(loadedPattern.getName());
+        assertEquals(130, loadedPattern.getWidth());
+        assertEquals(3000, loadedPattern.getHeight());
+        for(int y = 0; y < board.getHeight(); y++)
+            for(int x = 0; x < board.getWidth(); x++)
+                assertEquals(board.isCellAliveInThisGeneration(x, y), loadedPattern.isCellAlive(x, y));
+    }
+
+    @Test
+    void damagedFile() throws IOException
+    {
+        Pattern testPattern = new Pattern();
+        testPattern.setCellData(new boolean[][] {{true, true}, {true, false}});
+        File outputFile = File.createTempFile("damaged", ".golb");
+        outputFile.deleteOnExit();
+        new BinaryPatternExporter().export(testPattern, outputFile);
+
+        try(RandomAccessFile file = new RandomAccessFile(outputFile, "rw"))
+        {
+            file.seek(file.length() - 9);
+            int b = file.read();
+            file.seek(file.length() - 9);
+            file.write(b ^ 4);
+        }
+
+        PatternFormatException exception = assertThrows(PatternFormatException.class, () ->
+                new PatternLoader().loadFile(outputFile));
+
+        assertEquals(PatternFormatException.ErrorCode.CHECKSUM_MISMATCH, exception.getErrorCode());
+    }
+}
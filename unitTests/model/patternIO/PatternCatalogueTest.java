@@ -0,0 +1,141 @@
+package model.patternIO;
+
+import model.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternCatalogueTest
+{
+    private static final String BOAT = "#N Boat\n#O Author\nx = 3, y = 3, rule = B3/S23\n2ob$obo$bo!";
+    private static final String GLIDER = "#N Glider\nx = 3, y = 3, rule = B36/S23\nbo$2bo$3o!";
+
+    @Test
+    void scanDirectory() throws IOException, PatternFormatException
+    {
+        File directory = Files.createTempDirectory("catalogue").toFile();
+        File index = new File(directory, "index.idx");
+        write(new File(directory, "boat.rle"), BOAT);
+        File subdirectory = new File(directory, "ships");
+        assertTrue(subdirectory.mkdir());
+        write(new File(subdirectory, "glider.rle"), GLIDER);
+        write(new File(directory, "boat.lif"), "#Life 1.06\n-1 -1\n0 -1\n-1 0\n1 0\n0 1");
+        write(new File(directory, "notes.txt"), "Not a pattern");
+
+        List<PatternCatalogue.Entry> entries = new PatternCatalogue(directory, index).scan();
+
+        assertEquals(3, entries.size());
+        assertEquals("FILE:" + new File(directory, "boat.lif").getPath(), entries.get(0).getOrigin());
+        assertEquals(3, entries.get(0).getWidth());
+
+        PatternCatalogue.Entry boat = entries.get(1);
+        assertEquals("Boat", boat.getName());
+        assertEquals("Author", boat.getAuthor());
+        assertEquals(3, boat.getHeight());
+        assertTrue(boat.getAllMetadata().contains("Size: 3 x 3"));
+
+        PatternCatalogue.Entry glider = entries.get(2);
+        assertEquals("Glider", glider.getName());
+        assertEquals("B36/S23", glider.getRuleString());
+
+        Pattern pattern = boat.load();
+        assertTrue(pattern.hasCellData());
+        assertEquals("110101010", TestUtils.trimmedGameBoardToString(pattern.getGameBoard()));
+        assertTrue(index.isFile());
+    }
+
+    @Test
+    void unchangedFilesAreReadFromIndex() throws IOException
+    {
+        File directory = Files.createTempDirectory("catalogue").toFile();
+        File index = File.createTempFile("catalogue", ".idx");
+        File file = new File(directory, "boat.rle");
+        write(file, BOAT);
+        long lastModified = file.lastModified();
+
+        assertEquals("Boat", new PatternCatalogue(directory, index).scan().get(0).getName());
+
+        // Same size and time, so the new content is not read.
+        write(file, BOAT.replace("Boat", "Taob"));
+        assertTrue(file.setLastModified(lastModified));
+        assertEquals("Boat", new PatternCatalogue(directory, index).scan().get(0).getName());
+
+        assertTrue(file.setLastModified(lastModified + 2000));
+        assertEquals("Taob", new PatternCatalogue(directory, index).scan().get(0).getName());
+
+        assertTrue(file.delete());
+        assertTrue(new PatternCatalogue(directory, index).scan().isEmpty());
+    }
+
+    @Test
+    void failedFilesAreNotReadAgain() throws IOException
+    {
+        File directory = Files.createTempDirectory("catalogue").toFile();
+        File index = File.createTempFile("catalogue", ".idx");
+        File broken = new File(directory, "broken.rle");
+        write(broken, "#N No size\n");
+        write(new File(directory, "boat.rle"), BOAT);
+        long lastModified = broken.lastModified();
+
+        assertEquals(1, new PatternCatalogue(directory, index).scan().size());
+        long indexModified = index.lastModified();
+        assertTrue(index.setLastModified(indexModified - 10000));
+
+        // The failed file is known from the index, so the index is not written again.
+        assertEquals(1, new PatternCatalogue(directory, index).scan().size());
+        assertEquals(indexModified - 10000, index.lastModified());
+
+        write(broken, GLIDER);
+        assertTrue(broken.setLastModified(lastModified + 2000));
+        assertEquals(2, new PatternCatalogue(directory, index).scan().size());
+    }
+
+    @Test
+    void scanArchive() throws IOException, PatternFormatException
+    {
+        File archive = File.createTempFile("catalogue", ".zip");
+        File index = File.createTempFile("catalogue", ".idx");
+        try(ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive)))
+        {
+            out.putNextEntry(new ZipEntry("patterns/glider.rle"));
+            out.write(GLIDER.getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("patterns/broken.rle"));
+            out.write("#N No size\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<PatternCatalogue.Entry> entries = new PatternCatalogue(archive, index).scan();
+
+        assertEquals(1, entries.size());
+        assertEquals("ZIP:" + archive.getPath() + "!/patterns/glider.rle", entries.get(0).getOrigin());
+
+        Pattern pattern = entries.get(0).load();
+        assertEquals("Glider", pattern.getName());
+        assertEquals(5, pattern.getGameBoard().getPopulation());
+        assertEquals(entries.get(0).getOrigin(), pattern.getOrigin());
+    }
+
+    @Test
+    void readResourceEntry() throws IOException, PatternFormatException
+    {
+        PatternCatalogue.Entry entry = PatternCatalogue.readResourceEntry("/patterns/boat.rle");
+        assertEquals("STREAM:/patterns/boat.rle", entry.getOrigin());
+        assertEquals(3, entry.getWidth());
+
+        assertThrows(FileNotFoundException.class, () -> PatternCatalogue.readResourceEntry("/patterns/none.rle"));
+    }
+
+    private static void write(File file, String content) throws IOException
+    {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
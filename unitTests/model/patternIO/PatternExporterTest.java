@@ -1,12 +1,17 @@
 package model.patternIO;
 
+import model.GameBoard;
+import model.GameBoardDynamic;
 import model.TestUtils;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,4 +42,46 @@ class PatternExporterTest
         assertEquals("Comment\n", loadedPattern.getComments());
         assertEquals("B3/S23", loadedPattern.getRuleString());
     }
+
+    @Test
+    void exportToWriter() throws IOException
+    {
+        Pattern testPattern = new Pattern();
+        testPattern.setCellData(new boolean[][] {{true,true,false,false},{false,false,false,false},
+                {false,false,false,false},{false,true,false,false},{false,false,false,false}});
+
+        StringWriter writer = new StringWriter();
+        new PatternExporter().export(testPattern, writer);
+
+        assertEquals("x = 4, y = 5, rule = B3/S23\n2o3$bo!\n", writer.toString());
+    }
+
+    @Test
+    void exportBoard() throws IOException, PatternFormatException
+    {
+        GameBoard board = new GameBoardDynamic(200, 60);
+        Random random = new Random(7);
+        for(int y = 0; y < board.getHeight(); y++)
+            for(int x = 0; x < board.getWidth(); x++)
+                board.editThisGeneration(y % 7 != 3 && random.nextInt(3) == 0, x, y);
+        for(int x = 60; x < 140; x++)
+            board.editThisGeneration(true, x, 5);
+
+        Pattern metadata = new Pattern();
+        metadata.setMetadata(Arrays.asList("N Board"));
+
+        File outputFile = File.createTempFile("board", ".rle");
+        outputFile.deleteOnExit();
+        new PatternExporter().export(board, metadata, outputFile);
+
+        for(String line : Files.readAllLines(outputFile.toPath()))
+            assertTrue(line.length() <= 70, line);
+
+        Pattern loadedPattern = new PatternLoader().loadFile(outputFile);
+        assertEquals("Board", loadedPattern.getName());
+        assertEquals(200, loadedPattern.getWidth());
+        for(int y = 0; y < board.getHeight(); y++)
+            for(int x = 0; x < board.getWidth(); x++)
+                assertEquals(board.isCellAliveInThisGeneration(x, y), loadedPattern.isCellAlive(x, y));
+    }
 }
\ No newline at end of file
@@ -3,7 +3,10 @@ package model.patternIO;
 import model.TestUtils;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,4 +62,48 @@ class PatternLoaderTest
 
         assertEquals(PatternFormatException.ErrorCode.FILE_FORMAT_NOT_SUPPORTED, exception.getErrorCode());
     }
+
+    @Test
+    void testFileLoadingWithCharsets() throws IOException, PatternFormatException
+    {
+        File file = File.createTempFile("charsets", ".rle");
+        file.deleteOnExit();
+
+        byte[] utf8 = "#C Høvik \uD83D\uDE00\n".getBytes(StandardCharsets.UTF_8);
+        byte[] latin1 = "#C Høvik\nx = 3, y = 3\n2ob$obo$bo!".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] content = new byte[3 + utf8.length + latin1.length];
+        content[0] = (byte) 0xEF;
+        content[1] = (byte) 0xBB;
+        content[2] = (byte) 0xBF;
+        System.arraycopy(utf8, 0, content, 3, utf8.length);
+        System.arraycopy(latin1, 0, content, 3 + utf8.length, latin1.length);
+        Files.write(file.toPath(), content);
+
+        Pattern pattern = new PatternLoader().loadFile(file);
+
+        assertEquals("110101010", TestUtils.trimmedGameBoardToString(pattern.getGameBoard()));
+        assertEquals("Høvik \uD83D\uDE00\nHøvik\n", pattern.getComments());
+        assertEquals("FILE:" + file.getPath(), pattern.getOrigin());
+    }
+
+    @Test
+    void testMappedFileLoading() throws IOException, PatternFormatException
+    {
+        File file = File.createTempFile("large", ".rle");
+        file.deleteOnExit();
+
+        // Long enough to be memory mapped instead of read into a heap buffer.
+        StringBuilder builder = new StringBuilder("x = 100, y = 150000\n");
+        for(int y = 0; y < 150000; y++)
+            builder.append("49bo50b$");
+        builder.append('!');
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.US_ASCII));
+        assertTrue(file.length() > 1 << 20);
+
+        Pattern pattern = new PatternLoader().loadFile(file);
+
+        assertEquals(150000, pattern.getHeight());
+        assertEquals(150000, pattern.getGameBoard().getPopulation());
+        assertTrue(pattern.isCellAlive(49, 149999));
+    }
 }
\ No newline at end of file
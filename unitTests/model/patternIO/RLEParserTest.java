@@ -0,0 +1,63 @@
+package model.patternIO;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RLEParserTest
+{
+    @Test
+    void parseRunsAcrossWords() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new RLEParser().parse(new StringReader("x = 200, y = 3\n3b130o$$199bo!"));
+
+        assertEquals(200, pattern.getWidth());
+        assertEquals(3, pattern.getHeight());
+        assertEquals(4, pattern.getCellRows()[0].length);
+
+        for(int x = 0; x < 200; x++)
+        {
+            assertEquals(x >= 3 && x < 133, pattern.isCellAlive(x, 0));
+            assertFalse(pattern.isCellAlive(x, 1));
+            assertEquals(x == 199, pattern.isCellAlive(x, 2));
+        }
+        assertEquals(131, pattern.getGameBoard().getPopulation());
+    }
+
+    @Test
+    void setRun()
+    {
+        long[] row = new long[3];
+        RLEParser.setRun(row, 60, 128);
+        assertArrayEquals(new long[] {0xFL << 60, -1L, 0}, row);
+
+        row = new long[3];
+        RLEParser.setRun(row, 130, 131);
+        assertArrayEquals(new long[] {0, 0, 1L << 2}, row);
+    }
+
+    @Test
+    void cellDataOutsideOfPattern()
+    {
+        PatternFormatException exception = assertThrows(PatternFormatException.class, () ->
+                new RLEParser().parse(new StringReader("x = 2, y = 2\n2o$2o$2o!")));
+
+        assertEquals(PatternFormatException.ErrorCode.ERROR_IN_CELL_DATA, exception.getErrorCode());
+    }
+
+    @Test
+    void cellDataRoundTrip()
+    {
+        boolean[][] cellData = {{true, false, true}, {false, true, false}};
+        Pattern pattern = new Pattern();
+        pattern.setCellData(cellData);
+
+        assertEquals(3, pattern.getWidth());
+        assertEquals(2, pattern.getHeight());
+        assertTrue(Arrays.deepEquals(cellData, pattern.getCellData()));
+    }
+}
@@ -22,6 +22,36 @@ class RuleStringFormatterTest
         assertEquals("B/S23",  RuleStringFormatter.format("S23"));
     }
 
+    @Test
+    void testGenerationsFormatting() throws PatternFormatException
+    {
+        assertEquals("B2/S/C3",     RuleStringFormatter.format("B2/S/C3"));
+        assertEquals("B2/S/C3",     RuleStringFormatter.format("/2/3"));
+        assertEquals("B2/S/C3",     RuleStringFormatter.format("b2/s/g3"));
+        assertEquals("B34/S345/C4", RuleStringFormatter.format("345/34/4"));
+        assertEquals("B34/S345/C4", RuleStringFormatter.format("S345/B34/C4"));
+        assertEquals("B3/S23",      RuleStringFormatter.format("B3/S23/C2"));
+        assertEquals("B3/S23",      RuleStringFormatter.format("23/3/2"));
+    }
+
+    @Test
+    void testLargerThanLifeFormatting() throws PatternFormatException
+    {
+        assertEquals("R5,C0,M1,S34..58,B34..45,NM", RuleStringFormatter.format("R5,C0,M1,S34..58,B34..45,NM"));
+        assertEquals("R7,C0,M1,S1..5,B2..3,NN",     RuleStringFormatter.format("r7, c0, m1, s1..5, b2..3, nn"));
+    }
+
+    @Test
+    void testNonTotalisticFormatting() throws PatternFormatException
+    {
+        assertEquals("B2-a/S12",     RuleStringFormatter.format("B2-a/S12"));
+        assertEquals("B2-a/S12",     RuleStringFormatter.format("B2ceikn/S21"));
+        assertEquals("B2-a/S12",     RuleStringFormatter.format("s12b2-a"));
+        assertEquals("B3/S23",       RuleStringFormatter.format("B3ceaiknjqry/S23"));
+        assertEquals("B2c3ea/S1e",   RuleStringFormatter.format("B3ae2c/S1e"));
+        assertEquals("B4-ce/S",      RuleStringFormatter.format("B4-ec"));
+    }
+
     @Test
     void testUnknownFormatException()
     {
@@ -32,4 +62,18 @@ class RuleStringFormatterTest
 
         assertEquals(PatternFormatException.ErrorCode.UNKNOWN_RULE_FORMAT, exception.getErrorCode());
     }
+
+    @Test
+    void testOutOfRangeNumbers()
+    {
+        String[] rules = {"R99999999999,C0,M1,S34..58,B34..45,NM", "R0,C0,M1,S1..2,B1..2,NM",
+                "R5,C257,M1,S1..2,B1..2,NM", "B3/S23/C", "B3/S23/C1000", "23/3/"};
+
+        for(String rule : rules)
+        {
+            PatternFormatException exception = assertThrows(PatternFormatException.class, () ->
+                    RuleStringFormatter.format(rule), rule);
+            assertEquals(PatternFormatException.ErrorCode.UNKNOWN_RULE_FORMAT, exception.getErrorCode());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.TestUtils;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest
+{
+    /**
+     * Simulates many random soups at once and compares them with soups simulated one at a time.
+     */
+    @Test
+    void simulateBoards() throws InterruptedException
+    {
+        List<GameBoard> boards = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 200; i++)
+        {
+            GameBoard board = TestUtils.getGameBoardImplementation(20, 20);
+            TestUtils.addRandomCellDataTo(board);
+            boards.add(board);
+
+            GameBoard expectedBoard = board.deepCopy();
+            for(int j = 0; j < 50; j++)
+                simulator.simulateNextGenerationOn(expectedBoard);
+            expected.add(TestUtils.trimmedGameBoardToString(expectedBoard));
+        }
+
+        try(BatchRunner runner = new BatchRunner())
+        {
+            List<GameBoard> results = runner.simulate(boards, new DefaultRule(), 50);
+            assertEquals(boards.size(), results.size());
+            for(int i = 0; i < results.size(); i++)
+            {
+                assertSame(boards.get(i), results.get(i));
+                assertEquals(expected.get(i), TestUtils.trimmedGameBoardToString(results.get(i)));
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> runner.simulate(boards, new DefaultRule(), -1));
+        }
+    }
+
+    /**
+     * Every pattern is simulated with its own rule.
+     */
+    @Test
+    void simulatePatterns() throws IOException, PatternFormatException, InterruptedException
+    {
+        Pattern life = new PatternLoader().loadAsStream("/patterns/turingmachine.rle");
+        Pattern highLife = new PatternLoader().loadAsStream("/patterns/turingmachine.rle");
+        highLife.setRuleString("B36/S23");
+
+        List<String> expected = new ArrayList<>();
+        for(Pattern pattern : Arrays.asList(life, highLife))
+        {
+            GameBoard board = pattern.getGameBoard();
+            Simulator simulator = new SimulatorImpl(pattern.getRule());
+            for(int i = 0; i < 40; i++)
+                simulator.simulateNextGenerationOn(board);
+            expected.add(TestUtils.trimmedGameBoardToString(board));
+        }
+        assertNotEquals(expected.get(0), expected.get(1));
+
+        try(BatchRunner runner = new BatchRunner())
+        {
+            List<GameBoard> results = runner.simulate(Arrays.asList(life, highLife), 40);
+            assertEquals(expected.get(0), TestUtils.trimmedGameBoardToString(results.get(0)));
+            assertEquals(expected.get(1), TestUtils.trimmedGameBoardToString(results.get(1)));
+        }
+    }
+
+    /**
+     * Closing the runner while a board is simulated must fail the batch, not return the board half done.
+     */
+    @Test
+    void closeWhileSimulating() throws InterruptedException
+    {
+        GameBoard board = TestUtils.getGameBoardImplementation(40, 40);
+        TestUtils.addRandomCellDataTo(board);
+
+        CountDownLatch started = new CountDownLatch(1);
+        BatchRunner runner = new BatchRunner(Executors.newSingleThreadExecutor(), rule ->
+        {
+            started.countDown();
+            return new SimulatorImpl(rule);
+        });
+
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread caller = new Thread(() ->
+        {
+            try
+            {
+                runner.simulate(Arrays.asList(board), new DefaultRule(), Integer.MAX_VALUE);
+            }
+            catch(Throwable e)
+            {
+                thrown.set(e);
+            }
+        });
+        caller.start();
+
+        started.await();
+        runner.close();
+        caller.join(10_000);
+
+        assertFalse(caller.isAlive());
+        assertTrue(thrown.get() instanceof CancellationException, String.valueOf(thrown.get()));
+    }
+}
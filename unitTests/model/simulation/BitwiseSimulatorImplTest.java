@@ -0,0 +1,120 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardBitPacked;
+import model.Point;
+import model.TestUtils;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitwiseSimulatorImplTest
+{
+    @Test
+    void executeOn()
+    {
+        GameBoard board = new GameBoardBitPacked(5, 5);
+        Simulator simulator = new BitwiseSimulatorImpl(new DefaultRule());
+        String glider = "010001111";
+
+        for(int y = 0; y < 3; y++)
+            for(int x = 0; x < 3; x++)
+                board.editThisGeneration(glider.charAt(y * 3 + x) == '1', new Point(x, y));
+
+        for(int i = 0; i < 4; i++)
+            simulator.simulateNextGenerationOn(board);
+
+        assertEquals(glider, TestUtils.trimmedGameBoardToString(board));
+    }
+
+    /**
+     * Simulates a pattern with several rules and compares the result with the per cell implementation.
+     * The rules include birth on zero and one neighbour, which makes the board grow every generation.
+     */
+    @Test
+    void compareWithSimulatorImpl() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/turingmachine.rle");
+        String[] rules = {"B3/S23", "B36/S23", "B1357/S1357", "B0123478/S01234678", "B2/S", "B345678/S8"};
+
+        for(String rule : rules)
+        {
+            GameBoard expectedBoard = pattern.getGameBoard();
+            GameBoard actualBoard = pattern.getGameBoard(GameBoardBitPacked::new);
+            Simulator expectedSimulator = new SimulatorImpl(new CustomRule(rule));
+            Simulator actualSimulator = new BitwiseSimulatorImpl(new CustomRule(rule));
+
+            for(int i = 0; i < 20; i++)
+            {
+                expectedSimulator.simulateNextGenerationOn(expectedBoard);
+                actualSimulator.simulateNextGenerationOn(actualBoard);
+            }
+
+            assertEquals(expectedBoard.getWidth(), actualBoard.getWidth(), rule);
+            assertEquals(expectedBoard.getHeight(), actualBoard.getHeight(), rule);
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard), rule);
+        }
+    }
+
+    @Test
+    void executeOnOtherBoards()
+    {
+        GameBoard expectedBoard = TestUtils.getGameBoardImplementation(20, 20);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new CustomRule("B36/S23"));
+        Simulator actualSimulator = new BitwiseSimulatorImpl(new DefaultRule());
+        actualSimulator.setRule(new CustomRule("B36/S23"));
+
+        for(int i = 0; i < 10; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+        }
+
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+    }
+
+    /**
+     * Simulates many generations at a time, which computes several generations in one pass over the board.
+     * The soup is placed in the middle of a large board, so the passes cover many generations.
+     */
+    @Test
+    void simulateGenerations() throws IOException, PatternFormatException
+    {
+        String[] rules = {"B3/S23", "B36/S23", "B2/S"};
+
+        for(String rule : rules)
+        {
+            GameBoard expectedBoard = TestUtils.getGameBoardImplementation(150, 120);
+            GameBoard actualBoard = new GameBoardBitPacked(150, 120);
+            GameBoard soup = TestUtils.getGameBoardImplementation(30, 30);
+            TestUtils.addRandomCellDataTo(soup);
+            for(int y = 0; y < 30; y++)
+                for(int x = 0; x < 30; x++)
+                {
+                    expectedBoard.editThisGeneration(soup.isCellAliveInThisGeneration(x, y), x + 60, y + 45);
+                    actualBoard.editThisGeneration(soup.isCellAliveInThisGeneration(x, y), x + 60, y + 45);
+                }
+
+            Simulator expectedSimulator = new SimulatorImpl(new CustomRule(rule));
+            Simulator actualSimulator = new BitwiseSimulatorImpl(new CustomRule(rule));
+
+            for(int generations : new int[] {1, 7, 20, 3, 69})
+            {
+                for(int i = 0; i < generations; i++)
+                    expectedSimulator.simulateNextGenerationOn(expectedBoard);
+                actualSimulator.simulateGenerations(actualBoard, generations);
+
+                assertEquals(expectedBoard.getWidth(), actualBoard.getWidth(), rule);
+                assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard), rule);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardDynamic;
+import model.GameBoardStatic;
+import model.Point;
+import model.TestUtils;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeListSimulatorImplTest
+{
+    @Test
+    void compareWithSimulatorImpl() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/turingmachine.rle");
+        TestUtils.assertSimulatesLikeSimulatorImpl(pattern, new String[] {"B3/S23", "B36/S23", "B0123478/S01234678"},
+                30, Pattern::getGameBoard, ChangeListSimulatorImpl::new);
+    }
+
+    /**
+     * Edits the board between generations, which must make the simulator evaluate every cell again.
+     */
+    @Test
+    void editBetweenGenerations()
+    {
+        GameBoard expectedBoard = new GameBoardStatic(30, 30);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ChangeListSimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 40; i++)
+        {
+            if(i % 10 == 5)
+            {
+                // A block far from other cells is only found if every cell is evaluated.
+                for(GameBoard board : new GameBoard[] {expectedBoard, actualBoard})
+                {
+                    board.editThisGeneration(true, new Point(14, 14));
+                    board.editThisGeneration(true, new Point(15, 14));
+                    board.editThisGeneration(true, new Point(14, 15));
+                }
+            }
+
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+        }
+    }
+
+    @Test
+    void period6Oscillators() throws IOException, PatternFormatException
+    {
+        GameBoard board = new PatternLoader().loadAsStream("/patterns/period6oscillators.rle").getGameBoard();
+        TestUtils.assertReturnsAfterPeriods(board, new ChangeListSimulatorImpl(new DefaultRule()), 6, 100);
+    }
+
+    /**
+     * Changes the rule of a board of still lifes, which must make the simulator evaluate every cell again,
+     * as none of them changed in the last generation.
+     */
+    @Test
+    void ruleChangedBetweenGenerations() throws IOException, PatternFormatException
+    {
+        GameBoard expectedBoard = new PatternLoader().loadAsStream("/patterns/boat.rle").getGameBoard();
+        GameBoard actualBoard = expectedBoard.deepCopy();
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ChangeListSimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 10; i++)
+        {
+            if(i == 3)
+            {
+                expectedSimulator.setRule(new CustomRule("B2/S"));
+                actualSimulator.setRule(new CustomRule("B2/S"));
+            }
+
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard),
+                    "generation " + i);
+        }
+    }
+
+    /**
+     * Simulates two boards of the same size in turn, where the cells changed on one board say nothing of the other.
+     */
+    @Test
+    void boardsSimulatedInTurn()
+    {
+        GameBoard firstBoard = new GameBoardStatic(20, 20);
+        GameBoard secondBoard = new GameBoardStatic(20, 20);
+        TestUtils.addRandomCellDataTo(firstBoard);
+        TestUtils.addRandomCellDataTo(secondBoard);
+        GameBoard expectedFirstBoard = firstBoard.deepCopy();
+        GameBoard expectedSecondBoard = secondBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ChangeListSimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 20; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedFirstBoard);
+            expectedSimulator.simulateNextGenerationOn(expectedSecondBoard);
+            actualSimulator.simulateNextGenerationOn(firstBoard);
+            actualSimulator.simulateNextGenerationOn(secondBoard);
+        }
+
+        assertEquals(TestUtils.gameBoardToString(expectedFirstBoard), TestUtils.gameBoardToString(firstBoard));
+        assertEquals(TestUtils.gameBoardToString(expectedSecondBoard), TestUtils.gameBoardToString(secondBoard));
+    }
+
+    /**
+     * A glider makes a dynamic board grow every few generations. The changed cells are moved along with the
+     * board, so only the first generation evaluates every cell.
+     */
+    @Test
+    void growingBoard()
+    {
+        GameBoard expectedBoard = new GameBoardDynamic(10, 10);
+        String glider = "010001111";
+        for(int y = 0; y < 3; y++)
+            for(int x = 0; x < 3; x++)
+                expectedBoard.editThisGeneration(glider.charAt(y * 3 + x) == '1', x + 3, y + 3);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        ChangeListSimulatorImpl actualSimulator = new ChangeListSimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 200; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+            assertEquals(expectedBoard.getWidth(), actualBoard.getWidth(), "generation " + i);
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard),
+                    "generation " + i);
+        }
+
+        assertTrue(actualBoard.getWidth() > 50);
+        assertEquals(1, actualSimulator.getFullPassCount());
+    }
+}
@@ -0,0 +1,139 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardStatic;
+import model.TestUtils;
+import model.patternIO.BinaryPatternExporter;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedCoordinatorTest
+{
+    /**
+     * Splits a random board across three nodes on localhost and compares the result with a single simulator.
+     * The board has a fixed size, like the distributed board.
+     */
+    @Test
+    void simulateGenerations() throws IOException
+    {
+        List<DistributedNode> nodes = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for(int i = 0; i < 3; i++)
+        {
+            DistributedNode node = new DistributedNode(0);
+            node.start();
+            nodes.add(node);
+            addresses.add(node.getAddress());
+        }
+
+        GameBoard expectedBoard = new GameBoardStatic(70, 45);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        SimulationRule rule = new CustomRule("B36/S23");
+        Simulator simulator = new SimulatorImpl(rule);
+
+        try(DistributedCoordinator coordinator = new DistributedCoordinator(addresses))
+        {
+            coordinator.distribute(expectedBoard, rule);
+            assertEquals(expectedBoard.getPopulation(), coordinator.getPopulation());
+
+            for(int generations : new int[] {1, 30, 9})
+            {
+                for(int i = 0; i < generations; i++)
+                    simulator.simulateNextGenerationOn(expectedBoard);
+
+                assertEquals(expectedBoard.getPopulation(), coordinator.simulateGenerations(generations));
+                assertEquals(TestUtils.gameBoardToString(expectedBoard),
+                             TestUtils.gameBoardToString(coordinator.collect()));
+            }
+
+            // The nodes can be given a new board, here with more nodes than rows.
+            GameBoard smallBoard = new GameBoardStatic(5, 2);
+            smallBoard.editThisGeneration(true, 1, 0);
+            smallBoard.editThisGeneration(true, 2, 0);
+            smallBoard.editThisGeneration(true, 3, 1);
+            coordinator.distribute(smallBoard, rule);
+            assertEquals(2, coordinator.simulateGenerations(1));
+            assertEquals("0010000100", TestUtils.gameBoardToString(coordinator.collect()));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> coordinator.distribute(smallBoard, new GenerationsRule("B2/S/C3")));
+        }
+        finally
+        {
+            for(DistributedNode node : nodes)
+                node.close();
+        }
+    }
+
+    /**
+     * Streams a board from a .golb file to the nodes, and collects it again one row at a time.
+     */
+    @Test
+    void distributeAndCollectRows() throws IOException, PatternFormatException
+    {
+        List<DistributedNode> nodes = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for(int i = 0; i < 2; i++)
+        {
+            DistributedNode node = new DistributedNode(0);
+            node.start();
+            nodes.add(node);
+            addresses.add(node.getAddress());
+        }
+
+        GameBoard expectedBoard = new GameBoardStatic(130, 40);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        SimulationRule rule = new DefaultRule();
+        Simulator simulator = new SimulatorImpl(rule);
+
+        File file = File.createTempFile("board", ".golb");
+        try(DistributedCoordinator coordinator = new DistributedCoordinator(addresses))
+        {
+            new BinaryPatternExporter().export(expectedBoard, new Pattern(), file);
+            try(InputStream in = Files.newInputStream(file.toPath()))
+            {
+                coordinator.distribute(in, rule);
+            }
+            assertEquals(expectedBoard.getPopulation(), coordinator.getPopulation());
+
+            for(int i = 0; i < 10; i++)
+                simulator.simulateNextGenerationOn(expectedBoard);
+            assertEquals(expectedBoard.getPopulation(), coordinator.simulateGenerations(10));
+
+            int[] collectedRows = new int[1];
+            coordinator.collect((y, row) ->
+            {
+                assertEquals(collectedRows[0]++, y);
+                assertArrayEquals(expectedBoard.getRowOfThisGeneration(y, null), row);
+            });
+            assertEquals(expectedBoard.getHeight(), collectedRows[0]);
+
+            // A damaged file ends the sessions, and the nodes can be given a new board afterwards.
+            // The kind of the second row, after the header of 40 bytes and the first row, is made invalid.
+            byte[] content = Files.readAllBytes(file.toPath());
+            content[40 + 1 + 3 * 8] = 7;
+            assertThrows(PatternFormatException.class, () ->
+                    coordinator.distribute(new java.io.ByteArrayInputStream(content), rule));
+
+            coordinator.distribute(expectedBoard, rule);
+            assertEquals(expectedBoard.getPopulation(), coordinator.getPopulation());
+        }
+        finally
+        {
+            Files.deleteIfExists(file.toPath());
+            for(DistributedNode node : nodes)
+                node.close();
+        }
+    }
+}
\ No newline at end of file
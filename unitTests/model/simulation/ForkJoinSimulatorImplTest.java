@@ -0,0 +1,138 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardDynamic;
+import model.GameBoardStatic;
+import model.TestUtils;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForkJoinSimulatorImplTest
+{
+    @Test
+    void compareWithSimulatorImpl() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/turingmachine.rle");
+        TestUtils.assertSimulatesLikeSimulatorImpl(pattern, new String[] {"B3/S23", "B36/S23", "B0123478/S01234678"},
+                30, Pattern::getGameBoard, ForkJoinSimulatorImpl::new);
+    }
+
+    /**
+     * A large board with a few small areas of activity, where most tiles are skipped.
+     * The board is edited between generations, which must make the simulator evaluate every tile again.
+     */
+    @Test
+    void sparseBoardWithEdits()
+    {
+        GameBoard expectedBoard = new GameBoardStatic(300, 200);
+        GameBoard soup = new GameBoardStatic(20, 20);
+        TestUtils.addRandomCellDataTo(soup);
+        for(int y = 0; y < 20; y++)
+            for(int x = 0; x < 20; x++)
+            {
+                expectedBoard.editThisGeneration(soup.isCellAliveInThisGeneration(x, y), x + 54, y + 54);
+                expectedBoard.editThisGeneration(soup.isCellAliveInThisGeneration(x, y), x + 200, y + 120);
+            }
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ForkJoinSimulatorImpl(new DefaultRule());
+
+        for(int i = 0; i < 60; i++)
+        {
+            if(i % 20 == 10)
+            {
+                // A block far from other cells is only found if every tile is evaluated.
+                for(GameBoard board : new GameBoard[] {expectedBoard, actualBoard})
+                {
+                    board.editThisGeneration(true, 150, 20);
+                    board.editThisGeneration(true, 151, 20);
+                    board.editThisGeneration(true, 150, 21);
+                }
+            }
+
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard),
+                    "generation " + i);
+        }
+    }
+
+    /**
+     * Simulates 600 generations of a 6-period pattern.
+     * The test will fail if a single synchronization problem occurs while simulating.
+     */
+    @Test
+    void period6Oscillators() throws IOException, PatternFormatException
+    {
+        GameBoard board = new PatternLoader().loadAsStream("/patterns/period6oscillators.rle").getGameBoard();
+        TestUtils.assertReturnsAfterPeriods(board, new ForkJoinSimulatorImpl(new DefaultRule()), 6, 100);
+    }
+
+    @Test
+    void randomBoardsOfManyTiles()
+    {
+        GameBoard expectedBoard = new GameBoardDynamic(250, 190);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ForkJoinSimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 40; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+        }
+
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+    }
+
+    /**
+     * A glider crossing the corner where four tiles meet, which moves it through tiles of every colour.
+     * The board is smaller than two tiles, so the last tiles are cut by the board edge.
+     */
+    @Test
+    void gliderAcrossTileCorner()
+    {
+        GameBoard expectedBoard = new GameBoardStatic(100, 90);
+        String glider = "010001111";
+        for(int y = 0; y < 3; y++)
+            for(int x = 0; x < 3; x++)
+                expectedBoard.editThisGeneration(glider.charAt(y * 3 + x) == '1', x + 55, y + 55);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ForkJoinSimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 60; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard),
+                    "generation " + i);
+        }
+    }
+
+    @Test
+    void boardSmallerThanOneTile()
+    {
+        GameBoard expectedBoard = new GameBoardStatic(7, 5);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new ForkJoinSimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 10; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+        }
+
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+    }
+}
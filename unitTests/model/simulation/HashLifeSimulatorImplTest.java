@@ -0,0 +1,88 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardHashLife;
+import model.TestUtils;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashLifeSimulatorImplTest
+{
+    /**
+     * Simulates 6 * 2^10 generations of a 6-period pattern.
+     * @throws IOException
+     * @throws PatternFormatException
+     */
+    @Test
+    void executeOn() throws IOException, PatternFormatException
+    {
+        PatternLoader pLoader = new PatternLoader();
+        GameBoard board = pLoader.loadAsStream("/patterns/period6oscillators.rle").getGameBoard(GameBoardHashLife::new);
+
+        String expected = TestUtils.trimmedGameBoardToString(board);
+
+        Simulator simulator = new HashLifeSimulatorImpl(new DefaultRule(), 10);
+        for(int i = 0; i < 6; i++)
+            simulator.simulateNextGenerationOn(board);
+
+        assertEquals(expected, TestUtils.trimmedGameBoardToString(board));
+    }
+
+    @Test
+    void executeOnOtherBoards()
+    {
+        GameBoard expectedBoard = TestUtils.getGameBoardImplementation(20, 20);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new HashLifeSimulatorImpl(new DefaultRule(), 5);
+
+        for(int i = 0; i < 10; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+        }
+
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+    }
+
+    @Test
+    void testGenerationsPerStep()
+    {
+        HashLifeSimulatorImpl simulator = new HashLifeSimulatorImpl(new DefaultRule(), 8);
+        simulator.simulateNextGenerationOn(new GameBoardHashLife(10, 10));
+        assertEquals(256, simulator.getGenerationsPerStep());
+
+        simulator.simulateNextGenerationOn(TestUtils.getGameBoardImplementation(10, 10));
+        assertEquals(1, simulator.getGenerationsPerStep());
+
+        assertThrows(IllegalArgumentException.class, () -> simulator.setStepExponent(-1));
+        assertThrows(IllegalArgumentException.class, () -> simulator.setStepExponent(HashLifeSimulatorImpl.MAX_STEP_EXPONENT + 1));
+    }
+
+    /**
+     * Simulates an amount of generations that is not a power of two, which is split into several steps.
+     */
+    @Test
+    void simulateGenerations() throws IOException, PatternFormatException
+    {
+        PatternLoader pLoader = new PatternLoader();
+        GameBoard expectedBoard = pLoader.loadAsStream("/patterns/turingmachine.rle").getGameBoard();
+        GameBoard actualBoard = pLoader.loadAsStream("/patterns/turingmachine.rle").getGameBoard(GameBoardHashLife::new);
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        Simulator actualSimulator = new HashLifeSimulatorImpl(new DefaultRule(), 4);
+
+        for(int i = 0; i < 83; i++)
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+        actualSimulator.simulateGenerations(actualBoard, 83);
+
+        assertEquals(TestUtils.trimmedGameBoardToString(expectedBoard), TestUtils.trimmedGameBoardToString(actualBoard));
+    }
+}
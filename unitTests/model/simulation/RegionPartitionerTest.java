@@ -0,0 +1,108 @@
+package model.simulation;
+
+import model.GameBoardBitPacked;
+import model.GameBoardDynamic;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionPartitionerTest
+{
+    @Test
+    void partition()
+    {
+        RegionPartitioner partitioner = new RegionPartitioner(4);
+        int bandHeight = RegionPartitioner.getBandHeight(1024, 2, 4);
+        assertEquals(128, bandHeight);
+
+        // Every region is made of whole bands, and the last region ends at the bottom of the board.
+        int[] regionStart = partitioner.partition(1024, 1000, 2, 4, null);
+        assertEquals(4, partitioner.getRegionCount());
+        assertArrayEquals(new int[] {0, 1, 3, 5, 1000}, divide(regionStart, bandHeight, 1000));
+
+        // A board of fewer bands than regions is split into equal parts instead.
+        partitioner.partition(100, 100, 2, 4, regionStart);
+        assertEquals(4, partitioner.getRegionCount());
+        assertArrayEquals(new int[] {0, 25, 50, 75, 100}, Arrays.copyOf(regionStart, 5));
+
+        // Every region holds at least the minimum amount of rows.
+        partitioner.partition(100, 10, 2, 4, regionStart);
+        assertEquals(2, partitioner.getRegionCount());
+        assertEquals(10, regionStart[2]);
+    }
+
+    /**
+     * The boards of the size usually shown on the screen are smaller than one band per thread,
+     * and must still be split between the threads.
+     */
+    @Test
+    void mediumBoardsUseSeveralRegions()
+    {
+        RegionPartitioner partitioner = new RegionPartitioner(8);
+        partitioner.partition(500, 500, new GameBoardDynamic(1, 1).getBytesPerCell(), 4, null);
+        assertTrue(partitioner.getRegionCount() > 1);
+        assertEquals(8, partitioner.getRegionCount());
+
+        partitioner = new RegionPartitioner(8);
+        partitioner.partition(1000, 1000, new GameBoardBitPacked(1, 1).getBytesPerCell(), 4, null);
+        assertEquals(8, partitioner.getRegionCount());
+    }
+
+    @Test
+    void bandHeightFollowsBytesPerCell()
+    {
+        // A bit-packed board fits eight times as many rows of the same width in a band.
+        assertEquals(128, RegionPartitioner.getBandHeight(1024, new GameBoardDynamic(1, 1).getBytesPerCell(), 4));
+        assertEquals(1024, RegionPartitioner.getBandHeight(1024, new GameBoardBitPacked(1, 1).getBytesPerCell(), 4));
+        assertEquals(4, RegionPartitioner.getBandHeight(1 << 20, 2, 4));
+
+        // A board of byte cells is split between whole bands, while the same board of bits is a single band,
+        // and is split into equal parts instead.
+        RegionPartitioner partitioner = new RegionPartitioner(4);
+        int[] regionStart = partitioner.partition(1024, 1024, 2, 4, null);
+        assertEquals(4, partitioner.getRegionCount());
+        assertEquals(0, regionStart[1] % 128);
+        partitioner = new RegionPartitioner(4);
+        regionStart = partitioner.partition(1024, 1024, 0.25, 4, null);
+        assertEquals(4, partitioner.getRegionCount());
+        assertEquals(256, regionStart[1]);
+    }
+
+    @Test
+    void record()
+    {
+        RegionPartitioner partitioner = new RegionPartitioner(4);
+        partitioner.partition(1024, 4096, 2, 4, null);
+        assertEquals(4, partitioner.getRegionCount());
+
+        // Throughput increasing with fewer regions moves the count down until it stops improving.
+        int[] nanosPerRegionCount = {0, 100, 200, 300, 400};
+        for(int i = 0; i < 3 * RegionPartitioner.SAMPLE_GENERATIONS; i++)
+        {
+            partitioner.partition(1024, 4096, 2, 4, null);
+            partitioner.record(1000, nanosPerRegionCount[partitioner.getRegionCount()]);
+        }
+        assertEquals(1, partitioner.getRegionCount());
+
+        // The count turns at the lower limit, and turns again when the throughput decreases.
+        for(int i = 0; i < RegionPartitioner.SAMPLE_GENERATIONS; i++)
+            partitioner.record(1000, nanosPerRegionCount[partitioner.getRegionCount()]);
+        assertEquals(2, partitioner.getRegionCount());
+        for(int i = 0; i < RegionPartitioner.SAMPLE_GENERATIONS; i++)
+            partitioner.record(1000, nanosPerRegionCount[partitioner.getRegionCount()]);
+        assertEquals(1, partitioner.getRegionCount());
+    }
+
+    /**
+     * Converts the start rows to band numbers, except the height after the last region.
+     */
+    private static int[] divide(int[] regionStart, int bandHeight, int height)
+    {
+        int[] bands = new int[5];
+        for(int i = 0; i < 5; i++)
+            bands[i] = (regionStart[i] == height) ? height : regionStart[i] / bandHeight;
+        return bands;
+    }
+}
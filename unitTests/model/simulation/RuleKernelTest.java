@@ -0,0 +1,276 @@
+package model.simulation;
+
+import model.GameBoard;
+import model.GameBoardDynamic;
+import model.GameBoardStatic;
+import model.TestUtils;
+import model.patternIO.Pattern;
+import model.patternIO.PatternFormatException;
+import model.patternIO.PatternLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleKernelTest
+{
+    @Test
+    void testFromRuleString() throws PatternFormatException
+    {
+        assertTrue(SimulationRule.fromRuleString("B3/S23") instanceof DefaultRule);
+        assertTrue(SimulationRule.fromRuleString("B36/S23") instanceof CustomRule);
+        assertTrue(SimulationRule.fromRuleString("23/3/2") instanceof DefaultRule);
+        assertTrue(SimulationRule.fromRuleString("B2/S/C3") instanceof GenerationsRule);
+        assertTrue(SimulationRule.fromRuleString("R5,C0,M1,S34..58,B34..45,NM") instanceof LargerThanLifeRule);
+        assertTrue(SimulationRule.fromRuleString("B2-a/S12") instanceof NonTotalisticRule);
+
+        assertNull(new CustomRule("B36/S23").createKernel());
+        assertEquals(3, ((GenerationsRule) SimulationRule.fromRuleString("B2/S/C3")).getStates());
+        assertEquals(5, ((LargerThanLifeRule) SimulationRule.fromRuleString("R5,C0,M1,S34..58,B34..45,NM")).getRange());
+    }
+
+    @Test
+    void largerThanLifeNumbersOutOfRange()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                new LargerThanLifeRule("R99999999999,C0,M1,S34..58,B34..45,NM"));
+        assertEquals(IllegalArgumentException.class, exception.getClass());
+
+        // Amounts beyond the size of the neighbourhood are limited to it.
+        LargerThanLifeRule rule = new LargerThanLifeRule("R1,C0,M0,S2..99999999999999999999,B3..3,NM");
+        assertEquals(SimulationRule.Result.SURVIVE, rule.execute(8));
+    }
+
+    /**
+     * Rules equal to Conway's Game of Life must give the same result as the ordinary simulation.
+     */
+    @Test
+    void compareLifeEquivalentRules() throws IOException, PatternFormatException
+    {
+        Pattern pattern = new PatternLoader().loadAsStream("/patterns/turingmachine.rle");
+        SimulationRule[] rules =
+        {
+            new GenerationsRule("B3/S23/C2"),
+            new LargerThanLifeRule("R1,C0,M0,S2..3,B3..3,NM"),
+            new LargerThanLifeRule("R1,C2,M1,S3..4,B3..3,NM"),
+            new NonTotalisticRule("B3/S23"),
+            new NonTotalisticRule("B3ceaiknjqry/S2ceaikn3")
+        };
+
+        for(SimulationRule rule : rules)
+        {
+            GameBoard expectedBoard = pattern.getGameBoard();
+            GameBoard actualBoard = pattern.getGameBoard();
+            Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+            Simulator actualSimulator = new SimulatorImpl(rule);
+
+            for(int i = 0; i < 30; i++)
+            {
+                expectedSimulator.simulateNextGenerationOn(expectedBoard);
+                actualSimulator.simulateNextGenerationOn(actualBoard);
+            }
+
+            assertEquals(expectedBoard.getWidth(), actualBoard.getWidth(), rule.getStringRule());
+            assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard),
+                    rule.getStringRule());
+        }
+    }
+
+    @Test
+    void compareGenerationsWithReference()
+    {
+        String[] rules = {"B2/S/C3", "B34/S2345/C5", "B23/S34/C8", "B3/S23/C200"};
+
+        for(String rule : rules)
+        {
+            GenerationsRule generationsRule = new GenerationsRule(rule);
+            String[] values = rule.split("/");
+            boolean[] birth = new boolean[9];
+            boolean[] survive = new boolean[9];
+            for(char c : values[0].substring(1).toCharArray())
+                birth[c - '0'] = true;
+            for(char c : values[1].substring(1).toCharArray())
+                survive[c - '0'] = true;
+
+            compareWithReference(generationsRule, birth, survive, generationsRule.getStates(), 1, false, false);
+        }
+    }
+
+    @Test
+    void compareLargerThanLifeWithReference()
+    {
+        String[] rules =
+        {
+            "R2,C0,M1,S5..9,B7..8,NM",
+            "R3,C0,M0,S8..14,B9..12,NN",
+            "R2,C4,M1,S3..6,B4..5,NN",
+            "R12,C0,M0,S40..90,B50..80,NM"
+        };
+
+        for(String rule : rules)
+        {
+            LargerThanLifeRule largerThanLifeRule = new LargerThanLifeRule(rule);
+            String[] values = rule.split(",");
+            int range = largerThanLifeRule.getRange();
+            boolean vonNeumann = values[5].equals("NN");
+            int maxCount = (2 * range + 1) * (2 * range + 1);
+
+            boolean[] birth = new boolean[maxCount + 1];
+            boolean[] survive = new boolean[maxCount + 1];
+            fillRange(survive, values[3].substring(1));
+            fillRange(birth, values[4].substring(1));
+
+            compareWithReference(largerThanLifeRule, birth, survive, largerThanLifeRule.getStates(), range,
+                    vonNeumann, values[2].equals("M1"));
+        }
+    }
+
+    private static void fillRange(boolean[] table, String range)
+    {
+        String[] limits = range.split("\\.\\.");
+        for(int i = Integer.parseInt(limits[0]); i <= Integer.parseInt(limits[1]); i++)
+            table[i] = true;
+    }
+
+    /**
+     * Simulates a random board with the rule and with a straightforward reference implementation.
+     */
+    private void compareWithReference(SimulationRule rule, boolean[] birth, boolean[] survive, int states,
+                                      int range, boolean vonNeumann, boolean includeMiddle)
+    {
+        GameBoard board = new GameBoardStatic(70, 50);
+        TestUtils.addRandomCellDataTo(board);
+
+        int[][] cells = new int[board.getHeight()][board.getWidth()];
+        for(int y = 0; y < cells.length; y++)
+            for(int x = 0; x < cells[y].length; x++)
+                cells[y][x] = board.isCellAliveInThisGeneration(x, y) ? 1 : 0;
+
+        Simulator simulator = new SimulatorImpl(rule);
+        for(int i = 0; i < 20; i++)
+        {
+            simulator.simulateNextGenerationOn(board);
+            cells = simulateReference(cells, birth, survive, states, range, vonNeumann, includeMiddle);
+
+            for(int y = 0; y < cells.length; y++)
+                for(int x = 0; x < cells[y].length; x++)
+                    assertEquals(cells[y][x] == 1, board.isCellAliveInThisGeneration(x, y),
+                            rule.getStringRule() + " generation " + i + " at " + x + ", " + y);
+        }
+    }
+
+    private static int[][] simulateReference(int[][] cells, boolean[] birth, boolean[] survive, int states,
+                                             int range, boolean vonNeumann, boolean includeMiddle)
+    {
+        int height = cells.length;
+        int width = cells[0].length;
+        int[][] next = new int[height][width];
+
+        for(int y = 0; y < height; y++)
+        {
+            for(int x = 0; x < width; x++)
+            {
+                int count = 0;
+                for(int dy = -range; dy <= range; dy++)
+                    for(int dx = -range; dx <= range; dx++)
+                    {
+                        if((dx == 0 && dy == 0 && !includeMiddle) || (vonNeumann && Math.abs(dx) + Math.abs(dy) > range))
+                            continue;
+                        if(y + dy >= 0 && y + dy < height && x + dx >= 0 && x + dx < width && cells[y + dy][x + dx] == 1)
+                            count++;
+                    }
+
+                int state = cells[y][x];
+                if(state == 1)
+                    next[y][x] = survive[count] ? 1 : (states > 2 ? 2 : 0);
+                else if(state > 1)
+                    next[y][x] = (state + 1 < states) ? state + 1 : 0;
+                else
+                    next[y][x] = birth[count] ? 1 : 0;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The dying states must follow the cells when the board grows.
+     */
+    @Test
+    void testDyingStatesOnGrowingBoard()
+    {
+        GameBoard smallBoard = new GameBoardStatic(12, 12);
+        TestUtils.addRandomCellDataTo(smallBoard);
+
+        // The cells are placed away from the edge, so no births are lost before the board has grown.
+        GameBoard growingBoard = new GameBoardDynamic(16, 16);
+        GameBoard largeBoard = new GameBoardStatic(100, 100);
+        for(int y = 0; y < smallBoard.getHeight(); y++)
+            for(int x = 0; x < smallBoard.getWidth(); x++)
+            {
+                growingBoard.editThisGeneration(smallBoard.isCellAliveInThisGeneration(x, y), x + 2, y + 2);
+                largeBoard.editThisGeneration(smallBoard.isCellAliveInThisGeneration(x, y), x + 44, y + 44);
+            }
+
+        Simulator growingSimulator = new SimulatorImpl(new GenerationsRule("B2/S/C3"));
+        Simulator largeSimulator = new SimulatorImpl(new GenerationsRule("B2/S/C3"));
+        for(int i = 0; i < 25; i++)
+        {
+            growingSimulator.simulateNextGenerationOn(growingBoard);
+            largeSimulator.simulateNextGenerationOn(largeBoard);
+            assertEquals(TestUtils.trimmedGameBoardToString(largeBoard),
+                    TestUtils.trimmedGameBoardToString(growingBoard), "generation " + i);
+        }
+        assertTrue(growingBoard.getWidth() > 16);
+    }
+
+    @Test
+    void testNonTotalisticArrangements()
+    {
+        // 2c: two corners on the same side, 2n: two opposite corners.
+        GameBoard board = new GameBoardStatic(9, 5);
+        board.editThisGeneration(true, 0, 1);
+        board.editThisGeneration(true, 2, 1);
+        board.editThisGeneration(true, 5, 1);
+        board.editThisGeneration(true, 7, 3);
+
+        new SimulatorImpl(new NonTotalisticRule("B2c/S")).simulateNextGenerationOn(board);
+
+        assertTrue(board.isCellAliveInThisGeneration(1, 0));
+        assertTrue(board.isCellAliveInThisGeneration(1, 2));
+        assertFalse(board.isCellAliveInThisGeneration(6, 2));
+        assertEquals(2, board.getPopulation());
+
+        SimulationRule rule = new NonTotalisticRule("B2-a3/S4ceaiknjqrytwz");
+        assertEquals(SimulationRule.Result.DEATH, rule.execute(2));
+        assertEquals(SimulationRule.Result.BIRTH, rule.execute(3));
+        assertEquals(SimulationRule.Result.SURVIVE, rule.execute(4));
+    }
+
+    /**
+     * Non-totalistic rules are isotropic, so a mirrored board must give a mirrored result.
+     */
+    @Test
+    void testNonTotalisticIsotropy()
+    {
+        SimulationRule rule = new NonTotalisticRule("B2-a3ej4k/S1c2-i3ek5y");
+        GameBoard board = new GameBoardStatic(40, 30);
+        TestUtils.addRandomCellDataTo(board);
+        GameBoard mirroredBoard = new GameBoardStatic(40, 30);
+        for(int y = 0; y < 30; y++)
+            for(int x = 0; x < 40; x++)
+                mirroredBoard.editThisGeneration(board.isCellAliveInThisGeneration(x, y), 39 - x, y);
+
+        Simulator simulator = new SimulatorImpl(rule);
+        Simulator mirroredSimulator = new SimulatorImpl(rule);
+        for(int i = 0; i < 10; i++)
+        {
+            simulator.simulateNextGenerationOn(board);
+            mirroredSimulator.simulateNextGenerationOn(mirroredBoard);
+        }
+
+        for(int y = 0; y < 30; y++)
+            for(int x = 0; x < 40; x++)
+                assertEquals(board.isCellAliveInThisGeneration(x, y), mirroredBoard.isCellAliveInThisGeneration(39 - x, y));
+    }
+}
@@ -1,5 +1,7 @@
 package model.simulation;
 
+import model.patternIO.PatternFormatException;
+import model.patternIO.RuleStringFormatter;
 import org.junit.jupiter.api.Test;
 import model.simulation.SimulationRule.Result;
 
@@ -30,4 +32,30 @@ class SimulationRuleTest
 
         assertEquals("B024/S57", rule.getStringRule());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransitionTable() throws PatternFormatException
+    {
+        String[] rules = {"B3/S23", "23/36", "B36/S23", "B0123478/S34678", "B/S", "B2S", "S012345678"};
+
+        for(String ruleString : rules)
+        {
+            SimulationRule rule = new CustomRule(RuleStringFormatter.format(ruleString));
+            TransitionTable table = new TransitionTable(rule);
+
+            for(int n = 0; n <= 8; n++)
+            {
+                assertEquals(rule.execute(n) == Result.BIRTH, table.getNextState(n), ruleString);
+                assertEquals(rule.execute(n) != Result.DEATH, table.getNextState(10 + n), ruleString);
+                assertEquals(table.getNextState(10 + n), table.getNextState(true, n), ruleString);
+            }
+        }
+
+        TransitionTable defaultTable = new TransitionTable(new DefaultRule());
+        for(int n = 0; n <= 8; n++)
+        {
+            assertEquals(n == 3, defaultTable.getNextState(false, n));
+            assertEquals(n == 2 || n == 3, defaultTable.getNextState(true, n));
+        }
+    }
+}
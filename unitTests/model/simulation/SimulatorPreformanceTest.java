@@ -5,6 +5,8 @@ import model.patternIO.Pattern;
 import model.patternIO.PatternFormatException;
 import model.patternIO.PatternLoader;
 import model.GameBoard;
+import model.GameBoardBitPacked;
+import model.GameBoardHashLife;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -41,10 +43,58 @@ public class SimulatorPreformanceTest
             simulatorThreadedTime +=  simulator.getSimulationTime();
         }
 
+        // ----------------------------- BitwiseSimulatorImpl -----------------------------
+
+        board = pattern.getGameBoard(GameBoardBitPacked::new);
+        simulator = new BitwiseSimulatorImpl(new DefaultRule());
+        long simulatorBitwiseTime = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            simulator.simulateNextGenerationOn(board);
+            simulatorBitwiseTime +=  simulator.getSimulationTime();
+        }
+
+        // ----------------------------- HashLifeSimulatorImpl -----------------------------
+
+        board = pattern.getGameBoard(GameBoardHashLife::new);
+        simulator = new HashLifeSimulatorImpl(new DefaultRule());
+        long simulatorHashLifeTime = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            simulator.simulateNextGenerationOn(board);
+            simulatorHashLifeTime +=  simulator.getSimulationTime();
+        }
+
+        // ----------------------------- ChangeListSimulatorImpl -----------------------------
+
+        board = pattern.getGameBoard();
+        simulator = new ChangeListSimulatorImpl(new DefaultRule());
+        long simulatorChangeListTime = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            simulator.simulateNextGenerationOn(board);
+            simulatorChangeListTime +=  simulator.getSimulationTime();
+        }
+
+        // ----------------------------- ForkJoinSimulatorImpl -----------------------------
+
+        board = pattern.getGameBoard();
+        simulator = new ForkJoinSimulatorImpl(new DefaultRule());
+        long simulatorForkJoinTime = 0;
+        for(int i = 0; i < generations; i++)
+        {
+            simulator.simulateNextGenerationOn(board);
+            simulatorForkJoinTime +=  simulator.getSimulationTime();
+        }
+
         // ----------------------------- Results -----------------------------
 
         System.out.println(generations + " generations of " + patternPath + "\n" +
                 " - SimulatorImpl:      " + simulatorTime + " ms\n" +
-                " - ThreadedSimulatorImpl:  " + simulatorThreadedTime + " ms\n");
+                " - ThreadedSimulatorImpl:  " + simulatorThreadedTime + " ms\n" +
+                " - BitwiseSimulatorImpl:   " + simulatorBitwiseTime + " ms\n" +
+                " - HashLifeSimulatorImpl:  " + simulatorHashLifeTime + " ms\n" +
+                " - ChangeListSimulatorImpl: " + simulatorChangeListTime + " ms\n" +
+                " - ForkJoinSimulatorImpl:  " + simulatorForkJoinTime + " ms\n");
     }
 }
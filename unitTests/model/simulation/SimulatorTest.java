@@ -84,4 +84,23 @@ class SimulatorTest
         simulator.setRule(customRule);
         assertEquals(customRule, simulator.getSimulationRule());
     }
+
+    @Test
+    void testSimulateGenerations()
+    {
+        GameBoard expectedBoard = TestUtils.getGameBoardImplementation(30, 30);
+        TestUtils.addRandomCellDataTo(expectedBoard);
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator simulator = new SimulatorImpl(new DefaultRule());
+        for(int i = 0; i < 25; i++)
+            simulator.simulateNextGenerationOn(expectedBoard);
+
+        simulator.simulateGenerations(actualBoard, 0);
+        simulator.simulateGenerations(actualBoard, 10);
+        simulator.simulateGenerations(actualBoard, 15);
+
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateGenerations(actualBoard, -1));
+    }
 }
\ No newline at end of file
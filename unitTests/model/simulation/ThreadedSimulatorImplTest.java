@@ -3,6 +3,7 @@ package model.simulation;
 import model.patternIO.PatternFormatException;
 import model.patternIO.PatternLoader;
 import model.GameBoard;
+import model.GameBoardDynamic;
 import model.TestUtils;
 import org.junit.jupiter.api.Test;
 
@@ -24,15 +25,130 @@ class ThreadedSimulatorImplTest
     {
         PatternLoader pLoader = new PatternLoader();
         GameBoard board = pLoader.loadAsStream("/patterns/period6oscillators.rle").getGameBoard();
+        TestUtils.assertReturnsAfterPeriods(board, new ThreadedSimulatorImpl(new DefaultRule()), 6, 1000);
+    }
+
+    /**
+     * Uses more threads than there are rows for, and compares the result with the single threaded simulator.
+     * The boards are of different sizes, so the amount of regions change between generations.
+     */
+    @Test
+    void compareWithSimulatorImpl() throws IOException, PatternFormatException
+    {
+        GameBoard expectedBoard = new PatternLoader().loadAsStream("/patterns/turingmachine.rle").getGameBoard();
+        GameBoard actualBoard = expectedBoard.deepCopy();
+
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        ThreadedSimulatorImpl actualSimulator = new ThreadedSimulatorImpl(new DefaultRule(), 7);
+
+        for(int i = 0; i < 20; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+        }
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+
+        GameBoard smallBoard = TestUtils.getGameBoardImplementation(12, 9);
+        TestUtils.addRandomCellDataTo(smallBoard);
+        GameBoard expectedSmallBoard = smallBoard.deepCopy();
+        for(int i = 0; i < 20; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedSmallBoard);
+            actualSimulator.simulateNextGenerationOn(smallBoard);
+        }
+        assertEquals(TestUtils.gameBoardToString(expectedSmallBoard), TestUtils.gameBoardToString(smallBoard));
+
+        actualSimulator.shutdown();
+    }
+
+    /**
+     * Simulates a board supporting concurrent writes, where every thread writes its rows directly,
+     * with regions of only a few rows.
+     */
+    @Test
+    void compareWithConcurrentWrites() throws IOException, PatternFormatException
+    {
+        GameBoard expectedBoard = new PatternLoader().loadAsStream("/patterns/turingmachine.rle").getGameBoard();
+        GameBoard actualBoard = new GameBoardDynamic(expectedBoard.getWidth(), expectedBoard.getHeight(), true);
+        TestUtils.addDataToGameBoard(actualBoard, expectedBoard);
+        assertTrue(actualBoard.supportsConcurrentWrites());
 
-        String expected = TestUtils.trimmedGameBoardToString(board);
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+        ThreadedSimulatorImpl actualSimulator = new ThreadedSimulatorImpl(new DefaultRule(), 64);
 
-        Simulator simulator = new ThreadedSimulatorImpl(new DefaultRule());
-        for(int i = 0; i < 6 * 1000; i++)
-            simulator.simulateNextGenerationOn(board);
+        for(int i = 0; i < 50; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            actualSimulator.simulateNextGenerationOn(actualBoard);
+        }
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(actualBoard));
+
+        actualSimulator.shutdown();
+    }
+
+    /**
+     * Two simulators sharing an executor with fewer threads than they have regions together.
+     */
+    @Test
+    void sharedExecutor() throws IOException, PatternFormatException
+    {
+        SimulationExecutor executor = new SimulationExecutor("Test worker", 3);
+        ThreadedSimulatorImpl firstSimulator = new ThreadedSimulatorImpl(new DefaultRule(), executor);
+        ThreadedSimulatorImpl secondSimulator = new ThreadedSimulatorImpl(new DefaultRule(), executor);
+        Simulator expectedSimulator = new SimulatorImpl(new DefaultRule());
+
+        GameBoard expectedBoard = new PatternLoader().loadAsStream("/patterns/turingmachine.rle").getGameBoard();
+        GameBoard firstBoard = expectedBoard.deepCopy();
+        GameBoard secondBoard = expectedBoard.deepCopy();
+
+        for(int i = 0; i < 20; i++)
+        {
+            expectedSimulator.simulateNextGenerationOn(expectedBoard);
+            firstSimulator.simulateNextGenerationOn(firstBoard);
+            secondSimulator.simulateNextGenerationOn(secondBoard);
+        }
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(firstBoard));
+        assertEquals(TestUtils.gameBoardToString(expectedBoard), TestUtils.gameBoardToString(secondBoard));
+
+        // The executor is not owned by the simulators.
+        firstSimulator.shutdown();
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+    }
+
+    /**
+     * Many simulators running at the same time on one executor must not make it start more threads than its
+     * parallelism, as no thread is held by a simulator between generations.
+     */
+    @Test
+    void manySimulatorsOnOneExecutor() throws InterruptedException
+    {
+        SimulationExecutor executor = new SimulationExecutor("Test worker", 4);
+        Thread[] callers = new Thread[10];
+        int[] largestPoolSize = new int[1];
 
-        String actual = TestUtils.trimmedGameBoardToString(board);
+        for(int i = 0; i < callers.length; i++)
+        {
+            ThreadedSimulatorImpl simulator = new ThreadedSimulatorImpl(new DefaultRule(), executor);
+            GameBoard board = new GameBoardDynamic(200, 6000);
+            TestUtils.addRandomCellDataTo(board);
+            callers[i] = new Thread(() ->
+            {
+                for(int generation = 0; generation < 10; generation++)
+                {
+                    simulator.simulateNextGenerationOn(board);
+                    synchronized(largestPoolSize)
+                    {
+                        largestPoolSize[0] = Math.max(largestPoolSize[0], executor.getPoolSize());
+                    }
+                }
+            });
+            callers[i].start();
+        }
+        for(Thread caller : callers)
+            caller.join();
 
-        assertEquals(actual, expected);
+        assertTrue(largestPoolSize[0] <= executor.getParallelism(), "Pool size: " + largestPoolSize[0]);
+        executor.shutdown();
     }
 }
\ No newline at end of file